@@ -0,0 +1,518 @@
+package com.arecmetafora.jsdroid.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Annotation processor which generates a binding for each class with members annotated with
+ * {@code @JavaScriptMapped}, so that the class can be registered without reflection.
+ *
+ * The generated binding describes exactly the members found by reflection when the class is
+ * registered (public annotated methods and fields, including inherited ones, and the mapped
+ * constructor) and calls them directly. Classes which cannot be called from a class of the same
+ * package (private or inner classes, or private mapped constructors) are skipped, and keep being
+ * mapped by reflection.
+ */
+@SupportedAnnotationTypes(JavaScriptBindingProcessor.JAVASCRIPT_MAPPED)
+public class JavaScriptBindingProcessor extends AbstractProcessor {
+
+	/**
+	 * Name of the annotation which maps classes and members to JavaScript.
+	 */
+	static final String JAVASCRIPT_MAPPED = "com.arecmetafora.jsdroid.annotation.JavaScriptMapped";
+
+	/**
+	 * Name of the annotation which marks parameters and properties as non null.
+	 */
+	private static final String NON_NULL = "com.arecmetafora.jsdroid.annotation.NonNull";
+
+	/**
+	 * Name of the interface implemented by the generated bindings.
+	 */
+	private static final String BINDING_INTERFACE = "com.arecmetafora.jsdroid.JavaScriptBinding";
+
+	/**
+	 * Suffix of the name of the generated bindings (see JavaScriptBinding.SUFFIX).
+	 */
+	private static final String BINDING_SUFFIX = "_JavaScriptBinding";
+
+	/**
+	 * Orders the mapped members by their JavaScript name, as the runtime does.
+	 */
+	private static final Comparator<Map.Entry<String, ? extends Element>> BY_JS_NAME =
+			new Comparator<Map.Entry<String, ? extends Element>>() {
+				@Override
+				public int compare(Map.Entry<String, ? extends Element> e1,
+								   Map.Entry<String, ? extends Element> e2) {
+					return e1.getKey().compareTo(e2.getKey());
+				}
+			};
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		TypeElement mappedAnnotation = processingEnv.getElementUtils().getTypeElement(JAVASCRIPT_MAPPED);
+		if (mappedAnnotation == null) {
+			return false;
+		}
+
+		// Classes annotated or declaring annotated members
+		Set<TypeElement> mappedTypes = new LinkedHashSet<>();
+		for (Element element : roundEnv.getElementsAnnotatedWith(mappedAnnotation)) {
+			Element type = element.getKind().isClass() ? element : element.getEnclosingElement();
+			if (type.getKind() == ElementKind.CLASS) {
+				mappedTypes.add((TypeElement) type);
+			}
+		}
+
+		for (TypeElement type : mappedTypes) {
+			ExecutableElement constructor = findMappedConstructor(type);
+			if (constructor == null || !isAccessible(type, constructor)) {
+				continue;
+			}
+
+			try {
+				writeBinding(type, constructor);
+			} catch (IOException ex) {
+				processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+						"Unable to write the JavaScript binding: " + ex.getMessage(), type);
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Finds the constructor used by JavaScript construction calls, as the reflective registration
+	 * does: the public constructor annotated with {@code @JavaScriptMapped} or, if there is none,
+	 * the only declared constructor or the constructor without parameters. Classes annotating more
+	 * than one constructor are reported as errors, since reflection would fail to register them.
+	 * Classes without a mapped constructor cannot be constructed by scripts, and have no binding.
+	 *
+	 * @param type The mapped class.
+	 * @return The mapped constructor, or null if there is none.
+	 */
+	private ExecutableElement findMappedConstructor(TypeElement type) {
+		ExecutableElement mappedConstructor = null;
+		ExecutableElement onlyConstructor = null;
+		ExecutableElement noArgsConstructor = null;
+		int constructorsCount = 0;
+		for (Element member : type.getEnclosedElements()) {
+			if (member.getKind() == ElementKind.CONSTRUCTOR) {
+				ExecutableElement constructor = (ExecutableElement) member;
+				constructorsCount++;
+				onlyConstructor = constructor;
+				if (constructor.getParameters().isEmpty()) {
+					noArgsConstructor = constructor;
+				}
+				if (member.getModifiers().contains(Modifier.PUBLIC)
+						&& getAnnotation(member, JAVASCRIPT_MAPPED) != null) {
+					if (mappedConstructor != null) {
+						processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+								"More than one constructor is annotated with @JavaScriptMapped",
+								member);
+						return null;
+					}
+					mappedConstructor = constructor;
+				}
+			}
+		}
+
+		if (mappedConstructor != null) {
+			return mappedConstructor;
+		} else if (constructorsCount == 1) {
+			return onlyConstructor;
+		}
+		return noArgsConstructor;
+	}
+
+	/**
+	 * Checks if a class and its mapped constructor can be called by a class of the same package.
+	 *
+	 * @param type The mapped class.
+	 * @param constructor The mapped constructor.
+	 * @return Whether the binding of the class can be generated.
+	 */
+	private boolean isAccessible(TypeElement type, ExecutableElement constructor) {
+		if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+			return false;
+		}
+
+		Element element = type;
+		while (element.getKind().isClass()) {
+			if (element.getModifiers().contains(Modifier.PRIVATE)) {
+				return false;
+			}
+			if (element.getEnclosingElement().getKind().isClass()
+					&& !element.getModifiers().contains(Modifier.STATIC)) {
+				return false;
+			}
+			element = element.getEnclosingElement();
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the binding of a class.
+	 *
+	 * @param type The mapped class.
+	 * @param constructor The mapped constructor.
+	 */
+	private void writeBinding(TypeElement type, ExecutableElement constructor) throws IOException {
+		PackageElement typePackage = processingEnv.getElementUtils().getPackageOf(type);
+		String packageName = typePackage.getQualifiedName().toString();
+		String typeName = typeName(type.asType());
+		String bindingName = bindingName(type);
+
+		// Public members mapped by JavaScript, including inherited ones (by name, as the runtime does)
+		Map<String, ExecutableElement> methodsByName = new LinkedHashMap<>();
+		Map<String, VariableElement> propertiesByName = new LinkedHashMap<>();
+		for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+			AnnotationMirror mapping = getAnnotation(member, JAVASCRIPT_MAPPED);
+			if (mapping == null || !member.getModifiers().contains(Modifier.PUBLIC)) {
+				continue;
+			}
+
+			String jsName = getName(mapping);
+			if (jsName.isEmpty()) {
+				jsName = member.getSimpleName().toString();
+			}
+
+			if (member.getKind() == ElementKind.METHOD) {
+				if (methodsByName.put(jsName, (ExecutableElement) member) != null) {
+					processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+							"More than one method mapped as " + jsName + ". Only one will be called.", member);
+				}
+			} else if (member.getKind() == ElementKind.FIELD) {
+				propertiesByName.put(jsName, (VariableElement) member);
+			}
+		}
+
+		List<Map.Entry<String, ExecutableElement>> methods = new ArrayList<>(methodsByName.entrySet());
+		List<Map.Entry<String, VariableElement>> properties = new ArrayList<>(propertiesByName.entrySet());
+		Collections.sort(methods, BY_JS_NAME);
+		Collections.sort(properties, BY_JS_NAME);
+
+		AnnotationMirror classMapping = getAnnotation(type, JAVASCRIPT_MAPPED);
+		String jsName = classMapping != null ? getName(classMapping) : type.getSimpleName().toString();
+
+		StringBuilder code = new StringBuilder();
+		if (!packageName.isEmpty()) {
+			code.append("package ").append(packageName).append(";\n\n");
+		}
+		code.append("/**\n");
+		code.append(" * JavaScript binding of {@link ").append(typeName).append("}.\n");
+		code.append(" * Generated by the jsDroid annotation processor. Do not edit.\n");
+		code.append(" */\n");
+		code.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+		code.append("public final class ").append(bindingName).append(" implements ")
+				.append(BINDING_INTERFACE).append("<").append(typeName).append("> {\n\n");
+
+		// Metadata
+		appendGetter(code, "String", "getJSName", quote(jsName));
+
+		List<? extends VariableElement> constructorParameters = constructor.getParameters();
+		appendGetter(code, "Class<?>[]", "getConstructorParameterTypes",
+				typesArray(constructorParameters));
+		appendGetter(code, "boolean[]", "getConstructorParameterNonNull",
+				nonNullArray(constructorParameters));
+
+		StringBuilder methodNames = new StringBuilder("new String[] {");
+		StringBuilder methodTypes = new StringBuilder("new Class<?>[][] {");
+		StringBuilder methodNonNull = new StringBuilder("new boolean[][] {");
+		StringBuilder methodReturnTypes = new StringBuilder("new Class<?>[] {");
+		for (int i = 0; i < methods.size(); i++) {
+			String separator = i > 0 ? ", " : " ";
+			List<? extends VariableElement> parameters = methods.get(i).getValue().getParameters();
+			methodNames.append(separator).append(quote(methods.get(i).getKey()));
+			methodTypes.append(separator).append(typesArray(parameters));
+			methodNonNull.append(separator).append(nonNullArray(parameters));
+			methodReturnTypes.append(separator)
+					.append(typeName(methods.get(i).getValue().getReturnType())).append(".class");
+		}
+		appendGetter(code, "String[]", "getMethodNames", methodNames.append(" }").toString());
+		appendGetter(code, "Class<?>[][]", "getMethodParameterTypes", methodTypes.append(" }").toString());
+		appendGetter(code, "boolean[][]", "getMethodParameterNonNull", methodNonNull.append(" }").toString());
+		appendGetter(code, "Class<?>[]", "getMethodReturnTypes", methodReturnTypes.append(" }").toString());
+
+		StringBuilder propertyNames = new StringBuilder("new String[] {");
+		StringBuilder propertyTypes = new StringBuilder("new Class<?>[] {");
+		StringBuilder propertyNonNull = new StringBuilder("new boolean[] {");
+		for (int i = 0; i < properties.size(); i++) {
+			String separator = i > 0 ? ", " : " ";
+			VariableElement property = properties.get(i).getValue();
+			propertyNames.append(separator).append(quote(properties.get(i).getKey()));
+			propertyTypes.append(separator).append(typeName(property.asType())).append(".class");
+			propertyNonNull.append(separator).append(getAnnotation(property, NON_NULL) != null);
+		}
+		appendGetter(code, "String[]", "getPropertyNames", propertyNames.append(" }").toString());
+		appendGetter(code, "Class<?>[]", "getPropertyTypes", propertyTypes.append(" }").toString());
+		appendGetter(code, "boolean[]", "getPropertyNonNull", propertyNonNull.append(" }").toString());
+
+		// Direct calls
+		code.append("\t@Override\n");
+		code.append("\tpublic ").append(typeName).append(" newInstance(Object[] args) throws Exception {\n");
+		if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+			code.append("\t\tthrow new InstantiationException(").append(quote(typeName)).append(");\n");
+		} else {
+			code.append("\t\treturn new ").append(typeName).append("(")
+					.append(arguments(constructorParameters)).append(");\n");
+		}
+		code.append("\t}\n\n");
+
+		code.append("\t@Override\n");
+		code.append("\tpublic Object invoke(").append(typeName)
+				.append(" obj, int methodIndex, Object[] args) throws Exception {\n");
+		code.append("\t\tswitch (methodIndex) {\n");
+		for (int i = 0; i < methods.size(); i++) {
+			ExecutableElement method = methods.get(i).getValue();
+			String call = receiver(typeName, method) + "." + method.getSimpleName()
+					+ "(" + arguments(method.getParameters()) + ")";
+			code.append("\t\t\tcase ").append(i).append(":\n");
+			if (method.getReturnType().getKind() == TypeKind.VOID) {
+				code.append("\t\t\t\t").append(call).append(";\n");
+				code.append("\t\t\t\treturn null;\n");
+			} else {
+				code.append("\t\t\t\treturn ").append(call).append(";\n");
+			}
+		}
+		code.append("\t\t\tdefault:\n");
+		code.append("\t\t\t\tthrow new IllegalArgumentException(\"Invalid method index: \" + methodIndex);\n");
+		code.append("\t\t}\n");
+		code.append("\t}\n\n");
+
+		code.append("\t@Override\n");
+		code.append("\tpublic Object get(").append(typeName)
+				.append(" obj, int propertyIndex) throws Exception {\n");
+		code.append("\t\tswitch (propertyIndex) {\n");
+		for (int i = 0; i < properties.size(); i++) {
+			VariableElement property = properties.get(i).getValue();
+			code.append("\t\t\tcase ").append(i).append(":\n");
+			code.append("\t\t\t\treturn ").append(receiver(typeName, property)).append(".")
+					.append(property.getSimpleName()).append(";\n");
+		}
+		code.append("\t\t\tdefault:\n");
+		code.append("\t\t\t\tthrow new IllegalArgumentException(\"Invalid property index: \" + propertyIndex);\n");
+		code.append("\t\t}\n");
+		code.append("\t}\n\n");
+
+		code.append("\t@Override\n");
+		code.append("\tpublic void set(").append(typeName)
+				.append(" obj, int propertyIndex, Object value) throws Exception {\n");
+		code.append("\t\tswitch (propertyIndex) {\n");
+		for (int i = 0; i < properties.size(); i++) {
+			VariableElement property = properties.get(i).getValue();
+			code.append("\t\t\tcase ").append(i).append(":\n");
+			if (property.getModifiers().contains(Modifier.FINAL)) {
+				code.append("\t\t\t\tthrow new IllegalAccessException(")
+						.append(quote("Property " + properties.get(i).getKey() + " is final")).append(");\n");
+			} else {
+				code.append("\t\t\t\t").append(receiver(typeName, property)).append(".")
+						.append(property.getSimpleName()).append(" = ")
+						.append(cast(property.asType(), "value")).append(";\n");
+				code.append("\t\t\t\treturn;\n");
+			}
+		}
+		code.append("\t\t\tdefault:\n");
+		code.append("\t\t\t\tthrow new IllegalArgumentException(\"Invalid property index: \" + propertyIndex);\n");
+		code.append("\t\t}\n");
+		code.append("\t}\n");
+		code.append("}\n");
+
+		String qualifiedBindingName = packageName.isEmpty() ? bindingName : packageName + "." + bindingName;
+		Writer writer = processingEnv.getFiler().createSourceFile(qualifiedBindingName, type).openWriter();
+		try {
+			writer.write(code.toString());
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Appends a method returning a constant value.
+	 *
+	 * @param code The generated code.
+	 * @param returnType The return type of the method.
+	 * @param name The name of the method.
+	 * @param value The expression returned by the method.
+	 */
+	private static void appendGetter(StringBuilder code, String returnType, String name, String value) {
+		code.append("\t@Override\n");
+		code.append("\tpublic ").append(returnType).append(" ").append(name).append("() {\n");
+		code.append("\t\treturn ").append(value).append(";\n");
+		code.append("\t}\n\n");
+	}
+
+	/**
+	 * Gets the name of the binding of a class. Nested classes are flattened, so that the binding
+	 * can be found by replacing the '$' of the binary name of the class.
+	 *
+	 * @param type The mapped class.
+	 * @return The simple name of the binding.
+	 */
+	private static String bindingName(TypeElement type) {
+		String name = type.getSimpleName().toString();
+		Element enclosing = type.getEnclosingElement();
+		while (enclosing.getKind().isClass()) {
+			name = enclosing.getSimpleName() + "_" + name;
+			enclosing = enclosing.getEnclosingElement();
+		}
+		return name + BINDING_SUFFIX;
+	}
+
+	/**
+	 * Gets the expression used to access a member: the class, for static members, or the object.
+	 *
+	 * @param typeName The name of the mapped class.
+	 * @param member The member being accessed.
+	 * @return The receiver of the member.
+	 */
+	private static String receiver(String typeName, Element member) {
+		return member.getModifiers().contains(Modifier.STATIC) ? typeName : "obj";
+	}
+
+	/**
+	 * Gets the arguments of a call, casting each element of the args array to its parameter type.
+	 *
+	 * @param parameters The parameters of the method or constructor.
+	 * @return The arguments of the call.
+	 */
+	private String arguments(List<? extends VariableElement> parameters) {
+		StringBuilder arguments = new StringBuilder();
+		for (int i = 0; i < parameters.size(); i++) {
+			if (i > 0) {
+				arguments.append(", ");
+			}
+			arguments.append(cast(parameters.get(i).asType(), "args[" + i + "]"));
+		}
+		return arguments.toString();
+	}
+
+	/**
+	 * Casts a value to a type. Primitive types are cast to their wrappers and unboxed.
+	 *
+	 * @param type The type of the parameter or property.
+	 * @param value The expression of the value.
+	 * @return The cast expression.
+	 */
+	private String cast(TypeMirror type, String value) {
+		String castType;
+		if (type.getKind().isPrimitive()) {
+			castType = processingEnv.getTypeUtils().boxedClass(
+					processingEnv.getTypeUtils().getPrimitiveType(type.getKind())).getQualifiedName().toString();
+		} else {
+			castType = typeName(type);
+		}
+		return "(" + castType + ") " + value;
+	}
+
+	/**
+	 * Gets the array of the types of a list of parameters.
+	 *
+	 * @param parameters The parameters of the method or constructor.
+	 * @return The expression of the array.
+	 */
+	private String typesArray(List<? extends VariableElement> parameters) {
+		StringBuilder types = new StringBuilder("new Class<?>[] {");
+		for (int i = 0; i < parameters.size(); i++) {
+			types.append(i > 0 ? ", " : " ").append(typeName(parameters.get(i).asType())).append(".class");
+		}
+		return types.append(parameters.isEmpty() ? "}" : " }").toString();
+	}
+
+	/**
+	 * Gets the array of the non null flags of a list of parameters.
+	 *
+	 * @param parameters The parameters of the method or constructor.
+	 * @return The expression of the array.
+	 */
+	private String nonNullArray(List<? extends VariableElement> parameters) {
+		StringBuilder nonNull = new StringBuilder("new boolean[] {");
+		for (int i = 0; i < parameters.size(); i++) {
+			nonNull.append(i > 0 ? ", " : " ").append(getAnnotation(parameters.get(i), NON_NULL) != null);
+		}
+		return nonNull.append(parameters.isEmpty() ? "}" : " }").toString();
+	}
+
+	/**
+	 * Gets the name of the erasure of a type, as seen by reflection.
+	 *
+	 * @param type The type.
+	 * @return The canonical name of the erased type.
+	 */
+	private String typeName(TypeMirror type) {
+		return processingEnv.getTypeUtils().erasure(type).toString();
+	}
+
+	/**
+	 * Finds an annotation of an element.
+	 *
+	 * @param element The annotated element.
+	 * @param annotationName The qualified name of the annotation.
+	 * @return The annotation, or null if the element is not annotated.
+	 */
+	private static AnnotationMirror getAnnotation(Element element, String annotationName) {
+		for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+			TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+			if (annotationType.getQualifiedName().contentEquals(annotationName)) {
+				return annotation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the name declared by a {@code @JavaScriptMapped} annotation.
+	 *
+	 * @param mapping The annotation.
+	 * @return The declared name, or an empty string.
+	 */
+	private static String getName(AnnotationMirror mapping) {
+		for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value
+				: mapping.getElementValues().entrySet()) {
+			if (value.getKey().getSimpleName().contentEquals("name")) {
+				return (String) value.getValue().getValue();
+			}
+		}
+		return "";
+	}
+
+	/**
+	 * Quotes a string as a Java literal.
+	 *
+	 * @param value The string.
+	 * @return The string literal.
+	 */
+	private static String quote(String value) {
+		return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+	}
+}
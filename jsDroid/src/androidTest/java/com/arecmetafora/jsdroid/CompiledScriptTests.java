@@ -0,0 +1,145 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class CompiledScriptTests extends InstrumentationTestCase {
+
+	@After
+	public void resetCache() {
+		JavaScriptDroid.getScriptCache().evictAll();
+		JavaScriptDroid.getScriptCache().resize(ScriptCache.DEFAULT_MAX_SIZE);
+	}
+
+	@Test
+	public void evaluateCompiledScript() throws JavaScriptException {
+		JavaScriptDroid.evaluateScript("var compiledCounter = 0;");
+
+		CompiledScript script = JavaScriptDroid.compileScript("++compiledCounter;");
+		assertEquals(1d, script.evaluate());
+		assertEquals(2d, script.evaluate());
+		assertEquals(2d, JavaScriptDroid.evaluateScript("compiledCounter;"));
+	}
+
+	@Test
+	public void compiledScriptsAreCached() throws JavaScriptException {
+		ScriptCache cache = JavaScriptDroid.getScriptCache();
+		int hits = cache.hitCount();
+		int misses = cache.missCount();
+
+		CompiledScript script = JavaScriptDroid.compileScript("1 + 1;", "cached.js");
+		assertSame(script, JavaScriptDroid.compileScript("1 + 1;", "cached.js"));
+		assertNotSame(script, JavaScriptDroid.compileScript("1 + 1;", "other.js"));
+
+		assertEquals(hits + 1, cache.hitCount());
+		assertEquals(misses + 2, cache.missCount());
+		assertEquals(2d, script.evaluate());
+	}
+
+	@Test
+	public void cacheEvictsLeastRecentlyUsed() throws JavaScriptException {
+		ScriptCache cache = JavaScriptDroid.getScriptCache();
+		CompiledScript first = JavaScriptDroid.compileScript("'first';");
+		CompiledScript second = JavaScriptDroid.compileScript("'second';");
+		cache.resize(second.getSize());
+
+		assertEquals(second.getSize(), cache.size());
+		assertSame(second, JavaScriptDroid.compileScript("'second';"));
+		assertNotSame(first, JavaScriptDroid.compileScript("'first';"));
+
+		// Evicted scripts still work while they are referenced
+		assertEquals("first", first.evaluate());
+	}
+
+	@Test
+	public void scriptsAreReleasedByAllCallers() throws JavaScriptException {
+		CompiledScript script = JavaScriptDroid.compileScript("'released';", "released.js");
+		CompiledScript shared = JavaScriptDroid.compileScript("'released';", "released.js");
+		assertSame(script, shared);
+
+		// The script is kept while another caller or the cache holds it
+		script.release();
+		JavaScriptDroid.getScriptCache().evictAll();
+		assertEquals("released", shared.evaluate());
+
+		shared.close();
+		try {
+			shared.evaluate();
+			fail("An IllegalStateException should've been thrown");
+		} catch (IllegalStateException ex) {
+			assertEquals("The script has been released", ex.getMessage());
+		}
+		try {
+			shared.release();
+			fail("An IllegalStateException should've been thrown");
+		} catch (IllegalStateException ignored) {
+		}
+	}
+
+	@Test
+	public void compileScriptWithSyntaxError() {
+		try {
+			JavaScriptDroid.compileScript("switche ( vin diesel );");
+			fail("A JavaScriptException should've been thrown");
+		} catch (JavaScriptException ex) {
+			assertEquals("SyntaxError: Unexpected identifier 'diesel'. Expected ')' to end an argument list.", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void callCompiledFunction() throws JavaScriptException {
+		JavaScriptFunction function = JavaScriptDroid.compileFunction("return a + b;", "a", "b");
+		assertEquals(2, function.getParameterCount());
+		assertEquals(3d, function.call(1, 2));
+		assertEquals("ab", function.call("a", "b"));
+	}
+
+	@Test
+	public void functionsAreReleasedByAllCallers() throws JavaScriptException {
+		JavaScriptFunction function = JavaScriptDroid.compileFunction("return released;", "released");
+		JavaScriptFunction shared = JavaScriptDroid.compileFunction("return released;", "released");
+		assertSame(function, shared);
+
+		// The function is kept while another caller or the cache holds it
+		function.release();
+		JavaScriptDroid.getScriptCache().evictAll();
+		assertEquals(1d, shared.call(1));
+
+		shared.close();
+		try {
+			shared.call(1);
+			fail("An IllegalStateException should've been thrown");
+		} catch (IllegalStateException ex) {
+			assertEquals("The function has been released", ex.getMessage());
+		}
+		try {
+			shared.release();
+			fail("An IllegalStateException should've been thrown");
+		} catch (IllegalStateException ignored) {
+		}
+	}
+
+	@Test
+	public void compiledFunctionsAreCached() throws JavaScriptException {
+		ScriptCache cache = JavaScriptDroid.getScriptCache();
+		String[] paramsNames = new String[] { "obj" };
+
+		JavaScriptFunction function = JavaScriptDroid.compileFunction("return obj;", paramsNames);
+		assertSame(function, JavaScriptDroid.compileFunction("return obj;", "obj"));
+		assertNotSame(function, JavaScriptDroid.compileFunction("return obj;", "other"));
+
+		// Changing the given names does not change the cached function
+		paramsNames[0] = "other";
+		assertSame(function, JavaScriptDroid.compileFunction("return obj;", "obj"));
+
+		// Evaluations with parameters share the compiled function
+		int hits = cache.hitCount();
+		assertEquals("SW", JavaScriptDroid.evaluateScriptWithParameters("return obj;", new String[] { "obj" }, "SW"));
+		assertEquals(hits + 1, cache.hitCount());
+	}
+}
@@ -0,0 +1,58 @@
+package com.arecmetafora.jsdroid;
+
+import android.os.Debug;
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+/**
+ * Compares the creation time and the memory of JavaScript contexts created with and without a
+ * context group.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ContextGroupBenchmark {
+
+	private static final int CONTEXTS = 32;
+
+	@Test
+	public void contextCreationByGroup() throws Exception {
+		JavaScriptDroid.registerClass(JSObject.class);
+
+		measure(null);
+
+		JavaScriptContextGroup group = new JavaScriptContextGroup();
+		try {
+			measure(group);
+		} finally {
+			group.release();
+		}
+	}
+
+	private void measure(JavaScriptContextGroup group) throws Exception {
+		int[] jsContextPointers = new int[CONTEXTS];
+		long heapBefore = Debug.getNativeHeapAllocatedSize();
+
+		long start = System.nanoTime();
+		for (int i = 0; i < CONTEXTS; i++) {
+			jsContextPointers[i] = group != null
+					? group.createContext()
+					: JavaScriptDroid.createRegisteredContext(0, null);
+			// A first evaluation, so that lazily created structures are counted too
+			JavaScriptDroid.evaluateScript("new JSObject().intValue;", "", jsContextPointers[i]);
+		}
+		long elapsed = System.nanoTime() - start;
+		long heapAfter = Debug.getNativeHeapAllocatedSize();
+
+		for (int jsContextPointer : jsContextPointers) {
+			assertTrue(jsContextPointer != 0);
+			JavaScriptDroid.releaseRegisteredContext(jsContextPointer);
+		}
+
+		Utils.log(String.format("Contexts %s group: %.3f ms/context, %d KB/context",
+				group != null ? "with" : "without",
+				elapsed / 1e6 / CONTEXTS,
+				(heapAfter - heapBefore) / 1024 / CONTEXTS));
+	}
+}
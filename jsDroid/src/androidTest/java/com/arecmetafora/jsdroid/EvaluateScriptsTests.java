@@ -0,0 +1,90 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.Reader;
+import java.io.StringReader;
+
+@RunWith(AndroidJUnit4.class)
+public class EvaluateScriptsTests extends InstrumentationTestCase {
+
+	@Test
+	public void evaluateScriptsInOrder() throws JavaScriptException {
+		Object[] results = JavaScriptDroid.evaluateScripts(
+				new String[] { "var batch = 1;", "batch += 1;", "'batch ' + batch;" },
+				new String[] { "a.js", "b.js", "c.js" });
+
+		assertEquals(3, results.length);
+		assertNull(results[0]);
+		assertEquals(2d, results[1]);
+		assertEquals("batch 2", results[2]);
+	}
+
+	@Test
+	public void stopAtFirstError() throws JavaScriptException {
+		try {
+			JavaScriptDroid.evaluateScripts(
+					new String[] { "var stopped = 1;", "throw 'broken';", "stopped = 3;" },
+					new String[] { "first.js", "broken.js", "last.js" });
+			fail();
+		} catch (JavaScriptBatchException ex) {
+			assertEquals(1, ex.getScriptIndex());
+			assertEquals("broken.js", ex.getFileName());
+			assertEquals(1, ex.getResults().length);
+			assertTrue(ex.getCause() instanceof JavaScriptException);
+			assertEquals("broken", ex.getCause().getMessage());
+		}
+
+		// Scripts after the failed one are not evaluated
+		assertEquals(1d, JavaScriptDroid.evaluateScript("stopped;"));
+	}
+
+	@Test
+	public void syntaxErrorsIdentifyTheFile() throws JavaScriptException {
+		try {
+			JavaScriptDroid.evaluateScripts(new String[] { "1;", "var = ;" },
+					new String[] { "valid.js", "invalid.js" });
+			fail();
+		} catch (JavaScriptBatchException ex) {
+			assertEquals("invalid.js", ex.getFileName());
+			assertTrue(ex.getMessage().startsWith("SyntaxError"));
+		}
+	}
+
+	@Test
+	public void evaluateReaders() throws Exception {
+		Reader[] readers = new Reader[] {
+				new StringReader("function readerLibrary(x) { return x + 1; }"),
+				new StringReader("readerLibrary(41);") };
+		Object[] results = JavaScriptDroid.evaluateScripts(readers,
+				new String[] { "library.js", "main.js" }, JavaScriptDroid.getJsGlobalContexPointer());
+
+		assertEquals(42d, results[1]);
+
+		results = JavaScriptDroid.evaluateScripts(new Reader[] { new StringReader("readerLibrary(1);") },
+				new String[] { "global.js" });
+		assertEquals(2d, results[0]);
+	}
+
+	@Test
+	public void timeoutsIdentifyTheFile() throws JavaScriptException {
+		int jsContextPointer = JavaScriptDroid.getJsGlobalContexPointer();
+		JavaScriptDroid.setExecutionTimeLimit(jsContextPointer, 100);
+		try {
+			JavaScriptDroid.evaluateScripts(new String[] { "1;", "while(true) {}", "2;" },
+					new String[] { "valid.js", "runaway.js", "skipped.js" }, jsContextPointer);
+			fail();
+		} catch (JavaScriptBatchException ex) {
+			assertEquals(1, ex.getScriptIndex());
+			assertEquals("runaway.js", ex.getFileName());
+			assertTrue(ex.getCause() instanceof JavaScriptTimeoutException);
+			assertEquals(100, ((JavaScriptTimeoutException) ex.getCause()).getTimeLimit());
+		} finally {
+			JavaScriptDroid.setExecutionTimeLimit(jsContextPointer, 0);
+		}
+	}
+}
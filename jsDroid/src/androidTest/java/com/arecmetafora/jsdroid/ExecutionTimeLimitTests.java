@@ -0,0 +1,184 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(AndroidJUnit4.class)
+public class ExecutionTimeLimitTests extends InstrumentationTestCase {
+
+	private static final String RUNAWAY_SCRIPT = "while(true) {}";
+
+	@After
+	public void removeLimits() {
+		JavaScriptDroid.setExecutionTimeLimit(0);
+		JavaScriptDroid.getExecutionTimeMetrics().reset();
+	}
+
+	@Test
+	public void evaluationLimit() throws JavaScriptException {
+		int jsContextPointer = JavaScriptDroid.getJsGlobalContexPointer();
+		try {
+			JavaScriptDroid.evaluateScript(RUNAWAY_SCRIPT, "runaway.js", jsContextPointer, 100);
+			fail();
+		} catch (JavaScriptTimeoutException ex) {
+			assertEquals(100, ex.getTimeLimit());
+		}
+
+		// The context is still usable, and has no limit
+		assertEquals(2d, JavaScriptDroid.evaluateScript("1 + 1;"));
+		assertEquals(0, JavaScriptDroid.getExecutionTimeLimit(jsContextPointer));
+	}
+
+	@Test
+	public void scriptsCannotCatchTimeouts() throws JavaScriptException {
+		try {
+			JavaScriptDroid.evaluateScript("try { " + RUNAWAY_SCRIPT + " } catch(e) { 'caught'; }",
+					"", JavaScriptDroid.getJsGlobalContexPointer(), 100);
+			fail();
+		} catch (JavaScriptTimeoutException ex) {
+			assertEquals(100, ex.getTimeLimit());
+		}
+	}
+
+	@Test
+	public void contextLimit() throws JavaScriptException {
+		JavaScriptDroid.setExecutionTimeLimit(100);
+
+		try {
+			JavaScriptDroid.evaluateScript(RUNAWAY_SCRIPT);
+			fail();
+		} catch (JavaScriptTimeoutException ignored) {
+		}
+
+		try {
+			JavaScriptDroid.compileScript(RUNAWAY_SCRIPT, "compiled.js").evaluate();
+			fail();
+		} catch (JavaScriptTimeoutException ignored) {
+		}
+
+		try {
+			JavaScriptDroid.compileFunction(RUNAWAY_SCRIPT, "a").call(1);
+			fail();
+		} catch (JavaScriptTimeoutException ignored) {
+		}
+
+		// Scripts within the limit are not terminated
+		assertEquals(3d, JavaScriptDroid.evaluateScriptWithParameters("return a + b;",
+				new String[] { "a", "b" }, 1, 2));
+	}
+
+	@Test
+	public void otherErrorsAreNotTimeouts() throws JavaScriptException {
+		try {
+			JavaScriptDroid.evaluateScript("throw 'error';", "",
+					JavaScriptDroid.getJsGlobalContexPointer(), 1000);
+			fail();
+		} catch (JavaScriptTimeoutException ex) {
+			fail();
+		} catch (JavaScriptException ex) {
+			assertEquals("error", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void poolLimit() throws Exception {
+		JavaScriptContextPool pool = new JavaScriptContextPool(1);
+		try {
+			pool.setExecutionTimeLimit(100);
+			try {
+				pool.evaluateScript(RUNAWAY_SCRIPT, "pool.js");
+				fail();
+			} catch (JavaScriptTimeoutException ignored) {
+			}
+
+			// The context has been returned to the pool
+			assertEquals(2d, pool.evaluateScript("1 + 1;", "pool.js"));
+			assertEquals(1, pool.getSize());
+		} finally {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void groupedContextsKeepTheirOwnLimits() throws Exception {
+		JavaScriptContextGroup group = new JavaScriptContextGroup();
+		final JavaScriptContextPool pool = new JavaScriptContextPool(2, group);
+		try {
+			pool.setExecutionTimeLimit(200);
+			final AtomicBoolean runawayTerminated = new AtomicBoolean();
+			final AtomicReference<Throwable> shortScriptFailure = new AtomicReference<>();
+
+			Thread runaway = new Thread() {
+				@Override
+				public void run() {
+					try {
+						pool.evaluateScript(RUNAWAY_SCRIPT, "runaway.js");
+					} catch (JavaScriptTimeoutException ex) {
+						runawayTerminated.set(true);
+					} catch (Exception ignored) {
+					}
+				}
+			};
+			Thread shortScripts = new Thread() {
+				@Override
+				public void run() {
+					try {
+						// Each evaluation arms and clears the watchdog of the group
+						for (int i = 0; i < 50; i++) {
+							pool.evaluateScript("1 + 1;", "short.js");
+						}
+					} catch (Throwable ex) {
+						shortScriptFailure.set(ex);
+					}
+				}
+			};
+
+			runaway.start();
+			shortScripts.start();
+			runaway.join(10000);
+			shortScripts.join(10000);
+
+			assertFalse(runaway.isAlive());
+			assertTrue(runawayTerminated.get());
+			assertNull(shortScriptFailure.get());
+		} finally {
+			pool.close();
+			group.release();
+		}
+	}
+
+	@Test
+	public void metricsRecordUsage() throws JavaScriptException {
+		ExecutionTimeMetrics metrics = JavaScriptDroid.getExecutionTimeMetrics();
+		int jsContextPointer = JavaScriptDroid.getJsGlobalContexPointer();
+
+		// Evaluations without limit are not recorded
+		JavaScriptDroid.evaluateScript("1 + 1;");
+		assertEquals(0, metrics.evaluationCount());
+
+		for (int i = 0; i < 10; i++) {
+			JavaScriptDroid.evaluateScript("1 + 1;", "", jsContextPointer, 10000);
+		}
+		try {
+			JavaScriptDroid.evaluateScript(RUNAWAY_SCRIPT, "", jsContextPointer, 100);
+			fail();
+		} catch (JavaScriptTimeoutException ignored) {
+		}
+
+		assertEquals(10, metrics.evaluationCount());
+		assertEquals(1, metrics.timeoutCount());
+		assertTrue(metrics.maxUsage() < 0.5);
+		assertTrue(metrics.averageUsage() <= metrics.maxUsage());
+
+		int[] histogram = metrics.usageHistogram();
+		assertEquals(ExecutionTimeMetrics.BUCKETS, histogram.length);
+		assertEquals(10, histogram[0]);
+	}
+}
@@ -0,0 +1,118 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+/**
+ * Compares the call throughput of the reflection and dispatcher invoker backends.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InvokerBenchmark {
+
+	private static final int CALLS = 1000000;
+
+	public static class BenchmarkTarget {
+
+		public double sum;
+
+		@JavaScriptMapped
+		public BenchmarkTarget() {
+		}
+
+		@JavaScriptMapped
+		public double zero() {
+			return sum;
+		}
+
+		@JavaScriptMapped
+		public double one(double a) {
+			return sum += a;
+		}
+
+		@JavaScriptMapped
+		public double four(double a, double b, double c, double d) {
+			return sum += a + b + c + d;
+		}
+	}
+
+	public static class BenchmarkDispatcher implements JavaScriptDispatcher<BenchmarkTarget> {
+
+		@Override
+		public String[] getMethodNames() {
+			return new String[] { "four", "one", "zero" };
+		}
+
+		@Override
+		public String[] getPropertyNames() {
+			return new String[0];
+		}
+
+		@Override
+		public BenchmarkTarget newInstance(Object[] args) {
+			return new BenchmarkTarget();
+		}
+
+		@Override
+		public Object invoke(BenchmarkTarget obj, int methodIndex, Object[] args) {
+			switch (methodIndex) {
+				case 0: return obj.four((Double) args[0], (Double) args[1], (Double) args[2], (Double) args[3]);
+				case 1: return obj.one((Double) args[0]);
+				case 2: return obj.zero();
+				default: throw new IllegalArgumentException();
+			}
+		}
+
+		@Override
+		public Object get(BenchmarkTarget obj, int propertyIndex) {
+			throw new IllegalArgumentException();
+		}
+
+		@Override
+		public void set(BenchmarkTarget obj, int propertyIndex, Object value) {
+			throw new IllegalArgumentException();
+		}
+	}
+
+	@Test
+	public void callThroughputByBackend() throws Exception {
+		APIClass reflection = new APIClass(BenchmarkTarget.class, null);
+		APIClass dispatcher = new APIClass(BenchmarkTarget.class, new BenchmarkDispatcher());
+
+		Object[][] argsByArity = new Object[][] {
+				new Object[0],
+				new Object[] { 1d },
+				new Object[] { 1d, 2d, 3d, 4d } };
+		String[] methodByArity = new String[] { "zero", "one", "four" };
+
+		for (int i = 0; i < argsByArity.length; i++) {
+			double reflectionCalls = measure(reflection.getMethod(methodByArity[i]), argsByArity[i]);
+			double dispatcherCalls = measure(dispatcher.getMethod(methodByArity[i]), argsByArity[i]);
+			Utils.log(String.format("Invokers: %d argument(s), reflection %.0f calls/s, dispatcher %.0f calls/s",
+					argsByArity[i].length, reflectionCalls, dispatcherCalls));
+		}
+	}
+
+	private double measure(APIMethod method, Object[] args) throws Exception {
+		BenchmarkTarget target = new BenchmarkTarget();
+		MethodInvoker invoker = method.getInvoker();
+
+		// Warming up
+		for (int i = 0; i < CALLS / 10; i++) {
+			invoker.invoke(target, args);
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < CALLS; i++) {
+			invoker.invoke(target, args);
+		}
+		long elapsed = System.nanoTime() - start;
+
+		assertTrue(target.sum >= 0);
+		return (double) CALLS * 1e9 / elapsed;
+	}
+}
@@ -305,6 +305,17 @@ class JSObjectNullableObject extends JSObject {
 class JSObjectUnmappedConstructor extends JSObject {
 }
 
+@JavaScriptMapped(name = "JSObjectNotConstructible")
+class JSObjectNotConstructible extends JSObject {
+	public JSObjectNotConstructible(int intValue) {
+		setInt(intValue);
+	}
+
+	public JSObjectNotConstructible(String stringValue) {
+		setString(stringValue);
+	}
+}
+
 @JavaScriptMapped(name = "JSObjectException")
 class JSObjectExceptionConstructor extends JSObject {
 	@JavaScriptMapped
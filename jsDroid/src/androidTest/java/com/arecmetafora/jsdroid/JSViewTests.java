@@ -0,0 +1,151 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+@RunWith(AndroidJUnit4.class)
+public class JSViewTests extends InstrumentationTestCase {
+
+	public static class Viewer {
+
+		public JSView kept;
+
+		@JavaScriptMapped
+		public JSArrayView items;
+
+		@JavaScriptMapped
+		public Viewer() {
+		}
+
+		@JavaScriptMapped
+		public double sum(JSArrayView items) throws JavaScriptException {
+			double sum = 0;
+			for (int i = 0; i < items.length(); i++) {
+				sum += (Double) items.get(i);
+			}
+			return sum;
+		}
+
+		@JavaScriptMapped
+		public Object element(JSArrayView items, int index) throws JavaScriptException {
+			return items.get(index);
+		}
+
+		@JavaScriptMapped
+		public String describe(JSObjectView object) throws JavaScriptException {
+			String[] names = object.getPropertyNames();
+			Arrays.sort(names);
+			return Arrays.toString(names) + " " + object.get("name");
+		}
+
+		@JavaScriptMapped
+		public String nestedName(JSArrayView items) throws JavaScriptException {
+			return (String) ((JSObjectView) items.get(0)).get("name");
+		}
+
+		@JavaScriptMapped
+		public JSArrayView same(JSArrayView items) {
+			return items;
+		}
+
+		@JavaScriptMapped
+		public int copyLength(Object[] items) {
+			return items.length;
+		}
+
+		@JavaScriptMapped
+		public String copyType(Object items) {
+			return items.getClass().getSimpleName();
+		}
+
+		@JavaScriptMapped
+		public void keep(JSView view) {
+			kept = view;
+		}
+
+		@JavaScriptMapped
+		public void keepAndFail(JSView view) {
+			kept = view;
+			throw new IllegalStateException("kept");
+		}
+	}
+
+	@Before
+	public void registerViewer() {
+		JavaScriptDroid.registerClass(Viewer.class);
+	}
+
+	@Test
+	public void arrayElementsAreReadOnDemand() throws JavaScriptException {
+		assertEquals(6d, JavaScriptDroid.evaluateScript("new Viewer().sum([1, 2, 3]);"));
+		assertEquals(0d, JavaScriptDroid.evaluateScript("new Viewer().sum([]);"));
+		assertEquals("b", JavaScriptDroid.evaluateScript("new Viewer().element(['a', 'b'], 1);"));
+		assertEquals(null, JavaScriptDroid.evaluateScript("new Viewer().element(['a'], 5);"));
+	}
+
+	@Test
+	public void objectPropertiesAreReadOnDemand() throws JavaScriptException {
+		assertEquals("[age, name] view", JavaScriptDroid.evaluateScript(
+				"new Viewer().describe({ name: 'view', age: 1 });"));
+		assertEquals("nested", JavaScriptDroid.evaluateScript(
+				"new Viewer().nestedName([{ name: 'nested' }]);"));
+	}
+
+	@Test
+	public void viewsAreReturnedAsTheirObject() throws JavaScriptException {
+		assertEquals(true, JavaScriptDroid.evaluateScript(
+				"var items = [1, 2]; new Viewer().same(items) === items;"));
+		assertEquals(true, JavaScriptDroid.evaluateScript(
+				"var nested = { a: 1 }; new Viewer().element([nested], 0) === nested;"));
+	}
+
+	@Test
+	public void arraysAreCopiedForOtherTypes() throws JavaScriptException {
+		assertEquals(3d, JavaScriptDroid.evaluateScript("new Viewer().copyLength([1, 'a', true]);"));
+		assertEquals("double[]", JavaScriptDroid.evaluateScript("new Viewer().copyType([1, 2]);"));
+		assertEquals("JSObjectView", JavaScriptDroid.evaluateScript("new Viewer().copyType({});"));
+	}
+
+	@Test
+	public void viewsAreReleasedWhenTheCallbackReturns() throws JavaScriptException {
+		Viewer viewer = new Viewer();
+		JavaScriptDroid.evaluateScriptWithParameters("viewer.keep([1, 2]);",
+				new String[] { "viewer" }, new Object[] { viewer });
+		assertTrue(viewer.kept.isReleased());
+
+		try {
+			((JSArrayView) viewer.kept).length();
+			fail("A released view must not be read");
+		} catch (IllegalStateException ex) {
+			// expected
+		}
+
+		JavaScriptDroid.evaluateScriptWithParameters("viewer.items = [1, 2];",
+				new String[] { "viewer" }, new Object[] { viewer });
+		assertTrue(viewer.items.isReleased());
+	}
+
+	@Test
+	public void viewsAreReleasedWhenTheCallbackThrows() throws JavaScriptException {
+		Viewer viewer = new Viewer();
+		assertEquals("thrown", JavaScriptDroid.evaluateScriptWithParameters(
+				"try { viewer.keepAndFail([1, 2]); } catch (e) { return 'thrown'; }",
+				new String[] { "viewer" }, new Object[] { viewer }));
+		assertTrue(viewer.kept.isReleased());
+	}
+
+	@Test
+	public void getterExceptionsAreThrown() throws JavaScriptException {
+		assertEquals("thrown", JavaScriptDroid.evaluateScript(
+				"try { new Viewer().describe({ get name() { throw new Error('getter'); } }); } " +
+				"catch (e) { 'thrown'; }"));
+	}
+}
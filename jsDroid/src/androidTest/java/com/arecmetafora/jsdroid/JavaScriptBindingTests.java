@@ -0,0 +1,84 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class JavaScriptBindingTests extends InstrumentationTestCase {
+
+	public static class UnannotatedConstructors {
+		@JavaScriptMapped
+		public String value = "none";
+
+		public UnannotatedConstructors(String value, int count) {
+			this.value = value;
+		}
+
+		public UnannotatedConstructors(String value) {
+			this.value = value;
+		}
+
+		public UnannotatedConstructors() {
+		}
+	}
+
+	private static void assertSameParameters(APIParameter[] expected, APIParameter[] actual) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i].getJSName(), actual[i].getJSName());
+			assertEquals(expected[i].getType(), actual[i].getType());
+			assertEquals(expected[i].isOptional(), actual[i].isOptional());
+		}
+	}
+
+	@Test
+	public void bindingMatchesReflection() {
+		APIClass reflection = new APIClass(JSObject.class, null);
+		APIClass binding = new APIClass(new JSObject_JavaScriptBinding());
+
+		assertEquals(reflection.getJSName(), binding.getJSName());
+		assertSameParameters(reflection.getConstructorParameters(), binding.getConstructorParameters());
+
+		String[] methodNames = reflection.getMethodNames();
+		assertEquals(methodNames.length, binding.getMethodNames().length);
+		for (int i = 0; i < methodNames.length; i++) {
+			assertEquals(methodNames[i], binding.getMethodNames()[i]);
+			assertSameParameters(reflection.getMethod(i).getParameters(),
+					binding.getMethod(i).getParameters());
+		}
+
+		String[] propertyNames = reflection.getPropertyNames();
+		assertEquals(propertyNames.length, binding.getPropertyNames().length);
+		for (int i = 0; i < propertyNames.length; i++) {
+			assertEquals(propertyNames[i], binding.getPropertyNames()[i]);
+			assertSameParameters(new APIParameter[] { reflection.getProperty(i) },
+					new APIParameter[] { binding.getProperty(i) });
+		}
+	}
+
+	@Test
+	public void bindingCallsMembers() throws Exception {
+		APIClass binding = new APIClass(new JSObject_JavaScriptBinding());
+
+		JSObject obj = (JSObject) binding.getConstructorInvoker().newInstance(new Object[0]);
+		binding.getMethod("setInt").getInvoker().invoke(obj, new Object[] { 10 });
+		assertEquals(10, binding.getProperty("intValue").getAccessor().get(obj));
+
+		binding.getProperty("stringValue").getAccessor().set(obj, "SW");
+		assertEquals("SW", binding.getMethod("getString").getInvoker().invoke(obj, new Object[0]));
+	}
+
+	@Test
+	public void bindingAndReflectionCallTheSameConstructor() throws Exception {
+		APIClass reflection = new APIClass(UnannotatedConstructors.class, null);
+		APIClass binding = new APIClass(new JavaScriptBindingTests_UnannotatedConstructors_JavaScriptBinding());
+
+		assertEquals(0, reflection.getConstructorParameters().length);
+		assertSameParameters(reflection.getConstructorParameters(), binding.getConstructorParameters());
+	}
+}
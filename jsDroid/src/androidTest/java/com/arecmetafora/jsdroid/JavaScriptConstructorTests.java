@@ -30,6 +30,7 @@ public class JavaScriptConstructorTests extends InstrumentationTestCase {
         JavaScriptDroid.registerClass(JSObjectArrayConstructor.class);
         JavaScriptDroid.registerClass(JSObjectNumberConstructor.class);
         JavaScriptDroid.registerClass(JSObjectUnmappedConstructor.class);
+        JavaScriptDroid.registerClass(JSObjectNotConstructible.class);
         JavaScriptDroid.registerClass(JSObjectExceptionConstructor.class);
         JavaScriptDroid.registerClass(JSObjectNullPointerConstructor.class);
         JavaScriptDroid.registerClass(JSObjectConstructorWithParams.class);
@@ -48,6 +49,31 @@ public class JavaScriptConstructorTests extends InstrumentationTestCase {
 		assertEquals(JSObject.class, obj.getClass());
 	}
 
+	@Test
+	public void constructedObjectsShareTheConstructorPrototype() throws JavaScriptException {
+		assertEquals(true, JavaScriptDroid.evaluateScript("new JSObject() instanceof JSObject"));
+		assertEquals(true, JavaScriptDroid.evaluateScript(
+				"Object.getPrototypeOf(new JSObject()) === JSObject.prototype"));
+
+		// Functions added to the prototype are seen by every instance, along with the mapped methods
+		assertEquals(true, JavaScriptDroid.evaluateScript(
+				"JSObject.prototype.isExtended = function() { return typeof this.getInt == 'function'; };"
+				+ "new JSObject().isExtended();"));
+	}
+
+	@Test
+	public void nativePointersAreNotExposedToScripts() throws JavaScriptException {
+		assertEquals("undefined", JavaScriptDroid.evaluateScript("typeof new JSObject().getInt.selector"));
+		assertEquals("undefined", JavaScriptDroid.evaluateScript("typeof JSObject.mappedClass"));
+
+		// Mapped methods and constructors still behave as functions
+		assertEquals("function", JavaScriptDroid.evaluateScript("typeof new JSObject().getInt"));
+		assertEquals(true, JavaScriptDroid.evaluateScript(
+				"var obj = new JSObject(); obj.getInt.call(obj) === obj.getInt()"));
+		assertEquals(true, JavaScriptDroid.evaluateScript("JSObject.prototype.constructor === JSObject"));
+		assertEquals(false, JavaScriptDroid.evaluateScript("({}) instanceof JSObject"));
+	}
+
     @Test
 	public void constructorWithParameterDouble() throws JavaScriptException {
 		String script = "return new JSObjectDouble(1);";
@@ -187,6 +213,17 @@ public class JavaScriptConstructorTests extends InstrumentationTestCase {
 		}
 	}
 
+	@Test
+	public void classWithoutMappedConstructorIsNotConstructible() throws JavaScriptException {
+		assertEquals("function", JavaScriptDroid.evaluateScript("typeof JSObjectNotConstructible"));
+		try {
+			callScript("return new JSObjectNotConstructible(1);");
+			fail("The class should not be constructible");
+		} catch (JavaScriptException ex) {
+			assertTrue(ex.getMessage().contains("cannot be constructed"));
+		}
+	}
+
 	private void callScriptAndValidateCastException(String cls, Object value, Class<?> expectedType)
 			throws JavaScriptException {
 		try {
@@ -329,6 +366,16 @@ public class JavaScriptConstructorTests extends InstrumentationTestCase {
 		callScript(script);
 	}
 
+	@Test
+	public void constructorKeepsClassHidden() throws JavaScriptException {
+		// The constructor references its native class through a property which is not enumerable
+		assertEquals("JSObject", JavaScriptDroid.evaluateScript("JSObject.name;"));
+		assertEquals("", JavaScriptDroid.evaluateScript("Object.keys(JSObject).join();"));
+
+		String script = "var obj; for (var i = 0; i < 1000; i++) { obj = new JSObject(); } return obj;";
+		assertEquals(JSObject.class, callScript(script).getClass());
+	}
+
     //@Test
 	public void constructorThrowingExceptionStress()
 			throws JavaScriptException {
@@ -0,0 +1,169 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(AndroidJUnit4.class)
+public class JavaScriptContextPoolTests extends InstrumentationTestCase {
+
+	private JavaScriptContextPool pool;
+
+	@Before
+	public void createPool() throws JavaScriptException {
+		JavaScriptDroid.registerClass(JSObject.class);
+		pool = new JavaScriptContextPool(2);
+		pool.addLibrary("function twice(x) { return x * 2; }", "lib.js");
+	}
+
+	@After
+	public void closePool() {
+		pool.close();
+	}
+
+	@Test
+	public void contextsHaveClassesAndLibraries() throws Exception {
+		assertEquals(4d, pool.evaluateScript("twice(new JSObject().intValue = 2);", "test.js"));
+		assertEquals(true, pool.evaluateScript("new JSObject().booleanValue;", "test.js"));
+
+		// Libraries added later are loaded before the contexts are used again
+		pool.addLibrary("function triple(x) { return x * 3; }", "lib2.js");
+		assertEquals(6d, pool.evaluateScript("triple(2);", "test.js"));
+	}
+
+	@Test
+	public void contextsAreIsolated() throws Exception {
+		int first = pool.acquire();
+		int second = pool.acquire();
+		try {
+			assertTrue(first != second);
+			assertTrue(first != JavaScriptDroid.getJsGlobalContexPointer());
+
+			JavaScriptDroid.evaluateScript("var isolated = 1;", "", first);
+			assertEquals("undefined", JavaScriptDroid.evaluateScript("typeof isolated;", "", second));
+		} finally {
+			pool.release(first);
+			pool.release(second);
+		}
+		assertEquals(2, pool.getSize());
+	}
+
+	@Test
+	public void classesRegisteredLaterAreReplayed() throws Exception {
+		int jsContextPointer = pool.acquire();
+		try {
+			JavaScriptDroid.registerClass(JavaScriptDispatcherTests.DispatchedObject.class);
+			assertEquals("reflection", JavaScriptDroid.evaluateScript(
+					"new DispatchedObject().name;", "", jsContextPointer));
+		} finally {
+			pool.release(jsContextPointer);
+		}
+	}
+
+	@Test
+	public void groupedContextsAreIsolated() throws Exception {
+		JavaScriptContextGroup group = new JavaScriptContextGroup();
+		JavaScriptContextPool groupPool = new JavaScriptContextPool(2, group);
+		try {
+			groupPool.addLibrary("function twice(x) { return x * 2; }", "lib.js");
+			int first = groupPool.acquire();
+			int second = groupPool.acquire();
+			try {
+				JavaScriptDroid.evaluateScript("var isolated = twice(new JSObject().intValue = 2);", "", first);
+				assertEquals(4d, JavaScriptDroid.evaluateScript("isolated;", "", first));
+				assertEquals("undefined", JavaScriptDroid.evaluateScript("typeof isolated;", "", second));
+			} finally {
+				groupPool.release(first);
+				groupPool.release(second);
+			}
+		} finally {
+			groupPool.close();
+			group.release();
+		}
+	}
+
+	@Test
+	public void releasedContextsReleaseTheirClasses() throws Exception {
+		JavaScriptContextGroup group = new JavaScriptContextGroup();
+		try {
+			for (int i = 0; i < 200; i++) {
+				JavaScriptContextPool cyclePool = new JavaScriptContextPool(1, i % 2 == 0 ? group : null);
+				int jsContextPointer = cyclePool.acquire();
+				assertEquals(true, JavaScriptDroid.evaluateScript(
+						"var obj = new JSObject(); obj.setInt(" + i + "); obj.getInt() == " + i + ";",
+						"", jsContextPointer));
+				cyclePool.release(jsContextPointer);
+				cyclePool.close();
+
+				APIClass jsClass = JavaScriptDroid.peekAPIClass(JSObject.class);
+				assertEquals(0, jsClass.getJSClassRefPointer(jsContextPointer));
+			}
+			JavaScriptDroid.garbageCollect();
+		} finally {
+			group.release();
+		}
+		assertEquals(true, JavaScriptDroid.evaluateScript("new JSObject() instanceof JSObject;"));
+	}
+
+	@Test
+	public void objectsAreFinalizedAfterTheirClassesAreReleased() throws Exception {
+		JavaScriptContextGroup group = new JavaScriptContextGroup();
+		try {
+			// The group outlives the contexts, so their objects, methods and constructors are
+			// finalized after the contexts released their classes
+			for (int i = 0; i < 20; i++) {
+				JavaScriptContextPool cyclePool = new JavaScriptContextPool(1, group);
+				int jsContextPointer = cyclePool.acquire();
+				JavaScriptDroid.evaluateScript("var kept = [JSObject, JSObject.prototype.getInt];"
+						+ "for (var j = 0; j < 100; j++) { kept.push(new JSObject()); }", "", jsContextPointer);
+				cyclePool.release(jsContextPointer);
+				cyclePool.close();
+			}
+			JavaScriptDroid.garbageCollect();
+		} finally {
+			group.release();
+		}
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void contextIsReturnedOnce() throws Exception {
+		int jsContextPointer = pool.acquire();
+		pool.release(jsContextPointer);
+		pool.release(jsContextPointer);
+	}
+
+	@Test
+	public void evaluateInParallel() throws Exception {
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 100; j++) {
+							Object result = pool.evaluateScript(
+									"var obj = new JSObject(); obj.setInt(21); twice(obj.getInt());", "test.js");
+							assertEquals(42d, result);
+						}
+					} catch (Throwable ex) {
+						error.set(ex);
+					}
+				}
+			});
+			threads[i].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertNull(error.get());
+		assertTrue(pool.getSize() <= pool.getMaxSize());
+	}
+}
@@ -0,0 +1,114 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class JavaScriptDispatcherTests extends InstrumentationTestCase {
+
+	public static class DispatchedObject {
+
+		@JavaScriptMapped
+		public String name = "reflection";
+
+		@JavaScriptMapped
+		public int count;
+
+		@JavaScriptMapped
+		public DispatchedObject() {
+		}
+
+		@JavaScriptMapped
+		public String concat(String a, String b) {
+			return a + b;
+		}
+
+		@JavaScriptMapped
+		public String notDispatched() {
+			return "reflection";
+		}
+	}
+
+	private static class Dispatcher implements JavaScriptDispatcher<DispatchedObject> {
+
+		private int calls;
+
+		@Override
+		public String[] getMethodNames() {
+			return new String[] { "concat" };
+		}
+
+		@Override
+		public String[] getPropertyNames() {
+			return new String[] { "count", "name" };
+		}
+
+		@Override
+		public DispatchedObject newInstance(Object[] args) {
+			calls++;
+			return new DispatchedObject();
+		}
+
+		@Override
+		public Object invoke(DispatchedObject obj, int methodIndex, Object[] args) {
+			calls++;
+			switch (methodIndex) {
+				case 0: return obj.concat((String) args[0], (String) args[1]);
+				default: throw new IllegalArgumentException();
+			}
+		}
+
+		@Override
+		public Object get(DispatchedObject obj, int propertyIndex) {
+			calls++;
+			switch (propertyIndex) {
+				case 0: return obj.count;
+				case 1: return obj.name;
+				default: throw new IllegalArgumentException();
+			}
+		}
+
+		@Override
+		public void set(DispatchedObject obj, int propertyIndex, Object value) {
+			calls++;
+			switch (propertyIndex) {
+				case 0: obj.count = (Integer) value; break;
+				case 1: obj.name = (String) value; break;
+				default: throw new IllegalArgumentException();
+			}
+		}
+	}
+
+	private Dispatcher dispatcher;
+
+	@Before
+	public void registerClass() {
+		dispatcher = new Dispatcher();
+		JavaScriptDroid.registerClass(DispatchedObject.class, dispatcher);
+	}
+
+	@Test
+	public void membersAreDispatched() throws JavaScriptException {
+		String script = "var obj = new DispatchedObject(); obj.count = 2; obj.name = 'dis'; "
+				+ "obj.concat(obj.name, 'patcher') + obj.count;";
+		Object result = JavaScriptDroid.evaluateScript(script);
+
+		assertEquals("dispatcher2", result);
+		assertEquals(6, dispatcher.calls);
+	}
+
+	@Test
+	public void membersNotDispatchedUseReflection() throws JavaScriptException {
+		String script = "new DispatchedObject().notDispatched();";
+		Object result = JavaScriptDroid.evaluateScript(script);
+
+		assertEquals("reflection", result);
+		assertEquals(1, dispatcher.calls);
+	}
+}
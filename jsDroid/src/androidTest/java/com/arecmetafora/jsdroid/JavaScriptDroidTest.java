@@ -2,6 +2,7 @@ package com.arecmetafora.jsdroid;
 
 import java.util.Calendar;
 import java.util.GregorianCalendar;
+import java.util.Map;
 
 import android.support.test.runner.AndroidJUnit4;
 
@@ -61,6 +62,26 @@ public class JavaScriptDroidTest {
 		assertEquals("STR", result);
 	}
 
+	@Test
+	public void evaluateScriptWithNonAsciiStrings() throws JavaScriptException {
+		// Characters out of the BMP (surrogate pairs), embedded nulls and non-ASCII characters
+		String text = "caf\u00e9 \ud83d\ude00 \u0000 \u4e2d";
+
+		Object result = JavaScriptDroid.evaluateScript("'caf\u00e9 \ud83d\ude00 \u0000 \u4e2d'");
+		assertEquals(text, result);
+
+		result = JavaScriptDroid.evaluateScript("'\\ud83d\\ude00'.length");
+		assertEquals(2d, result);
+
+		result = JavaScriptDroid.evaluateScriptWithParameters("return text + text.length;",
+				new String[] { "text" }, text);
+		assertEquals(text + "11", result);
+
+		result = JavaScriptDroid.evaluateScriptWithParameters("return \u00e9t\u00e9;",
+				new String[] { "\u00e9t\u00e9" }, "summer");
+		assertEquals("summer", result);
+	}
+
 	@Test
 	public void evaluateScriptReturningDate() throws JavaScriptException {
 		// 31/12/2012 23:59:58
@@ -129,6 +150,57 @@ public class JavaScriptDroidTest {
 		assertEquals(JSObject.class, array[2].getClass());
 	}
 
+	@Test
+	public void evaluateScriptReturningHomogeneousArrays() throws JavaScriptException {
+		double[] numbers = (double[]) JavaScriptDroid.evaluateScript("[1, 2.5, -3];");
+		assertArrayEquals(new double[] { 1, 2.5, -3 }, numbers, 0);
+
+		boolean[] booleans = (boolean[]) JavaScriptDroid.evaluateScript("[true, false];");
+		assertTrue(booleans[0]);
+		assertFalse(booleans[1]);
+
+		String[] strings = (String[]) JavaScriptDroid.evaluateScript("['a', 'b'];");
+		assertArrayEquals(new String[] { "a", "b" }, strings);
+
+		// Empty arrays, arrays with holes and mixed arrays keep being arrays of objects
+		assertEquals(0, ((Object[]) JavaScriptDroid.evaluateScript("[];")).length);
+		assertNull(((Object[]) JavaScriptDroid.evaluateScript("[1, , 3];"))[1]);
+		assertEquals(Object[].class, JavaScriptDroid.evaluateScript("[1, '2'];").getClass());
+
+		// Arrays of numbers are boxed for parameters declared as arrays of objects
+		JavaScriptDroid.registerClass(JSObject.class);
+		JSObject obj = new JSObject();
+		JavaScriptDroid.evaluateScriptWithParameters("obj.setArray([1, 2]);", new String[] { "obj" }, obj);
+		assertArrayEquals(new Object[] { 1d, 2d }, obj.getArray());
+	}
+
+	@Test
+	public void evaluateScriptWithLargeArrays() throws JavaScriptException {
+		double[] numbers = (double[]) JavaScriptDroid.evaluateScript(
+				"var numbers = []; for (var i = 0; i < 10000; i++) { numbers.push(i); } numbers;");
+		assertEquals(10000, numbers.length);
+		assertEquals(9999d, numbers[9999], 0);
+
+		Object[] mixed = (Object[]) JavaScriptDroid.evaluateScript(
+				"var mixed = []; for (var i = 0; i < 10000; i++) { mixed.push(i % 2 ? i : 'x'); } mixed;");
+		assertEquals(10000, mixed.length);
+		assertEquals(9999d, mixed[9999]);
+
+		// Only the elements read are buffered, not the length of sparse arrays
+		Object[] sparse = (Object[]) JavaScriptDroid.evaluateScript("var sparse = [1]; sparse.length = 100000; sparse;");
+		assertEquals(100000, sparse.length);
+		assertEquals(1d, sparse[0]);
+		assertNull(sparse[99999]);
+
+		Object[] array = new Object[10000];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = "item" + i;
+		}
+		Object result = JavaScriptDroid.evaluateScriptWithParameters(
+				"return array.length + array[9999];", new String[] { "array" }, new Object[] { array });
+		assertEquals("10000item9999", result);
+	}
+
 	@Test
 	public void evaluateScriptWithParametersDate() throws JavaScriptException {
 		GregorianCalendar javaDate = new GregorianCalendar(2012, 12, 31, 23, 59, 58);
@@ -147,6 +219,23 @@ public class JavaScriptDroidTest {
 		assertTrue((Boolean) result);
 	}
 
+	@Test
+	public void evaluateScriptWithParametersDateKeepingTime() throws JavaScriptException {
+		GregorianCalendar javaDate = new GregorianCalendar(2012, 11, 31, 23, 59, 58);
+		javaDate.set(Calendar.MILLISECOND, 123);
+
+		Object result = JavaScriptDroid.evaluateScriptWithParameters("return date.getTime();",
+				new String[] { "date" }, javaDate);
+		assertEquals((double) javaDate.getTimeInMillis(), result);
+
+		result = JavaScriptDroid.evaluateScriptWithParameters("return [date, [new Date(date.getTime())]];",
+				new String[] { "date" }, javaDate);
+		Object[] array = (Object[]) result;
+		assertEquals(javaDate.getTimeInMillis(), ((GregorianCalendar) array[0]).getTimeInMillis());
+		assertEquals(javaDate.getTimeInMillis(),
+				((GregorianCalendar) ((Object[]) array[1])[0]).getTimeInMillis());
+	}
+
 	@Test
 	public void evaluateScriptWithParametersArray() throws JavaScriptException {
 		JavaScriptDroid.registerClass(JSObject.class);
@@ -489,7 +578,8 @@ public class JavaScriptDroidTest {
 	public void evaluateScriptReturningJavaScriptObject() throws JavaScriptException {
 		String script = "new Object()";
 		Object result = evaluateScript(script, null, Void.class);
-		assertEquals(UnmappedObject.class, result.getClass());
+		assertTrue(result instanceof Map);
+		assertTrue(((Map<?, ?>) result).isEmpty());
 	}
 
 	@Test
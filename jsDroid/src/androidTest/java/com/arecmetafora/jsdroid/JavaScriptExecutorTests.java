@@ -0,0 +1,200 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@RunWith(AndroidJUnit4.class)
+public class JavaScriptExecutorTests extends InstrumentationTestCase {
+
+	/**
+	 * Blocks the thread of the executor until the test opens it.
+	 */
+	public static class Gate {
+		static CountDownLatch entered;
+		static CountDownLatch opened;
+		static volatile boolean interrupted;
+
+		@JavaScriptMapped
+		public Gate() {
+		}
+
+		@JavaScriptMapped
+		public void pass() {
+			entered.countDown();
+			boolean interrupted = false;
+			while (true) {
+				try {
+					opened.await();
+					break;
+				} catch (InterruptedException ex) {
+					interrupted = true;
+				}
+			}
+			if (interrupted) {
+				Gate.interrupted = true;
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private static final String BUSY_SCRIPT = "new Gate().pass();";
+
+	private JavaScriptExecutor executor;
+
+	@Before
+	public void createExecutor() {
+		JavaScriptDroid.registerClass(JSObject.class);
+		JavaScriptDroid.registerClass(Gate.class);
+		Gate.entered = new CountDownLatch(1);
+		Gate.opened = new CountDownLatch(1);
+		Gate.interrupted = false;
+		executor = new JavaScriptExecutor(4);
+	}
+
+	private void awaitBusy() throws InterruptedException {
+		assertTrue(Gate.entered.await(5, TimeUnit.SECONDS));
+	}
+
+	@After
+	public void shutdownExecutor() {
+		Gate.opened.countDown();
+		executor.shutdown();
+	}
+
+	@Test
+	public void evaluateWithFuture() throws Exception {
+		Future<Object> result = executor.evaluateScriptAsync(
+				"new JSObject().intValue = 21; 21 * 2;", "async.js");
+		assertEquals(42d, result.get(5, TimeUnit.SECONDS));
+
+		Future<Object> error = executor.evaluateScriptAsync("throw 'error';", "async.js");
+		try {
+			error.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof JavaScriptException);
+		}
+	}
+
+	@Test
+	public void evaluateWithCallback() throws Exception {
+		final CountDownLatch latch = new CountDownLatch(2);
+		final AtomicReference<Object> result = new AtomicReference<>();
+		final AtomicReference<Throwable> error = new AtomicReference<>();
+		final AtomicReference<Thread> thread = new AtomicReference<>();
+
+		EvaluationCallback callback = new EvaluationCallback() {
+			@Override
+			public void onResult(Object value) {
+				result.set(value);
+				thread.set(Thread.currentThread());
+				latch.countDown();
+			}
+
+			@Override
+			public void onError(Throwable ex) {
+				error.set(ex);
+				latch.countDown();
+			}
+		};
+		executor.evaluateScriptAsync("'done';", "async.js", callback);
+		executor.evaluateScriptAsync("undefinedFunction();", "async.js", callback);
+
+		assertTrue(latch.await(5, TimeUnit.SECONDS));
+		assertEquals("done", result.get());
+		assertTrue(error.get() instanceof JavaScriptException);
+		assertNotSame(Thread.currentThread(), thread.get());
+	}
+
+	@Test
+	public void evaluationsAreOrderedAndBatched() throws Exception {
+		executor.evaluateScriptAsync(BUSY_SCRIPT + " var order = [];", "async.js");
+		awaitBusy();
+
+		// Queued while the thread is busy, so they are evaluated in a single turn
+		ArrayList<Future<Object>> results = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			results.add(executor.evaluateScriptAsync("order.push(" + i + "); order.join();", "async.js"));
+		}
+		Gate.opened.countDown();
+
+		assertEquals("0,1,2,3", results.get(3).get(5, TimeUnit.SECONDS));
+		assertEquals("0", results.get(0).get());
+		assertEquals(2, executor.getTurnCount());
+	}
+
+	@Test
+	public void fullQueueIsRejected() throws Exception {
+		Future<Object> busy = executor.evaluateScriptAsync(BUSY_SCRIPT, "async.js");
+		awaitBusy();
+
+		for (int i = 0; i < 4; i++) {
+			executor.evaluateScriptAsync("1;", "async.js");
+		}
+		assertEquals(0, executor.getRemainingCapacity());
+
+		try {
+			executor.evaluateScriptAsync("1;", "async.js");
+			fail();
+		} catch (RejectedExecutionException ignored) {
+		}
+		Gate.opened.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void shutdownCancelsQueuedEvaluations() throws Exception {
+		Future<Object> busy = executor.evaluateScriptAsync(BUSY_SCRIPT, "async.js");
+		awaitBusy();
+		Future<Object> queued = executor.evaluateScriptAsync("1;", "async.js");
+
+		executor.shutdown();
+		assertTrue(executor.isShutdown());
+		Gate.opened.countDown();
+		busy.get(5, TimeUnit.SECONDS);
+
+		// The running evaluation finishes undisturbed
+		assertFalse(Gate.interrupted);
+		try {
+			queued.get(5, TimeUnit.SECONDS);
+			fail();
+		} catch (CancellationException ignored) {
+		}
+
+		try {
+			executor.evaluateScriptAsync("1;", "async.js");
+			fail();
+		} catch (RejectedExecutionException ignored) {
+		}
+	}
+
+	@Test
+	public void defaultExecutorOwnsItsContext() throws Exception {
+		JavaScriptExecutor defaultExecutor = JavaScriptDroid.getDefaultExecutor();
+		assertTrue(defaultExecutor.getContextPointer() != JavaScriptDroid.getJsGlobalContexPointer());
+
+		JavaScriptDroid.evaluateScript("var globalOnly = 1;");
+		JavaScriptDroid.evaluateScriptAsync("var asyncOnly = 1;", "async.js").get(5, TimeUnit.SECONDS);
+		assertEquals("undefined", JavaScriptDroid.evaluateScriptAsync("typeof globalOnly;", "async.js")
+				.get(5, TimeUnit.SECONDS));
+		assertEquals(2d, JavaScriptDroid.evaluateScriptAsync("new JSObject().intValue = asyncOnly + 1;", "async.js")
+				.get(5, TimeUnit.SECONDS));
+		assertEquals("undefined", JavaScriptDroid.evaluateScript("typeof asyncOnly;"));
+	}
+}
@@ -468,8 +468,58 @@ public class JavaScriptFunctionTests extends InstrumentationTestCase {
 		}
 	}
 
+	@Test
+	public void functionIsSharedByInstances() throws JavaScriptException {
+		JSObject obj = new JSObject();
+
+		String script = "return obj.getDouble === obj.getDouble && obj.getDouble === new JSObject().getDouble;";
+		Boolean result = callScript(script, obj, Boolean.class);
+		assertTrue(result);
+	}
+
+	@Test
+	public void functionCalledOnIncompatibleObject() throws JavaScriptException {
+		JSObject obj = new JSObject();
+
+		try {
+			String script = "var f = obj.getDouble; f();";
+			callScript(script, obj);
+
+			fail("A JavaScriptException should've been thrown");
+		} catch (JavaScriptException ex) {
+			assertEquals("Error: Mapped method called on an incompatible object", ex.getMessage());
+		}
+	}
+
+	@Test
+	public void functionWithPrimitiveParametersNarrowed() throws JavaScriptException {
+		JSObject obj = new JSObject();
+
+		String script = "obj.setInt(-2.7); obj.setByte(300); obj.setBoolean(false); return obj.getInt() + obj.getByte();";
+		Number result = callScript(script, obj, Number.class);
+		assertEquals(-2, obj.getInt());
+		assertEquals((byte) 300, obj.getByte());
+		assertFalse(obj.getBoolean());
+		assertEquals(-2 + (byte) 300, result.intValue());
+	}
+
 	// These Stress tests is a not a performance tests. It guarantees that
 	// all JNI references are being released properly
+	@Test
+	public void functionPrimitiveStress() throws JavaScriptException {
+
+		String script =
+				  "for (index = 0; index < 10000; index++) { "
+				+ "	   obj.setInt(obj.getInt() + 1);"
+				+ "	   obj.setBoolean(!obj.getBoolean());"
+				+ "}";
+
+		JSObject obj = new JSObject();
+		obj.setInt(0);
+		callScript(script, obj);
+		assertEquals(10000, obj.getInt());
+	}
+
 	@Test
 	public void functionStress() throws JavaScriptException {
 
@@ -158,7 +158,29 @@ public class JavaScriptGetPropertyTests extends InstrumentationTestCase {
 		Object result = callScript(script, obj, Object.class);
 		assertNull(result);
 	}
-	
+
+	@Test
+	public void getPropertyDeclaredByClass() throws JavaScriptException {
+		JSObject obj = new JSObject();
+
+		String script = "return obj.isMappedObject && ('doubleValue' in obj) && !('notMappedProperty' in obj);";
+		Boolean result = callScript(script, obj, Boolean.class);
+		assertTrue(result);
+
+		// Mapped properties are not enumerable
+		script = "var names = []; for (var name in obj) names.push(name); return names.length;";
+		Number count = callScript(script, obj, Number.class);
+		assertEquals(0, count.intValue());
+	}
+
+	@Test
+	public void setPropertyNotMapped() throws JavaScriptException {
+		JSObject obj = new JSObject();
+		String script = "obj.notMappedProperty = 'SW'; return obj.notMappedProperty;";
+		String result = callScript(script, obj, String.class);
+		assertEquals("SW", result);
+	}
+
 	// These Stress tests is a not a performance tests. It guarantees that
 	// all JNI references are being released properly
 	@Test
@@ -180,6 +180,18 @@ public class JavaScriptSetPropertyTests extends InstrumentationTestCase {
         }
 	}
 
+	@Test
+	public void setPropertyPrimitiveNarrowed() throws JavaScriptException {
+		JSObject obj = new JSObject();
+
+		String script = "obj.intValue = 7.9; obj.shortValue = 70000; obj.booleanValue = false; return obj.intValue;";
+		Number result = (Number) JavaScriptDroid.evaluateScriptWithParameters(script, new String[] { "obj" }, obj);
+		assertEquals(7, obj.getInt());
+		assertEquals((short) 70000, obj.getShort());
+		assertFalse(obj.getBoolean());
+		assertEquals(7, result.intValue());
+	}
+
     @Test
 	public void setPropertyInvalidType() throws JavaScriptException {
 
@@ -0,0 +1,128 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+@RunWith(AndroidJUnit4.class)
+public class JavaScriptTypedArrayTests extends InstrumentationTestCase {
+
+	public static class JSBuffers {
+
+		@JavaScriptMapped
+		public byte[] byteArray = new byte[] { -1, 0, 1 };
+
+		@JavaScriptMapped
+		public int[] intArray = new int[] { Integer.MIN_VALUE, 0, Integer.MAX_VALUE };
+
+		@JavaScriptMapped
+		public float[] floatArray = new float[] { 0.5f, 1.5f };
+
+		@JavaScriptMapped
+		public double[] doubleArray = new double[] { 0.25, Double.MAX_VALUE };
+
+		@JavaScriptMapped
+		public ByteBuffer buffer = ByteBuffer.allocateDirect(4);
+
+		@JavaScriptMapped
+		public double sum(double[] values) {
+			double sum = 0;
+			for (double value : values) {
+				sum += value;
+			}
+			return sum;
+		}
+	}
+
+	@Before
+	public void registerClass() {
+		JavaScriptDroid.registerClass(JSBuffers.class);
+	}
+
+	private Object callScript(String script, JSBuffers obj) throws JavaScriptException {
+		return JavaScriptDroid.evaluateScriptWithParameters(script, new String[] { "obj" }, obj);
+	}
+
+	@Test
+	public void getTypedArrays() throws JavaScriptException {
+		JSBuffers obj = new JSBuffers();
+
+		assertEquals(true, callScript("return obj.byteArray instanceof Int8Array && obj.byteArray[0] == -1;", obj));
+		assertEquals(true, callScript("return obj.intArray instanceof Int32Array && obj.intArray[2] == 2147483647;", obj));
+		assertEquals(true, callScript("return obj.floatArray instanceof Float32Array && obj.floatArray[1] == 1.5;", obj));
+		assertEquals(true, callScript("return obj.doubleArray instanceof Float64Array && obj.doubleArray.length == 2;", obj));
+	}
+
+	@Test
+	public void setTypedArrays() throws JavaScriptException {
+		JSBuffers obj = new JSBuffers();
+
+		callScript("obj.byteArray = new Uint8Array([255, 1]);", obj);
+		assertEquals(2, obj.byteArray.length);
+		assertEquals(-1, obj.byteArray[0]);
+
+		callScript("obj.intArray = new Int32Array(new ArrayBuffer(16), 4, 2).fill(7);", obj);
+		assertEquals(2, obj.intArray.length);
+		assertEquals(7, obj.intArray[1]);
+
+		// Plain arrays of numbers are also accepted
+		callScript("obj.floatArray = [1, 2.5];", obj);
+		assertEquals(2.5f, obj.floatArray[1]);
+	}
+
+	@Test
+	public void typedArrayParameter() throws JavaScriptException {
+		JSBuffers obj = new JSBuffers();
+
+		assertEquals(6d, callScript("return obj.sum(new Float64Array([1, 2, 3]));", obj));
+		assertEquals(6d, callScript("return obj.sum([1, 2, 3]);", obj));
+		assertEquals(6d, callScript("return obj.sum(new Int32Array([1, 2, 3]));", obj));
+
+		try {
+			callScript("obj.sum(['1']);", obj);
+			fail("A JavaScriptMethodParamTypeInvalid should've been thrown.");
+		} catch (JavaScriptMethodParamTypeInvalid ex) {
+			// Only numbers are converted to double[]
+		}
+	}
+
+	@Test
+	public void unsignedTypedArrayParameter() throws JavaScriptException {
+		JSBuffers obj = new JSBuffers();
+
+		assertEquals(255d, callScript("return obj.sum(new Uint8Array([255]));", obj));
+		assertEquals(255d, callScript("return obj.sum(new Uint8ClampedArray([300]));", obj));
+		assertEquals(65535d, callScript("return obj.sum(new Uint16Array([65535]));", obj));
+		assertEquals(4294967295d, callScript("return obj.sum(new Uint32Array([4294967295]));", obj));
+		assertEquals(-1d, callScript("return obj.sum(new Int8Array([255]));", obj));
+	}
+
+	@Test
+	public void directBufferSharesMemory() throws JavaScriptException {
+		JSBuffers obj = new JSBuffers();
+		obj.buffer.put(0, (byte) 42);
+
+		assertEquals(true, callScript("var view = obj.buffer; view[1] = 7; return view instanceof Uint8Array && view[0] == 42;", obj));
+		assertEquals(7, obj.buffer.get(1));
+	}
+
+	// These Stress tests is a not a performance tests. It guarantees that
+	// all JNI references are being released properly
+	@Test
+	public void typedArrayStress() throws JavaScriptException {
+		String script =
+				  "for (index = 0; index < 10000; index++) { "
+				+ "	   obj.byteArray = obj.byteArray;"
+				+ "	   var a = obj.buffer;"
+				+ "}";
+
+		callScript(script, new JSBuffers());
+	}
+}
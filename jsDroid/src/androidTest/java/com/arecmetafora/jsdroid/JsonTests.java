@@ -0,0 +1,103 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+@RunWith(AndroidJUnit4.class)
+public class JsonTests extends InstrumentationTestCase {
+
+	@Test
+	public void evaluateToJson() throws JavaScriptException {
+		ByteBuffer json = JavaScriptDroid.evaluateToJson("({ name: 'Ann', tags: [1, 'a', true], empty: null })");
+
+		assertTrue(json.isDirect());
+		assertEquals(ByteOrder.nativeOrder(), json.order());
+		assertEquals("{\"name\":\"Ann\",\"tags\":[1,\"a\",true],\"empty\":null}",
+				json.asCharBuffer().toString());
+	}
+
+	@Test
+	public void evaluateToJsonWithoutRepresentation() throws JavaScriptException {
+		assertNull(JavaScriptDroid.evaluateToJson("undefined"));
+		assertNull(JavaScriptDroid.evaluateToJson("(function() {})"));
+	}
+
+	@Test(expected = JavaScriptException.class)
+	public void evaluateCyclicObjectToJson() throws JavaScriptException {
+		JavaScriptDroid.evaluateToJson("var cyclic = {}; cyclic.self = cyclic; cyclic;");
+	}
+
+	@Test(expected = JavaScriptException.class)
+	public void evaluateFailingScriptToJson() throws JavaScriptException {
+		JavaScriptDroid.evaluateToJson("throw new Error('Failed')");
+	}
+
+	@Test
+	public void parseJsonIntoContext() throws JavaScriptException {
+		ByteBuffer json = JavaScriptDroid.evaluateToJson("({ name: 'Ann', age: 30 })");
+		int jsContextPointer = JavaScriptDroid.createRegisteredContext(0, null);
+		try {
+			JavaScriptDroid.parseJsonIntoContext(json, "person", jsContextPointer);
+
+			assertEquals(0, json.position());
+			assertEquals("Ann", JavaScriptDroid.evaluateScript("person.name", "", jsContextPointer));
+			assertEquals(30d, JavaScriptDroid.evaluateScript("person.age", "", jsContextPointer));
+		} finally {
+			JavaScriptDroid.releaseRegisteredContext(jsContextPointer);
+		}
+	}
+
+	@Test
+	public void parseJsonFromPosition() throws JavaScriptException {
+		String text = "  [1, 2, 3]";
+		ByteBuffer json = ByteBuffer.allocateDirect(2 * text.length()).order(ByteOrder.nativeOrder());
+		json.asCharBuffer().put(text);
+		json.position(4);
+
+		JavaScriptDroid.parseJsonIntoContext(json, "numbers");
+		Map<?, ?> result = (Map<?, ?>) JavaScriptDroid.evaluateScript("({ sum: numbers[0] + numbers[1] + numbers[2] })");
+		assertEquals(6d, result.get("sum"));
+	}
+
+	@Test(expected = JavaScriptException.class)
+	public void parseInvalidJson() throws JavaScriptException {
+		String text = "{ name: 'Ann' }";
+		ByteBuffer json = ByteBuffer.allocateDirect(2 * text.length()).order(ByteOrder.nativeOrder());
+		json.asCharBuffer().put(text);
+
+		JavaScriptDroid.parseJsonIntoContext(json, "invalid");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseJsonFromHeapBuffer() throws JavaScriptException {
+		JavaScriptDroid.parseJsonIntoContext(ByteBuffer.allocate(4), "invalid");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseJsonInForeignByteOrder() throws JavaScriptException {
+		ByteBuffer json = JavaScriptDroid.evaluateToJson("[1, 2];");
+		json.order(json.order() == ByteOrder.BIG_ENDIAN ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+		JavaScriptDroid.parseJsonIntoContext(json, "invalid");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseJsonFromOddPosition() throws JavaScriptException {
+		ByteBuffer json = JavaScriptDroid.evaluateToJson("[1, 2];");
+		json.position(1);
+		JavaScriptDroid.parseJsonIntoContext(json, "invalid");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void parseJsonOfOddLength() throws JavaScriptException {
+		ByteBuffer json = JavaScriptDroid.evaluateToJson("[1, 2];");
+		json.limit(json.limit() - 1);
+		JavaScriptDroid.parseJsonIntoContext(json, "invalid");
+	}
+}
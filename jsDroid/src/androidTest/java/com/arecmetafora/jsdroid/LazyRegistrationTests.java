@@ -0,0 +1,90 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class LazyRegistrationTests extends InstrumentationTestCase {
+
+	public static class LazyConstructed {
+
+		@JavaScriptMapped
+		public int value = 7;
+
+		@JavaScriptMapped
+		public LazyConstructed() {
+		}
+
+		@JavaScriptMapped
+		public int twice() {
+			return value * 2;
+		}
+	}
+
+	public static class LazyParameter {
+
+		@JavaScriptMapped
+		public String name = "parameter";
+	}
+
+	public static class LazyPooled {
+
+		@JavaScriptMapped
+		public LazyPooled() {
+		}
+
+		@JavaScriptMapped
+		public String getName() {
+			return "pooled";
+		}
+	}
+
+	@Test
+	public void resolvedOnFirstReference() throws JavaScriptException {
+		JavaScriptDroid.registerClassLazily(LazyConstructed.class);
+		assertNull(JavaScriptDroid.peekAPIClass(LazyConstructed.class));
+
+		assertEquals("function", JavaScriptDroid.evaluateScript("typeof LazyConstructed;"));
+		assertNotNull(JavaScriptDroid.peekAPIClass(LazyConstructed.class));
+
+		assertEquals(7d, JavaScriptDroid.evaluateScript("new LazyConstructed().value;"));
+		assertEquals(14d, JavaScriptDroid.evaluateScript("new LazyConstructed().twice();"));
+	}
+
+	@Test
+	public void resolvedWhenPassedToJavaScript() throws JavaScriptException {
+		JavaScriptDroid.registerClassLazily(LazyParameter.class);
+		assertNull(JavaScriptDroid.peekAPIClass(LazyParameter.class));
+
+		assertEquals("parameter", JavaScriptDroid.evaluateScriptWithParameters(
+				"return obj.name;", new String[] { "obj" }, new Object[] { new LazyParameter() }));
+		assertNotNull(JavaScriptDroid.peekAPIClass(LazyParameter.class));
+	}
+
+	@Test
+	public void resolvedInEachContext() throws Exception {
+		JavaScriptDroid.registerClassLazily(LazyPooled.class);
+
+		JavaScriptContextPool pool = new JavaScriptContextPool(1);
+		try {
+			assertEquals("pooled", pool.evaluateScript("new LazyPooled().getName();", "test.js"));
+			assertEquals("pooled", JavaScriptDroid.evaluateScript("new LazyPooled().getName();"));
+
+			// Contexts created after the class was resolved still get it
+			int jsContextPointer = JavaScriptDroid.createRegisteredContext(0, null);
+			try {
+				assertEquals("pooled", JavaScriptDroid.evaluateScript(
+						"new LazyPooled().getName();", "", jsContextPointer));
+			} finally {
+				JavaScriptDroid.releaseRegisteredContext(jsContextPointer);
+			}
+		} finally {
+			pool.close();
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+/**
+ * Measures the lookup throughput of the object handle table as the number of threads grows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ObjectHandleTableBenchmark {
+
+	private static final int OBJECTS = 1024;
+
+	private static final int LOOKUPS_PER_THREAD = 2000000;
+
+	@Test
+	public void lookupThroughputByThreadCount() throws InterruptedException {
+		final ObjectHandleTable table = new ObjectHandleTable(OBJECTS);
+		final int[] handles = new int[OBJECTS];
+		for (int i = 0; i < OBJECTS; i++) {
+			handles[i] = table.alloc(new Object());
+		}
+
+		int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+		for (int threads = 1; threads <= maxThreads; threads *= 2) {
+			final boolean[] failed = new boolean[threads];
+			Thread[] workers = new Thread[threads];
+			for (int t = 0; t < threads; t++) {
+				final int worker = t;
+				workers[t] = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						for (int i = 0; i < LOOKUPS_PER_THREAD; i++) {
+							if (table.get(handles[(i + worker) & (OBJECTS - 1)]) == null) {
+								failed[worker] = true;
+							}
+						}
+					}
+				});
+			}
+
+			long start = System.nanoTime();
+			for (Thread worker : workers) {
+				worker.start();
+			}
+			for (Thread worker : workers) {
+				worker.join();
+			}
+			long elapsed = System.nanoTime() - start;
+
+			for (boolean f : failed) {
+				assertFalse(f);
+			}
+
+			double lookupsPerSecond = (double) threads * LOOKUPS_PER_THREAD * 1e9 / elapsed;
+			Utils.log(String.format("ObjectHandleTable: %d thread(s), %.0f lookups/s",
+					threads, lookupsPerSecond));
+		}
+	}
+}
@@ -0,0 +1,117 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class ObjectHandleTableTests {
+
+	private static class CollidingObject implements JavaScriptDisposable {
+
+		boolean disposed;
+
+		@Override
+		public int hashCode() {
+			return 42;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof CollidingObject;
+		}
+
+		@Override
+		public void dispose() {
+			disposed = true;
+		}
+	}
+
+	@Test
+	public void collidingHashCodesDoNotAlias() {
+		ObjectHandleTable table = new ObjectHandleTable(4);
+
+		CollidingObject first = new CollidingObject();
+		CollidingObject second = new CollidingObject();
+
+		int firstHandle = table.alloc(first);
+		int secondHandle = table.alloc(second);
+
+		assertNotEquals(firstHandle, secondHandle);
+		assertSame(first, table.get(firstHandle));
+		assertSame(second, table.get(secondHandle));
+
+		assertSame(first, table.release(firstHandle));
+		assertNull(table.get(firstHandle));
+		assertSame(second, table.get(secondHandle));
+	}
+
+	@Test
+	public void collidingHashCodesThroughCallbacks() {
+		CollidingObject first = new CollidingObject();
+		CollidingObject second = new CollidingObject();
+
+		int firstHandle = JavaScriptCallback.allocObjectReference(first);
+		int secondHandle = JavaScriptCallback.allocObjectReference(second);
+
+		assertSame(first, JavaScriptCallback.getObjectReference(firstHandle));
+		assertSame(second, JavaScriptCallback.getObjectReference(secondHandle));
+
+		JavaScriptCallback.deallocObjectReference(secondHandle);
+		assertTrue(second.disposed);
+		assertFalse(first.disposed);
+		assertSame(first, JavaScriptCallback.getObjectReference(firstHandle));
+
+		JavaScriptCallback.deallocObjectReference(firstHandle);
+		assertTrue(first.disposed);
+	}
+
+	@Test
+	public void sameObjectSharesHandle() {
+		ObjectHandleTable table = new ObjectHandleTable(4);
+		Object obj = new Object();
+
+		int handle = table.alloc(obj);
+		assertEquals(handle, table.alloc(obj));
+		assertEquals(1, table.size());
+
+		// Only the last release frees the object
+		assertNull(table.release(handle));
+		assertSame(obj, table.get(handle));
+		assertSame(obj, table.release(handle));
+		assertNull(table.get(handle));
+		assertEquals(0, table.size());
+	}
+
+	@Test
+	public void staleHandlesAreNotResolved() {
+		ObjectHandleTable table = new ObjectHandleTable(1);
+
+		int staleHandle = table.alloc("first");
+		table.release(staleHandle);
+
+		// The slot is reused with a new generation
+		int handle = table.alloc("second");
+		assertNotEquals(staleHandle, handle);
+		assertNull(table.get(staleHandle));
+		assertNull(table.release(staleHandle));
+		assertEquals("second", table.get(handle));
+	}
+
+	@Test
+	public void tableGrows() {
+		ObjectHandleTable table = new ObjectHandleTable(2);
+		Object[] objects = new Object[1000];
+		int[] handles = new int[objects.length];
+
+		for (int i = 0; i < objects.length; i++) {
+			objects[i] = new Object();
+			handles[i] = table.alloc(objects[i]);
+		}
+		for (int i = 0; i < objects.length; i++) {
+			assertSame(objects[i], table.get(handles[i]));
+		}
+	}
+}
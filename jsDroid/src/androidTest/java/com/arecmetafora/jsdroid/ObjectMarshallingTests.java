@@ -0,0 +1,164 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RunWith(AndroidJUnit4.class)
+public class ObjectMarshallingTests extends InstrumentationTestCase {
+
+	public static class Person {
+
+		@JavaScriptMapped
+		public String name;
+
+		@JavaScriptMapped
+		public int age;
+
+		@JavaScriptMapped
+		public Person friend;
+
+		@JavaScriptMapped
+		public List<?> tags;
+	}
+
+	public static class Registry {
+
+		public Person last;
+
+		public Map<String, Object> lastMap;
+
+		@JavaScriptMapped
+		public Registry() {
+		}
+
+		@JavaScriptMapped
+		public String add(Person person) {
+			last = person;
+			return person.name;
+		}
+
+		@JavaScriptMapped
+		public int addMap(Map<String, Object> map) {
+			lastMap = map;
+			return map.size();
+		}
+	}
+
+	@Before
+	public void registerClasses() {
+		JavaScriptDroid.registerClass(Person.class);
+		JavaScriptDroid.registerClass(Registry.class);
+	}
+
+	@Test
+	public void objectsAreConvertedToMaps() throws JavaScriptException {
+		Object result = JavaScriptDroid.evaluateScript(
+				"({ name: 'map', count: 2, nested: { flag: true }, items: [1, 2] });");
+		assertTrue(result instanceof LinkedHashMap);
+
+		Map<?, ?> map = (Map<?, ?>) result;
+		assertEquals(Arrays.asList("name", "count", "nested", "items"), new ArrayList<>(map.keySet()));
+		assertEquals("map", map.get("name"));
+		assertEquals(2d, map.get("count"));
+		assertEquals(true, ((Map<?, ?>) map.get("nested")).get("flag"));
+		assertTrue(Arrays.equals(new double[] { 1, 2 }, (double[]) map.get("items")));
+	}
+
+	@Test
+	public void cyclicObjectsKeepTheirReferences() throws JavaScriptException {
+		Map<?, ?> cyclic = (Map<?, ?>) JavaScriptDroid.evaluateScript(
+				"var cyclic = { a: [] }; cyclic.a.push(cyclic); cyclic;");
+		assertSame(cyclic, ((Object[]) cyclic.get("a"))[0]);
+
+		// Shared objects are converted once
+		Object[] shared = (Object[]) JavaScriptDroid.evaluateScript("var shared = { a: 1 }; [shared, shared];");
+		assertEquals(2, shared.length);
+		assertSame(shared[0], shared[1]);
+	}
+
+	@Test
+	public void deeplyNestedObjectsAreRejected() throws JavaScriptException {
+		assertNotNull(JavaScriptDroid.evaluateScript(
+				"var nested = {}; for (var i = 0; i < 30; i++) { nested = { n: [nested] }; } nested;"));
+		try {
+			JavaScriptDroid.evaluateScript("var nested = {}; for (var i = 0; i < 1e5; i++) { nested = { n: nested }; } nested;");
+			fail("A deeply nested object can't be converted");
+		} catch (JavaScriptException ex) {
+			assertTrue(ex.getMessage().contains("Object nested too deeply"));
+		}
+	}
+
+	@Test
+	public void mapsAndListsAreConvertedToObjects() throws JavaScriptException {
+		Map<String, Object> map = new HashMap<>();
+		map.put("a", 1);
+		map.put("b", Arrays.asList("x", "y"));
+
+		assertEquals("1,x,y,object", JavaScriptDroid.evaluateScriptWithParameters(
+				"return [m.a, m.b[0], m.b[1], typeof m].join();",
+				new String[] { "m" }, new Object[] { map }));
+		assertEquals(true, JavaScriptDroid.evaluateScriptWithParameters(
+				"return Array.isArray(l) && l.length == 2;",
+				new String[] { "l" }, new Object[] { Arrays.asList(1, 2) }));
+	}
+
+	@Test
+	public void cyclicMapsAreRejected() {
+		List<Object> list = new ArrayList<>();
+		list.add(list);
+		try {
+			JavaScriptDroid.evaluateScriptWithParameters("return l;",
+					new String[] { "l" }, new Object[] { list });
+			fail("A cyclic list can't be converted");
+		} catch (JavaScriptException ex) {
+			assertTrue(ex.getMessage().contains("Cyclic object value"));
+		}
+	}
+
+	@Test
+	public void objectsAreConvertedToRegisteredClasses() throws JavaScriptException {
+		Registry registry = new Registry();
+		assertEquals("ann", JavaScriptDroid.evaluateScriptWithParameters(
+				"return registry.add({ name: 'ann', age: 30, friend: { name: 'bob' }, tags: ['a'] });",
+				new String[] { "registry" }, new Object[] { registry }));
+
+		assertEquals(30, registry.last.age);
+		assertEquals("bob", registry.last.friend.name);
+		assertEquals(Arrays.asList("a"), registry.last.tags);
+
+		assertEquals(2d, JavaScriptDroid.evaluateScriptWithParameters(
+				"return registry.addMap({ a: 1, b: { c: 2 } });",
+				new String[] { "registry" }, new Object[] { registry }));
+		assertEquals(1d, registry.lastMap.get("a"));
+
+		@SuppressWarnings("unchecked")
+		Map<String, Object> map = (Map<String, Object>) JavaScriptDroid.evaluateScript(
+				"({ name: 'carl', age: 4 });");
+		Person person = JavaScriptDroid.toObject(map, Person.class);
+		assertEquals("carl", person.name);
+		assertEquals(4, person.age);
+	}
+
+	@Test
+	public void invalidPropertiesAreRejected() {
+		try {
+			JavaScriptDroid.evaluateScript("new Registry().add({ age: 'old' });");
+			fail("A JavaScriptPropertyTypeInvalid should've been thrown");
+		} catch (JavaScriptException ex) {
+			assertTrue(ex.getMessage().contains("age"));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.GregorianCalendar;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+@RunWith(AndroidJUnit4.class)
+public class ParameterConverterTests extends InstrumentationTestCase {
+
+	@Test
+	public void numbersAreConvertedToParameterType() {
+		assertEquals(1d, ParameterConverter.forParameter(double.class).convert(1d));
+		assertEquals(1, ParameterConverter.forParameter(Integer.class).convert(1d));
+		assertEquals(1f, ParameterConverter.forParameter(float.class).convert(1d));
+		assertEquals((byte) 1, ParameterConverter.forParameter(byte.class).convert(1d));
+		assertEquals((short) 1, ParameterConverter.forParameter(Short.class).convert(1d));
+		assertEquals(1L, ParameterConverter.forParameter(long.class).convert(1d));
+		assertEquals(1d, ParameterConverter.forParameter(Number.class).convert(1));
+		assertEquals(1d, ParameterConverter.forParameter(Object.class).convert(1));
+	}
+
+	@Test
+	public void invalidValuesAreRejected() {
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forParameter(int.class).convert("1"));
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forParameter(boolean.class).convert(1d));
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forParameter(Number.class).convert(true));
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forParameter(String.class).convert(1d));
+		assertSame(ParameterConverter.INVALID,
+				ParameterConverter.forParameter(GregorianCalendar.class).convert(new JSObject()));
+	}
+
+	@Test
+	public void arrayElementsAreValidatedForParametersOnly() {
+		Object[] strings = new Object[] { "1", null, "2" };
+		Object[] mixed = new Object[] { "1", 2d };
+
+		Object converted = ParameterConverter.forParameter(String[].class).convert(strings);
+		assertTrue(converted instanceof String[]);
+		assertEquals("2", ((String[]) converted)[2]);
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forParameter(String[].class).convert(mixed));
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forParameter(Object[].class).convert("1"));
+
+		// Properties are only checked against the declared type
+		assertSame(mixed, ParameterConverter.forProperty(Object[].class).convert(mixed));
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forProperty(String[].class).convert(strings));
+	}
+
+	@Test
+	public void arraysOfNumbersAreBoxedIntoTheComponentType() {
+		double[] numbers = new double[] { 1, 2 };
+
+		Object converted = ParameterConverter.forProperty(Double[].class).convert(numbers);
+		assertTrue(converted instanceof Double[]);
+		assertEquals(Double.valueOf(2), ((Double[]) converted)[1]);
+		assertTrue(ParameterConverter.forParameter(Number[].class).convert(numbers) instanceof Number[]);
+		assertTrue(ParameterConverter.forProperty(Boolean[].class).convert(new boolean[] { true }) instanceof Boolean[]);
+		assertSame(ParameterConverter.INVALID, ParameterConverter.forProperty(String[].class).convert(numbers));
+	}
+}
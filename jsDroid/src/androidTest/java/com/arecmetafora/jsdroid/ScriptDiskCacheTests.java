@@ -0,0 +1,173 @@
+package com.arecmetafora.jsdroid;
+
+import android.support.test.runner.AndroidJUnit4;
+import android.test.InstrumentationTestCase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Arrays;
+
+@RunWith(AndroidJUnit4.class)
+public class ScriptDiskCacheTests extends InstrumentationTestCase {
+
+	private static final String LIBRARY = "function diskCached(x) { return 'cach\u00e9 ' + x; } diskCached(1);";
+
+	/**
+	 * Source of a script which must be found in the cache.
+	 */
+	private static final Reader UNREAD_SOURCE = new Reader() {
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			throw new IOException("The source of a cached script was read");
+		}
+
+		@Override
+		public void close() {
+		}
+	};
+
+	private File directory;
+
+	private ScriptDiskCache cache;
+
+	@Before
+	public void openCache() throws Exception {
+		directory = new File(System.getProperty("java.io.tmpdir"), "ScriptDiskCacheTests");
+		cache = new ScriptDiskCache(directory);
+		cache.clear();
+	}
+
+	@After
+	public void clearCache() {
+		cache.clear();
+	}
+
+	@Test
+	public void cachedScriptsAreReusedWithoutTheirSource() throws Exception {
+		assertEquals("cach\u00e9 1", cache.evaluateScript("library.js", "1", new StringReader(LIBRARY)));
+		assertEquals(0, cache.hitCount());
+		assertEquals(1, cache.missCount());
+		assertEquals(1, cache.size());
+
+		assertEquals("cach\u00e9 1", cache.evaluateScript("library.js", "1", UNREAD_SOURCE));
+		assertEquals(1, cache.hitCount());
+		assertEquals(0.5, cache.hitRate(), 0);
+	}
+
+	@Test
+	public void cacheSurvivesRestarts() throws Exception {
+		cache.evaluateScript("library.js", "1", new StringReader(LIBRARY));
+
+		ScriptDiskCache reopened = new ScriptDiskCache(directory);
+		assertEquals(Arrays.asList("library.js"), reopened.getFileNames());
+		assertEquals("cach\u00e9 1", reopened.evaluateScript("library.js", "1", UNREAD_SOURCE));
+		assertEquals(1, reopened.hitCount());
+	}
+
+	@Test
+	public void newVersionsReplaceCachedScripts() throws Exception {
+		cache.evaluateScript("version.js", "1", new StringReader("var diskVersion = 1;"));
+		cache.evaluateScript("version.js", "2", new StringReader("var diskVersion = 2;"));
+
+		assertEquals(0, cache.hitCount());
+		assertEquals(1, cache.size());
+		assertEquals(2d, JavaScriptDroid.evaluateScript("diskVersion;"));
+
+		ScriptDiskCache reopened = new ScriptDiskCache(directory);
+		reopened.evaluateScript("version.js", "2", UNREAD_SOURCE);
+		assertEquals(2d, JavaScriptDroid.evaluateScript("diskVersion;"));
+	}
+
+	@Test
+	public void changedFilesAreNotReadFromTheCache() throws Exception {
+		File script = new File(directory.getParentFile(), "ScriptDiskCacheTests.js");
+		try {
+			writeFile(script, "var diskFile = 1;");
+			cache.evaluateScript(script);
+			cache.evaluateScript(script);
+			assertEquals(1, cache.hitCount());
+
+			// Same modification time, different size
+			long lastModified = script.lastModified();
+			writeFile(script, "var diskFile = 22;");
+			script.setLastModified(lastModified);
+			cache.evaluateScript(script);
+			assertEquals(2, cache.missCount());
+			assertEquals(22d, JavaScriptDroid.evaluateScript("diskFile;"));
+		} finally {
+			script.delete();
+		}
+	}
+
+	@Test
+	public void manifestIsCompacted() throws Exception {
+		for (int i = 0; i < 20; i++) {
+			cache.evaluateScript("compacted.js", String.valueOf(i), new StringReader("var diskCompacted = " + i + ";"));
+		}
+
+		BufferedReader reader = new BufferedReader(new FileReader(new File(directory, "manifest")));
+		int lines = 0;
+		try {
+			while (reader.readLine() != null) {
+				lines++;
+			}
+		} finally {
+			reader.close();
+		}
+		assertTrue(lines <= 2);
+
+		ScriptDiskCache reopened = new ScriptDiskCache(directory);
+		reopened.evaluateScript("compacted.js", "19", UNREAD_SOURCE);
+		assertEquals(19d, JavaScriptDroid.evaluateScript("diskCompacted;"));
+	}
+
+	private static void writeFile(File file, String content) throws IOException {
+		Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			writer.write(content);
+		} finally {
+			writer.close();
+		}
+	}
+
+	@Test
+	public void failedScriptsAreNotCached() throws Exception {
+		try {
+			cache.evaluateScript("failed.js", "1", new StringReader("throw 'not cached';"));
+			fail();
+		} catch (JavaScriptException ex) {
+			assertEquals("not cached", ex.getMessage());
+		}
+		try {
+			cache.evaluateScript("invalid.js", "1", new StringReader("var = ;"));
+			fail();
+		} catch (JavaScriptException ignored) {
+		}
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void errorsOfCachedScriptsAreThrown() throws Exception {
+		String script = "if(typeof diskThrow !== 'undefined') throw 'second'; var diskThrow = 1;";
+		cache.evaluateScript("throw.js", "1", new StringReader(script));
+		try {
+			cache.evaluateScript("throw.js", "1", UNREAD_SOURCE);
+			fail();
+		} catch (JavaScriptException ex) {
+			assertEquals("second", ex.getMessage());
+			assertEquals(1, cache.hitCount());
+		}
+	}
+}
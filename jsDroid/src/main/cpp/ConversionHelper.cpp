@@ -1,6 +1,193 @@
 #include "ConversionHelper.h"
 
 _JavaClasses JavaClasses;
+_JSNames JSNames;
+
+/**
+ * Checks if a native Java object is already being converted, which means that it is referenced by itself.
+ *
+ * @param env Pointer to JNI environment.
+ * @param path The objects being converted.
+ * @param javaObject The native Java object to be checked.
+ *
+ * @return Whether the object is in the path.
+ */
+static bool IsInConversionPath(JNIEnv *env, const JSConversionPath *path, jobject javaObject)
+{
+	for(; path; path = path->parent)
+	{
+		if(env->IsSameObject(path->javaObject, javaObject))
+			return true;
+	}
+	return false;
+}
+
+/**
+ * Throws a JavaScript error to the Java application, reporting an object which can't be converted.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param message The message of the error.
+ */
+static void ThrowConversionException(JNIEnv *env, JSContextRef ctx, const char *message)
+{
+	JSStringRef jsMessage = JSStringCreateWithUTF8CString(message);
+	JSValueRef messageValue = JSValueMakeString(ctx, jsMessage);
+	JSStringRelease(jsMessage);
+
+	JSObjectRef error = JSObjectMakeError(ctx, 1, &messageValue, NULL);
+	ThrowJavaScriptException(env, ctx, error);
+}
+
+/**
+ * Throws a JavaScript error to the Java application, reporting an object which references itself, since it can't be
+ * copied.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ */
+static void ThrowCyclicValueException(JNIEnv *env, JSContextRef ctx)
+{
+	ThrowConversionException(env, ctx, "Cyclic object value");
+}
+
+/**
+ * Throws an OutOfMemoryError to the Java application, reporting a conversion buffer which could not be allocated.
+ *
+ * @param env Pointer to JNI environment.
+ */
+static void ThrowOutOfMemoryError(JNIEnv *env)
+{
+	jclass errorClass = env->FindClass("java/lang/OutOfMemoryError");
+	env->ThrowNew(errorClass, "Could not allocate a conversion buffer");
+	env->DeleteLocalRef(errorClass);
+}
+
+/**
+ * Hashes the pointer of a JavaScript object, for the table of the converted objects. The low bits of the pointer are
+ * the same for all objects, since they are aligned.
+ *
+ * @param jsObject The JavaScript object.
+ *
+ * @return The hash of the object.
+ */
+static unsigned int HashObjectPointer(JSObjectRef jsObject)
+{
+	return (unsigned int)(((uintptr_t)jsObject >> 4) * 2654435761u);
+}
+
+/**
+ * Finds the native Java object which a JavaScript object has been converted to, in the current conversion.
+ *
+ * @param env Pointer to JNI environment.
+ * @param converted The objects converted by the current conversion.
+ * @param jsObject The JavaScript object.
+ *
+ * @return A local reference to the native Java object, or NULL if the object has not been converted.
+ */
+static jobject FindConvertedObject(JNIEnv *env, const JSConvertedObjects *converted, JSObjectRef jsObject)
+{
+	if(converted->count == 0)
+		return NULL;
+
+	unsigned int mask = converted->capacity - 1;
+	for(unsigned int slot = HashObjectPointer(jsObject) & mask; converted->jsObjects[slot]; slot = (slot + 1) & mask)
+	{
+		if(converted->jsObjects[slot] == jsObject)
+			return env->GetObjectArrayElement(converted->javaObjects, (jsize)slot);
+	}
+	return NULL;
+}
+
+/**
+ * Records the native Java object which a JavaScript object is converted to, before its properties or elements are
+ * converted, so that they can reference it. The table is kept at most half full.
+ *
+ * @param env Pointer to JNI environment.
+ * @param converted The objects converted by the current conversion.
+ * @param jsObject The JavaScript object.
+ * @param javaObject The native Java object.
+ *
+ * @return false if the table could not grow, and an OutOfMemoryError was thrown.
+ */
+static bool AddConvertedObject(JNIEnv *env, JSConvertedObjects *converted, JSObjectRef jsObject, jobject javaObject)
+{
+	if(2 * (converted->count + 1) > converted->capacity)
+	{
+		unsigned int capacity = converted->capacity ? 2 * converted->capacity : 16;
+		JSObjectRef* jsObjects = (JSObjectRef*)calloc(capacity, sizeof(JSObjectRef));
+		jobjectArray javaObjects = jsObjects ? env->NewObjectArray((jsize)capacity, JavaClasses.Object, NULL) : NULL;
+		if(javaObjects == NULL)
+		{
+			free(jsObjects);
+			if(!env->ExceptionCheck())
+				ThrowOutOfMemoryError(env);
+			return false;
+		}
+
+		for(unsigned int i=0; i < converted->capacity; i++)
+		{
+			if(!converted->jsObjects[i])
+				continue;
+
+			unsigned int slot = HashObjectPointer(converted->jsObjects[i]) & (capacity - 1);
+			while(jsObjects[slot]) slot = (slot + 1) & (capacity - 1);
+			jsObjects[slot] = converted->jsObjects[i];
+
+			jobject element = env->GetObjectArrayElement(converted->javaObjects, (jsize)i);
+			env->SetObjectArrayElement(javaObjects, (jsize)slot, element);
+			env->DeleteLocalRef(element);
+		}
+
+		free(converted->jsObjects);
+		env->DeleteLocalRef(converted->javaObjects);
+		converted->jsObjects = jsObjects;
+		converted->javaObjects = javaObjects;
+		converted->capacity = capacity;
+	}
+
+	unsigned int mask = converted->capacity - 1;
+	unsigned int slot = HashObjectPointer(jsObject) & mask;
+	while(converted->jsObjects[slot]) slot = (slot + 1) & mask;
+	converted->jsObjects[slot] = jsObject;
+	env->SetObjectArrayElement(converted->javaObjects, (jsize)slot, javaObject);
+	converted->count++;
+	return true;
+}
+
+/**
+ * Releases the table of the objects converted by a conversion, when the outermost object has been converted.
+ *
+ * @param env Pointer to JNI environment.
+ * @param converted The objects converted by the conversion.
+ */
+static void ReleaseConvertedObjects(JNIEnv *env, JSConvertedObjects *converted)
+{
+	free(converted->jsObjects);
+	if(converted->javaObjects)
+		env->DeleteLocalRef(converted->javaObjects);
+}
+
+/**
+ * Enters a nested object or array of the current conversion, throwing a JavaScript error to the Java application if it
+ * is nested too deeply.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param converted The objects converted by the current conversion.
+ *
+ * @return false if the object is nested too deeply.
+ */
+static bool EnterNestedObject(JNIEnv *env, JSContextRef ctx, JSConvertedObjects *converted)
+{
+	if(converted->depth == MAX_CONVERSION_DEPTH)
+	{
+		ThrowConversionException(env, ctx, "Object nested too deeply");
+		return false;
+	}
+	converted->depth++;
+	return true;
+}
 
 /**
  * Converts a JSValueRef (JSC) to a jobject object (Native Java).
@@ -12,6 +199,24 @@ _JavaClasses JavaClasses;
  * @return The object converted to a native Java instance.
  */
 jobject JSObjectToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
+{
+	return ConvertJSValueToNative(env, ctx, jsValue, NULL);
+}
+
+/**
+ * Converts a JSValueRef (JSC) to a jobject object (Native Java), as an element of the objects being converted.
+ * Plain objects are converted to LinkedHashMap, keeping the order of their properties. Objects and arrays which were
+ * already converted (including the ones being converted) are converted to the same Java object, so that shared and
+ * cyclic values keep their references.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsValue The JavaScript object to be converted.
+ * @param converted The objects converted by the current conversion, or NULL.
+ *
+ * @return The object converted to a native Java instance.
+ */
+jobject ConvertJSValueToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue, JSConvertedObjects *converted)
 {
 	jobject result = NULL;
 	JSType type;
@@ -30,8 +235,9 @@ jobject JSObjectToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
 
 		case kJSTypeBoolean:
 		{
+			// Booleans are immutable, so the cached instances are shared
 			bool boolean = JSValueToBoolean(ctx, jsValue);
-			result = env->NewObject(JavaClasses.Boolean, JavaClasses.booleanConstructorMethodID, boolean);
+			result = env->NewLocalRef(boolean ? JavaClasses.booleanTrue : JavaClasses.booleanFalse);
 			break;
 		}
 
@@ -54,11 +260,18 @@ jobject JSObjectToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
 		{
 			JSObjectRef jsObj = JSValueToObject(ctx, jsValue, NULL);
 
+			JSTypedArrayType typedArrayType = JSValueGetTypedArrayType(ctx, jsObj, NULL);
+
 			// is a mapped class instance
-			if(JSObjectGetPrivate(jsObj))
+			if(IsMappedObject(ctx, jsObj))
 			{
 				result = GetObjectReference(env, jsObj);
 			}
+			// Is a JavaScript Typed Array or Array Buffer: new Int32Array(...)
+			else if(typedArrayType != kJSTypedArrayTypeNone)
+			{
+				result = ConvertJSTypedArrayToJavaArray(env, ctx, jsObj, typedArrayType);
+			}
 			// Is a JavaScript Date: new Date(...)
 			else if(IsJSDate(ctx, jsObj))
 			{
@@ -67,26 +280,22 @@ jobject JSObjectToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
 			// Is a JavaScript Array: [1, 2, 3]
 			else if(IsJSArray(ctx, jsObj))
 			{
-				result = (jobject)ConvertJSArrayToJavaArray(env, ctx, jsObj);
+				result = ConvertJSArrayToJavaArray(env, ctx, jsObj, converted);
 			}
 			// Is a JavaScript Function (Experimental, not released! Maybe in the future...)
 			else if(JSObjectIsFunction(ctx, jsObj))
 			{
 				// Gets the function name
-				JSStringRef functionNameProperty = JSStringCreateWithUTF8CString("name");
-				JSStringRef jsFunctionName = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, jsObj, functionNameProperty, 0), 0);
+				JSStringRef jsFunctionName = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, jsObj, JSNames.name, 0), 0);
 				jstring functionName = JSStringToJavaString(env, jsFunctionName);
-				JSStringRelease(functionNameProperty);
 				JSStringRelease(jsFunctionName);
 
 				result = functionName;
 			}
-
-			// Is an any other not mapped JavaScript object
-			if(!result)
+			// Is an any other not mapped JavaScript object: { a: 1 }
+			else
 			{
-				// Just return a dummy object so that an error of invalid cast be thrown in the callbacks
-				return env->NewObject(JavaClasses.UnmappedObject, JavaClasses.unmappedObjectConstructorMethodID);
+				result = ConvertJSObjectToJavaMap(env, ctx, jsObj, converted);
 			}
 
 			break;
@@ -96,6 +305,111 @@ jobject JSObjectToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
 	return result;
 }
 
+/**
+ * Converts a JSValueRef (JSC) received by a callback to a jobject object (Native Java). Arrays and plain objects are
+ * not copied: they are returned as views (JSArrayView and JSObjectView), which read their elements on demand. The
+ * object is protected from the garbage collector until its view is released, when the callback returns.
+ * Other values are converted by JSObjectToNative.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsValue The JavaScript object to be converted.
+ *
+ * @return The object converted to a native Java instance, or to a view.
+ */
+jobject JSObjectToNativeView(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
+{
+	if(!jsValue || !JSValueIsObject(ctx, jsValue))
+		return JSObjectToNative(env, ctx, jsValue);
+
+	JSObjectRef jsObj = JSValueToObject(ctx, jsValue, NULL);
+
+	jclass viewClass;
+	jmethodID viewConstructorMethodID;
+
+	// Is a JavaScript Array: [1, 2, 3]
+	if(IsJSArray(ctx, jsObj))
+	{
+		viewClass = JavaClasses.ArrayView;
+		viewConstructorMethodID = JavaClasses.arrayViewConstructorMethodID;
+	}
+	// Is a plain JavaScript object: { a: 1 }
+	else if(!IsMappedObject(ctx, jsObj) && JSValueGetTypedArrayType(ctx, jsObj, NULL) == kJSTypedArrayTypeNone
+			&& !IsJSDate(ctx, jsObj) && !JSObjectIsFunction(ctx, jsObj))
+	{
+		viewClass = JavaClasses.ObjectView;
+		viewConstructorMethodID = JavaClasses.objectViewConstructorMethodID;
+	}
+	else
+	{
+		return JSObjectToNative(env, ctx, jsValue);
+	}
+
+	// The view is released in the global context, since the callback context is not available then
+	JSGlobalContextRef globalContext = JSContextGetGlobalContext(ctx);
+	JSValueProtect(globalContext, jsObj);
+
+	return env->NewObject(viewClass, viewConstructorMethodID, (jint)(intptr_t) jsObj, (jint)(intptr_t) globalContext);
+}
+
+/**
+ * Converts a JSValueRef (JSC) to a shallow description of it, without reading its properties or elements. Objects are
+ * described as "[object Name]", by the name of their constructor, so that large and cyclic values can be described
+ * too. Mapped class instances, dates, functions and other values are converted by JSObjectToNative.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsValue The JavaScript value to be described.
+ *
+ * @return The description of the object, or the value converted to a native Java instance.
+ */
+jobject JSObjectToNativeDescription(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
+{
+	if(!jsValue || !JSValueIsObject(ctx, jsValue))
+		return JSObjectToNative(env, ctx, jsValue);
+
+	JSObjectRef jsObj = JSValueToObject(ctx, jsValue, NULL);
+	if(IsMappedObject(ctx, jsObj) || IsJSDate(ctx, jsObj) || JSObjectIsFunction(ctx, jsObj))
+		return JSObjectToNative(env, ctx, jsValue);
+
+	// Objects without a constructor (e.g. Object.create(null)) are described as plain objects
+	JSValueRef constructor = JSObjectGetProperty(ctx, jsObj, JSNames.constructor, NULL);
+	JSStringRef name = NULL;
+	if(constructor && JSValueIsObject(ctx, constructor))
+	{
+		JSValueRef nameValue = JSObjectGetProperty(ctx, JSValueToObject(ctx, constructor, NULL), JSNames.name, NULL);
+		if(nameValue && JSValueIsString(ctx, nameValue))
+			name = JSValueToStringCopy(ctx, nameValue, NULL);
+	}
+	if(!name || JSStringGetLength(name) == 0)
+	{
+		if(name) JSStringRelease(name);
+		name = JSStringRetain(JSNames.Object);
+	}
+
+	// Formats "[object Name]"
+	static const JSChar prefix[] = { '[', 'o', 'b', 'j', 'e', 'c', 't', ' ' };
+	size_t prefixLength = sizeof(prefix) / sizeof(JSChar);
+	size_t nameLength = JSStringGetLength(name);
+	JSChar* chars = (JSChar*)malloc(sizeof(JSChar) * (prefixLength + nameLength + 1));
+	if(chars == NULL)
+	{
+		JSStringRelease(name);
+		ThrowOutOfMemoryError(env);
+		return NULL;
+	}
+	memcpy(chars, prefix, sizeof(prefix));
+	memcpy(chars + prefixLength, JSStringGetCharactersPtr(name), sizeof(JSChar) * nameLength);
+	chars[prefixLength + nameLength] = ']';
+	JSStringRelease(name);
+
+	JSStringRef description = JSStringCreateWithCharacters(chars, prefixLength + nameLength + 1);
+	free(chars);
+	jstring javaDescription = JSStringToJavaString(env, description);
+	JSStringRelease(description);
+	return javaDescription;
+}
+
 
 /**
  * Converts a jobject object (Native Java) to a JSValueRef (JSC).
@@ -107,6 +421,23 @@ jobject JSObjectToNative(JNIEnv *env, JSContextRef ctx, JSValueRef jsValue)
  * @return The object converted to a JavaScript instance.
  */
 JSValueRef JSValueMakeWithNativeInstance(JNIEnv *env, JSContextRef ctx, jobject obj)
+{
+	return ConvertNativeToJSValue(env, ctx, obj, NULL);
+}
+
+/**
+ * Converts a jobject object (Native Java) to a JSValueRef (JSC), as an element of the objects being converted.
+ * Maps are converted to plain objects and lists to arrays. If the object is one of the objects being converted, a
+ * JavaScript error is thrown to the Java application and NULL is returned.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsValue The native Java object to be converted.
+ * @param path The objects being converted, or NULL.
+ *
+ * @return The object converted to a JavaScript instance.
+ */
+JSValueRef ConvertNativeToJSValue(JNIEnv *env, JSContextRef ctx, jobject obj, const JSConversionPath *path)
 {
 	// Fallback (not a real scenario here!): If object is null, return JavaScript null representation
 	if(obj == NULL) {
@@ -127,11 +458,9 @@ JSValueRef JSValueMakeWithNativeInstance(JNIEnv *env, JSContextRef ctx, jobject
 	}
 	else if(env->IsInstanceOf(obj, JavaClasses.String))
 	{
-		const char *resultString = env->GetStringUTFChars((jstring)obj, 0);
-		JSStringRef jsStr = JSStringCreateWithUTF8CString(resultString);
+		JSStringRef jsStr = JavaStringToJSString(env, (jstring)obj);
 		JSValueRef jsResult = JSValueMakeString(ctx, jsStr);
 		JSStringRelease(jsStr);
-		env->ReleaseStringUTFChars((jstring)obj, resultString);
 		return jsResult;
 	}
 	else if(env->IsInstanceOf(obj, JavaClasses.GregorianCalendar))
@@ -140,7 +469,45 @@ JSValueRef JSValueMakeWithNativeInstance(JNIEnv *env, JSContextRef ctx, jobject
 	}
 	else if(env->IsInstanceOf(obj, JavaClasses.ObjectArray))
 	{
-		return ConvertJavaArrayToJSArray(env, ctx, (jobjectArray)obj);
+		return ConvertJavaArrayToJSArray(env, ctx, (jobjectArray)obj, path);
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.ByteArray))
+	{
+		return ConvertJavaPrimitiveArrayToJSTypedArray(env, ctx, (jarray)obj, kJSTypedArrayTypeInt8Array, sizeof(jbyte));
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.ShortArray))
+	{
+		return ConvertJavaPrimitiveArrayToJSTypedArray(env, ctx, (jarray)obj, kJSTypedArrayTypeInt16Array, sizeof(jshort));
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.IntArray))
+	{
+		return ConvertJavaPrimitiveArrayToJSTypedArray(env, ctx, (jarray)obj, kJSTypedArrayTypeInt32Array, sizeof(jint));
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.FloatArray))
+	{
+		return ConvertJavaPrimitiveArrayToJSTypedArray(env, ctx, (jarray)obj, kJSTypedArrayTypeFloat32Array, sizeof(jfloat));
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.DoubleArray))
+	{
+		return ConvertJavaPrimitiveArrayToJSTypedArray(env, ctx, (jarray)obj, kJSTypedArrayTypeFloat64Array, sizeof(jdouble));
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.ByteBuffer) && env->GetDirectBufferAddress(obj))
+	{
+		return ConvertJavaDirectBufferToJSTypedArray(env, ctx, obj);
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.View))
+	{
+		// Views are returned as the JavaScript object they read, unless they have been released
+		JSObjectRef jsObj = (JSObjectRef) env->GetIntField(obj, JavaClasses.viewObjectPointerFieldID);
+		return jsObj ? (JSValueRef) jsObj : JSValueMakeNull(ctx);
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.Map))
+	{
+		return ConvertJavaMapToJSObject(env, ctx, obj, path);
+	}
+	else if(env->IsInstanceOf(obj, JavaClasses.List))
+	{
+		return ConvertJavaListToJSArray(env, ctx, obj, path);
 	}
 	else // Others classes
 	{
@@ -159,19 +526,23 @@ JSValueRef JSValueMakeWithNativeInstance(JNIEnv *env, JSContextRef ctx, jobject
  */
 JSObjectRef JSObjectMakeWithNativeInstance(JNIEnv *env, JSContextRef ctx, jobject obj)
 {
-	// Holds a reference to this object
-	long* objHashCode = AllocObjectReference(env, obj);
+	// Each global context has its own definition of the mapped classes
+	jint globalContext = (intptr_t) JSContextGetGlobalContext(ctx);
+	JSMappedClass* mappedClass = (JSMappedClass*) env->CallStaticIntMethod(JSCCallback.handler, JSCCallback.getJSClassRefMethodID, globalContext, obj);
 
-	JSClassRef jsClassRef = (JSClassRef) env->CallStaticIntMethod(JSCCallback.handler, JSCCallback.getJSClassRefMethodID, obj);
-
-	if(!env->ExceptionOccurred())
-		return JSObjectMake(ctx, jsClassRef, objHashCode);
-	else
+	if(env->ExceptionOccurred())
 		return NULL;
+
+	// Holds a reference to this object
+	JSMappedObject* mappedObject = AllocObjectReference(env, obj, mappedClass);
+
+	// The engine gives the object the prototype of its class, which holds the mapped methods
+	return JSObjectMake(ctx, mappedClass->classRef, mappedObject);
 }
 
 /**
  * Converts a JSStringRef (JSC string) to a jstring object (Native Java String).
+ * Both strings are UTF-16, so the characters are copied once, without being encoded.
  *
  * @param env Pointer to JNI environment.
  * @param jsString The JavaScript string to be converted.
@@ -179,50 +550,66 @@ JSObjectRef JSObjectMakeWithNativeInstance(JNIEnv *env, JSContextRef ctx, jobjec
  * @return The string converted to a native Java instance.
  */
 jstring JSStringToJavaString(JNIEnv *env, JSStringRef jsString)
-{	
-	size_t len = JSStringGetMaximumUTF8CStringSize(jsString);
-    char *buffer = (char *)malloc(len + 1);
-    JSStringGetUTF8CString(jsString, buffer, len + 1);
-    jstring js = env->NewStringUTF(buffer);
-    free(buffer);
-    return js;	
+{
+	return env->NewString((const jchar*) JSStringGetCharactersPtr(jsString), (jsize) JSStringGetLength(jsString));
 }
 
 /**
- * Executes a method from a JavaScript object.
+ * Converts a jstring object (Native Java String) to a JSStringRef (JSC string).
+ * Both strings are UTF-16, so the characters are copied once, without being encoded.
  *
- * @param ctx Pointer to JavaScript context.
- * @param obj The object which the method will be called.
- * @param methodName The name of the method to be evaluated.
+ * @param env Pointer to JNI environment.
+ * @param javaString The Java string to be converted.
  *
- * @return The result of the method evaluation.
+ * @return The string converted to a JavaScript string, which must be released by the caller.
  */
-JSValueRef EvatuateMethodFromJSObject(JSContextRef ctx, JSObjectRef obj, const char *methodName)
+JSStringRef JavaStringToJSString(JNIEnv *env, jstring javaString)
 {
-	JSStringRef methodNameJS = JSStringCreateWithUTF8CString(methodName);
-	JSValueRef methodNameProperty = JSObjectGetProperty(ctx, obj, methodNameJS, NULL);
-	JSStringRelease(methodNameJS);
+	jsize length = env->GetStringLength(javaString);
+	const jchar *chars = env->GetStringCritical(javaString, NULL);
+	JSStringRef jsString = JSStringCreateWithCharacters((const JSChar*) chars, (size_t) length);
+	env->ReleaseStringCritical(javaString, chars);
+	return jsString;
+}
 
-	JSObjectRef methodNameObj = JSValueToObject(ctx, methodNameProperty, NULL);
-	JSValueRef methodReturn = JSObjectCallAsFunction(ctx, methodNameObj, obj, 0, NULL, NULL);
-	return methodReturn;
+/**
+ * Creates the names of the properties and methods used by the bridge (see JSNames). The names live as long as
+ * the library is loaded.
+ */
+void InitializeJSNames()
+{
+	JSNames.name = 				JSStringCreateWithUTF8CString("name");
+	JSNames.length = 			JSStringCreateWithUTF8CString("length");
+	JSNames.internalError = 	JSStringCreateWithUTF8CString("internalError");
+	JSNames.stack = 			JSStringCreateWithUTF8CString("stack");
+	JSNames.Object = 			JSStringCreateWithUTF8CString("Object");
+	JSNames.defineProperty = 	JSStringCreateWithUTF8CString("defineProperty");
+	JSNames.get = 				JSStringCreateWithUTF8CString("get");
+	JSNames.configurable = 		JSStringCreateWithUTF8CString("configurable");
+	JSNames.toString = 			JSStringCreateWithUTF8CString("toString");
+	JSNames.valueOf = 			JSStringCreateWithUTF8CString("valueOf");
+	JSNames.getTime = 			JSStringCreateWithUTF8CString("getTime");
+	JSNames.prototype = 		JSStringCreateWithUTF8CString("prototype");
+	JSNames.constructor = 		JSStringCreateWithUTF8CString("constructor");
+	JSNames.Function = 			JSStringCreateWithUTF8CString("Function");
 }
 
 /**
- * Checks if a JavaScript object has a property with a given name.
+ * Executes a method from a JavaScript object.
  *
  * @param ctx Pointer to JavaScript context.
- * @param obj The object which the property will be checked.
- * @param propertyName The name of the property to be cheched.
+ * @param obj The object which the method will be called.
+ * @param methodName The name of the method to be evaluated.
  *
- * @return Whether the object contains the given property.
+ * @return The result of the method evaluation.
  */
-bool HasProperty(JSContextRef ctx, JSObjectRef obj, const char* propertyName)
+JSValueRef EvatuateMethodFromJSObject(JSContextRef ctx, JSObjectRef obj, JSStringRef methodName)
 {
-	JSStringRef jsPropertyName = JSStringCreateWithUTF8CString(propertyName);
-	bool hasProperty = JSObjectHasProperty(ctx, obj, jsPropertyName);
-	JSStringRelease(jsPropertyName);
-	return hasProperty;
+	JSValueRef methodNameProperty = JSObjectGetProperty(ctx, obj, methodName, NULL);
+
+	JSObjectRef methodNameObj = JSValueToObject(ctx, methodNameProperty, NULL);
+	JSValueRef methodReturn = JSObjectCallAsFunction(ctx, methodNameObj, obj, 0, NULL, NULL);
+	return methodReturn;
 }
 
 /**
@@ -235,14 +622,8 @@ bool HasProperty(JSContextRef ctx, JSObjectRef obj, const char* propertyName)
  */
 bool IsJSDate(JSContextRef ctx, JSObjectRef obj)
 {
-	JSValueRef proto = JSObjectGetPrototype(ctx, obj);
-	JSObjectRef protoObj = JSValueToObject(ctx, proto, NULL);
-
-	// Warning: getDay returns "day of the week"!
-
-	return HasProperty(ctx, protoObj, "getDate") && HasProperty(ctx, protoObj, "getMonth") &&
-		   HasProperty(ctx, protoObj, "getFullYear") && HasProperty(ctx, protoObj, "getHours") &&
-		   HasProperty(ctx, protoObj, "getMinutes") && HasProperty(ctx, protoObj, "getSeconds");
+	// The engine checks the type of the object itself, without looking up its prototype
+	return JSValueIsDate(ctx, obj);
 }
 
 /**
@@ -264,30 +645,18 @@ bool IsNaN(double d)
  * @param ctx Pointer to JavaScript context.
  * @param jsDate The JavaScript Date to be converted.
  *
- * @return The Date converted to a native Java Date instance.
+ * @return The Date converted to a native Java Date instance, or NULL if the date is invalid.
  */
 jobject ConvertJSDateToJavaDate(JNIEnv *env, JSContextRef ctx, JSObjectRef jsDate)
 {
-	JSValueRef yearValue = EvatuateMethodFromJSObject(ctx, jsDate, "getFullYear");
-	JSValueRef monthValue = EvatuateMethodFromJSObject(ctx, jsDate, "getMonth");
-	JSValueRef dayValue = EvatuateMethodFromJSObject(ctx, jsDate, "getDate"); // getDay returns "day of the week"!
-	JSValueRef hourValue = EvatuateMethodFromJSObject(ctx, jsDate, "getHours");
-	JSValueRef minuteValue = EvatuateMethodFromJSObject(ctx, jsDate, "getMinutes");
-	JSValueRef secondValue = EvatuateMethodFromJSObject(ctx, jsDate, "getSeconds");
-
-	double year = JSValueToNumber(ctx, yearValue, NULL);
-	double month = JSValueToNumber(ctx, monthValue, NULL);
-	double day = JSValueToNumber(ctx, dayValue, NULL);
-	double hour = JSValueToNumber(ctx, hourValue, NULL);
-	double minute = JSValueToNumber(ctx, minuteValue, NULL);
-	double second = JSValueToNumber(ctx, secondValue, NULL);
-
-	if(IsNaN(year) || IsNaN(month)  || IsNaN(day) || 
-	   IsNaN(hour) || IsNaN(minute) || IsNaN(second))
+	// The date is transferred as milliseconds since the epoch, so that both sides agree on the time zone
+	double time = JSValueToNumber(ctx, EvatuateMethodFromJSObject(ctx, jsDate, JSNames.getTime), NULL);
+
+	if(IsNaN(time))
 		return NULL;
 
-	jobject javaDate = env->NewObject(JavaClasses.GregorianCalendar, JavaClasses.gregorianCalendarConstructorMethodID,
-		(jint)year, (jint)month, (jint)day, (jint)hour, (jint)minute, (jint)second);
+	jobject javaDate = env->NewObject(JavaClasses.GregorianCalendar, JavaClasses.gregorianCalendarConstructorMethodID);
+	env->CallVoidMethod(javaDate, JavaClasses.gregorianCalendarSetTimeInMillisMethodID, (jlong)time);
 
 	return javaDate;
 }
@@ -302,23 +671,11 @@ jobject ConvertJSDateToJavaDate(JNIEnv *env, JSContextRef ctx, JSObjectRef jsDat
  * @return The Date converted to a JavaScript Date instance.
  */
 JSObjectRef ConvertJavaDateToJSDate(JNIEnv *env, JSContextRef ctx, jobject javaDate)
-{	
-	jint year	= env->CallIntMethod(javaDate, JavaClasses.gregorianCalendarGetFieldMethodID, (jint)1);	 // YEAR
-	jint month	= env->CallIntMethod(javaDate, JavaClasses.gregorianCalendarGetFieldMethodID, (jint)2);	 // MONTH
-	jint day	= env->CallIntMethod(javaDate, JavaClasses.gregorianCalendarGetFieldMethodID, (jint)5);	 // DAY_OF_MONTH
-	jint hour	= env->CallIntMethod(javaDate, JavaClasses.gregorianCalendarGetFieldMethodID, (jint)11); // HOUR_OF_DAY
-	jint minute = env->CallIntMethod(javaDate, JavaClasses.gregorianCalendarGetFieldMethodID, (jint)12); // MINUTE
-	jint second = env->CallIntMethod(javaDate, JavaClasses.gregorianCalendarGetFieldMethodID, (jint)13); // SECOND
-
-	JSValueRef dateParts[6];
-	dateParts[0] = JSValueMakeNumber(ctx, year);
-	dateParts[1] = JSValueMakeNumber(ctx, month);
-	dateParts[2] = JSValueMakeNumber(ctx, day);
-	dateParts[3] = JSValueMakeNumber(ctx, hour);
-	dateParts[4] = JSValueMakeNumber(ctx, minute);
-	dateParts[5] = JSValueMakeNumber(ctx, second);
-		
-	JSObjectRef jsDate = JSObjectMakeDate(ctx, 6, dateParts, NULL);
+{
+	jlong time = env->CallLongMethod(javaDate, JavaClasses.gregorianCalendarGetTimeInMillisMethodID);
+
+	JSValueRef jsTime = JSValueMakeNumber(ctx, (double)time);
+	JSObjectRef jsDate = JSObjectMakeDate(ctx, 1, &jsTime, NULL);
 
 	return jsDate;
 }
@@ -333,67 +690,252 @@ JSObjectRef ConvertJavaDateToJSDate(JNIEnv *env, JSContextRef ctx, jobject javaD
  */
 bool IsJSArray(JSContextRef ctx, JSObjectRef obj)
 {
-	JSValueRef proto = JSObjectGetPrototype(ctx, obj);
-	JSObjectRef protoObj = JSValueToObject(ctx, proto, NULL);
-
-	return HasProperty(ctx, protoObj, "pop") && HasProperty(ctx, protoObj, "length") &&
-		   HasProperty(ctx, protoObj, "push") && HasProperty(ctx, protoObj, "join");
+	// The engine checks the type of the object itself, without looking up its prototype
+	return JSValueIsArray(ctx, obj);
 }
 
 /**
- * Convert a JavaScript Array object to a native Java Array object.
+ * Convert a JavaScript Array object to a native Java Array object, converting each element by itself.
  *
  * @param env Pointer to JNI environment.
  * @param ctx Pointer to JavaScript context.
  * @param jsArray The JavaScript Array to be converted.
+ * @param length The length of the array.
+ * @param converted The objects converted by the current conversion.
  *
- * @return The Date converted to a native Array Date instance.
+ * @return The Array converted to a native Java Object[] instance, or NULL if an exception was thrown.
  */
-jobjectArray ConvertJSArrayToJavaArray(JNIEnv *env, JSContextRef ctx, JSObjectRef jsArray)
+static jobjectArray ConvertJSArrayToJavaObjectArray(JNIEnv *env, JSContextRef ctx, JSObjectRef jsArray, size_t length,
+													JSConvertedObjects *converted)
 {
-	// Gets the array length
-	JSStringRef lengthProperty = JSStringCreateWithUTF8CString("length");
-	JSValueRef lengthValue = JSObjectGetProperty(ctx, jsArray, lengthProperty, NULL);
-	JSStringRelease(lengthProperty);
-
-	double length = JSValueToNumber(ctx, lengthValue, NULL);
-
-	// Creating a Java Array of Objects
+	// Creating a Java Array of Objects, recorded before its elements are converted, since they may reference it
 	jobjectArray javaArray = env->NewObjectArray((jsize)length, JavaClasses.Object, NULL);
+	if(javaArray == NULL || !AddConvertedObject(env, converted, jsArray, javaArray))
+	{
+		env->DeleteLocalRef(javaArray);
+		return NULL;
+	}
 
 	// Filling the Java Array with objects
-	for(int i=0; i < length; i++)
+	for(size_t i=0; i < length; i++)
 	{
 		// Getting the array[i] value
 		JSValueRef jsArrayItem = JSObjectGetPropertyAtIndex(ctx, jsArray, (unsigned int)i, NULL);
 
 		// Converting it to a native Java object and putting it into the object array
-		jobject javaArrayItem = JSObjectToNative(env, ctx, jsArrayItem);
-		env->SetObjectArrayElement(javaArray, i, javaArrayItem);
+		jobject javaArrayItem = ConvertJSValueToNative(env, ctx, jsArrayItem, converted);
+		if(env->ExceptionCheck())
+		{
+			env->DeleteLocalRef(javaArray);
+			return NULL;
+		}
+		env->SetObjectArrayElement(javaArray, (jsize)i, javaArrayItem);
 		env->DeleteLocalRef(javaArrayItem);
 	}
 
 	return javaArray;
 }
 
+/**
+ * Copies the elements of a JavaScript Array object to a native Java Array object (see ConvertJSArrayToJavaArray).
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsArray The JavaScript Array to be converted.
+ * @param converted The objects converted by the current conversion.
+ *
+ * @return The Array converted to a native Java array instance, or NULL if an exception was thrown.
+ */
+static jobject CopyJSArrayToJavaArray(JNIEnv *env, JSContextRef ctx, JSObjectRef jsArray, JSConvertedObjects *converted)
+{
+	// Gets the array length
+	JSValueRef lengthValue = JSObjectGetProperty(ctx, jsArray, JSNames.length, NULL);
+	size_t length = (size_t)JSValueToNumber(ctx, lengthValue, NULL);
+
+	// Reads the elements, checking if all of them have the same primitive type. The buffer of the elements grows as
+	// they are read, so that arrays which are only long (e.g. new Array(1e9)) allocate nothing for their length.
+	// The elements stay referenced by the array, and no script runs until they are converted.
+	JSValueRef stackItems[ARRAY_STACK_THRESHOLD];
+	JSValueRef* jsArrayItems = stackItems;
+	size_t capacity = ARRAY_STACK_THRESHOLD;
+
+	JSType elementsType = kJSTypeObject;
+	for(size_t i=0; i < length; i++)
+	{
+		JSValueRef jsArrayItem = JSObjectGetPropertyAtIndex(ctx, jsArray, (unsigned int)i, NULL);
+		JSType type = JSValueGetType(ctx, jsArrayItem);
+
+		if(i == 0 && (type == kJSTypeNumber || type == kJSTypeBoolean || type == kJSTypeString)) {
+			elementsType = type;
+		} else if(i == 0 || type != elementsType) {
+			elementsType = kJSTypeObject;
+			break;
+		}
+
+		if(i == capacity) {
+			capacity = capacity < length / 2 ? capacity * 2 : length;
+			JSValueRef* items = (JSValueRef*)(jsArrayItems == stackItems
+				? malloc(sizeof(JSValueRef) * capacity)
+				: realloc(jsArrayItems, sizeof(JSValueRef) * capacity));
+			if(items == NULL) {
+				if(jsArrayItems != stackItems) free(jsArrayItems);
+				ThrowOutOfMemoryError(env);
+				return NULL;
+			}
+			if(jsArrayItems == stackItems) memcpy(items, stackItems, sizeof(stackItems));
+			jsArrayItems = items;
+		}
+		jsArrayItems[i] = jsArrayItem;
+	}
+
+	jobject javaArray = NULL;
+	switch(elementsType)
+	{
+		case kJSTypeNumber:
+		{
+			jdouble stackNumbers[ARRAY_STACK_THRESHOLD];
+			jdouble* numbers = length > ARRAY_STACK_THRESHOLD ? (jdouble*)malloc(sizeof(jdouble) * length) : stackNumbers;
+			if(numbers == NULL) {
+				ThrowOutOfMemoryError(env);
+				break;
+			}
+			for(size_t i=0; i < length; i++) {
+				numbers[i] = JSValueToNumber(ctx, jsArrayItems[i], NULL);
+			}
+
+			javaArray = env->NewDoubleArray((jsize)length);
+			if(javaArray != NULL) {
+				env->SetDoubleArrayRegion((jdoubleArray)javaArray, 0, (jsize)length, numbers);
+			}
+
+			if(numbers != stackNumbers) free(numbers);
+			break;
+		}
+
+		case kJSTypeBoolean:
+		{
+			jboolean stackBooleans[ARRAY_STACK_THRESHOLD];
+			jboolean* booleans = length > ARRAY_STACK_THRESHOLD ? (jboolean*)malloc(sizeof(jboolean) * length) : stackBooleans;
+			if(booleans == NULL) {
+				ThrowOutOfMemoryError(env);
+				break;
+			}
+			for(size_t i=0; i < length; i++) {
+				booleans[i] = JSValueToBoolean(ctx, jsArrayItems[i]) ? JNI_TRUE : JNI_FALSE;
+			}
+
+			javaArray = env->NewBooleanArray((jsize)length);
+			if(javaArray != NULL) {
+				env->SetBooleanArrayRegion((jbooleanArray)javaArray, 0, (jsize)length, booleans);
+			}
+
+			if(booleans != stackBooleans) free(booleans);
+			break;
+		}
+
+		case kJSTypeString:
+		{
+			// There is no region copy of objects, but the strings are converted without the type dispatch
+			javaArray = env->NewObjectArray((jsize)length, JavaClasses.String, NULL);
+			for(size_t i=0; javaArray != NULL && i < length; i++) {
+				JSStringRef jsStr = JSValueToStringCopy(ctx, jsArrayItems[i], NULL);
+				jstring javaString = JSStringToJavaString(env, jsStr);
+				JSStringRelease(jsStr);
+				env->SetObjectArrayElement((jobjectArray)javaArray, (jsize)i, javaString);
+				env->DeleteLocalRef(javaString);
+			}
+			break;
+		}
+
+		default:
+			javaArray = ConvertJSArrayToJavaObjectArray(env, ctx, jsArray, length, converted);
+			break;
+	}
+
+	if(jsArrayItems != stackItems) free(jsArrayItems);
+
+	return javaArray;
+}
+
+/**
+ * Convert a JavaScript Array object to a native Java Array object. Arrays whose elements are all numbers, all
+ * booleans or all strings are found in a single pass and converted to double[], boolean[] and String[], so that
+ * numbers and booleans are copied as a single block instead of being boxed one by one. Other arrays (including
+ * empty ones) are converted to Object[], and converted once if they are referenced more than once.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsArray The JavaScript Array to be converted.
+ * @param converted The objects converted by the current conversion, or NULL if the array is the outermost object.
+ *
+ * @return The Array converted to a native Java array instance, or NULL if an exception was thrown (e.g. an
+ * OutOfMemoryError, if the conversion buffers could not be allocated, or an error if the array is nested too deeply).
+ */
+jobject ConvertJSArrayToJavaArray(JNIEnv *env, JSContextRef ctx, JSObjectRef jsArray, JSConvertedObjects *converted)
+{
+	// The outermost array of a conversion holds the table of the converted objects
+	if(!converted)
+	{
+		JSConvertedObjects rootConverted = { NULL, NULL, 0, 0, 0 };
+		jobject javaArray = ConvertJSArrayToJavaArray(env, ctx, jsArray, &rootConverted);
+		ReleaseConvertedObjects(env, &rootConverted);
+		return javaArray;
+	}
+
+	jobject javaArray = FindConvertedObject(env, converted, jsArray);
+	if(javaArray || !EnterNestedObject(env, ctx, converted))
+		return javaArray;
+
+	javaArray = CopyJSArrayToJavaArray(env, ctx, jsArray, converted);
+	converted->depth--;
+	return javaArray;
+}
+
 /**
  * Convert a native Java Array to a JavaScript Array object.
  *
  * @param env Pointer to JNI environment.
  * @param ctx Pointer to JavaScript context.
  * @param javaArray The native Java Array instance to be converted.
+ * @param path The objects being converted, or NULL.
  *
  * @return The Array converted to a JavaScript Array instance.
  */
-JSObjectRef ConvertJavaArrayToJSArray(JNIEnv *env, JSContextRef ctx, jobjectArray javaArray)
-{	
+JSObjectRef ConvertJavaArrayToJSArray(JNIEnv *env, JSContextRef ctx, jobjectArray javaArray, const JSConversionPath *path)
+{
+	if(IsInConversionPath(env, path, javaArray))
+	{
+		ThrowCyclicValueException(env, ctx);
+		return NULL;
+	}
+	JSConversionPath arrayPath = { javaArray, path };
+
 	int length = env->GetArrayLength(javaArray);
-	JSValueRef jsArrayItems[length];
+
+	// Large arrays are filled element by element, so that the converted values are always referenced by the array
+	// (the garbage collector only finds the values held by the stack)
+	if(length > ARRAY_STACK_THRESHOLD)
+	{
+		JSObjectRef jsArray = JSObjectMakeArray(ctx, 0, NULL, NULL);
+		for(int i=0; i < length; i++)
+		{
+			jobject javaArrayItem = env->GetObjectArrayElement(javaArray, i);
+			JSValueRef jsArrayItem = ConvertNativeToJSValue(env, ctx, javaArrayItem, &arrayPath);
+			env->DeleteLocalRef(javaArrayItem);
+
+			if(env->ExceptionOccurred()) return NULL;
+
+			JSObjectSetPropertyAtIndex(ctx, jsArray, (unsigned int)i, jsArrayItem, NULL);
+		}
+		return jsArray;
+	}
+
+	JSValueRef jsArrayItems[ARRAY_STACK_THRESHOLD];
 
 	for(int i=0; i < length; i++)
 	{
 		jobject javaArrayItem = env->GetObjectArrayElement(javaArray, i);
-		jsArrayItems[i] = JSValueMakeWithNativeInstance(env, ctx, javaArrayItem);
+		jsArrayItems[i] = ConvertNativeToJSValue(env, ctx, javaArrayItem, &arrayPath);
 		env->DeleteLocalRef(javaArrayItem);
 
 		if(env->ExceptionOccurred()) return NULL;
@@ -404,28 +946,338 @@ JSObjectRef ConvertJavaArrayToJSArray(JNIEnv *env, JSContextRef ctx, jobjectArra
 }
 
 /**
- * Creates a native Java Array within a set of JavaScript arguments.
+ * Converts a plain JavaScript object to a native Java LinkedHashMap, converting each enumerable property by itself,
+ * in a single native pass. Nested plain objects are converted to maps too. An object referenced more than once (or by
+ * itself) is converted to the same map, as ObjectMarshaller.toObject does with maps.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsObject The JavaScript object to be converted.
+ * @param converted The objects converted by the current conversion, or NULL if the object is the outermost one.
+ *
+ * @return The object converted to a native Java map, or NULL if an exception was thrown (by a getter of the object,
+ * or because the object is nested too deeply).
+ */
+jobject ConvertJSObjectToJavaMap(JNIEnv *env, JSContextRef ctx, JSObjectRef jsObject, JSConvertedObjects *converted)
+{
+	// The outermost object of a conversion holds the table of the converted objects
+	if(!converted)
+	{
+		JSConvertedObjects rootConverted = { NULL, NULL, 0, 0, 0 };
+		jobject javaMap = ConvertJSObjectToJavaMap(env, ctx, jsObject, &rootConverted);
+		ReleaseConvertedObjects(env, &rootConverted);
+		return javaMap;
+	}
+
+	jobject javaMap = FindConvertedObject(env, converted, jsObject);
+	if(javaMap || !EnterNestedObject(env, ctx, converted))
+		return javaMap;
+
+	JSPropertyNameArrayRef jsNames = JSObjectCopyPropertyNames(ctx, jsObject);
+	size_t count = JSPropertyNameArrayGetCount(jsNames);
+
+	// The map is created with enough capacity for all properties, so that it is never rehashed. It is recorded before
+	// its properties are converted, since they may reference it.
+	javaMap = env->NewObject(JavaClasses.LinkedHashMap, JavaClasses.linkedHashMapConstructorMethodID, (jint)(count * 4 / 3 + 1));
+	if(javaMap == NULL || !AddConvertedObject(env, converted, jsObject, javaMap))
+		count = 0;
+
+	for(size_t i=0; i < count; i++)
+	{
+		JSStringRef jsName = JSPropertyNameArrayGetNameAtIndex(jsNames, i);
+
+		// A getter of the property may throw an exception
+		JSValueRef exception = NULL;
+		JSValueRef jsValue = JSObjectGetProperty(ctx, jsObject, jsName, &exception);
+		if(exception)
+		{
+			ThrowJavaScriptException(env, ctx, exception);
+			break;
+		}
+
+		jobject value = ConvertJSValueToNative(env, ctx, jsValue, converted);
+		if(env->ExceptionCheck())
+			break;
+
+		jstring name = JSStringToJavaString(env, jsName);
+		jobject previous = env->CallObjectMethod(javaMap, JavaClasses.mapPutMethodID, name, value);
+		env->DeleteLocalRef(previous);
+		env->DeleteLocalRef(name);
+		env->DeleteLocalRef(value);
+	}
+
+	JSPropertyNameArrayRelease(jsNames);
+	converted->depth--;
+
+	if(env->ExceptionCheck())
+	{
+		env->DeleteLocalRef(javaMap);
+		return NULL;
+	}
+
+	return javaMap;
+}
+
+/**
+ * Converts a native Java Map to a plain JavaScript object, converting each entry by itself. The keys are converted to
+ * strings, and the entries are read in a single call (see ObjectMarshaller.entries).
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param javaMap The native Java map to be converted.
+ * @param path The objects being converted, or NULL.
+ *
+ * @return The map converted to a JavaScript object, or NULL if an exception was thrown.
+ */
+JSObjectRef ConvertJavaMapToJSObject(JNIEnv *env, JSContextRef ctx, jobject javaMap, const JSConversionPath *path)
+{
+	if(IsInConversionPath(env, path, javaMap))
+	{
+		ThrowCyclicValueException(env, ctx);
+		return NULL;
+	}
+	JSConversionPath mapPath = { javaMap, path };
+
+	jobjectArray entries = (jobjectArray) env->CallStaticObjectMethod(JavaClasses.ObjectMarshaller, JavaClasses.objectMarshallerEntriesMethodID, javaMap);
+	if(env->ExceptionCheck())
+		return NULL;
+
+	// The object is created before its properties, so that the converted values are always referenced by it
+	JSObjectRef jsObject = JSObjectMake(ctx, NULL, NULL);
+
+	int length = env->GetArrayLength(entries);
+	for(int i=0; i < length; i += 2)
+	{
+		jstring key = (jstring) env->GetObjectArrayElement(entries, i);
+		jobject value = env->GetObjectArrayElement(entries, i + 1);
+
+		JSValueRef jsValue = ConvertNativeToJSValue(env, ctx, value, &mapPath);
+		env->DeleteLocalRef(value);
+
+		if(env->ExceptionCheck())
+		{
+			env->DeleteLocalRef(key);
+			jsObject = NULL;
+			break;
+		}
+
+		JSStringRef jsName = JavaStringToJSString(env, key);
+		JSObjectSetProperty(ctx, jsObject, jsName, jsValue, kJSPropertyAttributeNone, NULL);
+		JSStringRelease(jsName);
+		env->DeleteLocalRef(key);
+	}
+
+	env->DeleteLocalRef(entries);
+	return jsObject;
+}
+
+/**
+ * Converts a native Java List to a JavaScript Array, copying its elements to a Java array in a single call.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param javaList The native Java list to be converted.
+ * @param path The objects being converted, or NULL.
+ *
+ * @return The list converted to a JavaScript Array, or NULL if an exception was thrown.
+ */
+JSObjectRef ConvertJavaListToJSArray(JNIEnv *env, JSContextRef ctx, jobject javaList, const JSConversionPath *path)
+{
+	if(IsInConversionPath(env, path, javaList))
+	{
+		ThrowCyclicValueException(env, ctx);
+		return NULL;
+	}
+	JSConversionPath listPath = { javaList, path };
+
+	jobjectArray javaArray = (jobjectArray) env->CallObjectMethod(javaList, JavaClasses.listToArrayMethodID);
+	if(env->ExceptionCheck())
+		return NULL;
+
+	JSObjectRef jsArray = ConvertJavaArrayToJSArray(env, ctx, javaArray, &listPath);
+	env->DeleteLocalRef(javaArray);
+	return jsArray;
+}
+
+/**
+ * Creates a native Java Array within a set of JavaScript arguments received by a callback. Arrays and plain objects
+ * are passed as views (see JSObjectToNativeView).
  *
  * @param env Pointer to JNI environment.
  * @param ctx Pointer to JavaScript context.
  * @param arguments List of JavaScript object as the items of this array.
  * @param argumentCount The number of arguments sent.
+ * @param hasViews Set to true if any argument is passed as a view, which must be released when the callback returns.
  *
  * @return A new native Java Array instance with the parameters in its items.
  */
-jobjectArray NewJavaArrayFromJSArguments(JNIEnv *env, JSContextRef ctx, const JSValueRef *arguments, size_t argumentCount)
+jobjectArray NewJavaArrayFromJSArguments(JNIEnv *env, JSContextRef ctx, const JSValueRef *arguments, size_t argumentCount,
+										 bool *hasViews)
 {
 	// Creating a Java Array of Objects
 	jobjectArray javaArray = env->NewObjectArray(argumentCount, JavaClasses.Object, NULL);
+	*hasViews = false;
 
 	// Filling the Java Array with objects
 	for(int i=0; i < argumentCount; i++)
 	{
 		// Converting it to a native Java object and putting it into the object array
-		jobject javaArrayItem = JSObjectToNative(env, ctx, arguments[i]);
+		jobject javaArrayItem = JSObjectToNativeView(env, ctx, arguments[i]);
+		*hasViews = *hasViews || (javaArrayItem && env->IsInstanceOf(javaArrayItem, JavaClasses.View));
 		env->SetObjectArrayElement(javaArray, i, javaArrayItem);
 		env->DeleteLocalRef(javaArrayItem);
 	}
 
 	return javaArray;
 }
+
+/**
+ * Convert a JavaScript Typed Array (or Array Buffer) to a native Java array of primitives.
+ * Int8Array, Uint8Array, Uint8ClampedArray and ArrayBuffer are converted to byte[], Int16Array and Uint16Array
+ * to short[], Int32Array and Uint32Array to int[], Float32Array to float[] and Float64Array to double[].
+ * The elements are copied as a single block. Arrays of unsigned elements are marked as such, so that they are
+ * zero-extended when they are copied to wider elements (see ParameterConverter.markUnsigned).
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param jsTypedArray The JavaScript Typed Array to be converted.
+ * @param typedArrayType The type of the JavaScript Typed Array.
+ *
+ * @return The Typed Array converted to a native Java array.
+ */
+jarray ConvertJSTypedArrayToJavaArray(JNIEnv *env, JSContextRef ctx, JSObjectRef jsTypedArray, JSTypedArrayType typedArrayType)
+{
+	JSObjectRef jsArrayBuffer;
+	size_t byteOffset;
+	size_t byteLength;
+
+	if(typedArrayType == kJSTypedArrayTypeArrayBuffer)
+	{
+		jsArrayBuffer = jsTypedArray;
+		byteOffset = 0;
+		byteLength = JSObjectGetArrayBufferByteLength(ctx, jsArrayBuffer, NULL);
+	}
+	else
+	{
+		jsArrayBuffer = JSObjectGetTypedArrayBuffer(ctx, jsTypedArray, NULL);
+		byteOffset = JSObjectGetTypedArrayByteOffset(ctx, jsTypedArray, NULL);
+		byteLength = JSObjectGetTypedArrayByteLength(ctx, jsTypedArray, NULL);
+	}
+
+	// Creating a Java array of the same element type
+	jarray javaArray;
+	switch(typedArrayType)
+	{
+		case kJSTypedArrayTypeInt16Array:
+		case kJSTypedArrayTypeUint16Array:
+			javaArray = env->NewShortArray((jsize)(byteLength / sizeof(jshort)));
+			break;
+
+		case kJSTypedArrayTypeInt32Array:
+		case kJSTypedArrayTypeUint32Array:
+			javaArray = env->NewIntArray((jsize)(byteLength / sizeof(jint)));
+			break;
+
+		case kJSTypedArrayTypeFloat32Array:
+			javaArray = env->NewFloatArray((jsize)(byteLength / sizeof(jfloat)));
+			break;
+
+		case kJSTypedArrayTypeFloat64Array:
+			javaArray = env->NewDoubleArray((jsize)(byteLength / sizeof(jdouble)));
+			break;
+
+		default:
+			javaArray = env->NewByteArray((jsize)byteLength);
+			break;
+	}
+
+	if(!javaArray) return NULL;
+
+	// The backing store pointer is only valid until the next JavaScriptCore call, so it is copied right away
+	char *bytes = (char*)JSObjectGetArrayBufferBytesPtr(ctx, jsArrayBuffer, NULL);
+	if(bytes && byteLength)
+	{
+		void *javaBytes = env->GetPrimitiveArrayCritical(javaArray, NULL);
+		memcpy(javaBytes, bytes + byteOffset, byteLength);
+		env->ReleasePrimitiveArrayCritical(javaArray, javaBytes, 0);
+	}
+
+	switch(typedArrayType)
+	{
+		case kJSTypedArrayTypeUint8Array:
+		case kJSTypedArrayTypeUint8ClampedArray:
+		case kJSTypedArrayTypeUint16Array:
+		case kJSTypedArrayTypeUint32Array:
+			env->CallStaticVoidMethod(JavaClasses.ParameterConverter, JavaClasses.parameterConverterMarkUnsignedMethodID, javaArray);
+			break;
+
+		default:
+			break;
+	}
+
+	return javaArray;
+}
+
+/**
+ * Convert a native Java array of primitives to a JavaScript Typed Array. The elements are copied as a single block.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param javaArray The native Java array to be converted.
+ * @param typedArrayType The type of the JavaScript Typed Array to create.
+ * @param elementSize The size in bytes of each element of the array.
+ *
+ * @return The array converted to a JavaScript Typed Array instance.
+ */
+JSObjectRef ConvertJavaPrimitiveArrayToJSTypedArray(JNIEnv *env, JSContextRef ctx, jarray javaArray, JSTypedArrayType typedArrayType,
+													size_t elementSize)
+{
+	jsize length = env->GetArrayLength(javaArray);
+	JSObjectRef jsTypedArray = JSObjectMakeTypedArray(ctx, typedArrayType, (size_t)length, NULL);
+
+	// The backing store pointer is only valid until the next JavaScriptCore call, so it is filled right away
+	void *bytes = JSObjectGetArrayBufferBytesPtr(ctx, JSObjectGetTypedArrayBuffer(ctx, jsTypedArray, NULL), NULL);
+	if(bytes && length)
+	{
+		void *javaBytes = env->GetPrimitiveArrayCritical(javaArray, NULL);
+		memcpy(bytes, javaBytes, length * elementSize);
+		env->ReleasePrimitiveArrayCritical(javaArray, javaBytes, JNI_ABORT);
+	}
+
+	return jsTypedArray;
+}
+
+/**
+ * Releases the direct buffer which backs a JavaScript Typed Array, when the Typed Array is collected.
+ *
+ * @param bytes The address of the direct buffer.
+ * @param deallocatorContext The global reference to the direct buffer.
+ */
+void ReleaseJavaDirectBuffer(void* bytes, void* deallocatorContext)
+{
+	// Collections may run on threads not attached to the Java VM, which are attached once
+	JNIEnv *env = GetEnvironment();
+	if(!env)
+		return;
+
+	env->DeleteGlobalRef((jobject)deallocatorContext);
+}
+
+/**
+ * Wraps a native Java direct ByteBuffer into a JavaScript Uint8Array, without copying it. Both the Java and the
+ * JavaScript sides see the same memory, and the buffer is kept alive while the Typed Array is reachable.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx Pointer to JavaScript context.
+ * @param javaBuffer The native Java direct ByteBuffer to be wrapped.
+ *
+ * @return The Uint8Array which shares the whole capacity of the buffer.
+ */
+JSObjectRef ConvertJavaDirectBufferToJSTypedArray(JNIEnv *env, JSContextRef ctx, jobject javaBuffer)
+{
+	void *bytes = env->GetDirectBufferAddress(javaBuffer);
+	jlong capacity = env->GetDirectBufferCapacity(javaBuffer);
+
+	return JSObjectMakeTypedArrayWithBytesNoCopy(ctx, kJSTypedArrayTypeUint8Array, bytes, (size_t)capacity,
+												 ReleaseJavaDirectBuffer, env->NewGlobalRef(javaBuffer), NULL);
+}
@@ -4,23 +4,59 @@
 #include "Main.h"
 #include "JSCCallback.h"
 
+// Native Java objects being converted to JavaScript, from the innermost to the outermost, so that cycles are detected
+typedef struct JSConversionPath {
+	jobject javaObject;
+	const struct JSConversionPath* parent;
+} JSConversionPath;
+
+// JavaScript objects converted to native Java objects by one conversion, in an open addressing table of their pointers,
+// so that an object referenced more than once (or by itself) is converted once. The Java objects are held by a single
+// Java array, by the slots of their JavaScript objects. Objects nested deeper than MAX_CONVERSION_DEPTH are rejected,
+// since each level of the conversion takes native stack.
+#define MAX_CONVERSION_DEPTH 64
+typedef struct {
+	JSObjectRef* jsObjects;
+	jobjectArray javaObjects;
+	unsigned int capacity;
+	unsigned int count;
+	int depth;
+} JSConvertedObjects;
+
 // JavaScript/Native conversions
 jobject JSObjectToNative(JNIEnv*, JSContextRef, JSValueRef);
+jobject ConvertJSValueToNative(JNIEnv*, JSContextRef, JSValueRef, JSConvertedObjects*);
+jobject JSObjectToNativeView(JNIEnv*, JSContextRef, JSValueRef);
+jobject JSObjectToNativeDescription(JNIEnv*, JSContextRef, JSValueRef);
 JSValueRef JSValueMakeWithNativeInstance(JNIEnv*, JSContextRef, jobject);
+JSValueRef ConvertNativeToJSValue(JNIEnv*, JSContextRef, jobject, const JSConversionPath*);
 JSObjectRef JSObjectMakeWithNativeInstance(JNIEnv*, JSContextRef, jobject);
 
+// Object - conversion of plain objects to Map and of Map and List to plain objects and arrays
+jobject ConvertJSObjectToJavaMap(JNIEnv*, JSContextRef, JSObjectRef, JSConvertedObjects*);
+JSObjectRef ConvertJavaMapToJSObject(JNIEnv*, JSContextRef, jobject, const JSConversionPath*);
+JSObjectRef ConvertJavaListToJSArray(JNIEnv*, JSContextRef, jobject, const JSConversionPath*);
+
 // Date - type checking & conversion
 bool IsJSDate(JSContextRef, JSObjectRef);
 jobject ConvertJSDateToJavaDate(JNIEnv*, JSContextRef, JSObjectRef);
 JSObjectRef ConvertJavaDateToJSDate(JNIEnv*, JSContextRef, jobject);
 
 // Array - type checking & conversion
+// (arrays longer than ARRAY_STACK_THRESHOLD are converted through heap buffers, instead of the stack)
+#define ARRAY_STACK_THRESHOLD 256
 bool IsJSArray(JSContextRef ctx, JSObjectRef obj);
-jobjectArray ConvertJSArrayToJavaArray(JNIEnv*, JSContextRef, JSObjectRef);
-JSObjectRef ConvertJavaArrayToJSArray(JNIEnv*, JSContextRef, jobjectArray);
-jobjectArray NewJavaArrayFromJSArguments(JNIEnv*, JSContextRef, const JSValueRef*, size_t);
+jobject ConvertJSArrayToJavaArray(JNIEnv*, JSContextRef, JSObjectRef, JSConvertedObjects*);
+JSObjectRef ConvertJavaArrayToJSArray(JNIEnv*, JSContextRef, jobjectArray, const JSConversionPath*);
+jobjectArray NewJavaArrayFromJSArguments(JNIEnv*, JSContextRef, const JSValueRef*, size_t, bool*);
+
+// Typed Array - conversion
+jarray ConvertJSTypedArrayToJavaArray(JNIEnv*, JSContextRef, JSObjectRef, JSTypedArrayType);
+JSObjectRef ConvertJavaPrimitiveArrayToJSTypedArray(JNIEnv*, JSContextRef, jarray, JSTypedArrayType, size_t);
+JSObjectRef ConvertJavaDirectBufferToJSTypedArray(JNIEnv*, JSContextRef, jobject);
 
 jstring JSStringToJavaString(JNIEnv*, JSStringRef);
+JSStringRef JavaStringToJSString(JNIEnv*, jstring);
 
 // Struct to hold the most used classes to avoid instantiate it every time
 typedef struct {
@@ -31,16 +67,62 @@ typedef struct {
 	jclass GregorianCalendar;
 	jclass Object;
 	jclass ObjectArray;
-	jclass UnmappedObject;
+	jclass ByteArray;
+	jclass ShortArray;
+	jclass IntArray;
+	jclass FloatArray;
+	jclass DoubleArray;
+	jclass ByteBuffer;
+	jclass Map;
+	jclass LinkedHashMap;
+	jclass List;
+	jclass ObjectMarshaller;
+	jclass ParameterConverter;
+	jclass View;
+	jclass ArrayView;
+	jclass ObjectView;
 	jclass Exception;
-	jmethodID booleanConstructorMethodID;
+	jobject booleanTrue;
+	jobject booleanFalse;
 	jmethodID doubleConstructorMethodID;
-	jmethodID unmappedObjectConstructorMethodID;
+	jmethodID linkedHashMapConstructorMethodID;
+	jmethodID mapPutMethodID;
+	jmethodID listToArrayMethodID;
+	jmethodID objectMarshallerEntriesMethodID;
+	jmethodID parameterConverterMarkUnsignedMethodID;
+	jmethodID arrayViewConstructorMethodID;
+	jmethodID objectViewConstructorMethodID;
+	jmethodID viewReleaseMethodID;
+	jmethodID viewReleaseAllMethodID;
+	jfieldID viewObjectPointerFieldID;
 	jmethodID gregorianCalendarConstructorMethodID;
 	jmethodID booleanValueMethodID;
 	jmethodID doubleValueMethodID;
-	jmethodID gregorianCalendarGetFieldMethodID;
+	jmethodID gregorianCalendarGetTimeInMillisMethodID;
+	jmethodID gregorianCalendarSetTimeInMillisMethodID;
+	jmethodID byteBufferAllocateDirectMethodID;
 } _JavaClasses;
 extern _JavaClasses JavaClasses;
 
+// Struct to hold the names of the properties and methods used by the bridge, created once instead of in every call
+typedef struct {
+	JSStringRef name;
+	JSStringRef length;
+	JSStringRef internalError;
+	JSStringRef stack;
+	JSStringRef Object;
+	JSStringRef defineProperty;
+	JSStringRef get;
+	JSStringRef configurable;
+	JSStringRef toString;
+	JSStringRef valueOf;
+	JSStringRef getTime;
+	JSStringRef prototype;
+	JSStringRef constructor;
+	JSStringRef Function;
+} _JSNames;
+extern _JSNames JSNames;
+
+void InitializeJSNames();
+
 #endif
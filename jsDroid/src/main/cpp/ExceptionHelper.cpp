@@ -16,11 +16,9 @@ JSValueRef NewJsErrorFromJavaException(JNIEnv *env, JSContextRef ctx, jthrowable
 	jmethodID getMessageMethod = env->GetMethodID(JavaClasses.Exception, "getMessage", "()Ljava/lang/String;");
 	jstring messageResult = (jstring)env->CallObjectMethod(javaException, getMessageMethod);
 
-    const char *resultString = env->GetStringUTFChars(messageResult, 0);
-    JSStringRef errorMessage = JSStringCreateWithUTF8CString(resultString);
+    JSStringRef errorMessage = JavaStringToJSString(env, messageResult);
     JSValueRef jsErrorMessage = JSValueMakeString(ctx, errorMessage);
     JSStringRelease(errorMessage);
-    env->ReleaseStringUTFChars(messageResult, resultString);
     env->DeleteLocalRef(messageResult);
 
 	JSObjectRef errorObject = JSObjectMakeError(ctx, 1, &jsErrorMessage, NULL);
@@ -28,10 +26,8 @@ JSValueRef NewJsErrorFromJavaException(JNIEnv *env, JSContextRef ctx, jthrowable
 	// Saves the exception object as an internal property to be accessed later
 	// (if the exception was not catch and raised by JavaScript)
 	intptr_t errPtr = (intptr_t)javaException;
-	JSStringRef internalErrorName = JSStringCreateWithUTF8CString("internalError");
 	JSValueRef internalError = JSValueMakeNumber(ctx, errPtr);
-	JSObjectSetProperty(ctx, errorObject, internalErrorName, internalError, 0, NULL);
-	JSStringRelease(internalErrorName);
+	JSObjectSetProperty(ctx, errorObject, JSNames.internalError, internalError, 0, NULL);
 
 	return errorObject;
 }
@@ -84,24 +80,16 @@ bool HandleJSException(JNIEnv *env, JSContextRef ctx, JSValueRef exception)
 		if (JSValueIsObject(ctx, exception))
 		{
 			JSObjectRef obj = (JSObjectRef)exception;
-			JSStringRef internalError = JSStringCreateWithUTF8CString("internalError");
-
 			// If the JavaScript exception is an exception that was not handled, we must rethrow it
-			if (JSObjectHasProperty(ctx, obj, internalError))
+			if (JSObjectHasProperty(ctx, obj, JSNames.internalError))
 			{
-				JSStringRef internalErrorName = JSStringCreateWithUTF8CString("internalError");
-				JSValueRef internalErrPropValue = JSObjectGetProperty(ctx, obj, internalErrorName, NULL);
+				JSValueRef internalErrPropValue = JSObjectGetProperty(ctx, obj, JSNames.internalError, NULL);
 				intptr_t exceptionPointer = (intptr_t)JSValueToNumber(ctx, internalErrPropValue, NULL);
 
-				JSStringRelease(internalErrorName);
-				JSStringRelease(internalError);
-
 				env->Throw((jthrowable)exceptionPointer);
 
 				return false;
 			}
-
-			JSStringRelease(internalError);
 		}
 
 		// Otherwise, the exception is an common JavaScript error or even a String
@@ -127,21 +115,17 @@ jstring GetStackTraceFromJSException(JNIEnv *env, JSContextRef ctx, JSValueRef j
 {
 	// Getting the JavaScript stack trace from the JavaScriptCore implementation
 	JSObjectRef jsExceptionObj = JSValueToObject(ctx, jsException, NULL);
-	JSStringRef jsStackProperty = JSStringCreateWithUTF8CString("stack");
 
 	jstring stackTrace = NULL;
 
 	// If the exception object is instance of Error
-	if(JSObjectHasProperty(ctx, jsExceptionObj, jsStackProperty))
+	if(JSObjectHasProperty(ctx, jsExceptionObj, JSNames.stack))
 	{
-        JSStringRef jsStack = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, jsExceptionObj, jsStackProperty, 0), 0);
+        JSStringRef jsStack = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, jsExceptionObj, JSNames.stack, 0), 0);
         stackTrace = JSStringToJavaString(env, jsStack);
         JSStringRelease(jsStack);
 	}
 
-	// Releasing local references
-	JSStringRelease(jsStackProperty);
-
 	return stackTrace;
 }
 
@@ -1,7 +1,6 @@
 #include "JSCCallback.h"
 
 _JSCCallback JSCCallback;
-extern JavaVM *gJavaVM;
 
 /**
  * Release all native Java references created inside the JNI layer and stored in a array.
@@ -28,77 +27,142 @@ void DeleteLocalRefsFromArray(JNIEnv *env, jobjectArray* javaArray)
 }
 
 /**
- * The callback invoked when getting a property's value.
- * If this function returns NULL, the get request forwards to object's statically declared properties, then its parent class chain (which includes the default object class), then its prototype chain.
+ * Releases the views passed as arguments to a callback (see JSObjectToNativeView), so that their JavaScript objects
+ * can be collected.
+ *
+ * @param env Pointer to JNI environment.
+ * @param javaArray The arguments passed to the callback.
+ * @param hasViews Whether any argument was passed as a view.
+ */
+void ReleaseViewsFromArray(JNIEnv *env, jobjectArray javaArray, bool hasViews)
+{
+	if(!hasViews) return;
+
+	// The exception thrown by the callback, if any, is kept while the views are released
+	jthrowable thrown = env->ExceptionOccurred();
+	env->ExceptionClear();
+	env->CallStaticVoidMethod(JavaClasses.View, JavaClasses.viewReleaseAllMethodID, javaArray);
+	if(thrown)
+	{
+		env->Throw(thrown);
+		env->DeleteLocalRef(thrown);
+	}
+}
+
+/**
+ * Hashes the name of a property (FNV-1a over its UTF-16 characters).
+ *
+ * @param propertyName A JSString containing the name of the property.
+ *
+ * @return The hash of the name.
+ */
+unsigned int HashPropertyName(JSStringRef propertyName)
+{
+	const JSChar* chars = JSStringGetCharactersPtr(propertyName);
+	size_t length = JSStringGetLength(propertyName);
+
+	unsigned int hash = 2166136261u;
+	for(size_t i=0; i < length; i++)
+	{
+		hash = (hash ^ chars[i]) * 16777619u;
+	}
+	return hash;
+}
+
+/**
+ * Finds the index of a mapped property, given its name. The names are hashed when the class is created, so the
+ * property is found by the hash of its name, without comparing it to the names of the other properties.
+ *
+ * @param mappedClass The mapped class which declares the property.
+ * @param propertyName A JSString containing the name of the property.
+ *
+ * @return The index of the property in its mapped class, or -1 if the property is not mapped.
+ */
+jint GetMappedPropertyIndex(JSMappedClass* mappedClass, JSStringRef propertyName)
+{
+	unsigned int hash = HashPropertyName(propertyName);
+
+	for(unsigned int slot = hash & mappedClass->propertySlotsMask; ; slot = (slot + 1) & mappedClass->propertySlotsMask)
+	{
+		jint index = mappedClass->propertySlots[slot];
+		if(index < 0) return -1;
+
+		// Static values are only looked up by their own names, so the names are compared only if their hashes collide
+		if(mappedClass->propertyHashes[index] == hash
+		   && (!mappedClass->propertyHashesCollide || JSStringIsEqual(mappedClass->propertyNames[index], propertyName)))
+			return index;
+	}
+}
+
+/**
+ * The callback invoked when getting the value of a mapped property, declared statically by its class.
  *
  * @param ctx The execution context to use.
  * @param object The JSObject to search for the property.
  * @param propertyName A JSString containing the name of the property to get.
  * @param exception A pointer to a JSValueRef in which to return an exception, if any.
  *
- * @return The property's value if object has the property, otherwise NULL.
+ * @return The property's value.
  */
 JSValueRef callbackGetProperty(JSContextRef ctx, JSObjectRef object, JSStringRef propertyName, JSValueRef* exception)
 {
-	// Bypassing the callback of the "isMappedObject" property, indicating that this object is instance of a mapped object
-	if(JSStringIsEqualToUTF8CString(propertyName, "isMappedObject")) return JSValueMakeBoolean(ctx, true);
-
 	// Gets the JNIEnv variable.
-	JNIEnv *env = GetEnvironment();
-    bool vmAttached = false;
-    if(!env) {
-        gJavaVM->AttachCurrentThread(&env, NULL);
-        vmAttached = true;
-    }
+	CallbackEnvironment callback;
+	JNIEnv *env = callback.env;
+	if(!env)
+		return NULL;
 
 	// Object which the callback is being called
-    jstring propName = JSStringToJavaString(env, propertyName);
+	JSMappedClass* mappedClass = ((JSMappedObject*)JSObjectGetPrivate(object))->mappedClass;
+	jint propertyIndex = GetMappedPropertyIndex(mappedClass, propertyName);
 	jobject obj = GetObjectReference(env, object);
 
-	// Checks if the callback was called by a function evaluation. If so, pass the callback for a function call
-	if(HasMethod(env, obj, propName))
-	{
-		// Creates a JavaScript function and sets its callback to be executed later
-		JSValueRef result = JSObjectMakeFunctionWithCallback(ctx, propertyName, (JSObjectCallAsFunctionCallback) callbackFunction);
+	JSValueRef jsReturn = NULL;
 
-		// Saves the method name in a property of the created JavaScript function to be accessed later
-		JSStringRef selectorName = JSStringCreateWithUTF8CString("selector");
-		JSObjectSetProperty(ctx, (JSObjectRef)result, selectorName, JSValueMakeString(ctx, propertyName), kJSPropertyAttributeReadOnly, exception);
-		JSStringRelease(selectorName);
+	// Primitive properties are returned unboxed
+	switch(mappedClass->propertyKinds[propertyIndex])
+	{
+		case KIND_NUMBER:
+		{
+			jdouble result = env->CallStaticDoubleMethod(JSCCallback.handler, JSCCallback.callbackGetNumberPropertyMethodID, ctx, obj, propertyIndex);
+			if(!HandleJavaException(env, ctx, exception)) {
+				jsReturn = JSValueMakeNumber(ctx, result);
+			}
+			break;
+		}
 
-		// Releasing local references
-		env->DeleteLocalRef(obj);
-		env->DeleteLocalRef(propName);
+		case KIND_BOOLEAN:
+		{
+			jboolean result = env->CallStaticBooleanMethod(JSCCallback.handler, JSCCallback.callbackGetBooleanPropertyMethodID, ctx, obj, propertyIndex);
+			if(!HandleJavaException(env, ctx, exception)) {
+				jsReturn = JSValueMakeBoolean(ctx, result);
+			}
+			break;
+		}
 
-		return result;
+		default:
+		{
+			// Calling the callback execution
+			jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackGetPropertyMethodID, ctx, obj, propertyIndex);
+
+			// Handling exception thrown during callback execution
+			if(!HandleJavaException(env, ctx, exception)) {
+				// If no error was thrown during the callback execution, convert and return the result as a JavaScript instance
+				jsReturn = JSValueMakeWithNativeInstance(env, ctx, result);
+				env->DeleteLocalRef(result);
+			}
+			break;
+		}
 	}
 
-	// Calling the callback execution
-	jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackGetPropertyMethodID, ctx, obj, propName);
-
 	// Releasing local references
 	env->DeleteLocalRef(obj);
-	env->DeleteLocalRef(propName);
-
-	JSValueRef jsReturn = NULL;
-
-	// Handling exception thrown during callback execution
-	if(!HandleJavaException(env, ctx, exception)) {
-		// If no error was thrown during the callback execution, convert and return the result as a JavaScript instance
-		jsReturn = JSValueMakeWithNativeInstance(env, ctx, result);
-		env->DeleteLocalRef(result);
-	}
-
-    if(vmAttached) {
-        gJavaVM->DetachCurrentThread();
-    }
 
 	return jsReturn;
 }
 
 /**
- * The callback invoked when setting a property's value.
- * If this function returns false, the set request forwards to object's statically declared properties, then its parent class chain (which includes the default object class).
+ * The callback invoked when setting the value of a mapped property, declared statically by its class.
  *
  * @param ctx The execution context to use.
  * @param object The JSObject on which to set the property's value.
@@ -106,29 +170,59 @@ JSValueRef callbackGetProperty(JSContextRef ctx, JSObjectRef object, JSStringRef
  * @param value A JSValue to use as the property's value.
  * @param exception A pointer to a JSValueRef in which to return an exception, if any.
  *
- * @return true if the property was set, otherwise false.
+ * @return true, since mapped properties are always set by the Java layer.
  */
 bool callbackSetProperty(JSContextRef ctx, JSObjectRef object, JSStringRef propertyName, JSValueRef value, JSValueRef* exception)
 {
 	// Gets the JNIEnv variable.
-	JNIEnv *env = GetEnvironment();
-
-    if(!callbackHasProperty(ctx, object, propertyName)) {
-        return false;
-    }
+	CallbackEnvironment callback;
+	JNIEnv *env = callback.env;
+	if(!env)
+		return false;
 
 	// Object which the callback is being called
+	JSMappedClass* mappedClass = ((JSMappedObject*)JSObjectGetPrivate(object))->mappedClass;
+	jint propertyIndex = GetMappedPropertyIndex(mappedClass, propertyName);
+	jint propertyKind = mappedClass->propertyKinds[propertyIndex];
 	jobject obj = GetObjectReference(env, object);
-	jstring propName = JSStringToJavaString(env, propertyName);
-	jobject param = JSObjectToNative(env, ctx, value);
 
-	// Calling the callback execution
-	env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.callbackSetPropertyMethodID, ctx, obj, propName, param);
+	// Primitive properties are set unboxed, when the value does not need to be validated
+	if(propertyKind == KIND_NUMBER && JSValueIsNumber(ctx, value))
+	{
+		env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.callbackSetNumberPropertyMethodID, ctx, obj, propertyIndex,
+								  (jdouble) JSValueToNumber(ctx, value, NULL));
+	}
+	else if(propertyKind == KIND_BOOLEAN && JSValueIsBoolean(ctx, value))
+	{
+		env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.callbackSetBooleanPropertyMethodID, ctx, obj, propertyIndex,
+								  (jboolean) JSValueToBoolean(ctx, value));
+	}
+	else
+	{
+		// Arrays and plain objects are passed as views, released when the callback returns
+		jobject param = JSObjectToNativeView(env, ctx, value);
+
+		// Calling the callback execution
+		env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.callbackSetPropertyMethodID, ctx, obj, propertyIndex, param);
+
+		if(param && env->IsInstanceOf(param, JavaClasses.View))
+		{
+			// The exception thrown by the callback, if any, is kept while the view is released
+			jthrowable thrown = env->ExceptionOccurred();
+			env->ExceptionClear();
+			env->CallVoidMethod(param, JavaClasses.viewReleaseMethodID);
+			if(thrown)
+			{
+				env->Throw(thrown);
+				env->DeleteLocalRef(thrown);
+			}
+		}
+
+		env->DeleteLocalRef(param);
+	}
 
 	// Releasing local references
 	env->DeleteLocalRef(obj);
-	env->DeleteLocalRef(propName);
-	env->DeleteLocalRef(param);
 
 	// Handling exception thrown during callback execution
 	HandleJavaException(env, ctx, exception);
@@ -136,6 +230,116 @@ bool callbackSetProperty(JSContextRef ctx, JSObjectRef object, JSStringRef prope
 	return true;
 }
 
+/**
+ * The getter of the "isMappedObject" property, indicating that an object is instance of a mapped class.
+ *
+ * @param ctx The execution context to use.
+ * @param object The JSObject which holds the property.
+ * @param propertyName A JSString containing the name of the property.
+ * @param exception A pointer to a JSValueRef in which to return an exception, if any.
+ *
+ * @return Always true.
+ */
+JSValueRef callbackIsMappedObject(JSContextRef ctx, JSObjectRef object, JSStringRef propertyName, JSValueRef* exception)
+{
+	return JSValueMakeBoolean(ctx, true);
+}
+
+/**
+ * Reads the arguments of a call to a method with primitive arguments, without boxing them.
+ *
+ * @param ctx The execution context to use.
+ * @param signature The signature of the method (see SIGNATURE_*).
+ * @param arguments A JSValue array of the arguments passed to the function.
+ * @param argumentCount An integer count of the number of arguments in arguments.
+ * @param primitiveArguments The array which receives the arguments (booleans as 0 or 1).
+ *
+ * @return true if all arguments were read, or false if the method must be called with boxed arguments, either
+ * because its arguments are not primitive or because some argument is missing or has an invalid type.
+ */
+bool GetPrimitiveArguments(JSContextRef ctx, jint signature, const JSValueRef arguments[], size_t argumentCount,
+						   jdouble* primitiveArguments)
+{
+	if(!(signature & SIGNATURE_PRIMITIVE_ARGUMENTS)) return false;
+
+	size_t count = SIGNATURE_ARGUMENTS_COUNT(signature);
+	if(argumentCount < count) return false;
+
+	for(size_t i=0; i < MAX_PRIMITIVE_ARGUMENTS; i++)
+	{
+		if(i >= count)
+		{
+			primitiveArguments[i] = 0;
+		}
+		else if(SIGNATURE_IS_BOOLEAN_ARGUMENT(signature, i))
+		{
+			if(!JSValueIsBoolean(ctx, arguments[i])) return false;
+			primitiveArguments[i] = JSValueToBoolean(ctx, arguments[i]) ? 1 : 0;
+		}
+		else
+		{
+			if(!JSValueIsNumber(ctx, arguments[i])) return false;
+			primitiveArguments[i] = JSValueToNumber(ctx, arguments[i], NULL);
+		}
+	}
+
+	return true;
+}
+
+/**
+ * Calls a method with primitive arguments, returning primitive results unboxed.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The execution context to use.
+ * @param obj The object which its method is being called.
+ * @param mappedMethod The method being called.
+ * @param primitiveArguments The arguments of the call.
+ * @param exception A pointer to a JSValueRef in which to return an exception, if any.
+ *
+ * @return A JSValue that is the function's return value.
+ */
+JSValueRef CallPrimitiveFunction(JNIEnv *env, JSContextRef ctx, jobject obj, JSMappedMethod* mappedMethod,
+								 jdouble* primitiveArguments, JSValueRef* exception)
+{
+	JSValueRef jsReturn = NULL;
+
+	switch(SIGNATURE_RETURN_KIND(mappedMethod->signature))
+	{
+		case KIND_NUMBER:
+		{
+			jdouble result = env->CallStaticDoubleMethod(JSCCallback.handler, JSCCallback.callbackNumberFunctionMethodID, ctx, obj, mappedMethod->index,
+														  primitiveArguments[0], primitiveArguments[1], primitiveArguments[2], primitiveArguments[3]);
+			if(!HandleJavaException(env, ctx, exception)) {
+				jsReturn = JSValueMakeNumber(ctx, result);
+			}
+			break;
+		}
+
+		case KIND_BOOLEAN:
+		{
+			jboolean result = env->CallStaticBooleanMethod(JSCCallback.handler, JSCCallback.callbackBooleanFunctionMethodID, ctx, obj, mappedMethod->index,
+														   primitiveArguments[0], primitiveArguments[1], primitiveArguments[2], primitiveArguments[3]);
+			if(!HandleJavaException(env, ctx, exception)) {
+				jsReturn = JSValueMakeBoolean(ctx, result);
+			}
+			break;
+		}
+
+		default:
+		{
+			jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackPrimitiveFunctionMethodID, ctx, obj, mappedMethod->index,
+														 primitiveArguments[0], primitiveArguments[1], primitiveArguments[2], primitiveArguments[3]);
+			if(!HandleJavaException(env, ctx, exception)) {
+				jsReturn = JSValueMakeWithNativeInstance(env, ctx, result);
+				env->DeleteLocalRef(result);
+			}
+			break;
+		}
+	}
+
+	return jsReturn;
+}
+
 /**
  * The callback invoked when an object is called as a function.
  * If your callback were invoked by the JavaScript expression 'myObject.myFunction()', function would be set to myFunction, and thisObject would be set to myObject.
@@ -153,28 +357,46 @@ bool callbackSetProperty(JSContextRef ctx, JSObjectRef object, JSStringRef prope
 JSValueRef callbackFunction(JSContextRef ctx, JSObjectRef function, JSObjectRef thisObject, size_t argumentCount,
 							const JSValueRef arguments[], JSValueRef *exception)
 {
+	// Obtaining the mapped method, stored when the class was registered
+	JSMappedMethod* mappedMethod = (JSMappedMethod*)JSObjectGetPrivate(function);
+
+	// The function was detached from its object (or called with another "this")
+	if(!JSValueIsObjectOfClass(ctx, thisObject, mappedMethod->mappedClass->classRef))
+	{
+		JSStringRef message = JSStringCreateWithUTF8CString("Mapped method called on an incompatible object");
+		JSValueRef messageValue = JSValueMakeString(ctx, message);
+		JSStringRelease(message);
+		*exception = JSObjectMakeError(ctx, 1, &messageValue, NULL);
+		return NULL;
+	}
+
 	// Gets the JNIEnv variable.
-	JNIEnv *env = GetEnvironment();
+	CallbackEnvironment callback;
+	JNIEnv *env = callback.env;
+	if(!env)
+		return NULL;
 
 	// Object which the callback is being called
 	jobject obj = GetObjectReference(env, thisObject);
 
-	// Obtaining the function name
-	JSStringRef selectorName = JSStringCreateWithUTF8CString("selector");
-    JSStringRef jsSelector = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, function, selectorName, 0), 0);
-	JSStringRelease(selectorName);
-    jstring functionName = JSStringToJavaString(env, jsSelector);
-	JSStringRelease(jsSelector);
+	// Methods with primitive arguments are called without boxing them, when all arguments are valid
+	jdouble primitiveArguments[MAX_PRIMITIVE_ARGUMENTS];
+	if(GetPrimitiveArguments(ctx, mappedMethod->signature, arguments, argumentCount, primitiveArguments))
+	{
+		JSValueRef jsReturn = CallPrimitiveFunction(env, ctx, obj, mappedMethod, primitiveArguments, exception);
+		env->DeleteLocalRef(obj);
+		return jsReturn;
+	}
 
 	// Creating the constructor parameters
-	jobjectArray params = NewJavaArrayFromJSArguments(env, ctx, arguments, argumentCount);
+	bool hasViews;
+	jobjectArray params = NewJavaArrayFromJSArguments(env, ctx, arguments, argumentCount, &hasViews);
 
 	// Calling the callback execution
-	jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackFunctionMethodID, ctx, obj, functionName, params);
+	jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackFunctionMethodID, ctx, obj, mappedMethod->index, params);
 
 	// Releasing local references
 	env->DeleteLocalRef(obj);
-	env->DeleteLocalRef(functionName);
 
 	JSValueRef jsReturn = NULL;
 
@@ -185,6 +407,9 @@ JSValueRef callbackFunction(JSContextRef ctx, JSObjectRef function, JSObjectRef
 		env->DeleteLocalRef(result);
 	}
 
+	// Views are released after the result is converted, since it may be one of them
+	ReleaseViewsFromArray(env, params, hasViews);
+
 	DeleteLocalRefsFromArray(env, &params);
 
 	return jsReturn;
@@ -208,25 +433,20 @@ JSObjectRef callbackConstructor(JSContextRef ctx, JSObjectRef constructor, size_
 								const JSValueRef arguments[], JSValueRef* exception)
 {
 	// Gets the JNIEnv variable.
-	JNIEnv *env = GetEnvironment();
+	CallbackEnvironment callback;
+	JNIEnv *env = callback.env;
+	if(!env)
+		return NULL;
 
-	// Getting the name of the JavaScript class
-	JSStringRef jsClassNameProperty = JSStringCreateWithUTF8CString("name");
-    JSStringRef jsClassName = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, constructor, jsClassNameProperty, 0), 0);
-	JSStringRelease(jsClassNameProperty);
-
-	// Obtaining the class name
-    jstring className = JSStringToJavaString(env, jsClassName);
-	JSStringRelease(jsClassName);
+	// Obtaining the mapped class, stored when the class was registered, which holds the name of the class
+	JSMappedClass* mappedClass = (JSMappedClass*)JSObjectGetPrivate(constructor);
 
 	// Creating the constructor parameters
-	jobjectArray params = NewJavaArrayFromJSArguments(env, ctx, arguments, argumentCount);
+	bool hasViews;
+	jobjectArray params = NewJavaArrayFromJSArguments(env, ctx, arguments, argumentCount, &hasViews);
 
 	// Calling the callback execution
-	jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackConstructorMethodID, ctx, className, params);
-
-	// Releasing local references
-	env->DeleteLocalRef(className);
+	jobject result = env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.callbackConstructorMethodID, ctx, mappedClass->javaName, params);
 
 	JSObjectRef jsReturn = NULL;
 
@@ -239,11 +459,58 @@ JSObjectRef callbackConstructor(JSContextRef ctx, JSObjectRef constructor, size_
         }
 	}
 
+	ReleaseViewsFromArray(env, params, hasViews);
+
 	DeleteLocalRefsFromArray(env, &params);
 
 	return jsReturn;
 }
 
+/**
+ * The callback invoked when the constructor of a mapped class is called as a function, without 'new'. The object is
+ * constructed all the same, as by a 'new' expression.
+ *
+ * @param ctx The execution context to use.
+ * @param function A JSObject that is the constructor being called.
+ * @param thisObject A JSObject that is the 'this' variable in the function's scope.
+ * @param argumentCount An integer count of the number of arguments in arguments.
+ * @param arguments A JSValue array of the  arguments passed to the function.
+ * @param exception A pointer to a JSValueRef in which to return an exception, if any.
+ *
+ * @return The constructed object.
+ */
+JSValueRef callbackCallConstructor(JSContextRef ctx, JSObjectRef function, JSObjectRef thisObject, size_t argumentCount,
+								   const JSValueRef arguments[], JSValueRef *exception)
+{
+	return callbackConstructor(ctx, function, argumentCount, arguments, exception);
+}
+
+/**
+ * The callback invoked when the constructor of a mapped class is the right operand of an 'instanceof' expression.
+ * A value is an instance of the class when the prototype of the class is in its prototype chain, which also holds
+ * for script objects extending the prototype.
+ *
+ * @param ctx The execution context to use.
+ * @param constructor The constructor of the mapped class.
+ * @param possibleInstance The left operand of the expression.
+ * @param exception A pointer to a JSValueRef in which to return an exception, if any.
+ *
+ * @return true if the value is an instance of the class.
+ */
+bool callbackHasInstance(JSContextRef ctx, JSObjectRef constructor, JSValueRef possibleInstance, JSValueRef* exception)
+{
+	JSMappedClass* mappedClass = (JSMappedClass*)JSObjectGetPrivate(constructor);
+
+	while(JSValueIsObject(ctx, possibleInstance))
+	{
+		possibleInstance = JSObjectGetPrototype(ctx, (JSObjectRef)possibleInstance);
+		if(JSValueIsStrictEqual(ctx, possibleInstance, mappedClass->prototype))
+			return true;
+	}
+
+	return false;
+}
+
 /**
  * The callback invoked when an object is finalized (prepared for garbage collection). An object may be finalized on any thread.
  *
@@ -251,40 +518,382 @@ JSObjectRef callbackConstructor(JSContextRef ctx, JSObjectRef constructor, size_
  */
 void callbackFinalize(JSObjectRef object)
 {
-	// Gets the JNIEnv variable.
-	JNIEnv *env = GetEnvironment();
+	// Objects may be finalized after their context has released their mapped class (see ReleaseMappedClass)
+
+	// The instance created to obtain the prototype of the class holds no Java object
+	if(!JSObjectGetPrivate(object))
+		return;
+
+	// Gets the JNIEnv variable, attaching the collector thread to the Java VM once. If it can't be attached, the Java
+	// object is never released, which is better than crashing the collector.
+	CallbackEnvironment callback;
+	JNIEnv *env = callback.env;
+	if(!env)
+		return;
 
 	// Releases all references to this object
 	DeallocObjectReference(env, object);
 }
 
 /**
- * The callback invoked when determining whether an object has a property.
- * If this function returns false, the hasProperty request forwards to object's statically declared properties, then its parent class chain (which includes the default object class), then its prototype chain.
- * This callback enables optimization in cases where only a property's existence needs to be known, not its value, and computing its value would be expensive.
- * If this callback is NULL, the getProperty callback will be used to service hasProperty requests.
+ * The callback invoked when a function calling a mapped method is finalized, which may happen on any thread,
+ * after the context has released the mapped class.
+ *
+ * @param function The function being finalized.
+ */
+void callbackFinalizeMethod(JSObjectRef function)
+{
+	JSMappedMethod* mappedMethod = (JSMappedMethod*)JSObjectGetPrivate(function);
+	DereferenceMappedClass(GetEnvironment(), mappedMethod->mappedClass);
+}
+
+/**
+ * The callback invoked when the constructor of a mapped class is finalized, which may happen on any thread, after
+ * the context has released the mapped class.
+ *
+ * @param constructor The constructor being finalized.
+ */
+void callbackFinalizeConstructor(JSObjectRef constructor)
+{
+	DereferenceMappedClass(GetEnvironment(), (JSMappedClass*)JSObjectGetPrivate(constructor));
+}
+
+/**
+ * Creates the class definitions shared by all mapped classes: the parent class of their instances, which tells
+ * mapped objects apart from other objects with private data, and the classes of the functions calling mapped
+ * methods and of the constructors. Functions and constructors hold their mapped method and class as private data,
+ * out of reach of scripts. The definitions live as long as the library is loaded.
+ */
+void InitializeMappedClassDefinitions()
+{
+	JSClassDefinition objectDefinition = kJSClassDefinitionEmpty;
+	objectDefinition.attributes = kJSClassAttributeNoAutomaticPrototype;
+	objectDefinition.className = "MappedObject";
+	JSCCallback.mappedObjectClass = JSClassCreate(&objectDefinition);
+
+	JSClassDefinition methodDefinition = kJSClassDefinitionEmpty;
+	methodDefinition.attributes = kJSClassAttributeNoAutomaticPrototype;
+	methodDefinition.className = "Function";
+	methodDefinition.callAsFunction = callbackFunction;
+	methodDefinition.finalize = callbackFinalizeMethod;
+	JSCCallback.mappedMethodClass = JSClassCreate(&methodDefinition);
+
+	JSClassDefinition constructorDefinition = kJSClassDefinitionEmpty;
+	constructorDefinition.attributes = kJSClassAttributeNoAutomaticPrototype;
+	constructorDefinition.className = "Function";
+	constructorDefinition.callAsFunction = callbackCallConstructor;
+	constructorDefinition.callAsConstructor = callbackConstructor;
+	constructorDefinition.hasInstance = callbackHasInstance;
+	constructorDefinition.finalize = callbackFinalizeConstructor;
+	JSCCallback.mappedConstructorClass = JSClassCreate(&constructorDefinition);
+}
+
+/**
+ * Checks if a JavaScript value is an instance of a mapped class, holding a Java object.
  *
+ * @param ctx The execution context to use.
+ * @param value The JavaScript value.
+ *
+ * @return true if the value is a mapped object.
+ */
+bool IsMappedObject(JSContextRef ctx, JSValueRef value)
+{
+	return JSValueIsObjectOfClass(ctx, value, JSCCallback.mappedObjectClass);
+}
+
+/**
+ * Creates a JavaScript function which calls a mapped method.
  *
  * @param ctx The execution context to use.
- * @param object The JSObject to search for the property.
- * @param propertyName A JSString containing the name of the property look up.
+ * @param jsMethodName The name of the function.
+ * @param mappedMethod The mapped method called by the function.
+ * @param functionPrototype The prototype of functions of the context, so that the function has "call" and "apply".
  *
- * @return true if object has the property, otherwise false.
+ * @return The JavaScript function.
  */
-bool callbackHasProperty(JSContextRef ctx, JSObjectRef object, JSStringRef propertyName)
+JSObjectRef MakeMappedMethodFunction(JSContextRef ctx, JSStringRef jsMethodName, JSMappedMethod* mappedMethod, JSValueRef functionPrototype)
 {
-	// Gets the JNIEnv variable.
-	JNIEnv *env = GetEnvironment();
+	// The mapped method is the private data of the function, to be accessed when it is called
+	RetainMappedClass(mappedMethod->mappedClass);
+	JSObjectRef function = JSObjectMake(ctx, JSCCallback.mappedMethodClass, mappedMethod);
+	JSObjectSetPrototype(ctx, function, functionPrototype);
+	JSObjectSetProperty(ctx, function, JSNames.name, JSValueMakeString(ctx, jsMethodName),
+						kJSPropertyAttributeReadOnly | kJSPropertyAttributeDontEnum, NULL);
+
+	return function;
+}
 
-	jstring propName = JSStringToJavaString(env, propertyName);
-	jobject obj = GetObjectReference(env, object);
+/**
+ * The getter of the placeholder of a lazily registered class, invoked the first time the class is referenced in a
+ * context. The class is registered to the context by the Java layer, replacing the placeholder by its constructor,
+ * which is then returned.
+ *
+ * @param ctx The execution context to use.
+ * @param function The getter, named after the class.
+ * @param thisObject The global object.
+ * @param argumentCount An integer count of the number of arguments in arguments.
+ * @param arguments A JSValue array of the  arguments passed to the function.
+ * @param exception A pointer to a JSValueRef in which to return an exception, if any.
+ *
+ * @return The constructor of the class.
+ */
+JSValueRef callbackResolveLazyClass(JSContextRef ctx, JSObjectRef function, JSObjectRef thisObject, size_t argumentCount,
+									const JSValueRef arguments[], JSValueRef *exception)
+{
+	CallbackEnvironment callback;
+	JNIEnv *env = callback.env;
+	if(!env)
+		return NULL;
 
-	jboolean hasProperty = env->CallStaticBooleanMethod(JSCCallback.handler, JSCCallback.hasPropertyMethodID, obj, propName);
+	// The getter is named after the class
+	JSStringRef jsClassName = JSValueToStringCopy(ctx, JSObjectGetProperty(ctx, function, JSNames.name, NULL), NULL);
 
-	env->DeleteLocalRef(obj);
-	env->DeleteLocalRef(propName);
+	jstring className = JSStringToJavaString(env, jsClassName);
+	env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.resolveLazyClassMethodID, (intptr_t)JSContextGetGlobalContext(ctx), className);
+	env->DeleteLocalRef(className);
+
+	JSValueRef constructor = NULL;
+	if(!HandleJavaException(env, ctx, exception)) {
+		constructor = JSObjectGetProperty(ctx, JSContextGetGlobalObject(ctx), jsClassName, exception);
+	}
+
+	JSStringRelease(jsClassName);
+	return constructor;
+}
+
+/**
+ * Installs the placeholder of a lazily registered class in the global object: a configurable getter, which
+ * registers the class the first time it is referenced. The placeholder costs one function, while the registration
+ * of a class reflects all its members and creates its class definition.
+ *
+ * @param ctx The execution context to use.
+ * @param jsClassName The name of the class.
+ */
+void MakeLazyClassPlaceholder(JSContextRef ctx, JSStringRef jsClassName)
+{
+	JSObjectRef global = JSContextGetGlobalObject(ctx);
+
+	// Object.defineProperty is the only way to create a getter, since the global object has no class callbacks
+	JSObjectRef objectConstructor = JSValueToObject(ctx, JSObjectGetProperty(ctx, global, JSNames.Object, NULL), NULL);
+	JSObjectRef defineProperty = JSValueToObject(ctx, JSObjectGetProperty(ctx, objectConstructor, JSNames.defineProperty, NULL), NULL);
 
-	return hasProperty;
+	JSObjectRef descriptor = JSObjectMake(ctx, NULL, NULL);
+	JSObjectSetProperty(ctx, descriptor, JSNames.get,
+						JSObjectMakeFunctionWithCallback(ctx, jsClassName, (JSObjectCallAsFunctionCallback) callbackResolveLazyClass),
+						kJSPropertyAttributeNone, NULL);
+	JSObjectSetProperty(ctx, descriptor, JSNames.configurable, JSValueMakeBoolean(ctx, true), kJSPropertyAttributeNone, NULL);
+
+	JSValueRef arguments[] = { global, JSValueMakeString(ctx, jsClassName), descriptor };
+	JSObjectCallAsFunction(ctx, defineProperty, objectConstructor, 3, arguments, NULL);
+}
+
+/**
+ * Creates the native representation of a mapped class: its JavaScriptCore class definition, declaring
+ * statically all mapped properties, its constructor, and its prototype holding one function for each mapped
+ * method. Properties and functions are created once, so that accessing members of mapped objects doesn't need
+ * to call the Java layer to check if they exist, or to look up, create or name a function each time they are
+ * evaluated.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The execution context to use.
+ * @param jsName The name of the class.
+ * @param propertyNames The names of the mapped properties, by their index.
+ * @param propertyKinds The kinds of the mapped properties (KIND_*), by their index.
+ * @param methodNames The names of the mapped methods, by their index.
+ * @param methodSignatures The signatures of the mapped methods (SIGNATURE_*), by their index.
+ * @param constructor A pointer to a JSObjectRef which receives the constructor of the class.
+ *
+ * @return The mapped class.
+ */
+JSMappedClass* CreateMappedClass(JNIEnv *env, JSContextRef ctx, const char *jsName, jobjectArray propertyNames, jintArray propertyKinds,
+								 jobjectArray methodNames, jintArray methodSignatures, JSObjectRef* constructor)
+{
+	JSMappedClass* mappedClass = (JSMappedClass*)malloc(sizeof(JSMappedClass));
+
+	// Referenced by the context, until it releases the class
+	mappedClass->references = 1;
+	mappedClass->javaName = NULL;
+
+	// One static value for each property index, plus the "isMappedObject" flag and the terminator
+	int propertiesCount = env->GetArrayLength(propertyNames);
+	mappedClass->propertiesCount = propertiesCount;
+	mappedClass->propertyNames = (JSStringRef*)malloc(sizeof(JSStringRef) * propertiesCount);
+	mappedClass->propertyKinds = (jint*)malloc(sizeof(jint) * propertiesCount);
+	env->GetIntArrayRegion(propertyKinds, 0, propertiesCount, mappedClass->propertyKinds);
+	JSStaticValue* staticValues = (JSStaticValue*)malloc(sizeof(JSStaticValue) * (propertiesCount + 2));
+
+	for(int i=0; i < propertiesCount; i++)
+	{
+		jstring javaPropertyName = (jstring)env->GetObjectArrayElement(propertyNames, i);
+		const char* propertyName = env->GetStringUTFChars(javaPropertyName, 0);
+		mappedClass->propertyNames[i] = JavaStringToJSString(env, javaPropertyName);
+
+		JSStaticValue staticValue = { strdup(propertyName), callbackGetProperty, callbackSetProperty,
+									  kJSPropertyAttributeDontEnum | kJSPropertyAttributeDontDelete };
+		staticValues[i] = staticValue;
+
+		env->ReleaseStringUTFChars(javaPropertyName, propertyName);
+		env->DeleteLocalRef(javaPropertyName);
+	}
+
+	JSStaticValue isMappedObject = { "isMappedObject", callbackIsMappedObject, NULL,
+									 kJSPropertyAttributeReadOnly | kJSPropertyAttributeDontEnum | kJSPropertyAttributeDontDelete };
+	JSStaticValue terminator = { NULL, NULL, NULL, 0 };
+	staticValues[propertiesCount] = isMappedObject;
+	staticValues[propertiesCount + 1] = terminator;
+
+	// Create the JavaScriptCore class definition
+	JSClassDefinition definition = kJSClassDefinitionEmpty;
+	definition.attributes = kJSClassAttributeNone;
+	definition.className = jsName;
+	definition.parentClass = JSCCallback.mappedObjectClass;
+	definition.staticValues = staticValues;
+	definition.finalize = callbackFinalize;
+	mappedClass->classRef = JSClassCreate(&definition);
+
+	// The class definition copies the names of its static values
+	for(int i=0; i < propertiesCount; i++)
+	{
+		free((void*)staticValues[i].name);
+	}
+	free(staticValues);
+
+	// Open addressing table of the property indexes by the hashes of their names, at most half full
+	unsigned int slotsCount = 2;
+	while(slotsCount < 2 * (unsigned int) propertiesCount) slotsCount <<= 1;
+	mappedClass->propertySlotsMask = slotsCount - 1;
+	mappedClass->propertySlots = (jint*)malloc(sizeof(jint) * slotsCount);
+	mappedClass->propertyHashes = (unsigned int*)malloc(sizeof(unsigned int) * propertiesCount);
+	mappedClass->propertyHashesCollide = false;
+	for(unsigned int slot=0; slot < slotsCount; slot++)
+	{
+		mappedClass->propertySlots[slot] = -1;
+	}
+
+	for(int i=0; i < propertiesCount; i++)
+	{
+		unsigned int hash = HashPropertyName(mappedClass->propertyNames[i]);
+		mappedClass->propertyHashes[i] = hash;
+
+		unsigned int slot = hash & mappedClass->propertySlotsMask;
+		while(mappedClass->propertySlots[slot] >= 0)
+		{
+			if(mappedClass->propertyHashes[mappedClass->propertySlots[slot]] == hash)
+				mappedClass->propertyHashesCollide = true;
+			slot = (slot + 1) & mappedClass->propertySlotsMask;
+		}
+		mappedClass->propertySlots[slot] = i;
+	}
+
+	// The prototype which the engine gives to every instance of the class, so the methods are shared by all
+	// instances. It is obtained from an instance holding no Java object, and lives as long as the class.
+	mappedClass->prototype = JSValueToObject(ctx, JSObjectGetPrototype(ctx, JSObjectMake(ctx, mappedClass->classRef, NULL)), NULL);
+	JSValueProtect(ctx, mappedClass->prototype);
+
+	// Functions and the constructor inherit "call", "apply" and "bind" from the prototype of functions
+	JSObjectRef functionConstructor = JSValueToObject(ctx, JSObjectGetProperty(ctx, JSContextGetGlobalObject(ctx), JSNames.Function, NULL), NULL);
+	JSValueRef functionPrototype = JSObjectGetProperty(ctx, functionConstructor, JSNames.prototype, NULL);
+
+	// The constructor exposes the prototype, so that scripts can extend it, and "instanceof" works
+	RetainMappedClass(mappedClass);
+	*constructor = JSObjectMake(ctx, JSCCallback.mappedConstructorClass, mappedClass);
+	JSObjectSetPrototype(ctx, *constructor, functionPrototype);
+	JSObjectSetProperty(ctx, *constructor, JSNames.prototype, mappedClass->prototype,
+						kJSPropertyAttributeReadOnly | kJSPropertyAttributeDontEnum | kJSPropertyAttributeDontDelete, NULL);
+	JSObjectSetProperty(ctx, mappedClass->prototype, JSNames.constructor, *constructor, kJSPropertyAttributeDontEnum, NULL);
+
+	// One mapped method for each method index, plus the conversion to primitive values
+	int methodsCount = env->GetArrayLength(methodNames);
+	mappedClass->methods = (JSMappedMethod*)malloc(sizeof(JSMappedMethod) * (methodsCount + 1));
+	jint* signatures = env->GetIntArrayElements(methodSignatures, NULL);
+
+	for(int i=0; i < methodsCount; i++)
+	{
+		jstring javaMethodName = (jstring)env->GetObjectArrayElement(methodNames, i);
+		JSStringRef jsMethodName = JavaStringToJSString(env, javaMethodName);
+		env->DeleteLocalRef(javaMethodName);
+
+		mappedClass->methods[i].mappedClass = mappedClass;
+		mappedClass->methods[i].index = i;
+		mappedClass->methods[i].signature = signatures[i];
+
+		JSObjectRef function = MakeMappedMethodFunction(ctx, jsMethodName, &mappedClass->methods[i], functionPrototype);
+		JSObjectSetProperty(ctx, mappedClass->prototype, jsMethodName, function, kJSPropertyAttributeDontEnum, NULL);
+		JSStringRelease(jsMethodName);
+	}
+
+	env->ReleaseIntArrayElements(methodSignatures, signatures, JNI_ABORT);
+
+	// Conversions to primitive values (explicit or by concatenation with other objects)
+	JSMappedMethod* toPrimitiveMethod = &mappedClass->methods[methodsCount];
+	toPrimitiveMethod->mappedClass = mappedClass;
+	toPrimitiveMethod->index = TO_PRIMITIVE_METHOD_INDEX;
+	toPrimitiveMethod->signature = KIND_OBJECT;
+
+	JSStringRef toPrimitiveMethodNames[] = { JSNames.toString, JSNames.valueOf };
+	for(int i=0; i < 2; i++)
+	{
+		JSObjectRef function = MakeMappedMethodFunction(ctx, toPrimitiveMethodNames[i], toPrimitiveMethod, functionPrototype);
+		JSObjectSetProperty(ctx, mappedClass->prototype, toPrimitiveMethodNames[i], function, kJSPropertyAttributeDontEnum, NULL);
+	}
+
+	return mappedClass;
+}
+
+/**
+ * Releases the native representation of a mapped class, when its context is released. The prototype is no longer
+ * protected, so that it (and the global object its functions reference) can be collected. The instances, functions
+ * and constructor of the class may outlive the context, so the class is freed only when the last of them is
+ * finalized (see DereferenceMappedClass).
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The context which the class was registered to, not released yet.
+ * @param mappedClass The mapped class to be released.
+ */
+void ReleaseMappedClass(JNIEnv *env, JSContextRef ctx, JSMappedClass* mappedClass)
+{
+	JSValueUnprotect(ctx, mappedClass->prototype);
+	DereferenceMappedClass(env, mappedClass);
+}
+
+/**
+ * Adds a reference to a mapped class, held by the context or by a JavaScript object pointing to the class.
+ *
+ * @param mappedClass The mapped class.
+ */
+void RetainMappedClass(JSMappedClass* mappedClass)
+{
+	__sync_add_and_fetch(&mappedClass->references, 1);
+}
+
+/**
+ * Removes a reference to a mapped class, freeing it when the context and all objects pointing to it have released
+ * it. Objects are finalized on any thread, so the references are counted atomically.
+ *
+ * @param env Pointer to JNI environment.
+ * @param mappedClass The mapped class.
+ */
+void DereferenceMappedClass(JNIEnv *env, JSMappedClass* mappedClass)
+{
+	if(__sync_sub_and_fetch(&mappedClass->references, 1) > 0)
+		return;
+
+	JSClassRelease(mappedClass->classRef);
+
+	for(int i=0; i < mappedClass->propertiesCount; i++)
+	{
+		JSStringRelease(mappedClass->propertyNames[i]);
+	}
+	free(mappedClass->propertyNames);
+	free(mappedClass->propertyKinds);
+	free(mappedClass->propertyHashes);
+	free(mappedClass->propertySlots);
+	free(mappedClass->methods);
+
+	// The name is leaked if a collector thread could not be attached to the Java VM
+	if(mappedClass->javaName && env)
+		env->DeleteGlobalRef(mappedClass->javaName);
+	free(mappedClass);
 }
 
 /*
@@ -292,17 +901,18 @@ bool callbackHasProperty(JSContextRef ctx, JSObjectRef object, JSStringRef prope
  *
  * @param env Pointer to JNI environment.
  * @param obj Native Java object to be allocated.
+ * @param mappedClass The mapped class of the object.
  *
- * @returns A pointer to the native Java object instance that was allocated.
+ * @returns The private data of the JavaScript instance, holding the handle of the native Java object.
  */
-long* AllocObjectReference(JNIEnv *env, jobject obj)
+JSMappedObject* AllocObjectReference(JNIEnv *env, jobject obj, JSMappedClass* mappedClass)
 {
-	jint objHashCode = env->CallStaticIntMethod(JSCCallback.handler, JSCCallback.allocObjectReferenceMethodID, obj);
+	JSMappedObject* mappedObject = (JSMappedObject*)malloc(sizeof(JSMappedObject));
+	mappedObject->handle = env->CallStaticIntMethod(JSCCallback.handler, JSCCallback.allocObjectReferenceMethodID, obj);
+	mappedObject->mappedClass = mappedClass;
+	RetainMappedClass(mappedClass);
 
-	long* objHashCodePointer = (long*)malloc(sizeof(long));
-	objHashCodePointer[0] = objHashCode;
-
-	return objHashCodePointer;
+	return mappedObject;
 }
 
 /*
@@ -313,11 +923,12 @@ long* AllocObjectReference(JNIEnv *env, jobject obj)
  */
 void DeallocObjectReference(JNIEnv *env, JSObjectRef jsObject)
 {
-	long* objHashCode = (long*)JSObjectGetPrivate(jsObject);
+	JSMappedObject* mappedObject = (JSMappedObject*)JSObjectGetPrivate(jsObject);
 
-	env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.deallocObjectReferenceMethodID, (jint) objHashCode[0]);
+	env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.deallocObjectReferenceMethodID, mappedObject->handle);
 
-	free(objHashCode);
+	DereferenceMappedClass(env, mappedObject->mappedClass);
+	free(mappedObject);
 }
 
 /*
@@ -330,20 +941,7 @@ void DeallocObjectReference(JNIEnv *env, JSObjectRef jsObject)
  */
 jobject GetObjectReference(JNIEnv *env, JSObjectRef jsObject)
 {
-	long* objHashCode = (long*)JSObjectGetPrivate(jsObject);
-
-	return env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.getObjectReferenceMethodID, objHashCode[0]);
-}
+	JSMappedObject* mappedObject = (JSMappedObject*)JSObjectGetPrivate(jsObject);
 
-/*
- * Checks if the mapped JavaScript object has a mapped method with the given name.
- *
- * @param env Pointer to JNI environment.
- * @param methodName Name of the method to be checked.
- *
- * @returns true if there is a method mapped to the given object, of false otherwise.
- */
-bool HasMethod(JNIEnv *env, jobject obj, jstring methodName)
-{
-	return env->CallStaticBooleanMethod(JSCCallback.handler, JSCCallback.hasMethodMethodID, obj, methodName);
+	return env->CallStaticObjectMethod(JSCCallback.handler, JSCCallback.getObjectReferenceMethodID, mappedObject->handle);
 }
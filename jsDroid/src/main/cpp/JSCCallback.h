@@ -5,35 +5,101 @@
 #include "ConversionHelper.h"
 #include "ExceptionHelper.h"
 
+// Method index of the toString and valueOf functions (see JavaScriptCallback.TO_PRIMITIVE_METHOD_INDEX)
+#define TO_PRIMITIVE_METHOD_INDEX -1
+
+// Kinds of values exchanged with the Java layer (see APIParameter.KIND_*)
+#define KIND_OBJECT 0
+#define KIND_NUMBER 1
+#define KIND_BOOLEAN 2
+
+// Signature of a mapped method (see APIMethod.getSignature)
+#define MAX_PRIMITIVE_ARGUMENTS 4
+#define SIGNATURE_RETURN_KIND(signature) ((signature) & 3)
+#define SIGNATURE_PRIMITIVE_ARGUMENTS (1 << 2)
+#define SIGNATURE_ARGUMENTS_COUNT(signature) (((signature) >> 3) & 7)
+#define SIGNATURE_IS_BOOLEAN_ARGUMENT(signature, i) (((signature) >> (8 + (i))) & 1)
+
+// Native representation of a mapped method, held as the private data of its JavaScript function
+typedef struct {
+	struct _JSMappedClass* mappedClass;
+	jint index;
+	jint signature;
+} JSMappedMethod;
+
+// Native representation of a mapped class inside a JavaScript context, held as the private data of its constructor
+typedef struct _JSMappedClass {
+	jstring javaName;
+	JSClassRef classRef;
+	JSObjectRef prototype;
+	JSMappedMethod* methods;
+	JSStringRef* propertyNames;
+	jint* propertyKinds;
+	int propertiesCount;
+	unsigned int* propertyHashes;
+	jint* propertySlots;
+	unsigned int propertySlotsMask;
+	bool propertyHashesCollide;
+	int references;
+} JSMappedClass;
+
+// Private data of a JavaScript instance of a mapped class
+typedef struct {
+	jint handle;
+	JSMappedClass* mappedClass;
+} JSMappedObject;
+
 // JavaScriptCore callbacks
-bool callbackHasProperty(JSContextRef, JSObjectRef, JSStringRef);
 JSValueRef callbackGetProperty(JSContextRef, JSObjectRef, JSStringRef, JSValueRef*);
 bool callbackSetProperty(JSContextRef, JSObjectRef, JSStringRef, JSValueRef, JSValueRef*);
+JSValueRef callbackIsMappedObject(JSContextRef, JSObjectRef, JSStringRef, JSValueRef*);
 JSValueRef callbackFunction(JSContextRef, JSObjectRef, JSObjectRef, size_t, const JSValueRef[], JSValueRef*);
 JSObjectRef callbackConstructor(JSContextRef, JSObjectRef, size_t, const JSValueRef[], JSValueRef*);
+JSValueRef callbackCallConstructor(JSContextRef, JSObjectRef, JSObjectRef, size_t, const JSValueRef[], JSValueRef*);
+bool callbackHasInstance(JSContextRef, JSObjectRef, JSValueRef, JSValueRef*);
 void callbackFinalize(JSObjectRef);
+void callbackFinalizeMethod(JSObjectRef);
+void callbackFinalizeConstructor(JSObjectRef);
+
+// Mapped classes
+void InitializeMappedClassDefinitions();
+bool IsMappedObject(JSContextRef, JSValueRef);
+JSMappedClass* CreateMappedClass(JNIEnv*, JSContextRef, const char*, jobjectArray, jintArray, jobjectArray, jintArray, JSObjectRef*);
+void ReleaseMappedClass(JNIEnv*, JSContextRef, JSMappedClass*);
+void RetainMappedClass(JSMappedClass*);
+void DereferenceMappedClass(JNIEnv*, JSMappedClass*);
+void MakeLazyClassPlaceholder(JSContextRef, JSStringRef);
+JSValueRef callbackResolveLazyClass(JSContextRef, JSObjectRef, JSObjectRef, size_t, const JSValueRef[], JSValueRef*);
 
 // Allocation
-long* AllocObjectReference(JNIEnv*, jobject);
+JSMappedObject* AllocObjectReference(JNIEnv*, jobject, JSMappedClass*);
 void DeallocObjectReference(JNIEnv*, JSObjectRef);
 jobject GetObjectReference(JNIEnv*, JSObjectRef);
 
-bool HasMethod(JNIEnv*, jobject, jstring);
-
 // Struct to hold the method pointers, avoiding creating and releasing references inside the JSC callbacks
 typedef struct {
 	jclass handler;
 	jmethodID callbackGetPropertyMethodID;
 	jmethodID callbackSetPropertyMethodID;
+	jmethodID callbackGetNumberPropertyMethodID;
+	jmethodID callbackGetBooleanPropertyMethodID;
+	jmethodID callbackSetNumberPropertyMethodID;
+	jmethodID callbackSetBooleanPropertyMethodID;
 	jmethodID callbackFunctionMethodID;
+	jmethodID callbackPrimitiveFunctionMethodID;
+	jmethodID callbackNumberFunctionMethodID;
+	jmethodID callbackBooleanFunctionMethodID;
 	jmethodID callbackConstructorMethodID;
 	jmethodID throwExceptionMethodID;
+	jmethodID throwTimeoutExceptionMethodID;
 	jmethodID allocObjectReferenceMethodID;
 	jmethodID deallocObjectReferenceMethodID;
 	jmethodID getObjectReferenceMethodID;
-	jmethodID hasPropertyMethodID;
-	jmethodID hasMethodMethodID;
 	jmethodID getJSClassRefMethodID;
+	jmethodID resolveLazyClassMethodID;
+	JSClassRef mappedObjectClass;
+	JSClassRef mappedMethodClass;
+	JSClassRef mappedConstructorClass;
 } _JSCCallback;
 extern _JSCCallback JSCCallback;
 
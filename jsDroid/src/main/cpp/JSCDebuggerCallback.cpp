@@ -7,7 +7,10 @@ _JSCDebuggerCallbackJNI JSCDebuggerCallbackJNI;
 void JSCDebuggerCallback::sourceParsed(JSContextRef ctx, const char *sourceUrl, size_t sourceID)
 {
     // Gets the JNIEnv variable.
-    JNIEnv *env = GetEnvironment();
+    CallbackEnvironment callback;
+    JNIEnv *env = callback.env;
+    if(!env)
+        return;
 
     jstring javaSourceUrl = env->NewStringUTF(sourceUrl);
 
@@ -19,7 +22,10 @@ void JSCDebuggerCallback::sourceParsed(JSContextRef ctx, const char *sourceUrl,
 void JSCDebuggerCallback::handleBreakpointHit(JSContextRef ctx, size_t sourceID, unsigned line, unsigned column)
 {
     // Gets the JNIEnv variable.
-    JNIEnv *env = GetEnvironment();
+    CallbackEnvironment callback;
+    JNIEnv *env = callback.env;
+    if(!env)
+        return;
 
     env->CallStaticVoidMethod(JSCDebuggerCallbackJNI.handler, JSCDebuggerCallbackJNI.handleBreakpointHitMethodID, ctx, sourceID, line, column);
 }
@@ -27,7 +33,10 @@ void JSCDebuggerCallback::handleBreakpointHit(JSContextRef ctx, size_t sourceID,
 void JSCDebuggerCallback::handleExceptionHit(JSContextRef ctx, size_t sourceID, unsigned line, unsigned column, JSValueRef *exception)
 {
     // Gets the JNIEnv variable.
-    JNIEnv *env = GetEnvironment();
+    CallbackEnvironment callback;
+    JNIEnv *env = callback.env;
+    if(!env)
+        return;
 
     HandleJSException(env, ctx, *exception);
     jthrowable javaException = env->ExceptionOccurred();
@@ -41,7 +50,10 @@ void JSCDebuggerCallback::handleExceptionHit(JSContextRef ctx, size_t sourceID,
 void JSCDebuggerCallback::handleStepHit(JSContextRef ctx, size_t sourceID, unsigned line, unsigned column)
 {
     // Gets the JNIEnv variable.
-    JNIEnv *env = GetEnvironment();
+    CallbackEnvironment callback;
+    JNIEnv *env = callback.env;
+    if(!env)
+        return;
 
     env->CallStaticVoidMethod(JSCDebuggerCallbackJNI.handler, JSCDebuggerCallbackJNI.handleStepHitMethodID, ctx, sourceID, line, column);
 }
\ No newline at end of file
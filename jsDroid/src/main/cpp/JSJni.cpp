@@ -14,17 +14,26 @@ void InitializeCallbacksIfNeeded(JNIEnv * env) {
 		jclass handler = env->FindClass("com/arecmetafora/jsdroid/JavaScriptCallback");
 		JSCCallback.handler = (jclass) env->NewGlobalRef(handler);
 
-		JSCCallback.callbackGetPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackGetProperty", "(ILjava/lang/Object;Ljava/lang/String;)Ljava/lang/Object;");
-		JSCCallback.callbackSetPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackSetProperty", "(ILjava/lang/Object;Ljava/lang/String;Ljava/lang/Object;)V");
-		JSCCallback.callbackFunctionMethodID = 		env->GetStaticMethodID(handler, "callbackFunction", "(ILjava/lang/Object;Ljava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;");
+		JSCCallback.callbackGetPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackGetProperty", "(ILjava/lang/Object;I)Ljava/lang/Object;");
+		JSCCallback.callbackSetPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackSetProperty", "(ILjava/lang/Object;ILjava/lang/Object;)V");
+		JSCCallback.callbackGetNumberPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackGetNumberProperty", "(ILjava/lang/Object;I)D");
+		JSCCallback.callbackGetBooleanPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackGetBooleanProperty", "(ILjava/lang/Object;I)Z");
+		JSCCallback.callbackSetNumberPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackSetNumberProperty", "(ILjava/lang/Object;ID)V");
+		JSCCallback.callbackSetBooleanPropertyMethodID = 	env->GetStaticMethodID(handler, "callbackSetBooleanProperty", "(ILjava/lang/Object;IZ)V");
+		JSCCallback.callbackFunctionMethodID = 		env->GetStaticMethodID(handler, "callbackFunction", "(ILjava/lang/Object;I[Ljava/lang/Object;)Ljava/lang/Object;");
+		JSCCallback.callbackPrimitiveFunctionMethodID = env->GetStaticMethodID(handler, "callbackPrimitiveFunction", "(ILjava/lang/Object;IDDDD)Ljava/lang/Object;");
+		JSCCallback.callbackNumberFunctionMethodID = 	env->GetStaticMethodID(handler, "callbackNumberFunction", "(ILjava/lang/Object;IDDDD)D");
+		JSCCallback.callbackBooleanFunctionMethodID = 	env->GetStaticMethodID(handler, "callbackBooleanFunction", "(ILjava/lang/Object;IDDDD)Z");
 		JSCCallback.callbackConstructorMethodID = 	env->GetStaticMethodID(handler, "callbackConstructor", "(ILjava/lang/String;[Ljava/lang/Object;)Ljava/lang/Object;");
 		JSCCallback.throwExceptionMethodID = 		env->GetStaticMethodID(handler, "throwException", "(ILjava/lang/String;Ljava/lang/String;)V");
+		JSCCallback.throwTimeoutExceptionMethodID = env->GetStaticMethodID(handler, "throwTimeoutException", "(IJ)V");
 		JSCCallback.allocObjectReferenceMethodID = 	env->GetStaticMethodID(handler, "allocObjectReference", "(Ljava/lang/Object;)I");
 		JSCCallback.deallocObjectReferenceMethodID= env->GetStaticMethodID(handler, "deallocObjectReference", "(I)V");
 		JSCCallback.getObjectReferenceMethodID = 	env->GetStaticMethodID(handler, "getObjectReference", "(I)Ljava/lang/Object;");
-		JSCCallback.hasPropertyMethodID = 			env->GetStaticMethodID(handler, "hasProperty", "(Ljava/lang/Object;Ljava/lang/String;)Z");
-		JSCCallback.hasMethodMethodID = 			env->GetStaticMethodID(handler, "hasMethod", "(Ljava/lang/Object;Ljava/lang/String;)Z");
-		JSCCallback.getJSClassRefMethodID = 		env->GetStaticMethodID(handler, "getJSClassRef", "(Ljava/lang/Object;)I");
+		JSCCallback.getJSClassRefMethodID = 		env->GetStaticMethodID(handler, "getJSClassRef", "(ILjava/lang/Object;)I");
+		JSCCallback.resolveLazyClassMethodID = 	env->GetStaticMethodID(handler, "resolveLazyClass", "(ILjava/lang/String;)V");
+
+		InitializeMappedClassDefinitions();
 	}
 
 	if(!JSCDebuggerCallbackJNI.handler) {
@@ -37,6 +46,10 @@ void InitializeCallbacksIfNeeded(JNIEnv * env) {
 		JSCDebuggerCallbackJNI.handleStepHitMethodID		= 	env->GetStaticMethodID(handler, "handleStepHit", "(IIII)V");
 	}
 
+	if(!JSNames.name) {
+		InitializeJSNames();
+	}
+
 	if(!JavaClasses.String) {
 		JavaClasses.Boolean = 			(jclass)env->NewGlobalRef(env->FindClass("java/lang/Boolean"));
 		JavaClasses.Double = 			(jclass)env->NewGlobalRef(env->FindClass("java/lang/Double"));
@@ -45,15 +58,40 @@ void InitializeCallbacksIfNeeded(JNIEnv * env) {
 		JavaClasses.GregorianCalendar = (jclass)env->NewGlobalRef(env->FindClass("java/util/GregorianCalendar"));
 		JavaClasses.Object = 			(jclass)env->NewGlobalRef(env->FindClass("java/lang/Object"));
 		JavaClasses.ObjectArray = 		(jclass)env->NewGlobalRef(env->FindClass("[Ljava/lang/Object;"));
-		JavaClasses.UnmappedObject = 	(jclass)env->NewGlobalRef(env->FindClass("com/arecmetafora/jsdroid/UnmappedObject"));
+		JavaClasses.ByteArray = 		(jclass)env->NewGlobalRef(env->FindClass("[B"));
+		JavaClasses.ShortArray = 		(jclass)env->NewGlobalRef(env->FindClass("[S"));
+		JavaClasses.IntArray = 			(jclass)env->NewGlobalRef(env->FindClass("[I"));
+		JavaClasses.FloatArray = 		(jclass)env->NewGlobalRef(env->FindClass("[F"));
+		JavaClasses.DoubleArray = 		(jclass)env->NewGlobalRef(env->FindClass("[D"));
+		JavaClasses.ByteBuffer = 		(jclass)env->NewGlobalRef(env->FindClass("java/nio/ByteBuffer"));
+		JavaClasses.Map = 				(jclass)env->NewGlobalRef(env->FindClass("java/util/Map"));
+		JavaClasses.LinkedHashMap = 	(jclass)env->NewGlobalRef(env->FindClass("java/util/LinkedHashMap"));
+		JavaClasses.List = 				(jclass)env->NewGlobalRef(env->FindClass("java/util/List"));
+		JavaClasses.ObjectMarshaller = 	(jclass)env->NewGlobalRef(env->FindClass("com/arecmetafora/jsdroid/ObjectMarshaller"));
+		JavaClasses.ParameterConverter = (jclass)env->NewGlobalRef(env->FindClass("com/arecmetafora/jsdroid/ParameterConverter"));
+		JavaClasses.View = 				(jclass)env->NewGlobalRef(env->FindClass("com/arecmetafora/jsdroid/JSView"));
+		JavaClasses.ArrayView = 		(jclass)env->NewGlobalRef(env->FindClass("com/arecmetafora/jsdroid/JSArrayView"));
+		JavaClasses.ObjectView = 		(jclass)env->NewGlobalRef(env->FindClass("com/arecmetafora/jsdroid/JSObjectView"));
 		JavaClasses.Exception = 		(jclass)env->NewGlobalRef(env->FindClass("java/lang/Throwable"));
-		JavaClasses.booleanConstructorMethodID = env->GetMethodID(JavaClasses.Boolean, "<init>", "(Z)V");
+		JavaClasses.booleanTrue = 		env->NewGlobalRef(env->GetStaticObjectField(JavaClasses.Boolean, env->GetStaticFieldID(JavaClasses.Boolean, "TRUE", "Ljava/lang/Boolean;")));
+		JavaClasses.booleanFalse = 		env->NewGlobalRef(env->GetStaticObjectField(JavaClasses.Boolean, env->GetStaticFieldID(JavaClasses.Boolean, "FALSE", "Ljava/lang/Boolean;")));
 		JavaClasses.doubleConstructorMethodID = env->GetMethodID(JavaClasses.Double, "<init>", "(D)V");
-		JavaClasses.unmappedObjectConstructorMethodID = env->GetMethodID(JavaClasses.UnmappedObject, "<init>", "()V");
-		JavaClasses.gregorianCalendarConstructorMethodID = env->GetMethodID(JavaClasses.GregorianCalendar, "<init>", "(IIIIII)V");
+		JavaClasses.linkedHashMapConstructorMethodID = env->GetMethodID(JavaClasses.LinkedHashMap, "<init>", "(I)V");
+		JavaClasses.mapPutMethodID = env->GetMethodID(JavaClasses.Map, "put", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;");
+		JavaClasses.listToArrayMethodID = env->GetMethodID(JavaClasses.List, "toArray", "()[Ljava/lang/Object;");
+		JavaClasses.objectMarshallerEntriesMethodID = env->GetStaticMethodID(JavaClasses.ObjectMarshaller, "entries", "(Ljava/util/Map;)[Ljava/lang/Object;");
+		JavaClasses.parameterConverterMarkUnsignedMethodID = env->GetStaticMethodID(JavaClasses.ParameterConverter, "markUnsigned", "(Ljava/lang/Object;)V");
+		JavaClasses.arrayViewConstructorMethodID = env->GetMethodID(JavaClasses.ArrayView, "<init>", "(II)V");
+		JavaClasses.objectViewConstructorMethodID = env->GetMethodID(JavaClasses.ObjectView, "<init>", "(II)V");
+		JavaClasses.viewReleaseMethodID = env->GetMethodID(JavaClasses.View, "release", "()V");
+		JavaClasses.viewReleaseAllMethodID = env->GetStaticMethodID(JavaClasses.View, "release", "([Ljava/lang/Object;)V");
+		JavaClasses.viewObjectPointerFieldID = env->GetFieldID(JavaClasses.View, "objectPointer", "I");
+		JavaClasses.gregorianCalendarConstructorMethodID = env->GetMethodID(JavaClasses.GregorianCalendar, "<init>", "()V");
 		JavaClasses.booleanValueMethodID = env->GetMethodID(JavaClasses.Boolean, "booleanValue", "()Z");
 		JavaClasses.doubleValueMethodID = env->GetMethodID(JavaClasses.Number, "doubleValue", "()D");
-		JavaClasses.gregorianCalendarGetFieldMethodID = env->GetMethodID(JavaClasses.GregorianCalendar, "get", "(I)I");
+		JavaClasses.gregorianCalendarGetTimeInMillisMethodID = env->GetMethodID(JavaClasses.GregorianCalendar, "getTimeInMillis", "()J");
+		JavaClasses.gregorianCalendarSetTimeInMillisMethodID = env->GetMethodID(JavaClasses.GregorianCalendar, "setTimeInMillis", "(J)V");
+		JavaClasses.byteBufferAllocateDirectMethodID = env->GetStaticMethodID(JavaClasses.ByteBuffer, "allocateDirect", "(I)Ljava/nio/ByteBuffer;");
 	}
 }
 
@@ -78,77 +116,162 @@ bool CheckScriptSyntax(JNIEnv *env, JSStringRef jsScript, JSContextRef ctx)
 	return true;
 }
 
+/**
+ * Callback called by the watchdog of the JavaScript engine when a script exceeds its execution time limit.
+ *
+ * @param ctx The execution context to use.
+ * @param context The limit of the evaluation being executed.
+ *
+ * @returns Always true, so that the script is terminated.
+ */
+bool ShouldTerminateExecution(JSContextRef ctx, void* context)
+{
+	((JSExecutionTimeLimit*) context)->timedOut = true;
+	return true;
+}
+
+/**
+ * Starts limiting the execution time of an evaluation. The limit is applied to the group of the context, since the
+ * JavaScript engine keeps one watchdog per virtual machine. The Java layer holds the lock of the group until the limit
+ * is stopped (see TimedEvaluation), so the limit is not cleared or replaced by an evaluation of another thread.
+ *
+ * @param ctx The context which the script will be executed.
+ * @param limit The limit to be started. No limit is applied if its time limit is not positive.
+ */
+void StartExecutionTimeLimit(JSContextRef ctx, JSExecutionTimeLimit* limit)
+{
+	limit->timedOut = false;
+	if(limit->timeLimit > 0) {
+		JSContextGroupSetExecutionTimeLimit(JSContextGetGroup(ctx), limit->timeLimit / 1000.0, ShouldTerminateExecution, limit);
+	}
+}
+
+/**
+ * Stops limiting the execution time of an evaluation, throwing a JavaScriptTimeoutException if the script was
+ * terminated by the limit.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The context which the script was executed.
+ * @param limit The limit to be stopped.
+ *
+ * @returns true if the script was terminated, or false otherwise.
+ */
+bool StopExecutionTimeLimit(JNIEnv *env, JSContextRef ctx, JSExecutionTimeLimit* limit)
+{
+	if(limit->timeLimit <= 0) {
+		return false;
+	}
+
+	JSContextGroupClearExecutionTimeLimit(JSContextGetGroup(ctx));
+
+	if(limit->timedOut && !env->ExceptionCheck()) {
+		env->CallStaticVoidMethod(JSCCallback.handler, JSCCallback.throwTimeoutExceptionMethodID, ctx, limit->timeLimit);
+	}
+	return limit->timedOut;
+}
+
 /**
  * Register a class in a JavaScript context.
  *
  * @param env Pointer to JNI environment.
  * @param cls Class which this call was originated.
  * @param jsName The name of the class to be registered.
+ * @param propertyNames The names of the mapped properties, by their index.
+ * @param propertyKinds The kinds of the mapped properties (KIND_*), by their index.
+ * @param methodNames The names of the mapped methods, by their index.
+ * @param methodSignatures The signatures of the mapped methods (SIGNATURE_*), by their index.
  * @param contextPointer The pointer to the JavaScript context which the class is being registered to.
  *
- * @return The reference to the JavaScript class definition, so this class can be instantiated later by JavaScript engine execution.
+ * @return The reference to the native class definition, so this class can be instantiated later by JavaScript engine execution.
  */
 JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_registerJavaScriptClass
-        (JNIEnv * env, jclass cls, jstring jsName, jint contextPointer)
+        (JNIEnv * env, jclass cls, jstring jsName, jobjectArray propertyNames, jintArray propertyKinds,
+         jobjectArray methodNames, jintArray methodSignatures, jint contextPointer)
 {
     InitializeCallbacksIfNeeded(env);
 
+    // The class definition (unlike the rest of the bridge) takes its name as a C string
     const char *jsNameChars = env->GetStringUTFChars(jsName, 0);
     JSContextRef ctx = (JSContextRef) contextPointer;
 
     JSObjectRef jsGlobalContext = JSContextGetGlobalObject(ctx);
 
-    // Create the JavaScriptCore class definition
-    JSClassDefinition definition = kJSClassDefinitionEmpty;
-    definition.attributes = kJSClassAttributeNone;
-    definition.className = jsNameChars;
-    definition.hasProperty = callbackHasProperty;
-    definition.getProperty = callbackGetProperty;
-    definition.setProperty = callbackSetProperty;
-    definition.finalize = callbackFinalize;
-    JSClassRef jsClassRef = JSClassCreate(&definition);
-
-    // Creates the constructor definition
-    JSObjectRef constructorRef = JSObjectMakeConstructor(ctx, jsClassRef, (JSObjectCallAsConstructorCallback) callbackConstructor);
-
-    // Register the JSClassRef and its constructor in the global context
-    JSStringRef jsClassName = JSStringCreateWithUTF8CString(jsNameChars);
+    // Create the JavaScriptCore class definition, with its properties, its constructor and the prototype holding its methods
+    JSObjectRef constructorRef;
+    JSMappedClass* mappedClass = CreateMappedClass(env, ctx, jsNameChars, propertyNames, propertyKinds, methodNames, methodSignatures,
+                                                   &constructorRef);
+
+    // The name is given back to the Java layer on every construction, so it is kept as the same Java string
+    mappedClass->javaName = (jstring) env->NewGlobalRef(jsName);
+
+    // Register the JSClassRef and its constructor in the global context, replacing its placeholder if it was lazily registered
+    JSStringRef jsClassName = JavaStringToJSString(env, jsName);
+    JSObjectDeleteProperty(ctx, jsGlobalContext, jsClassName, NULL);
     JSObjectSetProperty(ctx, jsGlobalContext, jsClassName, constructorRef, kJSPropertyAttributeDontEnum, NULL);
 
     // Storing the class name into a property of the constructor
-    JSStringRef nameProperty = JSStringCreateWithUTF8CString("name");
-    JSObjectSetProperty(ctx, constructorRef, nameProperty, JSValueMakeString(ctx, jsClassName), kJSPropertyAttributeReadOnly, NULL);
-    JSStringRelease(nameProperty);
+    JSObjectSetProperty(ctx, constructorRef, JSNames.name, JSValueMakeString(ctx, jsClassName), kJSPropertyAttributeReadOnly, NULL);
     JSStringRelease(jsClassName);
 
     env->ReleaseStringUTFChars(jsName, jsNameChars);
 
-    // Returns the pointer to the JavaScript class definition to the Java layer,
+    // Returns the pointer to the native class definition to the Java layer,
     // so that a new object can be instantiated in the callback of functions, gets and constructors
-    return (intptr_t)jsClassRef;
+    return (intptr_t)mappedClass;
 }
 
 /**
- * Evaluates a JavaScript.
+ * Register a class lazily in a JavaScript context, installing a placeholder which registers the class the first
+ * time it is referenced by a script.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param jsName The name of the class to be registered.
+ * @param contextPointer The pointer to the JavaScript context which the class is being registered to.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_registerLazyJavaScriptClass
+        (JNIEnv * env, jclass cls, jstring jsName, jint contextPointer)
+{
+    InitializeCallbacksIfNeeded(env);
+
+    JSStringRef jsClassName = JavaStringToJSString(env, jsName);
+
+    MakeLazyClassPlaceholder((JSContextRef) contextPointer, jsClassName);
+    JSStringRelease(jsClassName);
+}
+
+/**
+ * Releases the native class definition of a class registered to a JavaScript context which is being released.
  *
  * @param env Pointer to JNI environment.
  * @param cls Class which this call was originated.
+ * @param mappedClassPointer The native class definition returned by registerJavaScriptClass.
+ * @param contextPointer The pointer to the JavaScript context which the class was registered to.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseMappedClass
+        (JNIEnv * env, jclass cls, jint mappedClassPointer, jint contextPointer)
+{
+    ReleaseMappedClass(env, (JSContextRef) contextPointer, (JSMappedClass*) mappedClassPointer);
+}
+
+/**
+ * Evaluates a JavaScript, checking its syntax first. Exceptions thrown by the script (and timeouts) are rethrown to
+ * the Java layer.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The context which the script will be executed.
  * @param script The script to be evaluated.
  * @param scriptName The name of the file which this script was retrieved.
- * @param contextPointer The context which the script will be executed.
+ * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no limit.
  *
- * @return The result of the evaluation.
+ * @return The result of the evaluation, or NULL if an exception was rethrown.
  */
-JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScript
-        (JNIEnv *env, jclass cls, jstring script, jstring scriptName,  jint contextPointer){
-
+JSValueRef EvaluateScript(JNIEnv *env, JSContextRef ctx, jstring script, jstring scriptName, jlong timeLimit)
+{
 	JSValueRef exception = 0;
-	JSContextRef ctx = (JSContextRef) contextPointer;
-			
+
 	// Converts the script as a JSC string variable
-	const char* strScript = (env)->GetStringUTFChars(script , NULL);
-	JSStringRef scriptJS = JSStringCreateWithUTF8CString(strScript);
-	env->ReleaseStringUTFChars(script, strScript);
+	JSStringRef scriptJS = JavaStringToJSString(env, script);
 	
 	// Checks if there is syntax errors in the script
 	if(!CheckScriptSyntax(env, scriptJS, ctx))
@@ -160,13 +283,14 @@ JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluate
 	// Converts the script name as a JSC string variable
 	JSStringRef scriptNameJS = 0;
 	if(scriptName) {
-		const char* strScriptName = (env)->GetStringUTFChars(scriptName , NULL);
-		scriptNameJS = JSStringCreateWithUTF8CString(strScriptName);
-		env->ReleaseStringUTFChars(scriptName, strScriptName);
+		scriptNameJS = JavaStringToJSString(env, scriptName);
 	}
 
 	// Evaluates the script in the JavaScript context
+	JSExecutionTimeLimit limit = { timeLimit };
+	StartExecutionTimeLimit(ctx, &limit);
     JSValueRef result = JSEvaluateScript(ctx, scriptJS, 0, scriptNameJS, 0, &exception);
+	bool timedOut = StopExecutionTimeLimit(env, ctx, &limit);
 
 	// Releasing local variables
 	JSStringRelease(scriptJS);
@@ -174,6 +298,169 @@ JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluate
 		JSStringRelease(scriptNameJS);
 	}
 
+	// The script has been terminated, and the timeout has already been thrown
+	if(timedOut) {
+		return NULL;
+	}
+
+	// Check if some error was thrown during the script evaluation (it is rethrown to the Java layer)
+	if(HandleJSException(env, ctx, exception))
+		return NULL;
+
+	return result;
+}
+
+/**
+ * Evaluates a JavaScript.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param script The script to be evaluated.
+ * @param scriptName The name of the file which this script was retrieved.
+ * @param contextPointer The context which the script will be executed.
+ * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no limit.
+ *
+ * @return The result of the evaluation.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptInContext
+        (JNIEnv *env, jclass cls, jstring script, jstring scriptName,  jint contextPointer, jlong timeLimit){
+
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	JSValueRef result = EvaluateScript(env, ctx, script, scriptName, timeLimit);
+
+	// Converts the result to a native object, unless an exception was rethrown
+	return result ? JSObjectToNative(env, ctx, result) : NULL;
+}
+
+/**
+ * Evaluates a JavaScript and serializes its result as JSON, without converting it to native objects. The JSON text is
+ * copied, as UTF-16 characters in the native byte order, to a new direct buffer.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param script The script to be evaluated.
+ * @param scriptName The name of the file which this script was retrieved.
+ * @param contextPointer The context which the script will be executed.
+ * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no limit.
+ *
+ * @return The direct buffer holding the JSON text, or NULL if the result has no JSON representation.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateToJsonInContext
+        (JNIEnv *env, jclass cls, jstring script, jstring scriptName, jint contextPointer, jlong timeLimit)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	JSValueRef result = EvaluateScript(env, ctx, script, scriptName, timeLimit);
+	if(!result)
+		return NULL;
+
+	// Cyclic objects and throwing toJSON methods fail the serialization
+	JSValueRef exception = 0;
+	JSStringRef json = JSValueCreateJSONString(ctx, result, 0, &exception);
+	if(exception)
+	{
+		ThrowJavaScriptException(env, ctx, exception);
+		return NULL;
+	}
+
+	// Undefined and functions have no JSON representation
+	if(!json)
+		return NULL;
+
+	jint size = (jint)(JSStringGetLength(json) * sizeof(JSChar));
+	jobject buffer = env->CallStaticObjectMethod(JavaClasses.ByteBuffer, JavaClasses.byteBufferAllocateDirectMethodID, size);
+	if(buffer)
+	{
+		memcpy(env->GetDirectBufferAddress(buffer), JSStringGetCharactersPtr(json), (size_t) size);
+	}
+
+	JSStringRelease(json);
+	return buffer;
+}
+
+/**
+ * Parses a JSON text held as UTF-16 characters by a direct buffer, and sets the parsed value as a global variable of
+ * a context. The characters are copied to the JavaScript engine as they are, without being converted.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param buffer The direct buffer holding the JSON text, in the native byte order.
+ * @param offset The offset of the JSON text in the buffer, in bytes.
+ * @param length The number of characters of the JSON text.
+ * @param name The name of the global variable.
+ * @param contextPointer The context which the value will be created.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_parseJsonIntoContext
+        (JNIEnv *env, jclass cls, jobject buffer, jint offset, jint length, jstring name, jint contextPointer)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	const char* address = (const char*) env->GetDirectBufferAddress(buffer);
+	JSStringRef json = JSStringCreateWithCharacters((const JSChar*)(address + offset), (size_t) length);
+	JSValueRef value = JSValueMakeFromJSONString(ctx, json);
+	JSStringRelease(json);
+
+	// The engine only reports that the text is not valid JSON
+	if(!value)
+	{
+		JSStringRef message = JSStringCreateWithUTF8CString("Invalid JSON text");
+		JSValueRef messageValue = JSValueMakeString(ctx, message);
+		JSStringRelease(message);
+		ThrowJavaScriptException(env, ctx, JSObjectMakeError(ctx, 1, &messageValue, NULL));
+		return;
+	}
+
+	JSStringRef jsName = JavaStringToJSString(env, name);
+	JSObjectSetProperty(ctx, JSContextGetGlobalObject(ctx), jsName, value, kJSPropertyAttributeNone, NULL);
+	JSStringRelease(jsName);
+}
+
+/**
+ * Evaluates a JavaScript held as UTF-16 characters by a direct buffer (usually a memory mapped file), without checking
+ * its syntax, which must have been checked before. The characters are copied to the JavaScript engine as they are,
+ * without being converted.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param buffer The direct buffer holding the script, in the native byte order.
+ * @param length The number of characters of the script.
+ * @param scriptName The name of the file which this script was retrieved.
+ * @param contextPointer The context which the script will be executed.
+ * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no limit.
+ *
+ * @return The result of the evaluation.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptBuffer
+        (JNIEnv *env, jclass cls, jobject buffer, jint length, jstring scriptName, jint contextPointer, jlong timeLimit)
+{
+	JSValueRef exception = 0;
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	JSStringRef scriptJS = JSStringCreateWithCharacters((const JSChar*) env->GetDirectBufferAddress(buffer), length);
+
+	// Converts the script name as a JSC string variable
+	JSStringRef scriptNameJS = 0;
+	if(scriptName) {
+		scriptNameJS = JavaStringToJSString(env, scriptName);
+	}
+
+	JSExecutionTimeLimit limit = { timeLimit };
+	StartExecutionTimeLimit(ctx, &limit);
+	JSValueRef result = JSEvaluateScript(ctx, scriptJS, 0, scriptNameJS, 0, &exception);
+	bool timedOut = StopExecutionTimeLimit(env, ctx, &limit);
+
+	// Releasing local variables
+	JSStringRelease(scriptJS);
+	if(scriptNameJS) {
+		JSStringRelease(scriptNameJS);
+	}
+
+	// The script has been terminated, and the timeout has already been thrown
+	if(timedOut) {
+		return NULL;
+	}
+
 	// Check if some error was thrown during the script evaluation
 	if(!HandleJSException(env, ctx, exception))
 		// if not, convert the result to a native object and return it to Java layer
@@ -184,37 +471,185 @@ JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluate
 }
 
 /**
- * Evaluates an anonymous JavaScript function, which arguments are supplied by parameters.
+ * Evaluates a list of JavaScripts in order, in a single call from the Java layer. The evaluation stops at the first
+ * script which throws an exception. Syntax errors are reported by the evaluation itself, so the scripts are parsed
+ * only once.
  *
  * @param env Pointer to JNI environment.
  * @param cls Class which this call was originated.
- * @param script A JavaScript to be executed.
- * @param paramsNames The name of function arguments.
- * @param paramsValues The argument values.
- * @param jsContextPointer The context which the script will be executed.
+ * @param scripts The scripts to be evaluated.
+ * @param scriptNames The names of the files which the scripts were retrieved.
+ * @param results The array which receives the result of each evaluated script.
+ * @param contextPointer The context which the scripts will be executed.
+ * @param timeLimit The execution time limit of all the scripts, in milliseconds, or 0 if they have no limit.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScripts
+        (JNIEnv *env, jclass cls, jobjectArray scripts, jobjectArray scriptNames, jobjectArray results, jint contextPointer, jlong timeLimit)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+	int scriptsCount = env->GetArrayLength(scripts);
+
+	JSExecutionTimeLimit limit = { timeLimit };
+	StartExecutionTimeLimit(ctx, &limit);
+
+	for (int i = 0; i < scriptsCount; i++) {
+		JSValueRef exception = 0;
+
+		// Converts the script and its name as JSC string variables
+		jstring script = (jstring) env->GetObjectArrayElement(scripts, i);
+		JSStringRef scriptJS = JavaStringToJSString(env, script);
+		env->DeleteLocalRef(script);
+
+		JSStringRef scriptNameJS = 0;
+		jstring scriptName = (jstring) env->GetObjectArrayElement(scriptNames, i);
+		if(scriptName) {
+			scriptNameJS = JavaStringToJSString(env, scriptName);
+			env->DeleteLocalRef(scriptName);
+		}
+
+		JSValueRef result = JSEvaluateScript(ctx, scriptJS, 0, scriptNameJS, 0, &exception);
+
+		// Releasing local variables
+		JSStringRelease(scriptJS);
+		if(scriptNameJS) {
+			JSStringRelease(scriptNameJS);
+		}
+
+		// Stops at the first error, which is rethrown to the Java layer (the timeout is thrown below)
+		if(limit.timedOut || HandleJSException(env, ctx, exception) || env->ExceptionCheck()) {
+			break;
+		}
+
+		jobject javaResult = JSObjectToNative(env, ctx, result);
+		if(env->ExceptionCheck()) {
+			break;
+		}
+		env->SetObjectArrayElement(results, i, javaResult);
+		env->DeleteLocalRef(javaResult);
+	}
+
+	StopExecutionTimeLimit(env, ctx, &limit);
+}
+
+/**
+ * Compiles a JavaScript, so that it can be evaluated many times without being converted or checked again.
+ * The JavaScriptCore API does not expose its bytecode, so the compilation checks the script syntax once and keeps
+ * the script and its name as JavaScript strings.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param script The script to be compiled.
+ * @param scriptName The name of the file which this script was retrieved.
+ * @param contextPointer The context used to check the script syntax.
+ *
+ * @return The pointer to the compiled script, or 0 if the script has syntax errors.
+ */
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_compileScript
+        (JNIEnv *env, jclass cls, jstring script, jstring scriptName, jint contextPointer)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	// Converts the script as a JSC string variable
+	JSStringRef scriptJS = JavaStringToJSString(env, script);
+
+	// Checks if there is syntax errors in the script
+	if(!CheckScriptSyntax(env, scriptJS, ctx))
+	{
+		JSStringRelease(scriptJS);
+		return 0;
+	}
+
+	JSCompiledScript* compiledScript = (JSCompiledScript*)malloc(sizeof(JSCompiledScript));
+	compiledScript->script = scriptJS;
+	compiledScript->scriptName = NULL;
+
+	// Converts the script name as a JSC string variable
+	if(scriptName) {
+		compiledScript->scriptName = JavaStringToJSString(env, scriptName);
+	}
+
+	return (intptr_t)compiledScript;
+}
+
+/**
+ * Evaluates a compiled JavaScript.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param scriptPointer The pointer to the compiled script.
+ * @param contextPointer The context which the script will be executed.
+ * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no limit.
  *
  * @return The result of the evaluation.
  */
-JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptWithParameters
-  (JNIEnv *env, jclass cls, jstring script, jobjectArray paramsNames, jobjectArray paramsValues, jint contextPointer)
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateCompiledScript
+        (JNIEnv *env, jclass cls, jint scriptPointer, jint contextPointer, jlong timeLimit)
 {
+	JSValueRef exception = 0;
 	JSContextRef ctx = (JSContextRef) contextPointer;
+	JSCompiledScript* compiledScript = (JSCompiledScript*) scriptPointer;
+
+	// The syntax has already been checked by the compilation
+	JSExecutionTimeLimit limit = { timeLimit };
+	StartExecutionTimeLimit(ctx, &limit);
+	JSValueRef result = JSEvaluateScript(ctx, compiledScript->script, 0, compiledScript->scriptName, 0, &exception);
 
+	// The script has been terminated, and the timeout has already been thrown
+	if(StopExecutionTimeLimit(env, ctx, &limit)) {
+		return NULL;
+	}
+
+	// Check if some error was thrown during the script evaluation
+	if(!HandleJSException(env, ctx, exception))
+		// if not, convert the result to a native object and return it to Java layer
+		return JSObjectToNative(env, ctx, result);
+	else
+		// Otherwise, ignore, returning null, since the exception was rethrown in the error checking above
+		return NULL;
+}
+
+/**
+ * Releases a compiled JavaScript.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param scriptPointer The pointer to the compiled script.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseCompiledScript
+        (JNIEnv *env, jclass cls, jint scriptPointer)
+{
+	JSCompiledScript* compiledScript = (JSCompiledScript*) scriptPointer;
+
+	JSStringRelease(compiledScript->script);
+	if(compiledScript->scriptName) {
+		JSStringRelease(compiledScript->scriptName);
+	}
+	free(compiledScript);
+}
+
+/**
+ * Creates an anonymous JavaScript function.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The context which the function will be created.
+ * @param script The body of the function.
+ * @param paramsNames The name of function arguments.
+ *
+ * @return The function, or NULL if the script has syntax errors (which are rethrown to the Java layer).
+ */
+JSObjectRef MakeFunction(JNIEnv *env, JSContextRef ctx, jstring script, jobjectArray paramsNames)
+{
 	unsigned int paramsCount = (unsigned int)env->GetArrayLength(paramsNames);
 	JSStringRef jsParamNames[paramsCount];
-	JSValueRef jsValues[paramsCount];
-	
+
 	// Converts the script as a JSC string variable
-	const char* strScript = env->GetStringUTFChars(script, 0);
-	JSStringRef scriptJS = JSStringCreateWithUTF8CString(strScript); 
-	env->ReleaseStringUTFChars(script, strScript);
-	
+	JSStringRef scriptJS = JavaStringToJSString(env, script);
+
 	// Creates the JavaScript parameter names with the native parameters from native call
 	for (int i = 0; i < paramsCount; i++) {
 		jstring javaParamName = (jstring)env->GetObjectArrayElement(paramsNames, i);
-		const char* paramName = (env)->GetStringUTFChars(javaParamName, 0);
-		jsParamNames[i] = JSStringCreateWithUTF8CString(paramName);
-		env->ReleaseStringUTFChars(javaParamName, paramName);
+		jsParamNames[i] = JavaStringToJSString(env, javaParamName);
+		env->DeleteLocalRef(javaParamName);
 	}
 
 	JSValueRef exception = 0;
@@ -222,35 +657,61 @@ JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluate
 	// Creates a JavaScript function with the parameters
 	JSObjectRef fn = JSObjectMakeFunction(ctx, 0, paramsCount, jsParamNames, scriptJS, 0, 1, &exception);
 
-	// Releases all parameter names
+	// Releases the script and all parameter names
+	JSStringRelease(scriptJS);
 	for (int i = 0; i < paramsCount; i++) {
-        JSStringRelease(jsParamNames[i]);
-    }
+		JSStringRelease(jsParamNames[i]);
+	}
 
 	// Fallback: If a syntax error occurred during the function parse/creation, abort the function call
 	if(HandleJSException(env, ctx, exception))
 	{
-		JSStringRelease(scriptJS);
 		return NULL;
 	}
 
+	return fn;
+}
+
+/**
+ * Calls an anonymous JavaScript function.
+ *
+ * @param env Pointer to JNI environment.
+ * @param ctx The context which the function was created.
+ * @param fn The function to be called.
+ * @param paramsValues The argument values.
+ * @param timeLimit The execution time limit of the call, in milliseconds, or 0 if it has no limit.
+ *
+ * @return The result of the call.
+ */
+jobject CallFunction(JNIEnv *env, JSContextRef ctx, JSObjectRef fn, jobjectArray paramsValues, jlong timeLimit)
+{
+	unsigned int paramsCount = (unsigned int)env->GetArrayLength(paramsValues);
+	JSValueRef jsValues[paramsCount];
+
 	// Converts the native parameters to JavaScript parameters
-	for (int i = 0; i  < paramsCount; i++)  {
+	for (int i = 0; i < paramsCount; i++) {
 		// Encapsulating the native Java object to a JavaScript instance
-		jsValues[i] = JSValueMakeWithNativeInstance(env, ctx, env->GetObjectArrayElement(paramsValues, i));
+		jobject paramValue = env->GetObjectArrayElement(paramsValues, i);
+		jsValues[i] = JSValueMakeWithNativeInstance(env, ctx, paramValue);
+		env->DeleteLocalRef(paramValue);
 
 		if(env->ExceptionOccurred())
 		{
-			JSStringRelease(scriptJS);
 			return NULL;
 		}
 	}
 
+	JSValueRef exception = 0;
+
 	// Execute the JavaScript function
+	JSExecutionTimeLimit limit = { timeLimit };
+	StartExecutionTimeLimit(ctx, &limit);
 	JSValueRef result = JSObjectCallAsFunction(ctx, fn, 0, paramsCount, jsValues, &exception);
 
-	// Releasing local variables
-	JSStringRelease(scriptJS);
+	// The function has been terminated, and the timeout has already been thrown
+	if(StopExecutionTimeLimit(env, ctx, &limit)) {
+		return NULL;
+	}
 
 	// Check if some error was thrown during the script evaluation
 	if(!HandleJSException(env, ctx, exception))
@@ -261,6 +722,241 @@ JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluate
 		return NULL;
 }
 
+/**
+ * Evaluates an anonymous JavaScript function, which arguments are supplied by parameters.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param script A JavaScript to be executed.
+ * @param paramsNames The name of function arguments.
+ * @param paramsValues The argument values.
+ * @param jsContextPointer The context which the script will be executed.
+ * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no limit.
+ *
+ * @return The result of the evaluation.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptWithParametersInContext
+  (JNIEnv *env, jclass cls, jstring script, jobjectArray paramsNames, jobjectArray paramsValues, jint contextPointer, jlong timeLimit)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	JSObjectRef fn = MakeFunction(env, ctx, script, paramsNames);
+	if(!fn)
+	{
+		return NULL;
+	}
+
+	return CallFunction(env, ctx, fn, paramsValues, timeLimit);
+}
+
+/**
+ * Compiles an anonymous JavaScript function, so that it can be called many times. The function is protected from
+ * the garbage collector until it is released.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param script The body of the function.
+ * @param paramsNames The name of function arguments.
+ * @param contextPointer The context which the function will be created.
+ *
+ * @return The pointer to the function, or 0 if the script has syntax errors.
+ */
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_compileFunction
+  (JNIEnv *env, jclass cls, jstring script, jobjectArray paramsNames, jint contextPointer)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+
+	JSObjectRef fn = MakeFunction(env, ctx, script, paramsNames);
+	if(fn)
+	{
+		JSValueProtect(ctx, fn);
+	}
+
+	return (intptr_t)fn;
+}
+
+/**
+ * Calls a compiled JavaScript function.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param functionPointer The pointer to the function.
+ * @param paramsValues The argument values.
+ * @param contextPointer The context which the function was created.
+ * @param timeLimit The execution time limit of the call, in milliseconds, or 0 if it has no limit.
+ *
+ * @return The result of the call.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_callFunction
+  (JNIEnv *env, jclass cls, jint functionPointer, jobjectArray paramsValues, jint contextPointer, jlong timeLimit)
+{
+	return CallFunction(env, (JSContextRef) contextPointer, (JSObjectRef) functionPointer, paramsValues, timeLimit);
+}
+
+/**
+ * Releases a compiled JavaScript function, so that it can be collected.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param functionPointer The pointer to the function.
+ * @param contextPointer The context which the function was created.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseFunction
+  (JNIEnv *env, jclass cls, jint functionPointer, jint contextPointer)
+{
+	JSValueUnprotect((JSContextRef) contextPointer, (JSObjectRef) functionPointer);
+}
+
+/**
+ * Gets the length of a JavaScript array received as a view.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the array.
+ * @param contextPointer The context which the array was created.
+ *
+ * @return The length of the array.
+ */
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getArrayViewLength
+  (JNIEnv *env, jclass cls, jint objectPointer, jint contextPointer)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+	JSValueRef length = JSObjectGetProperty(ctx, (JSObjectRef) objectPointer, JSNames.length, NULL);
+	return (jint) JSValueToNumber(ctx, length, NULL);
+}
+
+/**
+ * Reads an element of a JavaScript array received as a view. Arrays and plain objects are returned as views.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the array.
+ * @param index The index of the element.
+ * @param contextPointer The context which the array was created.
+ *
+ * @return The element converted to a native Java instance.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getViewElement
+  (JNIEnv *env, jclass cls, jint objectPointer, jint index, jint contextPointer)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+	JSValueRef exception = NULL;
+	JSValueRef element = JSObjectGetPropertyAtIndex(ctx, (JSObjectRef) objectPointer, (unsigned int) index, &exception);
+
+	// A getter of the element may throw an exception
+	if(exception)
+	{
+		ThrowJavaScriptException(env, ctx, exception);
+		return NULL;
+	}
+
+	return JSObjectToNativeView(env, ctx, element);
+}
+
+/**
+ * Reads a property of a JavaScript object received as a view. Arrays and plain objects are returned as views.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the object.
+ * @param name The name of the property.
+ * @param contextPointer The context which the object was created.
+ *
+ * @return The property value converted to a native Java instance.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getViewProperty
+  (JNIEnv *env, jclass cls, jint objectPointer, jstring name, jint contextPointer)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+	JSStringRef jsName = JavaStringToJSString(env, name);
+	JSValueRef exception = NULL;
+	JSValueRef value = JSObjectGetProperty(ctx, (JSObjectRef) objectPointer, jsName, &exception);
+	JSStringRelease(jsName);
+
+	// A getter of the property may throw an exception
+	if(exception)
+	{
+		ThrowJavaScriptException(env, ctx, exception);
+		return NULL;
+	}
+
+	return JSObjectToNativeView(env, ctx, value);
+}
+
+/**
+ * Gets the names of the enumerable properties of a JavaScript object received as a view.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the object.
+ * @param contextPointer The context which the object was created.
+ *
+ * @return The names of the properties.
+ */
+JNIEXPORT jobjectArray JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getViewPropertyNames
+  (JNIEnv *env, jclass cls, jint objectPointer, jint contextPointer)
+{
+	JSPropertyNameArrayRef jsNames = JSObjectCopyPropertyNames((JSContextRef) contextPointer, (JSObjectRef) objectPointer);
+	size_t count = JSPropertyNameArrayGetCount(jsNames);
+
+	jobjectArray names = env->NewObjectArray((jsize) count, JavaClasses.String, NULL);
+	for(size_t i=0; i < count; i++)
+	{
+		jstring name = JSStringToJavaString(env, JSPropertyNameArrayGetNameAtIndex(jsNames, i));
+		env->SetObjectArrayElement(names, (jsize) i, name);
+		env->DeleteLocalRef(name);
+	}
+
+	JSPropertyNameArrayRelease(jsNames);
+	return names;
+}
+
+/**
+ * Copies a JavaScript array received as a view to a native Java array (see ConvertJSArrayToJavaArray).
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the array.
+ * @param contextPointer The context which the array was created.
+ *
+ * @return The copy of the array.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_convertArrayView
+  (JNIEnv *env, jclass cls, jint objectPointer, jint contextPointer)
+{
+	return ConvertJSArrayToJavaArray(env, (JSContextRef) contextPointer, (JSObjectRef) objectPointer, NULL);
+}
+
+/**
+ * Copies a plain JavaScript object received as a view to a native Java map (see ConvertJSObjectToJavaMap).
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the object.
+ * @param contextPointer The context which the object was created.
+ *
+ * @return The copy of the object.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_convertObjectView
+  (JNIEnv *env, jclass cls, jint objectPointer, jint contextPointer)
+{
+	return ConvertJSObjectToJavaMap(env, (JSContextRef) contextPointer, (JSObjectRef) objectPointer, NULL);
+}
+
+/**
+ * Releases a JavaScript array or object received as a view, so that it can be collected.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param objectPointer The pointer to the object.
+ * @param contextPointer The context which the object was created.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseView
+  (JNIEnv *env, jclass cls, jint objectPointer, jint contextPointer)
+{
+	JSValueUnprotect((JSContextRef) contextPointer, (JSObjectRef) objectPointer);
+}
+
 /**
  * Create a new JavaScript context.
  *
@@ -276,6 +972,50 @@ JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_createJavaS
 	return (intptr_t) JSGlobalContextCreate(NULL);
 }
 
+/**
+ * Create a new JavaScript context in a context group. Contexts of the same group share their virtual machine, so
+ * that compiled code and heap structures are reused, but they are not executed at the same time.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param groupPointer The group of the context.
+ *
+ * @return The pointer to the created JavaScript context.
+ */
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_createJavaScriptContextInGroup
+  (JNIEnv *env, jclass cls, jint groupPointer)
+{
+	InitializeCallbacksIfNeeded(env);
+	return (intptr_t) JSGlobalContextCreateInGroup((JSContextGroupRef) groupPointer, NULL);
+}
+
+/**
+ * Create a new JavaScript context group.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ *
+ * @return The pointer to the created group.
+ */
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_createContextGroup
+  (JNIEnv *env, jclass cls)
+{
+	return (intptr_t) JSContextGroupCreate();
+}
+
+/**
+ * Releases a JavaScript context group. The group is destroyed when all its contexts are released too.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param groupPointer The group to be released.
+ */
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseContextGroup
+  (JNIEnv *env, jclass cls, jint groupPointer)
+{
+	JSContextGroupRelease((JSContextGroupRef) groupPointer);
+}
+
 /**
  * Releases a JavaScript context.
  *
@@ -482,22 +1222,17 @@ JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_stepOutOfFun
  * Evaluates a JavaScript expression under the current debugging context.
  *
  * @param env Pointer to JNI environment.
- * @param cls Class which this call was originated.
- * @param contextPointer A pointer to the JavaScript context.
+ * @param ctx Pointer to JavaScript context.
  * @param script The JavaScript to be evaluated.
  *
- * @return The result of the JavaScript evaluation.
+ * @return The result of the JavaScript evaluation, or NULL if an exception was thrown to the Java layer.
  */
-JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_evaluateScript
-  (JNIEnv *env, jclass cls, jint contextPointer, jstring script)
+static JSValueRef EvaluateDebuggerScript(JNIEnv *env, JSContextRef ctx, jstring script)
 {
 	JSValueRef exception = 0;
-	JSContextRef ctx = (JSContextRef) contextPointer;
 
 	// Converts the script as a JSC string variable
-	const char* strScript = (env)->GetStringUTFChars(script , NULL);
-	JSStringRef scriptJS = JSStringCreateWithUTF8CString(strScript);
-	env->ReleaseStringUTFChars(script, strScript);
+	JSStringRef scriptJS = JavaStringToJSString(env, script);
 
 	// Checks if there is syntax errors in the script
 	if(!CheckScriptSyntax(env, scriptJS, ctx))
@@ -512,13 +1247,45 @@ JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_evaluateS
 	// Releasing local variables
 	JSStringRelease(scriptJS);
 
-	// Check if some error was thrown during the script evaluation
-	if(!HandleJSException(env, ctx, exception))
-		// if not, convert the result to a native object and return it to Java layer
-		return JSObjectToNative(env, ctx, result);
-	else
-		// Otherwise, ignore, returning null, since the exception was rethrown in the error checking above
-		return NULL;
+	// Check if some error was thrown during the script evaluation, which is rethrown to the Java layer
+	return HandleJSException(env, ctx, exception) ? NULL : result;
+}
+
+/**
+ * Evaluates a JavaScript expression under the current debugging context.
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param contextPointer A pointer to the JavaScript context.
+ * @param script The JavaScript to be evaluated.
+ *
+ * @return The result of the JavaScript evaluation.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_evaluateScript
+  (JNIEnv *env, jclass cls, jint contextPointer, jstring script)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+	JSValueRef result = EvaluateDebuggerScript(env, ctx, script);
+	return result ? JSObjectToNative(env, ctx, result) : NULL;
+}
+
+/**
+ * Evaluates a JavaScript expression under the current debugging context, describing its result without converting
+ * the properties and elements of objects (see JSObjectToNativeDescription).
+ *
+ * @param env Pointer to JNI environment.
+ * @param cls Class which this call was originated.
+ * @param contextPointer A pointer to the JavaScript context.
+ * @param script The JavaScript to be evaluated.
+ *
+ * @return The description of the JavaScript evaluation result.
+ */
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_describeScript
+  (JNIEnv *env, jclass cls, jint contextPointer, jstring script)
+{
+	JSContextRef ctx = (JSContextRef) contextPointer;
+	JSValueRef result = EvaluateDebuggerScript(env, ctx, script);
+	return result ? JSObjectToNativeDescription(env, ctx, result) : NULL;
 }
 
 /**
@@ -6,21 +6,103 @@
 #include "ExceptionHelper.h"
 #include "ConversionHelper.h"
 
+/**
+ * A script compiled once to be evaluated many times.
+ */
+typedef struct {
+	JSStringRef script;
+	JSStringRef scriptName;
+} JSCompiledScript;
+
+/**
+ * State of an evaluation which execution time is limited, shared with the watchdog of the JavaScript engine.
+ */
+typedef struct {
+	jlong timeLimit;
+	bool timedOut;
+} JSExecutionTimeLimit;
+
 // All methods mapped to be used by Java application must be declared with "extern C".
 extern "C" {
 
 JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_registerJavaScriptClass
+        (JNIEnv *, jclass, jstring, jobjectArray, jintArray, jobjectArray, jintArray, jint);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_registerLazyJavaScriptClass
         (JNIEnv *, jclass, jstring, jint);
 
-JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScript
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseMappedClass
+        (JNIEnv *, jclass, jint, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptInContext
+  (JNIEnv *, jclass, jstring, jstring, jint, jlong);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateToJsonInContext
+  (JNIEnv *, jclass, jstring, jstring, jint, jlong);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_parseJsonIntoContext
+  (JNIEnv *, jclass, jobject, jint, jint, jstring, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptBuffer
+  (JNIEnv *, jclass, jobject, jint, jstring, jint, jlong);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScripts
+  (JNIEnv *, jclass, jobjectArray, jobjectArray, jobjectArray, jint, jlong);
+
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_compileScript
   (JNIEnv *, jclass, jstring, jstring, jint);
 
-JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptWithParameters
-  (JNIEnv *, jclass, jstring, jobjectArray, jobjectArray, jint);
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateCompiledScript
+  (JNIEnv *, jclass, jint, jint, jlong);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseCompiledScript
+  (JNIEnv *, jclass, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_evaluateScriptWithParametersInContext
+  (JNIEnv *, jclass, jstring, jobjectArray, jobjectArray, jint, jlong);
+
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_compileFunction
+  (JNIEnv *, jclass, jstring, jobjectArray, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_callFunction
+  (JNIEnv *, jclass, jint, jobjectArray, jint, jlong);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseFunction
+  (JNIEnv *, jclass, jint, jint);
+
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getArrayViewLength
+  (JNIEnv *, jclass, jint, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getViewElement
+  (JNIEnv *, jclass, jint, jint, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getViewProperty
+  (JNIEnv *, jclass, jint, jstring, jint);
+
+JNIEXPORT jobjectArray JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_getViewPropertyNames
+  (JNIEnv *, jclass, jint, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_convertArrayView
+  (JNIEnv *, jclass, jint, jint);
+
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_convertObjectView
+  (JNIEnv *, jclass, jint, jint);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseView
+  (JNIEnv *, jclass, jint, jint);
 
 JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_createJavaScriptContext
   (JNIEnv *, jclass);
 
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_createJavaScriptContextInGroup
+  (JNIEnv *, jclass, jint);
+
+JNIEXPORT jint JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_createContextGroup
+  (JNIEnv *, jclass);
+
+JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseContextGroup
+  (JNIEnv *, jclass, jint);
+
 JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_JavaScriptDroid_releaseJavaScriptContext
   (JNIEnv *, jclass, jint);
 
@@ -66,6 +148,9 @@ JNIEXPORT void JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_stepOutOfFun
 JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_evaluateScript
   (JNIEnv *, jclass, jint, jstring);
 
+JNIEXPORT jobject JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_describeScript
+  (JNIEnv *, jclass, jint, jstring);
+
 JNIEXPORT jobjectArray JNICALL Java_com_arecmetafora_jsdroid_debug_Debugger_getPropertyNamesOfCurrentScope
   (JNIEnv *, jclass, jint);
 
@@ -1,8 +1,20 @@
 #include "Main.h"
+#include <pthread.h>
 
 // Pointer to the current Java VM
 JavaVM *gJavaVM;
 
+// Key of the JNI environment of the native threads attached to the Java VM by this library
+static pthread_key_t gEnvironmentKey;
+
+/*
+ * Detaches a native thread from the Java VM when it exits.
+ */
+static void DetachEnvironment(void *env)
+{
+	gJavaVM->DetachCurrentThread();
+}
+
 extern "C"
 {
 	/*
@@ -11,17 +23,49 @@ extern "C"
 	jint JNI_OnLoad(JavaVM *vm, void *reserved)
 	{
 		gJavaVM = vm;
+		pthread_key_create(&gEnvironmentKey, DetachEnvironment);
 		return JNI_VERSION_1_6;
 	}
 }
 
 /*
- * Gets the JNI environment from the current Java VM.
+ * Gets the JNI environment from the current Java VM. Native threads (like the threads where JavaScriptCore collects
+ * garbage) are attached to the Java VM the first time they need it, and stay attached until they exit. Returns NULL if
+ * the thread could not be attached, so callers must check it.
  */
 JNIEnv* GetEnvironment()
 {
-	JNIEnv *env;
-	gJavaVM->GetEnv((void**) &env, JNI_VERSION_1_6);
+	JNIEnv *env = (JNIEnv*) pthread_getspecific(gEnvironmentKey);
+	if(env)
+		return env;
+
+	// Java threads are already attached, and are detached by the Java VM itself
+	if(gJavaVM->GetEnv((void**) &env, JNI_VERSION_1_6) == JNI_OK)
+		return env;
+
+	if(gJavaVM->AttachCurrentThread(&env, NULL) != JNI_OK)
+	{
+		LogError("Could not attach the current thread to the Java VM");
+		return NULL;
+	}
+	pthread_setspecific(gEnvironmentKey, env);
 	return env;
 }
 
+/*
+ * Gets the JNI environment of a callback, pushing a local frame if the current thread was attached by this library.
+ */
+CallbackEnvironment::CallbackEnvironment()
+{
+	env = GetEnvironment();
+	hasLocalFrame = env && pthread_getspecific(gEnvironmentKey) && env->PushLocalFrame(16) == JNI_OK;
+}
+
+/*
+ * Pops the local frame of the callback, releasing its local references.
+ */
+CallbackEnvironment::~CallbackEnvironment()
+{
+	if(hasLocalFrame)
+		env->PopLocalFrame(NULL);
+}
@@ -5,6 +5,7 @@
 #include <android/log.h>
 #include <stdlib.h>
 #include <stdio.h>
+#include <string.h>
 #include <JavaScriptCore/JavaScript.h>
 
 #define LogError(message) __android_log_write(ANDROID_LOG_ERROR, "JSDroid", message)
@@ -12,4 +13,21 @@
 
 JNIEnv* GetEnvironment();
 
+/*
+ * The JNI environment of a callback from JavaScriptCore. Native threads attached by this library never return to the
+ * Java VM, which would release the local references created by the callback, so the callback runs in a local frame of
+ * its own on them. The environment is NULL if the thread could not be attached.
+ */
+class CallbackEnvironment
+{
+public:
+	JNIEnv *env;
+
+	CallbackEnvironment();
+	~CallbackEnvironment();
+
+private:
+	bool hasLocalFrame;
+};
+
 #endif
@@ -7,6 +7,8 @@ import java.lang.annotation.Annotation;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.LinkedList;
@@ -22,25 +24,44 @@ class APIClass {
 	private String jsName;
 
 	/**
-	 * A pointer to the JavaScript class definition (JSClassRef).
+	 * Pointers to the native class definition (JSClassRef and the prototype holding its methods) of
+	 * each JavaScript context which this class is registered to, as pairs of context and class
+	 * pointers. Registrations replace the array instead of changing it, so that lookups from other
+	 * threads don't need to be synchronized.
 	 */
-	private int jsClassRefPointer = 0;
+	private volatile int[] jsClassRefPointers = new int[0];
 
 	/**
 	 * JsName X APIProperty.
 	 */
 	private Hashtable<String, APIProperty> propertiesByName;
 
+	/**
+	 * All mapped properties, by their index.
+	 */
+	private APIProperty[] properties;
+
 	/**
 	 * JsName X APIMethod.
 	 */
 	private Hashtable<String, APIMethod> methodsByName;
 
+	/**
+	 * All mapped methods, by their index.
+	 */
+	private APIMethod[] methods;
+
 	/**
 	 * Reflected method to invoke construction calls to native Java implementations.
 	 */
 	private Constructor<?> reflectedConstructor;
 
+	/**
+	 * Invoker which creates instances of the native Java implementation, or null if the class
+	 * cannot be constructed by scripts.
+	 */
+	private ConstructorInvoker constructorInvoker;
+
 	/**
 	 * Collection with all constructor parameters.
 	 */
@@ -51,8 +72,10 @@ class APIClass {
 	 * classes.
 	 *
 	 * @param clazz The unique instance of Class that represents this object's class.
+	 * @param dispatcher The dispatcher which calls the mapped members of the class, or null to
+	 * call them by reflection.
 	 */
-	APIClass(Class<?> clazz) {
+	APIClass(Class<?> clazz, JavaScriptDispatcher<?> dispatcher) {
 		this.propertiesByName = new Hashtable<>();
 		this.methodsByName = new Hashtable<>();
 
@@ -63,20 +86,14 @@ class APIClass {
 			this.jsName = clazz.getSimpleName();
 		}
 
-		for (Constructor<?> c : clazz.getConstructors()) {
-			if (c.getAnnotation(JavaScriptMapped.class) != null) {
-				if (this.reflectedConstructor == null) {
-					this.reflectedConstructor = c;
-					break;
-				}
-			}
-		}
-		if(this.reflectedConstructor == null) {
-			this.reflectedConstructor = clazz.getDeclaredConstructors()[0];
+		// Classes without a mapped constructor are registered, but cannot be constructed by scripts
+		this.reflectedConstructor = findMappedConstructor(clazz);
+		if(this.reflectedConstructor != null) {
+			this.constructorInvoker = ReflectionInvokers.forConstructor(this.reflectedConstructor);
 		}
 
-		this.constructorParameters =
-				new APIParameter[this.reflectedConstructor.getParameterTypes().length];
+		this.constructorParameters = new APIParameter[this.reflectedConstructor != null
+				? this.reflectedConstructor.getParameterTypes().length : 0];
 		for(int i=0; i < this.constructorParameters.length; i++) {
 			boolean isOptional = true;
 			for(Annotation paramAnnotation : this.reflectedConstructor.getParameterAnnotations()[i]) {
@@ -117,6 +134,159 @@ class APIClass {
 				propertiesByName.put(jsPropertyName, jsProperty);
 			}
 		}
+
+		indexMembers();
+
+		if(dispatcher != null) {
+			bindDispatcher(dispatcher);
+		}
+	}
+
+	/**
+	 * Finds the constructor used by JavaScript construction calls: the public constructor annotated
+	 * with {@code @JavaScriptMapped} or, if there is none, the only declared constructor or the
+	 * constructor without parameters. The order of reflected constructors is not specified, so the
+	 * choice does not depend on it (and matches the constructor called by generated bindings).
+	 *
+	 * @param clazz The mapped class.
+	 * @return The mapped constructor, or null if the class cannot be constructed by scripts.
+	 * @throws IllegalArgumentException If more than one constructor is annotated.
+	 */
+	private static Constructor<?> findMappedConstructor(Class<?> clazz) {
+		Constructor<?> mappedConstructor = null;
+		for (Constructor<?> c : clazz.getConstructors()) {
+			if (c.getAnnotation(JavaScriptMapped.class) != null) {
+				if (mappedConstructor != null) {
+					throw new IllegalArgumentException("The class " + clazz.getName()
+							+ " has more than one constructor annotated with @JavaScriptMapped");
+				}
+				mappedConstructor = c;
+			}
+		}
+		if(mappedConstructor != null) {
+			return mappedConstructor;
+		}
+
+		Constructor<?>[] constructors = clazz.getDeclaredConstructors();
+		if(constructors.length == 1) {
+			return constructors[0];
+		}
+		for (Constructor<?> c : constructors) {
+			if (c.getParameterTypes().length == 0) {
+				return c;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Creates a new map between Java and JavaScript classes from a binding generated at build
+	 * time, without reflection.
+	 *
+	 * @param binding The binding of the class.
+	 */
+	APIClass(JavaScriptBinding<?> binding) {
+		this.propertiesByName = new Hashtable<>();
+		this.methodsByName = new Hashtable<>();
+		this.jsName = binding.getJSName();
+
+		this.constructorParameters = createParameters(
+				binding.getConstructorParameterTypes(), binding.getConstructorParameterNonNull());
+
+		String[] methodNames = binding.getMethodNames();
+		Class<?>[][] methodParameterTypes = binding.getMethodParameterTypes();
+		boolean[][] methodParameterNonNull = binding.getMethodParameterNonNull();
+		Class<?>[] methodReturnTypes = binding.getMethodReturnTypes();
+		for(int i=0; i < methodNames.length; i++) {
+			APIMethod jsMethod = new APIMethod(methodNames[i],
+					createParameters(methodParameterTypes[i], methodParameterNonNull[i]),
+					methodReturnTypes[i]);
+			methodsByName.put(methodNames[i], jsMethod);
+		}
+
+		String[] propertyNames = binding.getPropertyNames();
+		Class<?>[] propertyTypes = binding.getPropertyTypes();
+		boolean[] propertyNonNull = binding.getPropertyNonNull();
+		for(int i=0; i < propertyNames.length; i++) {
+			APIProperty jsProperty = new APIProperty(propertyNames[i], propertyTypes[i],
+					!propertyNonNull[i]);
+			propertiesByName.put(propertyNames[i], jsProperty);
+		}
+
+		indexMembers();
+		bindDispatcher(binding);
+	}
+
+	/**
+	 * Creates the parameters of a method or constructor described by a binding.
+	 *
+	 * @param types The types of the parameters.
+	 * @param nonNull Whether each parameter is marked as non null.
+	 * @return The parameters.
+	 */
+	private static APIParameter[] createParameters(Class<?>[] types, boolean[] nonNull) {
+		APIParameter[] parameters = new APIParameter[types.length];
+		for(int i=0; i < parameters.length; i++) {
+			parameters[i] = new APIParameter("arg" + i, types[i], !nonNull[i]);
+		}
+		return parameters;
+	}
+
+	/**
+	 * Assigns the indexes of all mapped methods and properties.
+	 */
+	private void indexMembers() {
+		// Members are sorted by name, so their indexes do not depend on the reflection order
+		this.methods = methodsByName.values().toArray(new APIMethod[0]);
+		Arrays.sort(this.methods, new Comparator<APIMethod>() {
+			@Override
+			public int compare(APIMethod m1, APIMethod m2) {
+				return m1.getJSName().compareTo(m2.getJSName());
+			}
+		});
+		for(int i=0; i < this.methods.length; i++) {
+			this.methods[i].setIndex(i);
+		}
+
+		this.properties = propertiesByName.values().toArray(new APIProperty[0]);
+		Arrays.sort(this.properties, new Comparator<APIProperty>() {
+			@Override
+			public int compare(APIProperty p1, APIProperty p2) {
+				return p1.getJSName().compareTo(p2.getJSName());
+			}
+		});
+		for(int i=0; i < this.properties.length; i++) {
+			this.properties[i].setIndex(i);
+		}
+	}
+
+	/**
+	 * Replaces the reflective invokers by calls to a dispatcher, matching its members by name.
+	 *
+	 * @param dispatcher The dispatcher which calls the mapped members of the class.
+	 */
+	@SuppressWarnings("unchecked")
+	private void bindDispatcher(JavaScriptDispatcher<?> dispatcher) {
+		JavaScriptDispatcher<Object> objectDispatcher = (JavaScriptDispatcher<Object>) dispatcher;
+
+		this.constructorInvoker = DispatcherInvokers.forConstructor(objectDispatcher);
+
+		String[] methodNames = dispatcher.getMethodNames();
+		for(int i=0; i < methodNames.length; i++) {
+			APIMethod method = this.methodsByName.get(methodNames[i]);
+			if(method != null) {
+				method.setInvoker(DispatcherInvokers.forMethod(objectDispatcher, i));
+			}
+		}
+
+		String[] propertyNames = dispatcher.getPropertyNames();
+		for(int i=0; i < propertyNames.length; i++) {
+			APIProperty property = this.propertiesByName.get(propertyNames[i]);
+			if(property != null) {
+				property.setAccessor(DispatcherInvokers.forProperty(objectDispatcher, i,
+						property.getConverter()));
+			}
+		}
 	}
 
 	/**
@@ -127,21 +297,57 @@ class APIClass {
 	}
 
 	/**
-	 * Gets a pointer to the JavaScript class definition (JSClassRef).
+	 * Gets a pointer to the native class definition (JSClassRef and the prototype holding its
+	 * methods) in a JavaScript context.
+	 *
+	 * @param jsContextPointer The global JavaScript context.
+	 * @return A pointer to the native class definition, or 0 if the class is not registered to
+	 * the context.
+	 */
+	int getJSClassRefPointer(int jsContextPointer) {
+		int[] pointers = this.jsClassRefPointers;
+		for(int i=0; i < pointers.length; i += 2) {
+			if(pointers[i] == jsContextPointer) {
+				return pointers[i + 1];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Sets a pointer to the native class definition (JSClassRef and the prototype holding its
+	 * methods) in a JavaScript context.
 	 *
-	 * @return A pointer to the JavaScript class definition (JSClassRef).
+	 * @param jsContextPointer The global JavaScript context.
+	 * @param jsClassRefPointer A pointer to the native class definition.
 	 */
-	int getJSClassRefPointer() {
-		return this.jsClassRefPointer;
+	synchronized void setJSClassRefPointer(int jsContextPointer, int jsClassRefPointer) {
+		int length = this.jsClassRefPointers.length;
+		int[] pointers = Arrays.copyOf(this.jsClassRefPointers, length + 2);
+		pointers[length] = jsContextPointer;
+		pointers[length + 1] = jsClassRefPointer;
+		this.jsClassRefPointers = pointers;
 	}
 
 	/**
-	 * Sets a pointer to the JavaScript class definition (JSClassRef).
+	 * Forgets the native class definition of a JavaScript context which is being released.
 	 *
-	 * @param jsClassRefPointer A pointer to the JavaScript class definition (JSClassRef).
+	 * @param jsContextPointer The global JavaScript context.
+	 * @return The pointer to the native class definition, to be released, or 0 if the class is not
+	 * registered to the context.
 	 */
-	void setJSClassRefPointer(int jsClassRefPointer) {
-		this.jsClassRefPointer = jsClassRefPointer;
+	synchronized int removeJSClassRefPointer(int jsContextPointer) {
+		int[] pointers = this.jsClassRefPointers;
+		for(int i=0; i < pointers.length; i += 2) {
+			if(pointers[i] == jsContextPointer) {
+				int[] newPointers = new int[pointers.length - 2];
+				System.arraycopy(pointers, 0, newPointers, 0, i);
+				System.arraycopy(pointers, i + 2, newPointers, i, newPointers.length - i);
+				this.jsClassRefPointers = newPointers;
+				return pointers[i + 1];
+			}
+		}
+		return 0;
 	}
 
 	/**
@@ -163,6 +369,39 @@ class APIClass {
 		return this.methodsByName.get(jsName);
 	}
 
+	/**
+	 * Gets the specified method information.
+	 *
+	 * @param index The index of the method.
+	 * @return Method information.
+	 */
+	APIMethod getMethod(int index) {
+		return this.methods[index];
+	}
+
+	/**
+	 * @return The JavaScript names of all mapped methods, by their index.
+	 */
+	String[] getMethodNames() {
+		String[] methodNames = new String[this.methods.length];
+		for(int i=0; i < this.methods.length; i++) {
+			methodNames[i] = this.methods[i].getJSName();
+		}
+		return methodNames;
+	}
+
+	/**
+	 * @return The signatures of all mapped methods, by their index (see
+	 * {@link APIMethod#getSignature()}).
+	 */
+	int[] getMethodSignatures() {
+		int[] methodSignatures = new int[this.methods.length];
+		for(int i=0; i < this.methods.length; i++) {
+			methodSignatures[i] = this.methods[i].getSignature();
+		}
+		return methodSignatures;
+	}
+
 	/**
 	 * @return All properties mapped for this class.
 	 */
@@ -181,7 +420,48 @@ class APIClass {
 	}
 
 	/**
-	 * @return the reflected method to invoke construction calls to native Java implementations.
+	 * Gets the specified property information.
+	 *
+	 * @param index The index of the property.
+	 * @return Property information.
+	 */
+	APIProperty getProperty(int index) {
+		return this.properties[index];
+	}
+
+	/**
+	 * @return The JavaScript names of all mapped properties, by their index.
+	 */
+	String[] getPropertyNames() {
+		String[] propertyNames = new String[this.properties.length];
+		for(int i=0; i < this.properties.length; i++) {
+			propertyNames[i] = this.properties[i].getJSName();
+		}
+		return propertyNames;
+	}
+
+	/**
+	 * @return The invoker which creates instances of the native Java implementation.
+	 */
+	ConstructorInvoker getConstructorInvoker() {
+		return this.constructorInvoker;
+	}
+
+	/**
+	 * @return The kinds of all mapped properties, by their index (see
+	 * {@link APIParameter#getKind()}).
+	 */
+	int[] getPropertyKinds() {
+		int[] propertyKinds = new int[this.properties.length];
+		for(int i=0; i < this.properties.length; i++) {
+			propertyKinds[i] = this.properties[i].getKind();
+		}
+		return propertyKinds;
+	}
+
+	/**
+	 * @return the reflected method to invoke construction calls to native Java implementations,
+	 * or null if the class cannot be constructed by scripts.
 	 */
 	Constructor<?> getReflectedConstructor() {
 		return this.reflectedConstructor;
@@ -10,6 +10,26 @@ import java.lang.reflect.Method;
  */
 class APIMethod {
 
+	/**
+	 * Maximum number of arguments passed unboxed to the primitive fast path.
+	 */
+	static final int MAX_PRIMITIVE_ARGUMENTS = 4;
+
+	/**
+	 * Signature flag set when all arguments can be passed unboxed (see {@link #getSignature()}).
+	 */
+	static final int SIGNATURE_PRIMITIVE_ARGUMENTS = 1 << 2;
+
+	/**
+	 * Signature bit of the number of arguments passed unboxed.
+	 */
+	static final int SIGNATURE_ARGUMENTS_COUNT_SHIFT = 3;
+
+	/**
+	 * Signature bit of the first boolean argument flag.
+	 */
+	static final int SIGNATURE_BOOLEAN_ARGUMENTS_SHIFT = 8;
+
 	/**
 	 * The name of the JavaScript method.
 	 */
@@ -20,11 +40,26 @@ class APIMethod {
 	 */
 	private Method reflectedMethod;
 
+	/**
+	 * Invoker which calls the native Java implementation.
+	 */
+	private MethodInvoker invoker;
+
 	/**
 	 * List of all method parameters.
 	 */
 	private APIParameter[] parameters;
 
+	/**
+	 * The index of this method in its class.
+	 */
+	private int index;
+
+	/**
+	 * How arguments and the result of this method are exchanged with the JavaScript engine.
+	 */
+	private int signature;
+
 	/**
 	 * Creates a new map between Java and JavaScript method.
 	 *
@@ -35,6 +70,7 @@ class APIMethod {
 		this.jsName = jsName;
 		this.parameters = new APIParameter[m.getParameterTypes().length];
 		this.reflectedMethod = m;
+		this.invoker = ReflectionInvokers.forMethod(m);
 
 		for(int i=0; i < this.parameters.length; i++) {
 			boolean isOptional = true;
@@ -47,6 +83,50 @@ class APIMethod {
 			APIParameter param = new APIParameter("arg" + i, m.getParameterTypes()[i], isOptional);
 			this.parameters[i] = param;
 		}
+
+		this.signature = createSignature(m.getReturnType(), this.parameters);
+	}
+
+	/**
+	 * Creates a new map of a method described by a binding. Its invoker must be set before the
+	 * method is called.
+	 *
+	 * @param jsName JavaScript method name.
+	 * @param parameters The parameters of the method.
+	 * @param returnType The return type of the method.
+	 */
+	APIMethod(String jsName, APIParameter[] parameters, Class<?> returnType) {
+		this.jsName = jsName;
+		this.parameters = parameters;
+		this.signature = createSignature(returnType, parameters);
+	}
+
+	/**
+	 * Creates the signature of a method.
+	 *
+	 * @param returnType The return type of the method.
+	 * @param parameters The parameters of the method.
+	 * @return The signature of the method (see {@link #getSignature()}).
+	 */
+	private static int createSignature(Class<?> returnType, APIParameter[] parameters) {
+		int signature = APIParameter.kindOf(returnType);
+		if(parameters.length > MAX_PRIMITIVE_ARGUMENTS) {
+			return signature;
+		}
+
+		int booleanArguments = 0;
+		for(int i=0; i < parameters.length; i++) {
+			int kind = parameters[i].getKind();
+			if(kind == APIParameter.KIND_OBJECT) {
+				return signature;
+			} else if(kind == APIParameter.KIND_BOOLEAN) {
+				booleanArguments |= 1 << i;
+			}
+		}
+
+		return signature | SIGNATURE_PRIMITIVE_ARGUMENTS
+				| (parameters.length << SIGNATURE_ARGUMENTS_COUNT_SHIFT)
+				| (booleanArguments << SIGNATURE_BOOLEAN_ARGUMENTS_SHIFT);
 	}
 
 	/**
@@ -58,6 +138,35 @@ class APIMethod {
 		return this.jsName;
 	}
 
+	/**
+	 * @return The index of this method in its class.
+	 */
+	int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Sets the index of this method in its class.
+	 *
+	 * @param index The index of this method.
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * Gets how arguments and the result of this method are exchanged with the JavaScript engine.
+	 * The lowest two bits hold the kind of the result (see {@link APIParameter#getKind()}). When
+	 * all arguments are numeric or boolean primitives, up to {@link #MAX_PRIMITIVE_ARGUMENTS},
+	 * {@link #SIGNATURE_PRIMITIVE_ARGUMENTS} is set, followed by the number of arguments and a
+	 * bitmask of the boolean ones.
+	 *
+	 * @return The signature of this method.
+	 */
+	int getSignature() {
+		return this.signature;
+	}
+
 	/**
 	 * @return The parameters of this method.
 	 */
@@ -65,6 +174,22 @@ class APIMethod {
 		return this.parameters;
 	}
 
+	/**
+	 * @return The invoker which calls the native Java implementation.
+	 */
+	MethodInvoker getInvoker() {
+		return this.invoker;
+	}
+
+	/**
+	 * Replaces the invoker which calls the native Java implementation.
+	 *
+	 * @param invoker The new invoker.
+	 */
+	void setInvoker(MethodInvoker invoker) {
+		this.invoker = invoker;
+	}
+
 	/**
 	 * @return the reflected method to invoke method calls to native Java implementations.
 	 */
@@ -5,6 +5,21 @@ package com.arecmetafora.jsdroid;
  */
 class APIParameter {
 
+	/**
+	 * Kind of the values exchanged as Java objects.
+	 */
+	static final int KIND_OBJECT = 0;
+
+	/**
+	 * Kind of the values exchanged as unboxed doubles (numeric primitives).
+	 */
+	static final int KIND_NUMBER = 1;
+
+	/**
+	 * Kind of the values exchanged as unboxed booleans (boolean primitives).
+	 */
+	static final int KIND_BOOLEAN = 2;
+
 	/**
 	 * The name of the JavaScript parameter.
 	 */
@@ -20,6 +35,11 @@ class APIParameter {
 	 */
 	private boolean isOptional;
 
+	/**
+	 * Converter of the values received from JavaScript.
+	 */
+	private ParameterConverter converter;
+
 	/**
 	 * Constructor of the APIParameter.
 	 *
@@ -28,9 +48,22 @@ class APIParameter {
 	 * @param isOptional Boolean to indicate if the parameter is optional.
 	 */
 	APIParameter(String jsName, Class<?> type, boolean isOptional) {
+		this(jsName, type, isOptional, ParameterConverter.forParameter(type));
+	}
+
+	/**
+	 * Constructor of the APIParameter.
+	 *
+	 * @param jsName Name of the parameter.
+	 * @param type Parameter type.
+	 * @param isOptional Boolean to indicate if the parameter is optional.
+	 * @param converter Converter of the values received from JavaScript.
+	 */
+	APIParameter(String jsName, Class<?> type, boolean isOptional, ParameterConverter converter) {
 		this.jsName = jsName;
 		this.type = type;
 		this.isOptional = isOptional && !type.isPrimitive();
+		this.converter = converter;
 	}
 
 	/**
@@ -53,4 +86,34 @@ class APIParameter {
 	Class<?> getType() {
 		return type;
 	}
+
+	/**
+	 * @return Converter of the values received from JavaScript.
+	 */
+	ParameterConverter getConverter() {
+		return converter;
+	}
+
+	/**
+	 * @return How values of this parameter are exchanged with the JavaScript engine: one of
+	 * {@link #KIND_OBJECT}, {@link #KIND_NUMBER} or {@link #KIND_BOOLEAN}.
+	 */
+	int getKind() {
+		return kindOf(type);
+	}
+
+	/**
+	 * Gets how values of a type are exchanged with the JavaScript engine.
+	 *
+	 * @param type The type of the values.
+	 * @return One of {@link #KIND_OBJECT}, {@link #KIND_NUMBER} or {@link #KIND_BOOLEAN}.
+	 */
+	static int kindOf(Class<?> type) {
+		if (type == boolean.class) {
+			return KIND_BOOLEAN;
+		} else if (type.isPrimitive() && type != char.class && type != void.class) {
+			return KIND_NUMBER;
+		}
+		return KIND_OBJECT;
+	}
 }
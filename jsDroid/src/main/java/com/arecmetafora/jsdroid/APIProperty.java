@@ -14,6 +14,16 @@ class APIProperty extends APIParameter {
 	 */
 	private Field reflectedProperty;
 
+	/**
+	 * Accessor which gets and sets the native Java implementation.
+	 */
+	private PropertyAccessor accessor;
+
+	/**
+	 * The index of this property in its class.
+	 */
+	private int index;
+
 	/**
 	 * Creates a new map between Java and JavaScript property.
 	 *
@@ -21,8 +31,54 @@ class APIProperty extends APIParameter {
 	 * @param f Reflected field to invoke property get and set calls to native Java implementations.
 	 */
 	APIProperty(String jsName, Field f) {
-		super(jsName, f.getType(), f.getAnnotation(NonNull.class) == null);
+		super(jsName, f.getType(), f.getAnnotation(NonNull.class) == null,
+				ParameterConverter.forProperty(f.getType()));
 		this.reflectedProperty = f;
+		this.accessor = ReflectionInvokers.forField(f);
+	}
+
+	/**
+	 * Creates a new map of a property described by a binding. Its accessor must be set before the
+	 * property is used.
+	 *
+	 * @param jsName JavaScript property name.
+	 * @param type The type of the property.
+	 * @param isOptional Whether the property accepts null values.
+	 */
+	APIProperty(String jsName, Class<?> type, boolean isOptional) {
+		super(jsName, type, isOptional, ParameterConverter.forProperty(type));
+	}
+
+	/**
+	 * @return The index of this property in its class.
+	 */
+	int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Sets the index of this property in its class.
+	 *
+	 * @param index The index of this property.
+	 */
+	void setIndex(int index) {
+		this.index = index;
+	}
+
+	/**
+	 * @return The accessor which gets and sets the native Java implementation.
+	 */
+	PropertyAccessor getAccessor() {
+		return this.accessor;
+	}
+
+	/**
+	 * Replaces the accessor which gets and sets the native Java implementation.
+	 *
+	 * @param accessor The new accessor.
+	 */
+	void setAccessor(PropertyAccessor accessor) {
+		this.accessor = accessor;
 	}
 
 	/**
@@ -15,14 +15,21 @@ class AllocationInfo {
 	 */
 	private Object objectReference;
 
+	/**
+	 * The handle which identifies this allocation.
+	 */
+	private int handle;
+
 	/**
 	 * Constructs a new allocation information instance.
 	 *
 	 * @param objectReference The object reference itself.
+	 * @param handle The handle which identifies this allocation.
 	 */
-	AllocationInfo(Object objectReference) {
+	AllocationInfo(Object objectReference, int handle) {
 		this.numberOfReferences = 1;
 		this.objectReference = objectReference;
+		this.handle = handle;
 	}
 
 	/**
@@ -48,6 +55,15 @@ class AllocationInfo {
 		return this.objectReference;
 	}
 
+	/**
+	 * Gets the handle which identifies this allocation.
+	 *
+	 * @return The handle of the allocation.
+	 */
+	int getHandle() {
+		return this.handle;
+	}
+
 	/**
 	 * Returns if this allocation has only one reference.
 	 *
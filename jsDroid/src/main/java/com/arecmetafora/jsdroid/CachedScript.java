@@ -0,0 +1,27 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * A script compiled by the JavaScript engine which can be kept in the {@link ScriptCache}.
+ */
+interface CachedScript {
+
+	/**
+	 * Gets the number of bytes held by the compiled script.
+	 *
+	 * @return The size of the script, in bytes.
+	 */
+	int getSize();
+
+	/**
+	 * Adds a reference to the script, for a caller which found it in the cache.
+	 */
+	void retain();
+
+	/**
+	 * Sets whether the script is kept by the cache. Scripts which are no longer cached are
+	 * released once their callers released them.
+	 *
+	 * @param cached Whether the script is cached.
+	 */
+	void setCached(boolean cached);
+}
@@ -0,0 +1,218 @@
+package com.arecmetafora.jsdroid;
+
+import java.io.Closeable;
+
+/**
+ * A JavaScript compiled once to be evaluated many times, skipping the conversion and the syntax
+ * check made by {@link JavaScriptDroid#evaluateScript(String)} on every call.
+ *
+ * Compiled scripts are created by {@link JavaScriptDroid#compileScript(String, String)}, which
+ * returns the same instance to every caller compiling the same script while it is cached. Each
+ * call must be matched by a call to {@link #release()} (or {@link #close()}) once the caller no
+ * longer evaluates the script. The native script is released when all callers released it, the
+ * cache evicted it and no evaluation of it is running.
+ */
+public final class CompiledScript implements CachedScript, Closeable {
+
+	/**
+	 * The name of the file which this script was retrieved.
+	 */
+	private final String fileName;
+
+	/**
+	 * Number of bytes held by the native script.
+	 */
+	private final int size;
+
+	/**
+	 * Number of callers of {@link JavaScriptDroid#compileScript(String, String)} which have not
+	 * released this script yet.
+	 */
+	private int references = 1;
+
+	/**
+	 * Number of evaluations of this script currently running.
+	 */
+	private int evaluations;
+
+	/**
+	 * Whether this script is kept by the {@link ScriptCache}.
+	 */
+	private boolean cached;
+
+	/**
+	 * Pointer to the native compiled script, or 0 if it has been released.
+	 */
+	private int scriptPointer;
+
+	/**
+	 * Creates a compiled script.
+	 *
+	 * @param script The source of the script.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param scriptPointer Pointer to the native compiled script.
+	 */
+	CompiledScript(String script, String fileName, int scriptPointer) {
+		this.fileName = fileName;
+		this.size = 2 * (script.length() + (fileName != null ? fileName.length() : 0));
+		this.scriptPointer = scriptPointer;
+	}
+
+	/**
+	 * Evaluates this script in the global JavaScript context.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public Object evaluate() throws JavaScriptException {
+		return evaluate(JavaScriptDroid.getJsGlobalContexPointer());
+	}
+
+	/**
+	 * Evaluates this script, limited by the execution time limit of the context (see
+	 * {@link JavaScriptDroid#setExecutionTimeLimit(int, long)}).
+	 *
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public Object evaluate(int jsContextPointer) throws JavaScriptException {
+		return evaluate(jsContextPointer, 0);
+	}
+
+	/**
+	 * Evaluates this script, terminating it if it runs for longer than a time limit.
+	 *
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 to use the
+	 * limit of the context.
+	 *
+	 * @return The result of the evaluation.
+	 * @throws JavaScriptTimeoutException If the script exceeds its time limit.
+	 * @throws IllegalStateException If the script has been released.
+	 */
+	public Object evaluate(int jsContextPointer, long timeLimit) throws JavaScriptException {
+		int scriptPointer = startEvaluation();
+		try {
+			TimedEvaluation evaluation = TimedEvaluation.start(jsContextPointer,
+					JavaScriptDroid.getExecutionTimeLimit(jsContextPointer, timeLimit));
+			try {
+				return JavaScriptDroid.evaluateCompiledScript(scriptPointer, jsContextPointer,
+						TimedEvaluation.getTimeLimit(evaluation));
+			} finally {
+				TimedEvaluation.finish(evaluation);
+			}
+		} finally {
+			finishEvaluation();
+		}
+	}
+
+	/**
+	 * Holds the native script while it is evaluated, so that it is not released meanwhile.
+	 *
+	 * @return The pointer to the native script.
+	 * @throws IllegalStateException If the script has been released.
+	 */
+	private synchronized int startEvaluation() {
+		if(this.scriptPointer == 0) {
+			throw new IllegalStateException("The script has been released");
+		}
+		this.evaluations++;
+		return this.scriptPointer;
+	}
+
+	/**
+	 * Ends an evaluation, releasing the native script if it is no longer used.
+	 */
+	private synchronized void finishEvaluation() {
+		this.evaluations--;
+		releaseIfUnused();
+	}
+
+	/**
+	 * Adds a reference to this script, for another caller which compiled it.
+	 */
+	@Override
+	public synchronized void retain() {
+		this.references++;
+	}
+
+	/**
+	 * Sets whether this script is kept by the cache, releasing the native script if it has been
+	 * evicted and is no longer used.
+	 *
+	 * @param cached Whether this script is cached.
+	 */
+	@Override
+	public synchronized void setCached(boolean cached) {
+		this.cached = cached;
+		releaseIfUnused();
+	}
+
+	/**
+	 * Releases this script. Every compilation which returned it must release it once, after
+	 * which it must no longer be evaluated by the caller.
+	 *
+	 * @throws IllegalStateException If the script has been released by every caller already.
+	 */
+	public synchronized void release() {
+		if(this.references == 0) {
+			throw new IllegalStateException("The script has already been released");
+		}
+		this.references--;
+		releaseIfUnused();
+	}
+
+	/**
+	 * Releases this script (see {@link #release()}).
+	 */
+	@Override
+	public void close() {
+		release();
+	}
+
+	/**
+	 * Releases the native script if no caller, evaluation nor the cache holds it.
+	 */
+	private void releaseIfUnused() {
+		if(this.references == 0 && this.evaluations == 0 && !this.cached
+				&& this.scriptPointer != 0) {
+			JavaScriptDroid.releaseCompiledScript(this.scriptPointer);
+			this.scriptPointer = 0;
+		}
+	}
+
+	/**
+	 * @return The name of the file which this script was retrieved.
+	 */
+	public String getFileName() {
+		return this.fileName;
+	}
+
+	/**
+	 * Gets the number of bytes held by this script. The source and the name of the script are
+	 * held as UTF-16 strings by the JavaScript engine.
+	 *
+	 * @return The size of this script, in bytes.
+	 */
+	@Override
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Releases the native script of a script which was not released by its callers, so that it
+	 * is not leaked. Callers must not rely on it: the leak is logged.
+	 */
+	@Override
+	protected void finalize() throws Throwable {
+		try {
+			if(this.scriptPointer != 0) {
+				Utils.log("The compiled script " + this.fileName + " was not released");
+				JavaScriptDroid.releaseCompiledScript(this.scriptPointer);
+				this.scriptPointer = 0;
+			}
+		} finally {
+			super.finalize();
+		}
+	}
+}
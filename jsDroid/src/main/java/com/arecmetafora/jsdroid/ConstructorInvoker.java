@@ -0,0 +1,15 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Creates instances of a mapped Java class.
+ */
+interface ConstructorInvoker {
+
+	/**
+	 * Creates a new instance.
+	 *
+	 * @param args The resolved arguments of the constructor.
+	 * @return The new instance.
+	 */
+	Object newInstance(Object[] args) throws Exception;
+}
@@ -0,0 +1,88 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Invokers which call mapped members through a {@link JavaScriptDispatcher}, without reflection.
+ */
+final class DispatcherInvokers {
+
+	/**
+	 * Private constructor.
+	 */
+	private DispatcherInvokers() {
+	}
+
+	/**
+	 * Creates an invoker for a method of a dispatcher.
+	 *
+	 * @param dispatcher The dispatcher of the mapped class.
+	 * @param methodIndex The index of the method in the dispatcher.
+	 * @return The method invoker.
+	 */
+	static MethodInvoker forMethod(final JavaScriptDispatcher<Object> dispatcher, final int methodIndex) {
+		return new MethodInvoker() {
+			@Override
+			public Object invoke(Object obj, Object[] args) throws Exception {
+				return dispatcher.invoke(obj, methodIndex, args);
+			}
+		};
+	}
+
+	/**
+	 * Creates an accessor for a property of a dispatcher. Primitive values are boxed, since
+	 * dispatchers only exchange objects.
+	 *
+	 * @param dispatcher The dispatcher of the mapped class.
+	 * @param propertyIndex The index of the property in the dispatcher.
+	 * @param converter The converter of the property, used to convert unboxed values.
+	 * @return The property accessor.
+	 */
+	static PropertyAccessor forProperty(final JavaScriptDispatcher<Object> dispatcher, final int propertyIndex,
+			final ParameterConverter converter) {
+		return new PropertyAccessor() {
+			@Override
+			public Object get(Object obj) throws Exception {
+				return dispatcher.get(obj, propertyIndex);
+			}
+
+			@Override
+			public void set(Object obj, Object value) throws Exception {
+				dispatcher.set(obj, propertyIndex, value);
+			}
+
+			@Override
+			public double getNumber(Object obj) throws Exception {
+				return ((Number) dispatcher.get(obj, propertyIndex)).doubleValue();
+			}
+
+			@Override
+			public void setNumber(Object obj, double value) throws Exception {
+				dispatcher.set(obj, propertyIndex, converter.convertPrimitive(value));
+			}
+
+			@Override
+			public boolean getBoolean(Object obj) throws Exception {
+				return (Boolean) dispatcher.get(obj, propertyIndex);
+			}
+
+			@Override
+			public void setBoolean(Object obj, boolean value) throws Exception {
+				dispatcher.set(obj, propertyIndex, value);
+			}
+		};
+	}
+
+	/**
+	 * Creates an invoker for the constructor of a dispatcher.
+	 *
+	 * @param dispatcher The dispatcher of the mapped class.
+	 * @return The constructor invoker.
+	 */
+	static ConstructorInvoker forConstructor(final JavaScriptDispatcher<Object> dispatcher) {
+		return new ConstructorInvoker() {
+			@Override
+			public Object newInstance(Object[] args) throws Exception {
+				return dispatcher.newInstance(args);
+			}
+		};
+	}
+}
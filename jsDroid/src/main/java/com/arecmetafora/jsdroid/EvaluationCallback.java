@@ -0,0 +1,23 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Interface implemented to be notified when an asynchronous evaluation finishes (see
+ * {@link JavaScriptExecutor}). Callbacks are called on the thread of the executor, so they must
+ * return quickly and must post UI work to the main thread.
+ */
+public interface EvaluationCallback {
+
+	/**
+	 * Called when the script has been evaluated.
+	 *
+	 * @param result The result of the evaluation.
+	 */
+	void onResult(Object result);
+
+	/**
+	 * Called when the evaluation has failed.
+	 *
+	 * @param error The exception thrown by the evaluation, usually a {@link JavaScriptException}.
+	 */
+	void onError(Throwable error);
+}
@@ -0,0 +1,120 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Metrics of the evaluations which execution time is limited, recording how much of their time
+ * limit the scripts use, so that the limits can be tuned before scripts start being terminated.
+ *
+ * The usage of an evaluation is the CPU time spent by its thread divided by its time limit.
+ * Usages are counted in {@link #BUCKETS} buckets of the same width, from 0 to 1. Evaluations
+ * terminated by their limit are counted apart, by {@link #timeoutCount()}.
+ */
+public final class ExecutionTimeMetrics {
+
+	/**
+	 * Number of buckets of the usage histogram.
+	 */
+	public static final int BUCKETS = 10;
+
+	/**
+	 * Number of completed evaluations, by their usage bucket.
+	 */
+	private final int[] usageHistogram = new int[BUCKETS];
+
+	/**
+	 * Number of completed evaluations.
+	 */
+	private int evaluationCount;
+
+	/**
+	 * Number of evaluations terminated by their limit.
+	 */
+	private int timeoutCount;
+
+	/**
+	 * The highest usage of a completed evaluation.
+	 */
+	private double maxUsage;
+
+	/**
+	 * Sum of the usages of the completed evaluations.
+	 */
+	private double usageSum;
+
+	/**
+	 * Creates the metrics.
+	 */
+	ExecutionTimeMetrics() {
+	}
+
+	/**
+	 * Records an evaluation.
+	 *
+	 * @param elapsedTime The CPU time spent by the evaluation, in milliseconds.
+	 * @param timeLimit The execution time limit of the evaluation, in milliseconds.
+	 * @param timedOut Whether the evaluation was terminated by its limit.
+	 */
+	synchronized void record(long elapsedTime, long timeLimit, boolean timedOut) {
+		if(timedOut) {
+			this.timeoutCount++;
+			return;
+		}
+
+		// The CPU time measured by the Java layer can be a bit beyond the limit of the engine
+		double usage = Math.min((double) elapsedTime / timeLimit, 1);
+		this.usageHistogram[Math.min((int) (usage * BUCKETS), BUCKETS - 1)]++;
+		this.evaluationCount++;
+		this.usageSum += usage;
+		this.maxUsage = Math.max(this.maxUsage, usage);
+	}
+
+	/**
+	 * @return The number of evaluations completed within their limit.
+	 */
+	public synchronized int evaluationCount() {
+		return this.evaluationCount;
+	}
+
+	/**
+	 * @return The number of evaluations terminated by their limit.
+	 */
+	public synchronized int timeoutCount() {
+		return this.timeoutCount;
+	}
+
+	/**
+	 * @return The highest fraction of its limit used by a completed evaluation.
+	 */
+	public synchronized double maxUsage() {
+		return this.maxUsage;
+	}
+
+	/**
+	 * @return The average fraction of their limit used by the completed evaluations.
+	 */
+	public synchronized double averageUsage() {
+		return this.evaluationCount > 0 ? this.usageSum / this.evaluationCount : 0;
+	}
+
+	/**
+	 * Gets the number of completed evaluations by the fraction of their limit they used: the
+	 * bucket i counts the usages from i / {@link #BUCKETS} to (i + 1) / {@link #BUCKETS}.
+	 *
+	 * @return A copy of the usage histogram.
+	 */
+	public synchronized int[] usageHistogram() {
+		return this.usageHistogram.clone();
+	}
+
+	/**
+	 * Clears all metrics.
+	 */
+	public synchronized void reset() {
+		for(int i = 0; i < BUCKETS; i++) {
+			this.usageHistogram[i] = 0;
+		}
+		this.evaluationCount = 0;
+		this.timeoutCount = 0;
+		this.maxUsage = 0;
+		this.usageSum = 0;
+	}
+}
@@ -0,0 +1,56 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * A JavaScript array received by a callback, which reads its elements on demand (see
+ * {@link JSView}). Elements are converted as the values received by callbacks: nested arrays and
+ * plain objects are also views.
+ *
+ * <pre>
+ * &#64;JavaScriptMapped
+ * public double first(JSArrayView items) {
+ *     return items.length() &gt; 0 ? (Double) items.get(0) : 0;
+ * }
+ * </pre>
+ */
+public final class JSArrayView extends JSView {
+
+	/**
+	 * Creates a view of a JavaScript array.
+	 *
+	 * @param objectPointer Pointer to the JavaScript array.
+	 * @param jsContextPointer Pointer to the JavaScript context which the array was created.
+	 */
+	JSArrayView(int objectPointer, int jsContextPointer) {
+		super(objectPointer, jsContextPointer);
+	}
+
+	/**
+	 * @return The number of elements of the array.
+	 */
+	public int length() {
+		return JavaScriptDroid.getArrayViewLength(getObjectPointer(), getContextPointer());
+	}
+
+	/**
+	 * Reads an element of the array.
+	 *
+	 * @param index The index of the element.
+	 * @return The element, or null if it is undefined.
+	 */
+	public Object get(int index) throws JavaScriptException {
+		return adopt(JavaScriptDroid.getViewElement(getObjectPointer(), index, getContextPointer()));
+	}
+
+	/**
+	 * Copies the array, as it would be converted if it was not received as a view: arrays of
+	 * numbers, booleans and strings are copied to double[], boolean[] and String[], and other
+	 * arrays to Object[], copying nested arrays (and plain objects, as maps) as well. The copy remains valid after the view
+	 * is released.
+	 *
+	 * @return The copy of the array.
+	 * @throws JavaScriptException If the array is nested too deeply, or if a getter fails.
+	 */
+	public Object toArray() throws JavaScriptException {
+		return JavaScriptDroid.convertArrayView(getObjectPointer(), getContextPointer());
+	}
+}
@@ -0,0 +1,62 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.Map;
+
+/**
+ * A plain JavaScript object received by a callback, which reads its properties on demand (see
+ * {@link JSView}). Properties are converted as the values received by callbacks: arrays and plain
+ * objects are also views.
+ */
+public final class JSObjectView extends JSView {
+
+	/**
+	 * Creates a view of a JavaScript object.
+	 *
+	 * @param objectPointer Pointer to the JavaScript object.
+	 * @param jsContextPointer Pointer to the JavaScript context which the object was created.
+	 */
+	JSObjectView(int objectPointer, int jsContextPointer) {
+		super(objectPointer, jsContextPointer);
+	}
+
+	/**
+	 * @return The names of the enumerable properties of the object.
+	 */
+	public String[] getPropertyNames() {
+		return JavaScriptDroid.getViewPropertyNames(getObjectPointer(), getContextPointer());
+	}
+
+	/**
+	 * Reads a property of the object (which may call its getter).
+	 *
+	 * @param name The name of the property.
+	 * @return The property value, or null if it is undefined.
+	 */
+	public Object get(String name) throws JavaScriptException {
+		return adopt(JavaScriptDroid.getViewProperty(getObjectPointer(), name, getContextPointer()));
+	}
+
+	/**
+	 * Copies the object to a map, in a single native pass, as it would be converted if it was not
+	 * received as a view: nested plain objects are copied to maps and arrays to Java arrays. The
+	 * copy remains valid after the view is released. Objects referenced more than once are copied
+	 * once.
+	 *
+	 * @return The copy of the object, keeping the order of its properties.
+	 * @throws JavaScriptException If the object is nested too deeply, or if a getter fails.
+	 */
+	public Map<String, Object> toMap() throws JavaScriptException {
+		return JavaScriptDroid.convertObjectView(getObjectPointer(), getContextPointer());
+	}
+
+	/**
+	 * Copies the object to a new instance of a registered class (see
+	 * {@link JavaScriptDroid#toObject(Map, Class)}).
+	 *
+	 * @param type The registered class.
+	 * @return The new instance.
+	 */
+	public <T> T toObject(Class<T> type) throws JavaScriptException {
+		return ObjectMarshaller.toObject(toMap(), type);
+	}
+}
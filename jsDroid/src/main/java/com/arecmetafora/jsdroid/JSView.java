@@ -0,0 +1,159 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A JavaScript array or object received by a callback, which reads its elements from the
+ * JavaScript engine on demand, instead of copying all of them before the callback is called.
+ *
+ * Views are received by mapped methods, constructors and properties declared as
+ * {@link JSArrayView} or {@link JSObjectView} (plain objects are also received as views by
+ * parameters declared as Object). Parameters declared as arrays, lists, maps or registered
+ * classes receive a copy instead. A view is valid until the callback which received it returns:
+ * the bridge releases it afterwards, along with the views of its elements, so that the JavaScript
+ * object can be collected. Data which must outlive the callback must be copied (see
+ * {@link JSArrayView#toArray()}).
+ *
+ * Views must be used by the thread which received them.
+ */
+public abstract class JSView {
+
+	/**
+	 * Pointer to the JavaScript object, protected from the JavaScript garbage collector until this
+	 * view is released, or 0 if this view has been released.
+	 */
+	private int objectPointer;
+
+	/**
+	 * Pointer to the JavaScript context which the object was created.
+	 */
+	private final int jsContextPointer;
+
+	/**
+	 * Views of the elements read from this view, released along with it.
+	 */
+	private ArrayList<JSView> children;
+
+	/**
+	 * Creates a view. Views are created by the native layer, which protects the object.
+	 *
+	 * @param objectPointer Pointer to the JavaScript object.
+	 * @param jsContextPointer Pointer to the JavaScript context which the object was created.
+	 */
+	JSView(int objectPointer, int jsContextPointer) {
+		this.objectPointer = objectPointer;
+		this.jsContextPointer = jsContextPointer;
+	}
+
+	/**
+	 * @return The pointer to the JavaScript object.
+	 * @throws IllegalStateException If this view has been released.
+	 */
+	final int getObjectPointer() {
+		if(this.objectPointer == 0) {
+			throw new IllegalStateException(
+					"The view has been released, since the callback which received it has returned");
+		}
+		return this.objectPointer;
+	}
+
+	/**
+	 * @return The pointer to the JavaScript context which the object was created.
+	 */
+	final int getContextPointer() {
+		return this.jsContextPointer;
+	}
+
+	/**
+	 * Keeps the view of an element read from this view, so that it is released along with it.
+	 *
+	 * @param value The element value.
+	 * @return The element value.
+	 */
+	final Object adopt(Object value) {
+		if(value instanceof JSView) {
+			if(this.children == null) {
+				this.children = new ArrayList<>();
+			}
+			this.children.add((JSView) value);
+		}
+		return value;
+	}
+
+	/**
+	 * @return Whether this view has been released, so that it can no longer be read.
+	 */
+	public final boolean isReleased() {
+		return this.objectPointer == 0;
+	}
+
+	/**
+	 * Releases this view and the views of its elements, so that the JavaScript object can be
+	 * collected. Releasing a view twice has no effect.
+	 */
+	final void release() {
+		if(this.objectPointer == 0) {
+			return;
+		}
+
+		if(this.children != null) {
+			for(JSView child : this.children) {
+				child.release();
+			}
+			this.children = null;
+		}
+
+		JavaScriptDroid.releaseView(this.objectPointer, this.jsContextPointer);
+		this.objectPointer = 0;
+	}
+
+	/**
+	 * Releases the views received by a callback. Called by the native layer when the callback
+	 * returns, after its result is converted (since the result may be one of the views).
+	 *
+	 * @param values The values received by the callback.
+	 */
+	static void release(Object[] values) {
+		for(Object value : values) {
+			if(value instanceof JSView) {
+				((JSView) value).release();
+			}
+		}
+	}
+
+	/**
+	 * Resolves a value received by a callback for a parameter or property, unless the declared
+	 * type accepts the view itself. Array views are copied to arrays (or lists), and object views
+	 * to maps or to instances of the registered class declared; copied views are released. Other
+	 * values are returned as they are, to be validated by the converter of the parameter.
+	 *
+	 * @param value The value received by the callback.
+	 * @param type The declared type of the parameter or property.
+	 * @return The resolved value.
+	 */
+	static Object resolve(Object value, Class<?> type) throws JavaScriptException {
+		if(!(value instanceof JSView) || (type != Object.class && type.isInstance(value))) {
+			return value;
+		}
+
+		JSView view = (JSView) value;
+		Object resolved = value;
+		if(view instanceof JSArrayView) {
+			resolved = ((JSArrayView) view).toArray();
+			if(type != Object.class && type.isAssignableFrom(List.class)) {
+				resolved = ObjectMarshaller.toList(resolved);
+			}
+		} else if(type != Object.class && type.isAssignableFrom(LinkedHashMap.class)) {
+			resolved = ((JSObjectView) view).toMap();
+		} else if(JavaScriptDroid.getAPIClassByClass(type) != null) {
+			resolved = ((JSObjectView) view).toObject(type);
+		}
+
+		if(resolved != value) {
+			view.release();
+		}
+		return resolved;
+	}
+}
@@ -0,0 +1,63 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Exception thrown when a script of a batch evaluation fails (see
+ * {@link JavaScriptDroid#evaluateScripts(String[], String[])}). The scripts before it have been
+ * evaluated, and the scripts after it have not.
+ */
+public final class JavaScriptBatchException extends JavaScriptException {
+
+	/**
+	 * The index of the failed script.
+	 */
+	private final int scriptIndex;
+
+	/**
+	 * The name of the file which the failed script was retrieved.
+	 */
+	private final String fileName;
+
+	/**
+	 * The results of the scripts evaluated before the failed one.
+	 */
+	private final Object[] results;
+
+	/**
+	 * Creates a new exception.
+	 *
+	 * @param scriptIndex The index of the failed script.
+	 * @param fileName The name of the file which the failed script was retrieved.
+	 * @param results The results of the scripts evaluated before the failed one.
+	 * @param cause The exception thrown by the failed script.
+	 */
+	JavaScriptBatchException(int scriptIndex, String fileName, Object[] results,
+			JavaScriptException cause) {
+		super(String.format("%s (%s)", cause.getMessage(), fileName),
+				cause.getJavaScriptStackTrace());
+		initCause(cause);
+		this.scriptIndex = scriptIndex;
+		this.fileName = fileName;
+		this.results = results;
+	}
+
+	/**
+	 * @return The index of the failed script.
+	 */
+	public int getScriptIndex() {
+		return this.scriptIndex;
+	}
+
+	/**
+	 * @return The name of the file which the failed script was retrieved.
+	 */
+	public String getFileName() {
+		return this.fileName;
+	}
+
+	/**
+	 * @return The results of the scripts evaluated before the failed one.
+	 */
+	public Object[] getResults() {
+		return this.results;
+	}
+}
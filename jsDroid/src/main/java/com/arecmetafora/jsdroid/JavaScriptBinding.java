@@ -0,0 +1,61 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Precomputed mapping of a class, generated at build time by the jsDroid annotation processor.
+ *
+ * A binding describes the same members that would be found by reflection, following the
+ * {@link com.arecmetafora.jsdroid.annotation.JavaScriptMapped} and
+ * {@link com.arecmetafora.jsdroid.annotation.NonNull} annotations, and calls them directly.
+ * Bindings are named after the mapped class, with the {@link #SUFFIX} suffix, and are loaded by
+ * {@link JavaScriptDroid#registerClass(Class)} when available.
+ *
+ * @param <T> The mapped class.
+ */
+public interface JavaScriptBinding<T> extends JavaScriptDispatcher<T> {
+
+	/**
+	 * Suffix of the name of the generated bindings.
+	 */
+	String SUFFIX = "_JavaScriptBinding";
+
+	/**
+	 * @return The name of the JavaScript class.
+	 */
+	String getJSName();
+
+	/**
+	 * @return The types of the parameters of the mapped constructor.
+	 */
+	Class<?>[] getConstructorParameterTypes();
+
+	/**
+	 * @return Whether each parameter of the mapped constructor is marked as non null.
+	 */
+	boolean[] getConstructorParameterNonNull();
+
+	/**
+	 * @return The types of the parameters of each method, by the index of the method.
+	 */
+	Class<?>[][] getMethodParameterTypes();
+
+	/**
+	 * @return Whether each parameter of each method is marked as non null, by the index of the
+	 * method.
+	 */
+	boolean[][] getMethodParameterNonNull();
+
+	/**
+	 * @return The return types of the methods, by their index.
+	 */
+	Class<?>[] getMethodReturnTypes();
+
+	/**
+	 * @return The types of the properties, by their index.
+	 */
+	Class<?>[] getPropertyTypes();
+
+	/**
+	 * @return Whether each property is marked as non null, by their index.
+	 */
+	boolean[] getPropertyNonNull();
+}
@@ -1,7 +1,5 @@
 package com.arecmetafora.jsdroid;
 
-import android.util.SparseArray;
-
 import java.lang.reflect.InvocationTargetException;
 import com.arecmetafora.jsdroid.debugger.Debugger;
 
@@ -11,9 +9,14 @@ import com.arecmetafora.jsdroid.debugger.Debugger;
 final class JavaScriptCallback {
 
 	/**
-	 * Stores a hash containing the relation between constructor pointers and objects.
+	 * Stores the relation between the handles held by JavaScript objects and native objects.
 	 */
-	private static SparseArray<AllocationInfo> allocationTable = new SparseArray<>();
+	private static final ObjectHandleTable allocationTable = new ObjectHandleTable(256);
+
+	/**
+	 * Method index used by the toString and valueOf functions of every mapped class.
+	 */
+	static final int TO_PRIMITIVE_METHOD_INDEX = -1;
 
 	/**
 	 * Private constructor.
@@ -26,22 +29,10 @@ final class JavaScriptCallback {
 	 * being used by the JavScriptCore.
 	 *
 	 * @param object The object which instance will be hold.
-	 * @return the hash code of the object
+	 * @return the handle of the object
 	 */
 	static int allocObjectReference(Object object) {
-		synchronized (allocationTable) {
-
-			int hashCode = object.hashCode();
-			AllocationInfo allocInfo = allocationTable.get(hashCode);
-			if (allocInfo != null) {
-				allocInfo.allocReference();
-				allocationTable.put(hashCode, allocInfo);
-			} else {
-				allocationTable.put(hashCode, new AllocationInfo(object));
-			}
-			return hashCode;
-
-		}
+		return allocationTable.alloc(object);
 	}
 
 	/**
@@ -49,7 +40,8 @@ final class JavaScriptCallback {
 	 *
 	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
 	 * executed.
-	 * @param className The name of the class that is being constructed.
+	 * @param className The name of the class that is being constructed, as the instance the class
+	 * was registered with.
 	 * @param args The arguments of the constructor call.
 	 * @return The new instance of the object that has been instantiated.
 	 */
@@ -58,20 +50,20 @@ final class JavaScriptCallback {
 		try {
 
 			// Getting the mapped method representation
-			APIClass apiClass = JavaScriptDroid.getAPIClassByName(className);
+			APIClass apiClass = JavaScriptDroid.getAPIClassByRegisteredName(className);
 
-			if(apiClass.getReflectedConstructor() == null) {
-				return null;
+			if(apiClass.getConstructorInvoker() == null) {
+				throw new JavaScriptException(
+						"The class " + apiClass.getJSName() + " cannot be constructed");
 			}
 
 			// Resolve the parameters, validating type casts
 			Object[] params = resolveInvokeParameters(
 				apiClass.getJSName(), "<constructor>",
-				JavaScriptCallbackContext.CONSTRUCTOR,
 				apiClass.getConstructorParameters(), args);
 
 			// Calls the method execution and return the result
-			return apiClass.getReflectedConstructor().newInstance(params);
+			return apiClass.getConstructorInvoker().newInstance(params);
 
 		} catch (Exception ex) {
 			handleException(jsContextPointer, ex);
@@ -86,40 +78,39 @@ final class JavaScriptCallback {
 	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
 	 * executed.
 	 * @param obj The object which its function is being called.
-	 * @param functionName The name of the function that is being called.
+	 * @param methodIndex The index of the method that is being called, or
+	 * {@link #TO_PRIMITIVE_METHOD_INDEX} for primitive conversions.
 	 * @param args The arguments of the method call.
 	 * @return The result of the function execution.
 	 */
 	static Object callbackFunction(int jsContextPointer, Object obj,
-		String functionName, Object... args) throws Throwable {
+		int methodIndex, Object... args) throws Throwable {
 		try {
 
-			if (obj instanceof Debugger && "debug".equals(functionName)) {
-				Debugger.getInstance().handleBreakpointHit(jsContextPointer);
-			}
-
 			// Getting the mapped method representation
 			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
 
 			// Verifying if either the toString or valueOf method was called by
 			// the JavaScript execution (explicitly or using concatenations to
 			// other objects)
-			if (functionName.equals("toString")
-				|| functionName.equals("valueOf")
-					|| functionName.equals("Symbol.toPrimitive")) {
+			if (methodIndex == TO_PRIMITIVE_METHOD_INDEX) {
 				return String.format("[object %s]", apiClass.getJSName());
 			}
 
-			APIMethod apiMethod = apiClass.getMethod(functionName);
+			APIMethod apiMethod = apiClass.getMethod(methodIndex);
+			String functionName = apiMethod.getJSName();
+
+			if (obj instanceof Debugger && "debug".equals(functionName)) {
+				Debugger.getInstance().handleBreakpointHit(jsContextPointer);
+			}
 
 			// Resolve the parameters, validating type casts
 			Object[] params = resolveInvokeParameters(
 				apiClass.getJSName(), functionName,
-				JavaScriptCallbackContext.METHOD,
 				apiMethod.getParameters(), args);
 
 			// Calls the method execution and return the result
-			return apiMethod.getReflectedMethod().invoke(obj, params);
+			return apiMethod.getInvoker().invoke(obj, params);
 
 		} catch (Exception ex) {
 			handleException(jsContextPointer, ex);
@@ -129,21 +120,101 @@ final class JavaScriptCallback {
 	}
 
 	/**
-	 * Callback called when an attempt to set a property for a JavaScript object is made.
+	 * Callback called when a function with unboxed arguments is evaluated in JavaScript (see
+	 * {@link APIMethod#getSignature()}). The arguments cross JNI without being boxed, but they
+	 * are still boxed into an array here, since invokers (like {@code Method.invoke}) take their
+	 * arguments as objects.
+	 *
+	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
+	 * executed.
+	 * @param obj The object which its function is being called.
+	 * @param methodIndex The index of the method that is being called.
+	 * @param arg0 The first argument, if any (booleans are passed as 0 or 1).
+	 * @param arg1 The second argument, if any.
+	 * @param arg2 The third argument, if any.
+	 * @param arg3 The fourth argument, if any.
+	 * @return The result of the function execution.
+	 */
+	static Object callbackPrimitiveFunction(int jsContextPointer, Object obj, int methodIndex,
+		double arg0, double arg1, double arg2, double arg3) throws Throwable {
+		try {
+
+			// Getting the mapped method representation
+			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
+			APIMethod apiMethod = apiClass.getMethod(methodIndex);
+
+			if (obj instanceof Debugger && "debug".equals(apiMethod.getJSName())) {
+				Debugger.getInstance().handleBreakpointHit(jsContextPointer);
+			}
+
+			// Primitive arguments are never null and always valid, so they are just converted
+			APIParameter[] parameters = apiMethod.getParameters();
+			Object[] params = new Object[parameters.length];
+			// Each case converts its argument and the ones before it
+			switch (params.length) {
+				case 4: params[3] = parameters[3].getConverter().convertPrimitive(arg3);
+					// fall through
+				case 3: params[2] = parameters[2].getConverter().convertPrimitive(arg2);
+					// fall through
+				case 2: params[1] = parameters[1].getConverter().convertPrimitive(arg1);
+					// fall through
+				case 1: params[0] = parameters[0].getConverter().convertPrimitive(arg0);
+					// fall through
+				default:
+			}
+
+			// Calls the method execution and return the result
+			return apiMethod.getInvoker().invoke(obj, params);
+
+		} catch (Exception ex) {
+			handleException(jsContextPointer, ex);
+		}
+
+		return null;
+	}
+
+	/**
+	 * Callback called when a function with unboxed arguments and a numeric primitive result is
+	 * evaluated in JavaScript.
+	 *
+	 * @see #callbackPrimitiveFunction(int, Object, int, double, double, double, double)
+	 * @return The unboxed result of the function execution.
+	 */
+	static double callbackNumberFunction(int jsContextPointer, Object obj, int methodIndex,
+		double arg0, double arg1, double arg2, double arg3) throws Throwable {
+		return ((Number) callbackPrimitiveFunction(jsContextPointer, obj, methodIndex,
+				arg0, arg1, arg2, arg3)).doubleValue();
+	}
+
+	/**
+	 * Callback called when a function with unboxed arguments and a boolean primitive result is
+	 * evaluated in JavaScript.
+	 *
+	 * @see #callbackPrimitiveFunction(int, Object, int, double, double, double, double)
+	 * @return The unboxed result of the function execution.
+	 */
+	static boolean callbackBooleanFunction(int jsContextPointer, Object obj, int methodIndex,
+		double arg0, double arg1, double arg2, double arg3) throws Throwable {
+		return (Boolean) callbackPrimitiveFunction(jsContextPointer, obj, methodIndex,
+				arg0, arg1, arg2, arg3);
+	}
+
+	/**
+	 * Callback called when an attempt to get a property for a JavaScript object is made.
 	 *
 	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
 	 * executed.
 	 * @param obj The object which its property is being gotten.
-	 * @param propertyName The name of the property that is being set.
+	 * @param propertyIndex The index of the property that is being get.
 	 * @return The value of the property that is being get.
 	 */
 	static Object callbackGetProperty(int jsContextPointer, Object obj,
-		String propertyName) throws Throwable {
+		int propertyIndex) throws Throwable {
 		try {
 			// Getting the mapped property representation
 			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
-			APIProperty apiProperty = apiClass.getProperty(propertyName);
-			return apiProperty.getReflectedProperty().get(obj);
+			APIProperty apiProperty = apiClass.getProperty(propertyIndex);
+			return apiProperty.getAccessor().get(obj);
 
 		} catch (Exception ex) {
 			handleException(jsContextPointer, ex);
@@ -153,30 +224,27 @@ final class JavaScriptCallback {
 	}
 
 	/**
-	 * Callback called when an attempt to get a property for a JavaScript object is made.
+	 * Callback called when an attempt to set a property for a JavaScript object is made.
 	 *
 	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
 	 * executed.
 	 * @param obj The object which its property is being set.
-	 * @param propertyName The name of the property that is being get.
+	 * @param propertyIndex The index of the property that is being set.
 	 * @param param The value of the property that is being set.
 	 */
 	static void callbackSetProperty(int jsContextPointer, Object obj,
-		String propertyName, Object param) throws Throwable {
+		int propertyIndex, Object param) throws Throwable {
 		try {
 
 			// Getting the mapped property representation
 			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(
 				obj.getClass());
-			APIProperty apiProperty = apiClass.getProperty(propertyName);
+			APIProperty apiProperty = apiClass.getProperty(propertyIndex);
 
-			// Resolve the parameters, validating type casts
-			Object[] params = resolveInvokeParameters(
-					apiClass.getJSName(), propertyName,
-                    JavaScriptCallbackContext.SETTER,
-					new APIParameter[] {apiProperty}, param);
+			// Resolve the value, validating type casts
+			Object value = resolvePropertyValue(apiClass.getJSName(), apiProperty, param);
 
-			apiProperty.getReflectedProperty().set(obj, params[0]);
+			apiProperty.getAccessor().set(obj, value);
 
 		} catch (Exception ex) {
 			handleException(jsContextPointer, ex);
@@ -184,60 +252,142 @@ final class JavaScriptCallback {
 	}
 
 	/**
-	 * Releases an object reference.
+	 * Callback called when a numeric primitive property is gotten in JavaScript.
 	 *
-	 * @param hashCode The hash code of the object which will be released.
+	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
+	 * executed.
+	 * @param obj The object which its property is being gotten.
+	 * @param propertyIndex The index of the property that is being get.
+	 * @return The unboxed value of the property.
 	 */
-	static void deallocObjectReference(int hashCode) {
-		synchronized (allocationTable) {
-			AllocationInfo allocInfo = allocationTable.get(hashCode);
+	static double callbackGetNumberProperty(int jsContextPointer, Object obj,
+		int propertyIndex) throws Throwable {
+		try {
+			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
+			return apiClass.getProperty(propertyIndex).getAccessor().getNumber(obj);
 
-			// The object reference has been already released.
-			if (allocInfo == null) {
-				return;
-			}
+		} catch (Exception ex) {
+			handleException(jsContextPointer, ex);
+		}
 
-			if (allocInfo.isUniqueReference()) {
-				allocationTable.remove(hashCode);
+		return 0;
+	}
 
-				// Disposing the reference resources
-				Object freedObject = allocInfo.getObjectReference();
-				if (freedObject instanceof JavaScriptDisposable) {
-					((JavaScriptDisposable) freedObject).dispose();
-				}
-			} else {
-				allocInfo.deallocReference();
-				allocationTable.put(hashCode, allocInfo);
-			}
+	/**
+	 * Callback called when a boolean primitive property is gotten in JavaScript.
+	 *
+	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
+	 * executed.
+	 * @param obj The object which its property is being gotten.
+	 * @param propertyIndex The index of the property that is being get.
+	 * @return The unboxed value of the property.
+	 */
+	static boolean callbackGetBooleanProperty(int jsContextPointer, Object obj,
+		int propertyIndex) throws Throwable {
+		try {
+			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
+			return apiClass.getProperty(propertyIndex).getAccessor().getBoolean(obj);
+
+		} catch (Exception ex) {
+			handleException(jsContextPointer, ex);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Callback called when a numeric primitive property is set to a number in JavaScript.
+	 *
+	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
+	 * executed.
+	 * @param obj The object which its property is being set.
+	 * @param propertyIndex The index of the property that is being set.
+	 * @param value The unboxed value of the property.
+	 */
+	static void callbackSetNumberProperty(int jsContextPointer, Object obj,
+		int propertyIndex, double value) throws Throwable {
+		try {
+			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
+			apiClass.getProperty(propertyIndex).getAccessor().setNumber(obj, value);
+
+		} catch (Exception ex) {
+			handleException(jsContextPointer, ex);
+		}
+	}
+
+	/**
+	 * Callback called when a boolean primitive property is set to a boolean in JavaScript.
+	 *
+	 * @param jsContextPointer Pointer to the JavaScript context which this callback is being
+	 * executed.
+	 * @param obj The object which its property is being set.
+	 * @param propertyIndex The index of the property that is being set.
+	 * @param value The unboxed value of the property.
+	 */
+	static void callbackSetBooleanProperty(int jsContextPointer, Object obj,
+		int propertyIndex, boolean value) throws Throwable {
+		try {
+			APIClass apiClass = JavaScriptDroid.getAPIClassByClass(obj.getClass());
+			apiClass.getProperty(propertyIndex).getAccessor().setBoolean(obj, value);
+
+		} catch (Exception ex) {
+			handleException(jsContextPointer, ex);
+		}
+	}
+
+	/**
+	 * Releases an object reference.
+	 *
+	 * @param handle The handle of the object which will be released.
+	 */
+	static void deallocObjectReference(int handle) {
+		Object freedObject = allocationTable.release(handle);
+
+		// Disposing the reference resources, if it was the last one
+		if (freedObject instanceof JavaScriptDisposable) {
+			((JavaScriptDisposable) freedObject).dispose();
 		}
 	}
 
 	/**
 	 * Gets the pointer to the JavaScript class definition, in the JavaScript engine.
 	 *
+	 * @param jsContextPointer Pointer to the global JavaScript context which the object is being
+	 * wrapped.
 	 * @param obj The object which the class definition pointer will be obtained.
 	 * @return The pointer to the JavaScript class of the given object.
 	 */
-	static int getJSClassRef(Object obj) throws JavaScriptClassUnregistered {
+	static int getJSClassRef(int jsContextPointer, Object obj) throws JavaScriptClassUnregistered {
 		APIClass apiClass = JavaScriptDroid.getAPIClassByClass(
 			obj.getClass());
-		if (apiClass != null) {
-			return apiClass.getJSClassRefPointer();
+		int jsClassRef = apiClass != null
+			? JavaScriptDroid.resolveJSClassRef(apiClass, jsContextPointer) : 0;
+		if (jsClassRef != 0) {
+			return jsClassRef;
 		} else {
 			throw new JavaScriptClassUnregistered(obj.getClass());
 		}
 	}
 
 	/**
-	 * Returns the reference of an object using its hash code.
+	 * Callback called the first time a script references a lazily registered class, so that the
+	 * class is registered to its context.
 	 *
-	 * @param hashCode The hash code of the object
-	 * @return Returns the object related with the hash code.
+	 * @param jsContextPointer Pointer to the global JavaScript context which referenced the class.
+	 * @param className The name of the class.
 	 */
-	static Object getObjectReference(int hashCode) {
-		synchronized (allocationTable) {
-			return allocationTable.get(hashCode).getObjectReference();
-		}
+	static void resolveLazyClass(int jsContextPointer, String className) {
+		JavaScriptDroid.resolveLazyClass(className, jsContextPointer);
+	}
+
+	/**
+	 * Returns the reference of an object using its handle.
+	 *
+	 * @param handle The handle of the object
+	 * @return Returns the object related with the handle.
+	 */
+	static Object getObjectReference(int handle) {
+		return allocationTable.get(handle);
 	}
 
 
@@ -266,136 +416,44 @@ final class JavaScriptCallback {
 	}
 
 	/**
-	 * Checks if a JavaScript object has a property with a given name.
-	 *
-	 * @param obj The JavaScript object.
-	 * @param propertyName The property name to be checked.
-	 * @return Whether the JavaScript class has a method with this name.
-	 */
-	static boolean hasProperty(Object obj, String propertyName) {
-		APIProperty p = JavaScriptDroid
-				.getAPIClassByClass(obj.getClass()).getProperty(propertyName);
-		if(p != null && p.getReflectedProperty() != null) {
-			return true;
-		} else {
-			return hasMethod(obj, propertyName);
-		}
-	}
-
-	/**
-	 * Checks if a JavaScript object has a method with a given name.
-	 *
-	 * @param obj The JavaScript object.
-	 * @param methodName The method name to be checked.
-	 * @return Whether the JavaScript class has a method with this name.
-	 */
-	static boolean hasMethod(Object obj, String methodName) {
-		APIMethod m = JavaScriptDroid
-			.getAPIClassByClass(obj.getClass()).getMethod(methodName);
-		return (m != null && m.getReflectedMethod() != null)
-			|| methodName.equals("toString")
-			|| methodName.equals("valueOf")
-			|| methodName.equals("Symbol.toPrimitive");
-	}
-
-	/**
-	 * Resolves the invocation parameters of a method, constructor or property set/get call,
-	 * validating type casts when needed.
+	 * Resolves the invocation parameters of a method or constructor call, validating type casts
+	 * when needed. The given values are converted in place when they match the number of
+	 * parameters.
 	 *
 	 * @param className The name of the class which the callback is being called.
-	 * @param propertyOrMethodName The name of the method/property that is being called in the
-	 * callback.
-	 * @param context The context of the JavaScript callback execution.
+	 * @param methodName The name of the method that is being called in the callback.
 	 * @param parameters The type of the parameters that the invocation expects.
 	 * @param parameterValues the parameters of the invocation call.
 	 * @return The casted parameters, after conversions based on the types the invocation expects.
 	 */
 	private static Object[] resolveInvokeParameters(
-		String className, String propertyOrMethodName, JavaScriptCallbackContext context,
-		APIParameter[] parameters, Object... parameterValues)
+		String className, String methodName, APIParameter[] parameters, Object[] parameterValues)
             throws JavaScriptException {
 
-		Object[] paramsToCall = new Object[parameters.length];
+		Object[] paramsToCall = parameterValues.length == parameters.length ?
+				parameterValues : new Object[parameters.length];
+
 		for (int i = 0; i < parameters.length; i++) {
+			Object paramValue = i < parameterValues.length ? parameterValues[i] : null;
 
 			// If parameter is omitted or explicit null
-			if (i >= parameterValues.length || parameterValues[i] == null) {
+			if (paramValue == null) {
 
 				// parameter does not accept null values
 				if (!parameters[i].isOptional()) {
-					switch (context) {
-						case SETTER:
-							throw new JavaScriptPropertyRequired(className, propertyOrMethodName);
-						case METHOD:
-						case CONSTRUCTOR:
-							throw new JavaScriptMethodParamRequired(className,
-									propertyOrMethodName, parameters[i].getJSName());
-						default:
-					}
+					throw new JavaScriptMethodParamRequired(className, methodName,
+							parameters[i].getJSName());
 				}
+				paramsToCall[i] = null;
 
 			} else {
-
-				Object paramValue = parameterValues[i];
-				Class<?> paramType = parameters[i].getType();
-
-				// Numbers must be converted, since the JavaScript returns always Double
-				if (paramValue instanceof Number) {
-					if (paramType.isAssignableFrom(double.class)
-						|| paramType.isAssignableFrom(Double.class)) {
-						paramsToCall[i] = ((Number) paramValue).doubleValue();
-					} else if (paramType.isAssignableFrom(int.class)
-						|| paramType.isAssignableFrom(Integer.class)) {
-						paramsToCall[i] = ((Number) paramValue).intValue();
-					} else if (paramType.isAssignableFrom(float.class)
-						|| paramType.isAssignableFrom(Float.class)) {
-						paramsToCall[i] = ((Number) paramValue).floatValue();
-					} else if (paramType.isAssignableFrom(byte.class)
-						|| paramType.isAssignableFrom(Byte.class)) {
-						paramsToCall[i] = ((Number) paramValue).byteValue();
-					} else if (paramType.isAssignableFrom(short.class)
-						|| paramType.isAssignableFrom(Short.class)) {
-						paramsToCall[i] = ((Number) paramValue).shortValue();
-					} else if (paramType.isAssignableFrom(long.class)
-						|| paramType.isAssignableFrom(Long.class)) {
-						paramsToCall[i] = ((Number) paramValue).longValue();
-					}
-
-					// Boleans must be converted too, since the JavaScript
-					// returns always Boolean objects (convert to primitive).
-				} else if (paramValue instanceof Boolean) {
-					if (paramType.isAssignableFrom(boolean.class)
-						|| paramType.isAssignableFrom(Boolean.class)) {
-						paramsToCall[i] = ((Boolean) paramValue).booleanValue();
-					}
-				}
-
-				// If the parameter was not set by number or booleans
-				// (primitives or not), validates the types against the expected
-				// types from invocation call.
-				if (paramsToCall[i] == null) {
-					switch (context) {
-						case SETTER:
-							if (paramValue != null && paramType != null
-									&& !paramType.isAssignableFrom(paramValue.getClass())) {
-								throw new JavaScriptPropertyTypeInvalid(className, parameters[i]);
-							}
-							break;
-						case METHOD:
-							validateMethodParameter(
-								className, propertyOrMethodName, parameters[i], paramValue);
-							break;
-						case CONSTRUCTOR:
-							validateMethodParameter(className, "<constructor>",
-									parameters[i], paramValue);
-							break;
-						default:
-					}
-
-					// If no validation error was thrown, the parameter is
-					// valid. So set it and continue.
-					paramsToCall[i] = paramValue;
+				// Array views are copied, unless the parameter is declared as a view
+				paramValue = JSView.resolve(paramValue, parameters[i].getType());
+				Object paramToCall = parameters[i].getConverter().convert(paramValue);
+				if (paramToCall == ParameterConverter.INVALID) {
+					throw new JavaScriptMethodParamTypeInvalid(className, methodName, parameters[i]);
 				}
+				paramsToCall[i] = paramToCall;
 			}
 		}
 
@@ -403,43 +461,33 @@ final class JavaScriptCallback {
 	}
 
 	/**
-	 * Checks if a value is valid as a parameter in a method.
+	 * Resolves the value of a property set call, validating type casts when needed.
 	 *
-	 * @param jsName The JavaScript entity that is being validated.
-	 * @param methodName The method name.
-	 * @param param The method parameter.
-	 * @param value value being passed as a parameter.
+	 * @param className The name of the class which the callback is being called.
+	 * @param property The property that is being set.
+	 * @param value The value received from JavaScript.
+	 * @return The value, after conversions based on the type of the property.
 	 */
-	private static void validateMethodParameter(String jsName,
-											   String methodName, APIParameter param,
-											   Object value) throws JavaScriptException {
+	private static Object resolvePropertyValue(String className, APIProperty property, Object value)
+			throws JavaScriptException {
 
-		if (value != null && param.getType().isArray()) {
+		// If value is explicit null
+		if (value == null) {
 
-			// Check if received value is array
-			if (!value.getClass().isArray()) {
-				throw new JavaScriptMethodParamTypeInvalid(jsName, methodName, param);
+			// property does not accept null values
+			if (!property.isOptional()) {
+				throw new JavaScriptPropertyRequired(className, property.getJSName());
 			}
+			return null;
+		}
 
-			// Cast received value to a object array
-			Object[] valueArray = (Object[]) value;
-
-			// Returns a Class object which represents the component
-			// type if this class represents an array type.
-			Class<?> paramElementType = param.getType().getComponentType();
-
-			// Check if all elements of the array are of the required type
-			for (Object objElement : valueArray) {
-				if (objElement != null
-						&& !paramElementType.isAssignableFrom(objElement
-						.getClass())) {
-					throw new JavaScriptMethodParamTypeInvalid(jsName, methodName, param);
-				}
-
-			}
-		} else if (value != null && !param.getType().isAssignableFrom(value.getClass())) {
-			throw new JavaScriptMethodParamTypeInvalid(jsName, methodName, param);
+		// Array views are copied, unless the property is declared as a view
+		value = JSView.resolve(value, property.getType());
+		Object resolvedValue = property.getConverter().convert(value);
+		if (resolvedValue == ParameterConverter.INVALID) {
+			throw new JavaScriptPropertyTypeInvalid(className, property);
 		}
+		return resolvedValue;
 	}
 
 	/**
@@ -458,4 +506,17 @@ final class JavaScriptCallback {
 		Debugger.getInstance().handleExceptionHit(jsContextPointer, ex);
 		throw ex;
 	}
+
+	/**
+	 * Callback called when a script has been terminated for exceeding its execution time limit.
+	 *
+	 * @param jsContextPointer Pointer to the JavaScript context which the script was executed.
+	 * @param timeLimit The execution time limit exceeded by the script, in milliseconds.
+	 */
+	static void throwTimeoutException(int jsContextPointer, long timeLimit)
+			throws JavaScriptTimeoutException {
+
+		TimedEvaluation.timedOut();
+		throw new JavaScriptTimeoutException(timeLimit);
+	}
 }
@@ -0,0 +1,65 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Group of JavaScript contexts which share a virtual machine. Contexts of a group reuse compiled
+ * code and heap structures, so they are created faster and use less memory than contexts created
+ * on their own. On the other hand, only one context of a group is executed at a time: evaluations
+ * started by other threads wait for the running one, since the group has a single watchdog which
+ * enforces the execution time limits.
+ *
+ * Each context has all registered classes, like the global context, but its own global object:
+ * scripts evaluated in a context don't change the other ones.
+ */
+public final class JavaScriptContextGroup {
+
+	/**
+	 * Pointer to the native context group.
+	 */
+	private int groupPointer;
+
+	/**
+	 * Lock held by the evaluations of the contexts of this group.
+	 */
+	private final ReentrantLock evaluationLock = new ReentrantLock();
+
+	/**
+	 * Creates a context group.
+	 */
+	public JavaScriptContextGroup() {
+		this.groupPointer = JavaScriptDroid.createContextGroup();
+	}
+
+	/**
+	 * Creates a JavaScript context in this group, with all registered classes.
+	 *
+	 * @return The pointer to the created JavaScript context.
+	 */
+	public synchronized int createContext() {
+		if(this.groupPointer == 0) {
+			throw new IllegalStateException("The group has been released");
+		}
+		return JavaScriptDroid.createRegisteredContext(this.groupPointer, this.evaluationLock);
+	}
+
+	/**
+	 * Releases a JavaScript context created by {@link #createContext()}.
+	 *
+	 * @param jsContextPointer The JavaScript context to be released.
+	 */
+	public void releaseContext(int jsContextPointer) {
+		JavaScriptDroid.releaseRegisteredContext(jsContextPointer);
+	}
+
+	/**
+	 * Releases this group. No more contexts can be created in it, but the contexts already created
+	 * can be used until they are released.
+	 */
+	public synchronized void release() {
+		if(this.groupPointer != 0) {
+			JavaScriptDroid.releaseContextGroup(this.groupPointer);
+			this.groupPointer = 0;
+		}
+	}
+}
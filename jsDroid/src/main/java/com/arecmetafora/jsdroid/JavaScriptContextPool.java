@@ -0,0 +1,269 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Pool of JavaScript contexts, so that scripts can be evaluated by many threads at the same time.
+ *
+ * Each context of the pool has all registered classes (including the ones registered after the
+ * pool was created) and all libraries added to the pool. A thread checks a context out with
+ * {@link #acquire()}, evaluates its scripts, and returns it with {@link #release(int)}:
+ *
+ * <pre>
+ * int jsContextPointer = pool.acquire();
+ * try {
+ *     JavaScriptDroid.evaluateScript(script, fileName, jsContextPointer);
+ * } finally {
+ *     pool.release(jsContextPointer);
+ * }
+ * </pre>
+ *
+ * A context must be used by one thread at a time, and objects created in a context must not be
+ * passed to another one.
+ *
+ * The contexts of a pool can be created in a {@link JavaScriptContextGroup}, so that they start
+ * faster and use less memory, at the cost of not being executed at the same time.
+ */
+public final class JavaScriptContextPool {
+
+	/**
+	 * Maximum number of contexts of this pool.
+	 */
+	private final int maxSize;
+
+	/**
+	 * The group which the contexts are created, or null if each context has its own group.
+	 */
+	private final JavaScriptContextGroup group;
+
+	/**
+	 * Scripts evaluated in each context before it is first used.
+	 */
+	private final ArrayList<CompiledScript> libraries = new ArrayList<>();
+
+	/**
+	 * The contexts which are not checked out.
+	 */
+	private final ArrayDeque<Integer> idleContexts = new ArrayDeque<>();
+
+	/**
+	 * The contexts which are checked out.
+	 */
+	private final HashSet<Integer> checkedOutContexts = new HashSet<>();
+
+	/**
+	 * Number of libraries evaluated in each context of this pool.
+	 */
+	private final HashMap<Integer, Integer> loadedLibraries = new HashMap<>();
+
+	/**
+	 * Execution time limit of the scripts evaluated in the contexts of this pool, in milliseconds.
+	 */
+	private long executionTimeLimit;
+
+	/**
+	 * Whether this pool has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Creates a pool of JavaScript contexts. Contexts are created when they are first needed.
+	 *
+	 * @param maxSize Maximum number of contexts of this pool.
+	 */
+	public JavaScriptContextPool(int maxSize) {
+		this(maxSize, null);
+	}
+
+	/**
+	 * Creates a pool of JavaScript contexts in a context group. Contexts are created when they are
+	 * first needed.
+	 *
+	 * @param maxSize Maximum number of contexts of this pool.
+	 * @param group The group which the contexts are created, or null to create each context in a
+	 * group of its own.
+	 */
+	public JavaScriptContextPool(int maxSize, JavaScriptContextGroup group) {
+		if(maxSize <= 0) {
+			throw new IllegalArgumentException("The pool must have at least one context");
+		}
+		this.maxSize = maxSize;
+		this.group = group;
+	}
+
+	/**
+	 * Adds a library, which is evaluated in each context of this pool before it is used.
+	 *
+	 * @param script The script of the library.
+	 * @param fileName The name of the file which this script was retrieved.
+	 */
+	public synchronized void addLibrary(String script, String fileName) throws JavaScriptException {
+		this.libraries.add(JavaScriptDroid.compileScript(script, fileName));
+	}
+
+	/**
+	 * Checks a context out of this pool, waiting until a context is available if all of them are
+	 * being used.
+	 *
+	 * @return The pointer to the JavaScript context.
+	 */
+	public int acquire() throws JavaScriptException, InterruptedException {
+		int jsContextPointer;
+		int loaded;
+		CompiledScript[] libraries;
+
+		synchronized (this) {
+			while(this.idleContexts.isEmpty() && this.loadedLibraries.size() == this.maxSize
+					&& !this.closed) {
+				wait();
+			}
+			if(this.closed) {
+				throw new IllegalStateException("The pool has been closed");
+			}
+
+			if(this.idleContexts.isEmpty()) {
+				jsContextPointer = this.group != null
+						? this.group.createContext()
+						: JavaScriptDroid.createRegisteredContext(0, null);
+				this.loadedLibraries.put(jsContextPointer, 0);
+				JavaScriptDroid.setExecutionTimeLimit(jsContextPointer, this.executionTimeLimit);
+			} else {
+				jsContextPointer = this.idleContexts.pop();
+			}
+			this.checkedOutContexts.add(jsContextPointer);
+
+			loaded = this.loadedLibraries.get(jsContextPointer);
+			libraries = this.libraries.toArray(new CompiledScript[this.libraries.size()]);
+		}
+
+		// Libraries are evaluated out of the lock, so that other contexts can be checked out
+		boolean loadedAll = false;
+		try {
+			for(; loaded < libraries.length; loaded++) {
+				libraries[loaded].evaluate(jsContextPointer);
+			}
+			loadedAll = true;
+		} finally {
+			synchronized (this) {
+				this.loadedLibraries.put(jsContextPointer, loaded);
+			}
+			if(!loadedAll) {
+				release(jsContextPointer);
+			}
+		}
+
+		return jsContextPointer;
+	}
+
+	/**
+	 * Returns a context to this pool. A context is returned once each time it is checked out.
+	 *
+	 * @param jsContextPointer The pointer to the JavaScript context.
+	 */
+	public synchronized void release(int jsContextPointer) {
+		if(!this.loadedLibraries.containsKey(jsContextPointer)) {
+			throw new IllegalArgumentException("The context does not belong to this pool");
+		}
+		if(!this.checkedOutContexts.remove(jsContextPointer)) {
+			throw new IllegalStateException("The context has already been returned to this pool");
+		}
+
+		if(this.closed) {
+			this.loadedLibraries.remove(jsContextPointer);
+			JavaScriptDroid.releaseRegisteredContext(jsContextPointer);
+			releaseLibrariesIfUnused();
+		} else {
+			this.idleContexts.push(jsContextPointer);
+			notify();
+		}
+	}
+
+	/**
+	 * Evaluates a JavaScript in a context of this pool.
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public Object evaluateScript(String script, String fileName)
+			throws JavaScriptException, InterruptedException {
+		int jsContextPointer = acquire();
+		try {
+			CompiledScript compiledScript = JavaScriptDroid.compileScript(script, fileName);
+			try {
+				return compiledScript.evaluate(jsContextPointer);
+			} finally {
+				compiledScript.release();
+			}
+		} finally {
+			release(jsContextPointer);
+		}
+	}
+
+	/**
+	 * Sets the execution time limit of the scripts evaluated in the contexts of this pool, so that
+	 * a runaway script does not hold a context forever (see
+	 * {@link JavaScriptDroid#setExecutionTimeLimit(int, long)}).
+	 *
+	 * @param timeLimit The execution time limit, in milliseconds, or 0 to remove the limit.
+	 */
+	public synchronized void setExecutionTimeLimit(long timeLimit) {
+		this.executionTimeLimit = timeLimit;
+		for(int jsContextPointer : this.loadedLibraries.keySet()) {
+			JavaScriptDroid.setExecutionTimeLimit(jsContextPointer, timeLimit);
+		}
+	}
+
+	/**
+	 * @return The execution time limit of the scripts evaluated in the contexts of this pool, in
+	 * milliseconds, or 0 if there is no limit.
+	 */
+	public synchronized long getExecutionTimeLimit() {
+		return this.executionTimeLimit;
+	}
+
+	/**
+	 * @return The maximum number of contexts of this pool.
+	 */
+	public int getMaxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * @return The number of contexts created by this pool.
+	 */
+	public synchronized int getSize() {
+		return this.loadedLibraries.size();
+	}
+
+	/**
+	 * Closes this pool, releasing its contexts. Contexts which are checked out are released when
+	 * they are returned, and the libraries once all contexts are released.
+	 */
+	public synchronized void close() {
+		this.closed = true;
+		while(!this.idleContexts.isEmpty()) {
+			int jsContextPointer = this.idleContexts.pop();
+			this.loadedLibraries.remove(jsContextPointer);
+			JavaScriptDroid.releaseRegisteredContext(jsContextPointer);
+		}
+		releaseLibrariesIfUnused();
+		notifyAll();
+	}
+
+	/**
+	 * Releases the libraries of a closed pool once none of its contexts may evaluate them.
+	 */
+	private void releaseLibrariesIfUnused() {
+		if(this.loadedLibraries.isEmpty()) {
+			for(CompiledScript library : this.libraries) {
+				library.release();
+			}
+			this.libraries.clear();
+		}
+	}
+}
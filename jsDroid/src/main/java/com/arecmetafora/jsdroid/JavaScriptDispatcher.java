@@ -0,0 +1,72 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Interface implemented to call the mapped members of a class directly, instead of using
+ * reflection.
+ *
+ * Members are identified by indexes of the names returned by {@link #getMethodNames()} and
+ * {@link #getPropertyNames()}, which are matched to the mapped members of the class when it is
+ * registered. Implementations usually switch on the index and call the member directly:
+ *
+ * <pre>
+ * public Object invoke(MyClass obj, int methodIndex, Object[] args) {
+ *     switch (methodIndex) {
+ *         case 0: return obj.methodM((Integer) args[0], (String) args[1]);
+ *         default: throw new IllegalArgumentException();
+ *     }
+ * }
+ * </pre>
+ *
+ * Arguments and property values are already validated and converted to the types of the mapped
+ * members. Members not covered by the dispatcher are still called by reflection.
+ *
+ * @param <T> The mapped class.
+ */
+public interface JavaScriptDispatcher<T> {
+
+	/**
+	 * @return The JavaScript names of the methods called by this dispatcher, by their index.
+	 */
+	String[] getMethodNames();
+
+	/**
+	 * @return The JavaScript names of the properties accessed by this dispatcher, by their index.
+	 */
+	String[] getPropertyNames();
+
+	/**
+	 * Creates a new instance of the mapped class.
+	 *
+	 * @param args The arguments of the mapped constructor.
+	 * @return The new instance.
+	 */
+	T newInstance(Object[] args) throws Exception;
+
+	/**
+	 * Calls a mapped method.
+	 *
+	 * @param obj The object which its method is being called.
+	 * @param methodIndex The index of the method, in {@link #getMethodNames()}.
+	 * @param args The arguments of the method.
+	 * @return The result of the method, or null if it returns void.
+	 */
+	Object invoke(T obj, int methodIndex, Object[] args) throws Exception;
+
+	/**
+	 * Gets the value of a mapped property.
+	 *
+	 * @param obj The object which its property is being gotten.
+	 * @param propertyIndex The index of the property, in {@link #getPropertyNames()}.
+	 * @return The value of the property.
+	 */
+	Object get(T obj, int propertyIndex) throws Exception;
+
+	/**
+	 * Sets the value of a mapped property.
+	 *
+	 * @param obj The object which its property is being set.
+	 * @param propertyIndex The index of the property, in {@link #getPropertyNames()}.
+	 * @param value The value of the property.
+	 */
+	void set(T obj, int propertyIndex, Object value) throws Exception;
+}
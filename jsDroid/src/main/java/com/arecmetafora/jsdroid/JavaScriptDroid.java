@@ -1,9 +1,23 @@
 package com.arecmetafora.jsdroid;
 
+import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.GregorianCalendar;
-import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Centers all functionalities of JavaScriptDroid library.
@@ -13,20 +27,88 @@ public final class JavaScriptDroid {
 	/**
 	 * All registered JavaScript classes by its name.
 	 */
-	private static HashMap<String, APIClass> apiClassesByName = new HashMap<>();
+	private static ConcurrentHashMap<String, APIClass> apiClassesByName = new ConcurrentHashMap<>();
 
 	/**
 	 * Registered JavaScript classes by the mapped native class.
 	 */
-	private static HashMap<Class<?>, APIClass> apiClassesByClass = new HashMap<>();
+	private static ConcurrentHashMap<Class<?>, APIClass> apiClassesByClass = new ConcurrentHashMap<>();
+
+	/**
+	 * Registered JavaScript classes by the very name instance handed to the native layer, which
+	 * hands it back on each construction (see {@link #getAPIClassByRegisteredName(String)}).
+	 * Constructions read the map without locking: it is never modified, but replaced by a
+	 * modified copy (under {@link #registeredNamesLock}) when classes are registered.
+	 */
+	private static volatile IdentityHashMap<String, APIClass> apiClassesByRegisteredName =
+			new IdentityHashMap<>();
+
+	/**
+	 * Lock held while the map of the classes by their registered names is replaced.
+	 */
+	private static final Object registeredNamesLock = new Object();
+
+	/**
+	 * Lazily registered classes by their JavaScript name (see {@link #registerClassLazily(Class)}).
+	 */
+	private static final ConcurrentHashMap<String, LazyClass> lazyClassesByName =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Lazily registered classes by the mapped native class.
+	 */
+	private static final ConcurrentHashMap<Class<?>, LazyClass> lazyClassesByClass =
+			new ConcurrentHashMap<>();
 
 	/**
 	 * Pointer to the global JavaScript context. This context is used in regular scenarios (event
 	 * scripts execution). Worker threads must use a separate context, since it can be executed at
-	 * the same time of other context executions.
+	 * the same time of other context executions (see {@link JavaScriptContextPool}).
 	 */
 	private static int jsGlobalContexPointer;
 
+	/**
+	 * Pointers to all contexts which the classes are registered to: the global context and the
+	 * contexts of the context pools.
+	 */
+	private static final ArrayList<Integer> jsContextPointers = new ArrayList<>();
+
+	/**
+	 * Cache of the scripts compiled by {@link #compileScript(String, String)} and of the functions
+	 * compiled by {@link #compileFunction(String, String...)}.
+	 */
+	private static final ScriptCache scriptCache = new ScriptCache(ScriptCache.DEFAULT_MAX_SIZE);
+
+	/**
+	 * Execution time limits of the scripts evaluated in each context, in milliseconds.
+	 */
+	private static final ConcurrentHashMap<Integer, Long> executionTimeLimits =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Locks held by the evaluations of each context, shared by the contexts of a group: the
+	 * watchdog of the JavaScript engine, which enforces the execution time limits, belongs to the
+	 * group.
+	 */
+	private static final ConcurrentHashMap<Integer, ReentrantLock> evaluationLocks =
+			new ConcurrentHashMap<>();
+
+	/**
+	 * Metrics of the evaluations which execution time is limited.
+	 */
+	private static final ExecutionTimeMetrics executionTimeMetrics = new ExecutionTimeMetrics();
+
+	/**
+	 * Marker of the scripts not evaluated by {@link #evaluateScripts(String[], String[], int)}.
+	 */
+	private static final Object NOT_EVALUATED = new Object();
+
+	/**
+	 * Executor of the scripts evaluated asynchronously, with a context of its own, created when it
+	 * is first needed.
+	 */
+	private static JavaScriptExecutor defaultExecutor;
+
 	/**
 	 * Private constructor.
 	 */
@@ -40,41 +122,331 @@ public final class JavaScriptDroid {
 
 		// Creates a global JavaScript context.
 		jsGlobalContexPointer = createJavaScriptContext();
+		jsContextPointers.add(jsGlobalContexPointer);
 	}
 
 	/**
 	 * Register a class in the global JavaScript context.
 	 *
+	 * If the class has a binding generated by the jsDroid annotation processor, its members are
+	 * mapped and called through it. Otherwise, they are found and called by reflection.
+	 *
 	 * @param clazz Class to be registered.
 	 */
 	public static void registerClass(Class<?> clazz) {
-		APIClass jsClass = new APIClass(clazz);
+		registerAPIClass(clazz, createAPIClass(clazz, null));
+	}
+
+	/**
+	 * Creates the mapping of a class.
+	 *
+	 * @param clazz The mapped class.
+	 * @param dispatcher The dispatcher which calls the mapped members of the class, or null to
+	 * use its generated binding or reflection.
+	 * @return The mapping of the class.
+	 */
+	private static APIClass createAPIClass(Class<?> clazz, JavaScriptDispatcher<?> dispatcher) {
+		if(dispatcher == null) {
+			JavaScriptBinding<?> binding = loadBinding(clazz);
+			if(binding != null) {
+				return new APIClass(binding);
+			}
+		}
+		return new APIClass(clazz, dispatcher);
+	}
+
+	/**
+	 * Register a class lazily in the global JavaScript context. Only the name of the class is
+	 * installed, as a placeholder: the class is mapped and registered to a context the first time
+	 * a script of the context references it, or an instance of it is given to the context. This
+	 * way, registering many classes costs only for the ones which are used.
+	 *
+	 * @param clazz Class to be registered.
+	 */
+	public static void registerClassLazily(Class<?> clazz) {
+		registerLazyClass(new LazyClass(clazz, null));
+	}
+
+	/**
+	 * Register a class lazily in the global JavaScript context, calling its mapped members through
+	 * a dispatcher instead of reflection (see {@link #registerClassLazily(Class)}).
+	 *
+	 * @param clazz Class to be registered.
+	 * @param dispatcher The dispatcher which calls the mapped members of the class.
+	 */
+	public static <T> void registerClassLazily(Class<T> clazz, JavaScriptDispatcher<T> dispatcher) {
+		registerLazyClass(new LazyClass(clazz, dispatcher));
+	}
+
+	/**
+	 * Installs the placeholder of a lazily registered class in the global context and in the
+	 * contexts of the context pools.
+	 *
+	 * @param lazyClass The lazily registered class.
+	 */
+	private static synchronized void registerLazyClass(LazyClass lazyClass) {
+		lazyClassesByName.put(lazyClass.jsName, lazyClass);
+		lazyClassesByClass.put(lazyClass.clazz, lazyClass);
+
+		for(int jsContextPointer : jsContextPointers) {
+			registerLazyJavaScriptClass(lazyClass.jsName, jsContextPointer);
+		}
+	}
+
+	/**
+	 * Gets the mapping of a lazily registered class, mapping the class the first time.
+	 *
+	 * @param lazyClass The lazily registered class.
+	 * @return The mapping of the class.
+	 */
+	private static APIClass mapLazyClass(LazyClass lazyClass) {
+		synchronized (lazyClass) {
+			if(lazyClass.apiClass == null) {
+				APIClass jsClass = createAPIClass(lazyClass.clazz, lazyClass.dispatcher);
+				putRegisteredName(jsClass,
+						apiClassesByName.put(jsClass.getJSName(), jsClass),
+						apiClassesByClass.put(lazyClass.clazz, jsClass));
+				lazyClass.apiClass = jsClass;
+			}
+			return lazyClass.apiClass;
+		}
+	}
+
+	/**
+	 * Gets the pointer to the definition of a class in a context, registering the class to the
+	 * context (replacing its placeholder) if it is lazily registered and has not been registered
+	 * to the context yet. The context is the one being executed by the current
+	 * thread, so no other thread registers classes to it at the same time.
+	 *
+	 * @param jsClass The mapping of the class.
+	 * @param jsContextPointer The pointer to the JavaScript context.
+	 * @return The pointer to the class definition in the context, or 0 if the class is not
+	 * registered to the context.
+	 */
+	static int resolveJSClassRef(APIClass jsClass, int jsContextPointer) {
+		int jsClassRef = jsClass.getJSClassRefPointer(jsContextPointer);
+		if(jsClassRef == 0 && lazyClassesByName.containsKey(jsClass.getJSName())) {
+			registerAPIClass(jsClass, jsContextPointer);
+			jsClassRef = jsClass.getJSClassRefPointer(jsContextPointer);
+		}
+		return jsClassRef;
+	}
+
+	/**
+	 * Registers a lazily registered class to a context, replacing its placeholder.
+	 *
+	 * @param jsName The JavaScript name of the class.
+	 * @param jsContextPointer The pointer to the JavaScript context which referenced the class.
+	 */
+	static void resolveLazyClass(String jsName, int jsContextPointer) {
+		LazyClass lazyClass = lazyClassesByName.get(jsName);
+		if(lazyClass != null) {
+			resolveJSClassRef(mapLazyClass(lazyClass), jsContextPointer);
+		}
+	}
+
+	/**
+	 * Gets the mapping of a class without mapping it if it is lazily registered.
+	 *
+	 * @param clazz The mapped class.
+	 * @return The mapping of the class, or null if it is not mapped yet.
+	 */
+	static APIClass peekAPIClass(Class<?> clazz) {
+		return apiClassesByClass.get(clazz);
+	}
+
+	/**
+	 * Register a class in the global JavaScript context, calling its mapped members through a
+	 * dispatcher instead of reflection.
+	 *
+	 * @param clazz Class to be registered.
+	 * @param dispatcher The dispatcher which calls the mapped members of the class, or null to
+	 * call them by reflection.
+	 */
+	public static <T> void registerClass(Class<T> clazz, JavaScriptDispatcher<T> dispatcher) {
+		registerAPIClass(clazz, new APIClass(clazz, dispatcher));
+	}
+
+	/**
+	 * Register a mapped class in the global JavaScript context and in the contexts of the context
+	 * pools.
+	 *
+	 * @param clazz Class to be registered.
+	 * @param jsClass The mapping of the class.
+	 */
+	private static synchronized void registerAPIClass(Class<?> clazz, APIClass jsClass) {
+		// An eager registration replaces a lazy one
+		if(lazyClassesByClass.remove(clazz) != null) {
+			lazyClassesByName.remove(jsClass.getJSName());
+		}
+
+		putRegisteredName(jsClass,
+				apiClassesByName.put(jsClass.getJSName(), jsClass),
+				apiClassesByClass.put(clazz, jsClass));
+
+		for(int jsContextPointer : jsContextPointers) {
+			registerAPIClass(jsClass, jsContextPointer);
+		}
+	}
+
+	/**
+	 * Maps a class by the name instance it is registered with, removing the classes it replaces.
+	 *
+	 * @param jsClass The mapping of the class.
+	 * @param replacedByName The class previously registered with the same JavaScript name, if any.
+	 * @param replacedByClass The class previously registered for the same Java class, if any.
+	 */
+	private static void putRegisteredName(APIClass jsClass, APIClass replacedByName,
+			APIClass replacedByClass) {
+		synchronized (registeredNamesLock) {
+			IdentityHashMap<String, APIClass> registeredNames =
+					new IdentityHashMap<>(apiClassesByRegisteredName);
+			for(APIClass replaced : new APIClass[] { replacedByName, replacedByClass }) {
+				if(replaced != null && replaced != jsClass
+						&& registeredNames.get(replaced.getJSName()) == replaced) {
+					registeredNames.remove(replaced.getJSName());
+				}
+			}
+			registeredNames.put(jsClass.getJSName(), jsClass);
+			apiClassesByRegisteredName = registeredNames;
+		}
+	}
+
+	/**
+	 * Register a mapped class in a JavaScript context.
+	 *
+	 * @param jsClass The mapping of the class.
+	 * @param jsContextPointer The pointer to the JavaScript context which the class is being
+	 * registered to.
+	 */
+	private static void registerAPIClass(APIClass jsClass, int jsContextPointer) {
+		int jsClassRef = registerJavaScriptClass(jsClass.getJSName(),
+				jsClass.getPropertyNames(), jsClass.getPropertyKinds(),
+				jsClass.getMethodNames(), jsClass.getMethodSignatures(), jsContextPointer);
+		jsClass.setJSClassRefPointer(jsContextPointer, jsClassRef);
+	}
+
+	/**
+	 * Creates a JavaScript context with all registered classes. Classes registered later are also
+	 * registered to it, until it is released by {@link #releaseRegisteredContext(int)}.
+	 *
+	 * @param jsContextGroupPointer The group of the context, or 0 to create the context in a group
+	 * of its own.
+	 * @param groupLock The lock held by the evaluations of the contexts of the group, or null if
+	 * the context has a group of its own.
+	 * @return The pointer to the created JavaScript context.
+	 */
+	static synchronized int createRegisteredContext(int jsContextGroupPointer,
+			ReentrantLock groupLock) {
+		int jsContextPointer = jsContextGroupPointer != 0
+				? createJavaScriptContextInGroup(jsContextGroupPointer)
+				: createJavaScriptContext();
+		evaluationLocks.put(jsContextPointer, groupLock != null ? groupLock : new ReentrantLock());
+		for(APIClass jsClass : apiClassesByClass.values()) {
+			if(!lazyClassesByName.containsKey(jsClass.getJSName())) {
+				registerAPIClass(jsClass, jsContextPointer);
+			}
+		}
+		for(LazyClass lazyClass : lazyClassesByName.values()) {
+			registerLazyJavaScriptClass(lazyClass.jsName, jsContextPointer);
+		}
+		jsContextPointers.add(jsContextPointer);
+		return jsContextPointer;
+	}
+
+	/**
+	 * Releases a JavaScript context created by {@link #createRegisteredContext(int, ReentrantLock)},
+	 * along with
+	 * the native definitions of the classes registered to it.
+	 *
+	 * @param jsContextPointer The JavaScript context to be released.
+	 */
+	static synchronized void releaseRegisteredContext(int jsContextPointer) {
+		executionTimeLimits.remove(jsContextPointer);
+		evaluationLocks.remove(jsContextPointer);
+		jsContextPointers.remove(Integer.valueOf(jsContextPointer));
+		for(APIClass jsClass : apiClassesByClass.values()) {
+			int jsClassRef = jsClass.removeJSClassRefPointer(jsContextPointer);
+			if(jsClassRef != 0) {
+				releaseMappedClass(jsClassRef, jsContextPointer);
+			}
+		}
+		releaseJavaScriptContext(jsContextPointer);
+	}
 
-		apiClassesByName.put(jsClass.getJSName(), jsClass);
-		apiClassesByClass.put(clazz, jsClass);
+	/**
+	 * Loads the binding generated at build time for a class.
+	 *
+	 * @param clazz The mapped class.
+	 * @return The binding of the class, or null if it has not been generated.
+	 */
+	private static JavaScriptBinding<?> loadBinding(Class<?> clazz) {
+		String className = clazz.getName();
+		String packagePrefix = className.substring(0, className.lastIndexOf('.') + 1);
+		String bindingName = packagePrefix
+				+ className.substring(packagePrefix.length()).replace('$', '_')
+				+ JavaScriptBinding.SUFFIX;
 
-		int jsClassRef = registerJavaScriptClass(jsClass.getJSName(), jsGlobalContexPointer);
-		jsClass.setJSClassRefPointer(jsClassRef);
+		try {
+			return (JavaScriptBinding<?>) Class.forName(bindingName, true, clazz.getClassLoader())
+					.getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException ex) {
+			return null;
+		} catch (Exception ex) {
+			Utils.log(ex);
+			return null;
+		}
 	}
 
 	/**
 	 * Register a class in a JavaScript context.
 	 *
 	 * @param jsName The name of the class to be registered.
+	 * @param propertyNames The names of the mapped properties, by their index.
+	 * @param propertyKinds The kinds of the mapped properties, by their index.
+	 * @param methodNames The names of the mapped methods, by their index.
+	 * @param methodSignatures The signatures of the mapped methods, by their index.
 	 * @param jsContextPointer The pointer to the JavaScript context which the class is being registered to.
 	 *
-	 * @return The reference to the JavaScript class definition, so this class can be instantiated
+	 * @return The reference to the native class definition, so this class can be instantiated
 	 * later by JavaScript engine execution.
 	 */
 	@SuppressWarnings("JniMissingFunction")
-	public static native int registerJavaScriptClass(String jsName, int jsContextPointer);
+	public static native int registerJavaScriptClass(String jsName,
+			String[] propertyNames, int[] propertyKinds,
+			String[] methodNames, int[] methodSignatures, int jsContextPointer);
 
 	/**
-	 * Evaluates a JavaScript.
+	 * Register a class lazily in a JavaScript context, installing a placeholder for its name.
+	 *
+	 * @param jsName The JavaScript name of the class.
+	 * @param jsContextPointer The pointer to the JavaScript context which the class is being
+	 * registered to.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void registerLazyJavaScriptClass(String jsName, int jsContextPointer);
+
+	/**
+	 * Releases the native definition of a class registered to a JavaScript context, before the
+	 * context is released.
+	 *
+	 * @param jsClassRef The reference to the native class definition.
+	 * @param jsContextPointer The pointer to the JavaScript context which the class was registered
+	 * to.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void releaseMappedClass(int jsClassRef, int jsContextPointer);
+
+	/**
+	 * Evaluates a JavaScript. The result is copied to Java: arrays and plain objects are converted
+	 * with all their elements and properties, and objects referenced more than once are converted
+	 * once, so results which reference themselves are returned as maps which contain themselves.
 	 *
 	 * @param script The script to be evaluated.
 	 *
 	 * @return The result of the evaluation.
+	 * @throws JavaScriptException If the script throws an error, or if its result is nested too
+	 * deeply ("Object nested too deeply"), even though the script itself ran.
 	 */
 	public static Object evaluateScript(String script)
 		throws JavaScriptException {
@@ -94,19 +466,511 @@ public final class JavaScriptDroid {
 		return evaluateScript(script, fileName, jsGlobalContexPointer);
 	}
 
+	/**
+	 * Evaluates a JavaScript, limited by the execution time limit of its context (see
+	 * {@link #setExecutionTimeLimit(int, long)}).
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public static Object evaluateScript(String script, String fileName, int jsContextPointer)
+			throws JavaScriptException {
+		return evaluateScript(script, fileName, jsContextPointer, 0);
+	}
+
+	/**
+	 * Evaluates a JavaScript, terminating it if it runs for longer than a time limit.
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 to use the
+	 * limit of the context.
+	 *
+	 * @return The result of the evaluation.
+	 * @throws JavaScriptTimeoutException If the script exceeds its time limit.
+	 * @throws JavaScriptException If the script throws an error, or if its result is nested too
+	 * deeply (see {@link #evaluateScript(String)}).
+	 */
+	public static Object evaluateScript(String script, String fileName, int jsContextPointer,
+			long timeLimit) throws JavaScriptException {
+		TimedEvaluation evaluation = TimedEvaluation.start(jsContextPointer,
+				getExecutionTimeLimit(jsContextPointer, timeLimit));
+		try {
+			return evaluateScriptInContext(script, fileName, jsContextPointer,
+					TimedEvaluation.getTimeLimit(evaluation));
+		} finally {
+			TimedEvaluation.finish(evaluation);
+		}
+	}
+
 	/**
 	 * Evaluates a JavaScript.
 	 *
 	 * @param script The script to be evaluated.
 	 * @param fileName The name of the file which this script was retrieved.
 	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no
+	 * limit.
 	 *
 	 * @return The result of the evaluation.
 	 */
 	@SuppressWarnings("JniMissingFunction")
-	public static native Object evaluateScript(String script, String fileName, int jsContextPointer)
+	static native Object evaluateScriptInContext(String script, String fileName,
+			int jsContextPointer, long timeLimit) throws JavaScriptException;
+
+	/**
+	 * Evaluates a JavaScript in the global context and serializes its result as JSON (as
+	 * <code>JSON.stringify</code> would), without converting it to native objects.
+	 *
+	 * @param script The script to be evaluated.
+	 *
+	 * @return The JSON text (see {@link #evaluateToJson(String, String, int)}).
+	 */
+	public static ByteBuffer evaluateToJson(String script) throws JavaScriptException {
+		return evaluateToJson(script, "", jsGlobalContexPointer);
+	}
+
+	/**
+	 * Evaluates a JavaScript and serializes its result as JSON (as <code>JSON.stringify</code>
+	 * would), without converting it to native objects, limited by the execution time limit of its
+	 * context (see {@link #setExecutionTimeLimit(int, long)}).
+	 *
+	 * The JSON text is held as UTF-16 characters by a new direct buffer, in the native byte order,
+	 * so that it is copied once from the JavaScript engine; read it with
+	 * {@link ByteBuffer#asCharBuffer()}, or pass it to {@link #parseJsonIntoContext(ByteBuffer,
+	 * String, int)} to copy the value to another context.
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The JSON text, or null if the result has no JSON representation (e.g. undefined).
+	 * @throws JavaScriptException If the script fails, or if its result can't be serialized (e.g.
+	 * it references itself).
+	 */
+	public static ByteBuffer evaluateToJson(String script, String fileName, int jsContextPointer)
+			throws JavaScriptException {
+		TimedEvaluation evaluation = TimedEvaluation.start(jsContextPointer,
+				getExecutionTimeLimit(jsContextPointer));
+		ByteBuffer json;
+		try {
+			json = evaluateToJsonInContext(script, fileName, jsContextPointer,
+					TimedEvaluation.getTimeLimit(evaluation));
+		} finally {
+			TimedEvaluation.finish(evaluation);
+		}
+		return json != null ? json.order(ByteOrder.nativeOrder()) : null;
+	}
+
+	/**
+	 * Evaluates a JavaScript and serializes its result as JSON.
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no
+	 * limit.
+	 *
+	 * @return The direct buffer holding the JSON text, or null.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native ByteBuffer evaluateToJsonInContext(String script, String fileName,
+			int jsContextPointer, long timeLimit) throws JavaScriptException;
+
+	/**
+	 * Parses a JSON text into a global variable of the global context, instead of building a
+	 * script which creates the value and evaluating it.
+	 *
+	 * @param json The JSON text (see {@link #parseJsonIntoContext(ByteBuffer, String, int)}).
+	 * @param name The name of the global variable.
+	 */
+	public static void parseJsonIntoContext(ByteBuffer json, String name)
+			throws JavaScriptException {
+		parseJsonIntoContext(json, name, jsGlobalContexPointer);
+	}
+
+	/**
+	 * Parses a JSON text into a global variable of a context, instead of building a script which
+	 * creates the value and evaluating it.
+	 *
+	 * The JSON text is read from the position to the limit of a direct buffer, as UTF-16
+	 * characters in the native byte order (as returned by
+	 * {@link #evaluateToJson(String, String, int)}), so that it is copied to the JavaScript engine
+	 * without being converted. The position of the buffer is not changed.
+	 *
+	 * @param json The direct buffer holding the JSON text.
+	 * @param name The name of the global variable.
+	 * @param jsContextPointer The context which the value will be created.
+	 * @throws JavaScriptException If the text is not valid JSON.
+	 * @throws IllegalArgumentException If the buffer is not direct, is not in the native byte
+	 * order, or its position or the number of bytes remaining is odd.
+	 */
+	public static void parseJsonIntoContext(ByteBuffer json, String name, int jsContextPointer)
+			throws JavaScriptException {
+		if(!json.isDirect()) {
+			throw new IllegalArgumentException("The JSON text must be held by a direct buffer");
+		}
+		if(json.order() != ByteOrder.nativeOrder()) {
+			throw new IllegalArgumentException("The JSON text must be in the native byte order");
+		}
+		if(json.position() % 2 != 0 || json.remaining() % 2 != 0) {
+			throw new IllegalArgumentException("The JSON text must be whole UTF-16 characters");
+		}
+		parseJsonIntoContext(json, json.position(), json.remaining() / 2, name, jsContextPointer);
+	}
+
+	/**
+	 * Parses a JSON text held as UTF-16 characters by a direct buffer into a global variable.
+	 *
+	 * @param buffer The direct buffer holding the JSON text, in the native byte order.
+	 * @param offset The offset of the JSON text in the buffer, in bytes.
+	 * @param length The number of characters of the JSON text.
+	 * @param name The name of the global variable.
+	 * @param jsContextPointer The context which the value will be created.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void parseJsonIntoContext(ByteBuffer buffer, int offset, int length, String name,
+			int jsContextPointer) throws JavaScriptException;
+
+	/**
+	 * Evaluates a list of JavaScripts in the global context, in order and in a single native call,
+	 * stopping at the first script which fails.
+	 *
+	 * @param scripts The scripts to be evaluated.
+	 * @param fileNames The names of the files which the scripts were retrieved.
+	 *
+	 * @return The result of each script.
+	 * @throws JavaScriptBatchException If a script fails, identifying it by its file name.
+	 */
+	public static Object[] evaluateScripts(String[] scripts, String[] fileNames)
+			throws JavaScriptException {
+		return evaluateScripts(scripts, fileNames, jsGlobalContexPointer);
+	}
+
+	/**
+	 * Evaluates a list of JavaScripts, in order and in a single native call, stopping at the first
+	 * script which fails. The execution time limit of the context applies to the whole list.
+	 *
+	 * @param scripts The scripts to be evaluated.
+	 * @param fileNames The names of the files which the scripts were retrieved.
+	 * @param jsContextPointer The context which the scripts will be executed.
+	 *
+	 * @return The result of each script.
+	 * @throws JavaScriptBatchException If a script fails, identifying it by its file name. A script
+	 * terminated by the time limit fails with a {@link JavaScriptTimeoutException} as the cause.
+	 */
+	public static Object[] evaluateScripts(String[] scripts, String[] fileNames,
+			int jsContextPointer) throws JavaScriptException {
+		if(scripts.length != fileNames.length) {
+			throw new IllegalArgumentException("Each script must have a file name");
+		}
+
+		// Scripts not evaluated keep the marker, so that the failed script can be found
+		Object[] results = new Object[scripts.length];
+		Arrays.fill(results, NOT_EVALUATED);
+
+		TimedEvaluation evaluation = TimedEvaluation.start(jsContextPointer,
+				getExecutionTimeLimit(jsContextPointer));
+		try {
+			evaluateScripts(scripts, fileNames, results, jsContextPointer,
+					TimedEvaluation.getTimeLimit(evaluation));
+		} catch (JavaScriptException ex) {
+			int failed = Arrays.asList(results).indexOf(NOT_EVALUATED);
+			throw new JavaScriptBatchException(failed, fileNames[failed],
+					Arrays.copyOf(results, failed), ex);
+		} finally {
+			TimedEvaluation.finish(evaluation);
+		}
+		return results;
+	}
+
+	/**
+	 * Evaluates a list of JavaScripts read from streams in the global context, in order and in a
+	 * single native call, stopping at the first script which fails. The readers are read to their
+	 * end, but not closed.
+	 *
+	 * @param readers The readers of the scripts to be evaluated.
+	 * @param fileNames The names of the files which the scripts were retrieved.
+	 *
+	 * @return The result of each script.
+	 * @throws JavaScriptBatchException If a script fails, identifying it by its file name.
+	 * @throws IOException If a script could not be read.
+	 */
+	public static Object[] evaluateScripts(Reader[] readers, String[] fileNames)
+			throws JavaScriptException, IOException {
+		return evaluateScripts(readers, fileNames, jsGlobalContexPointer);
+	}
+
+	/**
+	 * Evaluates a list of JavaScripts read from streams, in order and in a single native call,
+	 * stopping at the first script which fails. The readers are read to their end, but not closed.
+	 *
+	 * @param readers The readers of the scripts to be evaluated.
+	 * @param fileNames The names of the files which the scripts were retrieved.
+	 * @param jsContextPointer The context which the scripts will be executed.
+	 *
+	 * @return The result of each script.
+	 * @throws JavaScriptBatchException If a script fails, identifying it by its file name.
+	 * @throws IOException If a script could not be read.
+	 */
+	public static Object[] evaluateScripts(Reader[] readers, String[] fileNames,
+			int jsContextPointer) throws JavaScriptException, IOException {
+		String[] scripts = new String[readers.length];
+		char[] buffer = new char[8192];
+		StringBuilder script = new StringBuilder();
+		for(int i = 0; i < readers.length; i++) {
+			int read;
+			while((read = readers[i].read(buffer)) != -1) {
+				script.append(buffer, 0, read);
+			}
+			scripts[i] = script.toString();
+			script.setLength(0);
+		}
+		return evaluateScripts(scripts, fileNames, jsContextPointer);
+	}
+
+	/**
+	 * Evaluates a JavaScript held as UTF-16 characters by a direct buffer, without checking its
+	 * syntax (see {@link ScriptDiskCache}).
+	 *
+	 * @param buffer The direct buffer holding the script, in the native byte order.
+	 * @param length The number of characters of the script.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no
+	 * limit.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Object evaluateScriptBuffer(ByteBuffer buffer, int length, String fileName,
+			int jsContextPointer, long timeLimit) throws JavaScriptException;
+
+	/**
+	 * Evaluates a list of JavaScripts, stopping at the first script which fails.
+	 *
+	 * @param scripts The scripts to be evaluated.
+	 * @param fileNames The names of the files which the scripts were retrieved.
+	 * @param results The array which receives the result of each evaluated script.
+	 * @param jsContextPointer The context which the scripts will be executed.
+	 * @param timeLimit The execution time limit of all the scripts, in milliseconds, or 0 if they
+	 * have no limit.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void evaluateScripts(String[] scripts, String[] fileNames, Object[] results,
+			int jsContextPointer, long timeLimit) throws JavaScriptException;
+
+	/**
+	 * Evaluates a JavaScript asynchronously in the context of the default executor, on a thread
+	 * dedicated to it (see {@link #getDefaultExecutor()}).
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 *
+	 * @return The future result of the evaluation.
+	 */
+	public static Future<Object> evaluateScriptAsync(String script, String fileName) {
+		return getDefaultExecutor().evaluateScriptAsync(script, fileName);
+	}
+
+	/**
+	 * Evaluates a JavaScript asynchronously in the context of the default executor, on a thread
+	 * dedicated to it (see {@link #getDefaultExecutor()}).
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param callback The callback notified on the thread of the executor when the evaluation
+	 * finishes.
+	 *
+	 * @return The future result of the evaluation.
+	 */
+	public static Future<Object> evaluateScriptAsync(String script, String fileName,
+			EvaluationCallback callback) {
+		return getDefaultExecutor().evaluateScriptAsync(script, fileName, callback);
+	}
+
+	/**
+	 * Gets the executor of the scripts evaluated by {@link #evaluateScriptAsync(String, String)}.
+	 * The executor owns a context of its own, with all registered classes, since the global
+	 * context is evaluated by the calling threads.
+	 *
+	 * @return The default executor.
+	 */
+	public static synchronized JavaScriptExecutor getDefaultExecutor() {
+		if(defaultExecutor == null || defaultExecutor.isShutdown()) {
+			defaultExecutor = new JavaScriptExecutor(JavaScriptExecutor.DEFAULT_QUEUE_CAPACITY);
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Sets the execution time limit of the scripts evaluated in the global context.
+	 *
+	 * @param timeLimit The execution time limit, in milliseconds, or 0 to remove the limit.
+	 */
+	public static void setExecutionTimeLimit(long timeLimit) {
+		setExecutionTimeLimit(jsGlobalContexPointer, timeLimit);
+	}
+
+	/**
+	 * Sets the execution time limit of the scripts evaluated in a context. Scripts exceeding it are
+	 * terminated with a {@link JavaScriptTimeoutException}. The limit is measured in CPU time by
+	 * the engine and applies to each evaluation, including the ones of compiled scripts and
+	 * functions.
+	 *
+	 * Contexts of a {@link JavaScriptContextGroup} share the watchdog of their group, so their
+	 * evaluations are run one at a time, even by different threads.
+	 *
+	 * @param jsContextPointer The context which the limit is applied to.
+	 * @param timeLimit The execution time limit, in milliseconds, or 0 to remove the limit.
+	 */
+	public static void setExecutionTimeLimit(int jsContextPointer, long timeLimit) {
+		if(timeLimit > 0) {
+			executionTimeLimits.put(jsContextPointer, timeLimit);
+		} else {
+			executionTimeLimits.remove(jsContextPointer);
+		}
+	}
+
+	/**
+	 * Gets the execution time limit of the scripts evaluated in a context.
+	 *
+	 * @param jsContextPointer The context which the limit is applied to.
+	 *
+	 * @return The execution time limit, in milliseconds, or 0 if there is no limit.
+	 */
+	public static long getExecutionTimeLimit(int jsContextPointer) {
+		Long timeLimit = executionTimeLimits.get(jsContextPointer);
+		return timeLimit != null ? timeLimit : 0;
+	}
+
+	/**
+	 * Gets the lock held by the evaluations of a context, which is shared by the contexts of its
+	 * group, so that the watchdog of the group is armed and cleared by one evaluation at a time.
+	 *
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The lock of the context.
+	 */
+	static ReentrantLock getEvaluationLock(int jsContextPointer) {
+		ReentrantLock lock = evaluationLocks.get(jsContextPointer);
+		if(lock == null) {
+			// Contexts not created by createRegisteredContext (e.g. the global one) have their own group
+			ReentrantLock created = new ReentrantLock();
+			lock = evaluationLocks.putIfAbsent(jsContextPointer, created);
+			if(lock == null) {
+				lock = created;
+			}
+		}
+		return lock;
+	}
+
+	/**
+	 * Gets the time limit of an evaluation.
+	 *
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The time limit of the evaluation, or 0 to use the limit of the context.
+	 *
+	 * @return The execution time limit, in milliseconds, or 0 if there is no limit.
+	 */
+	static long getExecutionTimeLimit(int jsContextPointer, long timeLimit) {
+		return timeLimit > 0 ? timeLimit : getExecutionTimeLimit(jsContextPointer);
+	}
+
+	/**
+	 * Gets the metrics of the evaluations which execution time is limited, so that the limits can
+	 * be tuned.
+	 *
+	 * @return The execution time metrics.
+	 */
+	public static ExecutionTimeMetrics getExecutionTimeMetrics() {
+		return executionTimeMetrics;
+	}
+
+	/**
+	 * Compiles a JavaScript, so that it can be evaluated many times. The syntax of the script is
+	 * checked only once, and compiled scripts are cached (see {@link #getScriptCache()}). The
+	 * script must be released once it is no longer evaluated (see {@link CompiledScript#release()}).
+	 *
+	 * @param script The script to be compiled.
+	 *
+	 * @return The compiled script.
+	 */
+	public static CompiledScript compileScript(String script) throws JavaScriptException {
+		return compileScript(script, "");
+	}
+
+	/**
+	 * Compiles a JavaScript retrieved from a file, so that it can be evaluated many times. The
+	 * syntax of the script is checked only once, and compiled scripts are cached (see
+	 * {@link #getScriptCache()}). Cached scripts are shared by the callers compiling them, so
+	 * each call must be matched by a call to {@link CompiledScript#release()}.
+	 *
+	 * @param script The script to be compiled.
+	 * @param fileName The name of the file which this script was retrieved.
+	 *
+	 * @return The compiled script.
+	 */
+	public static CompiledScript compileScript(String script, String fileName)
+			throws JavaScriptException {
+		CompiledScript compiledScript = scriptCache.getScript(script, fileName);
+		if(compiledScript == null) {
+			compiledScript = new CompiledScript(script, fileName,
+					compileScript(script, fileName, jsGlobalContexPointer));
+			scriptCache.putScript(script, fileName, compiledScript);
+		}
+		return compiledScript;
+	}
+
+	/**
+	 * Gets the cache of compiled scripts and functions, so that its size can be changed and its
+	 * usage monitored.
+	 *
+	 * @return The cache of compiled scripts.
+	 */
+	public static ScriptCache getScriptCache() {
+		return scriptCache;
+	}
+
+	/**
+	 * Compiles a JavaScript.
+	 *
+	 * @param script The script to be compiled.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param jsContextPointer The context used to check the script syntax.
+	 *
+	 * @return The pointer to the compiled script.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native int compileScript(String script, String fileName, int jsContextPointer)
 			throws JavaScriptException;
 
+	/**
+	 * Evaluates a compiled JavaScript.
+	 *
+	 * @param scriptPointer The pointer to the compiled script.
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no
+	 * limit.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Object evaluateCompiledScript(int scriptPointer, int jsContextPointer,
+			long timeLimit) throws JavaScriptException;
+
+	/**
+	 * Releases a compiled JavaScript.
+	 *
+	 * @param scriptPointer The pointer to the compiled script.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void releaseCompiledScript(int scriptPointer);
+
 	/**
 	 * Evaluates an anonymous JavaScript function, which arguments are supplied by parameters.
 	 *
@@ -118,13 +982,181 @@ public final class JavaScriptDroid {
 	 */
 	public static Object evaluateScriptWithParameters(String script, String[] paramsNames,
 			Object... paramsValues) throws JavaScriptException {
+		JavaScriptFunction function = compileFunction(script, paramsNames);
+		try {
+			return function.call(paramsValues);
+		} finally {
+			function.release();
+		}
+	}
 
-		for(Object param : paramsValues) {
-			validateParameters(param);
+	/**
+	 * Compiles an anonymous JavaScript function in the global context, so that it can be called
+	 * many times. Compiled functions are cached by their body and argument names (see
+	 * {@link #getScriptCache()}), and shared by the callers compiling them, so each call must be
+	 * matched by a call to {@link JavaScriptFunction#release()}.
+	 *
+	 * @param script The body of the function.
+	 * @param paramsNames The name of function arguments.
+	 *
+	 * @return The compiled function.
+	 */
+	public static JavaScriptFunction compileFunction(String script, String... paramsNames)
+			throws JavaScriptException {
+		JavaScriptFunction function = scriptCache.getFunction(script, paramsNames);
+		if(function == null) {
+			// The names are copied, since the caller may change its array
+			paramsNames = paramsNames.clone();
+			function = new JavaScriptFunction(script, paramsNames,
+					compileFunction(script, paramsNames, jsGlobalContexPointer),
+					jsGlobalContexPointer);
+			scriptCache.putFunction(script, paramsNames, function);
 		}
+		return function;
+	}
 
-		return evaluateScriptWithParameters(script, paramsNames, paramsValues,
-				jsGlobalContexPointer);
+	/**
+	 * Compiles an anonymous JavaScript function.
+	 *
+	 * @param script The body of the function.
+	 * @param paramsNames The name of function arguments.
+	 * @param jsContextPointer The context which the function will be created.
+	 *
+	 * @return The pointer to the compiled function.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native int compileFunction(String script, String[] paramsNames, int jsContextPointer)
+			throws JavaScriptException;
+
+	/**
+	 * Calls a compiled JavaScript function.
+	 *
+	 * @param functionPointer The pointer to the compiled function.
+	 * @param paramsValues The argument values.
+	 * @param jsContextPointer The context which the function was created.
+	 * @param timeLimit The execution time limit of the call, in milliseconds, or 0 if it has no
+	 * limit.
+	 *
+	 * @return The result of the call.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Object callFunction(int functionPointer, Object[] paramsValues,
+			int jsContextPointer, long timeLimit) throws JavaScriptException;
+
+	/**
+	 * Releases a compiled JavaScript function.
+	 *
+	 * @param functionPointer The pointer to the compiled function.
+	 * @param jsContextPointer The context which the function was created.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void releaseFunction(int functionPointer, int jsContextPointer);
+
+	/**
+	 * Gets the length of a JavaScript array received as a view.
+	 *
+	 * @param objectPointer The pointer to the JavaScript array.
+	 * @param jsContextPointer The context which the array was created.
+	 *
+	 * @return The length of the array.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native int getArrayViewLength(int objectPointer, int jsContextPointer);
+
+	/**
+	 * Reads an element of a JavaScript array received as a view. Arrays and plain objects are
+	 * returned as views.
+	 *
+	 * @param objectPointer The pointer to the JavaScript array.
+	 * @param index The index of the element.
+	 * @param jsContextPointer The context which the array was created.
+	 *
+	 * @return The element.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Object getViewElement(int objectPointer, int index, int jsContextPointer)
+			throws JavaScriptException;
+
+	/**
+	 * Reads a property of a JavaScript object received as a view. Arrays and plain objects are
+	 * returned as views.
+	 *
+	 * @param objectPointer The pointer to the JavaScript object.
+	 * @param name The name of the property.
+	 * @param jsContextPointer The context which the object was created.
+	 *
+	 * @return The property value.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Object getViewProperty(int objectPointer, String name, int jsContextPointer)
+			throws JavaScriptException;
+
+	/**
+	 * Gets the names of the enumerable properties of a JavaScript object received as a view.
+	 *
+	 * @param objectPointer The pointer to the JavaScript object.
+	 * @param jsContextPointer The context which the object was created.
+	 *
+	 * @return The names of the properties.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native String[] getViewPropertyNames(int objectPointer, int jsContextPointer);
+
+	/**
+	 * Copies a JavaScript array received as a view to a native Java array.
+	 *
+	 * @param objectPointer The pointer to the JavaScript array.
+	 * @param jsContextPointer The context which the array was created.
+	 *
+	 * @return The copy of the array.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Object convertArrayView(int objectPointer, int jsContextPointer)
+			throws JavaScriptException;
+
+	/**
+	 * Copies a plain JavaScript object received as a view to a native Java map.
+	 *
+	 * @param objectPointer The pointer to the JavaScript object.
+	 * @param jsContextPointer The context which the object was created.
+	 *
+	 * @return The copy of the object.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native Map<String, Object> convertObjectView(int objectPointer, int jsContextPointer)
+			throws JavaScriptException;
+
+	/**
+	 * Releases a JavaScript array or object received as a view, so that it can be collected.
+	 *
+	 * @param objectPointer The pointer to the JavaScript object.
+	 * @param jsContextPointer The context which the object was created.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void releaseView(int objectPointer, int jsContextPointer);
+
+	/**
+	 * Evaluates an anonymous JavaScript function, which arguments are supplied by parameters,
+	 * limited by the execution time limit of its context (see
+	 * {@link #setExecutionTimeLimit(int, long)}).
+	 *
+	 * @param script A JavaScript to be executed.
+	 * @param paramsNames The name of function arguments.
+	 * @param paramsValues The argument values.
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public static Object evaluateScriptWithParameters(String script, String[] paramsNames,
+			Object[] paramsValues, int jsContextPointer) throws JavaScriptException {
+		TimedEvaluation evaluation = TimedEvaluation.start(jsContextPointer,
+				getExecutionTimeLimit(jsContextPointer));
+		try {
+			return evaluateScriptWithParametersInContext(script, paramsNames, paramsValues,
+					jsContextPointer, TimedEvaluation.getTimeLimit(evaluation));
+		} finally {
+			TimedEvaluation.finish(evaluation);
+		}
 	}
 
 	/**
@@ -134,27 +1166,51 @@ public final class JavaScriptDroid {
 	 * @param paramsNames The name of function arguments.
 	 * @param paramsValues The argument values.
 	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the script, in milliseconds, or 0 if it has no
+	 * limit.
 	 *
 	 * @return The result of the evaluation.
 	 */
 	@SuppressWarnings("JniMissingFunction")
-	public static native Object evaluateScriptWithParameters(String script, String[] paramsNames,
-			Object[] paramsValues, int jsContextPointer) throws JavaScriptException;
+	static native Object evaluateScriptWithParametersInContext(String script,
+			String[] paramsNames, Object[] paramsValues, int jsContextPointer, long timeLimit)
+			throws JavaScriptException;
 
 	/**
 	 * Validates the evaluate parameters
 	 *
 	 * @param param The parameters to be evaluated.
 	 */
-	private static void validateParameters(Object param) throws JavaScriptClassUnregistered {
+	static void validateParameters(Object param) throws JavaScriptClassUnregistered {
+		validateParameters(param, null);
+	}
+
+	/**
+	 * Validates an evaluate parameter, and the elements of arrays, maps and lists.
+	 *
+	 * @param param The parameter to be evaluated.
+	 * @param containers The arrays, maps and lists already validated, so that cycles are not
+	 * followed (they are reported when the parameter is converted), or null if there is none yet.
+	 */
+	private static void validateParameters(Object param, IdentityHashMap<Object, Object> containers)
+			throws JavaScriptClassUnregistered {
 		if(param != null) {
 			if(param instanceof Number || param instanceof Boolean || param instanceof String ||
 					param instanceof GregorianCalendar) {
 				// Primitives and dates are valid
 				return;
-			} else if(param instanceof Object[]) {
-				for(Object o : (Object[])(param)) {
-					validateParameters(o);
+			} else if(param instanceof Object[] || param instanceof Map || param instanceof List) {
+				if(containers == null) {
+					containers = new IdentityHashMap<>();
+				}
+				if(containers.put(param, param) != null) {
+					return;
+				}
+
+				Collection<?> elements = param instanceof Object[] ? Arrays.asList((Object[]) param)
+						: param instanceof Map ? ((Map<?, ?>) param).values() : (List<?>) param;
+				for(Object o : elements) {
+					validateParameters(o, containers);
 				}
 			} else if (getAPIClassByClass(param.getClass()) == null) {
 				throw new JavaScriptClassUnregistered(param.getClass());
@@ -162,6 +1218,21 @@ public final class JavaScriptDroid {
 		}
 	}
 
+	/**
+	 * Creates an instance of a registered class from a plain JavaScript object, received as a map
+	 * (e.g. the result of an evaluation). The mapped properties of the instance are set from the
+	 * entries with the same names, validating their types; nested maps are converted to the class
+	 * of their property.
+	 *
+	 * @param map The map which the instance will be created.
+	 * @param type The registered class.
+	 *
+	 * @return The new instance.
+	 */
+	public static <T> T toObject(Map<String, ?> map, Class<T> type) throws JavaScriptException {
+		return ObjectMarshaller.toObject(map, type);
+	}
+
 	/**
 	 * Gets the name of all properties mapped for a given class.
 	 *
@@ -196,7 +1267,29 @@ public final class JavaScriptDroid {
 	 * @return The mapped JavaScript class.
 	 */
 	static APIClass getAPIClassByName(String name) {
-		return apiClassesByName.get(name);
+		APIClass apiClass = apiClassesByName.get(name);
+		if(apiClass == null) {
+			LazyClass lazyClass = lazyClassesByName.get(name);
+			if(lazyClass != null) {
+				apiClass = mapLazyClass(lazyClass);
+			}
+		}
+		return apiClass;
+	}
+
+	/**
+	 * Gets the JavaScript mapped class registered to the native layer with a given name. The
+	 * lookup is by identity, so the name must be the instance the class was registered with. The
+	 * constructors of classes which have been replaced (and which scripts may still reference)
+	 * construct the class which replaced them.
+	 *
+	 * @param registeredName The name instance which the class was registered with.
+	 *
+	 * @return The mapped JavaScript class, or null if no class was registered with the name.
+	 */
+	static APIClass getAPIClassByRegisteredName(String registeredName) {
+		APIClass apiClass = apiClassesByRegisteredName.get(registeredName);
+		return apiClass != null ? apiClass : getAPIClassByName(registeredName);
 	}
 
 	/**
@@ -207,7 +1300,14 @@ public final class JavaScriptDroid {
 	 * @return The mapped JavaScript class.
 	 */
 	static APIClass getAPIClassByClass(Class<?> clazz) {
-		return apiClassesByClass.get(clazz);
+		APIClass apiClass = apiClassesByClass.get(clazz);
+		if(apiClass == null) {
+			LazyClass lazyClass = lazyClassesByClass.get(clazz);
+			if(lazyClass != null) {
+				apiClass = mapLazyClass(lazyClass);
+			}
+		}
+		return apiClass;
 	}
 
 	/**
@@ -218,6 +1318,32 @@ public final class JavaScriptDroid {
 	@SuppressWarnings("JniMissingFunction")
 	public static native int createJavaScriptContext();
 
+	/**
+	 * Create a new JavaScript context in a context group.
+	 *
+	 * @param jsContextGroupPointer The group of the context.
+	 *
+	 * @return The pointer to the created JavaScript context.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native int createJavaScriptContextInGroup(int jsContextGroupPointer);
+
+	/**
+	 * Create a new JavaScript context group.
+	 *
+	 * @return The pointer to the created group.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native int createContextGroup();
+
+	/**
+	 * Releases a JavaScript context group. The group is destroyed when its contexts are released.
+	 *
+	 * @param jsContextGroupPointer The group to be released.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	static native void releaseContextGroup(int jsContextGroupPointer);
+
 	/**
 	 * Releases a JavaScript context.
 	 *
@@ -260,4 +1386,37 @@ public final class JavaScriptDroid {
 	 */
 	@SuppressWarnings("JniMissingFunction")
 	public static native String getJavaScriptStackTrace(int jsContextPointer);
+
+	/**
+	 * A class registered lazily, which is mapped only when it is first used.
+	 */
+	private static final class LazyClass {
+
+		/**
+		 * The mapped class.
+		 */
+		final Class<?> clazz;
+
+		/**
+		 * The dispatcher of the class, or null.
+		 */
+		final JavaScriptDispatcher<?> dispatcher;
+
+		/**
+		 * The JavaScript name of the class.
+		 */
+		final String jsName;
+
+		/**
+		 * The mapping of the class, once it has been used.
+		 */
+		APIClass apiClass;
+
+		LazyClass(Class<?> clazz, JavaScriptDispatcher<?> dispatcher) {
+			JavaScriptMapped jsClassMapping = clazz.getAnnotation(JavaScriptMapped.class);
+			this.clazz = clazz;
+			this.dispatcher = dispatcher;
+			this.jsName = jsClassMapping != null ? jsClassMapping.name() : clazz.getSimpleName();
+		}
+	}
 }
@@ -0,0 +1,279 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Single thread which owns a JavaScript context and evaluates the scripts submitted to it, so that
+ * scripts can be evaluated from any thread (including the main thread) without blocking it.
+ *
+ * Submitted evaluations wait in a bounded queue. When the queue is full, new evaluations are
+ * rejected with a {@link RejectedExecutionException}, so that callers can slow down instead of
+ * piling up work (see {@link #getRemainingCapacity()}). The thread takes all the evaluations queued
+ * at once and evaluates them in one turn, without waking up between them.
+ *
+ * <pre>
+ * JavaScriptExecutor executor = new JavaScriptExecutor(64);
+ * executor.evaluateScriptAsync(script, "worker.js", new EvaluationCallback() {
+ *     public void onResult(Object result) { ... }
+ *     public void onError(Throwable error) { ... }
+ * });
+ * </pre>
+ */
+public final class JavaScriptExecutor {
+
+	/**
+	 * Default capacity of the queue of evaluations.
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+	/**
+	 * Task queued by {@link #shutdown()} to wake the thread up, which is never run.
+	 */
+	private static final FutureTask<Object> SHUTDOWN = new FutureTask<>(new Callable<Object>() {
+		@Override
+		public Object call() {
+			return null;
+		}
+	});
+
+	/**
+	 * Evaluations waiting to be executed.
+	 */
+	private final ArrayBlockingQueue<FutureTask<Object>> queue;
+
+	/**
+	 * The thread which evaluates the scripts.
+	 */
+	private final Thread thread;
+
+	/**
+	 * Pointer to the JavaScript context which the scripts are evaluated.
+	 */
+	private final int jsContextPointer;
+
+	/**
+	 * Number of turns executed by the thread.
+	 */
+	private volatile int turnCount;
+
+	/**
+	 * Whether this executor has been shut down.
+	 */
+	private volatile boolean shutdown;
+
+	/**
+	 * Creates an executor with its own JavaScript context, which has all registered classes.
+	 *
+	 * @param queueCapacity Maximum number of evaluations waiting to be executed.
+	 */
+	public JavaScriptExecutor(int queueCapacity) {
+		this.queue = new ArrayBlockingQueue<>(queueCapacity);
+		this.jsContextPointer = JavaScriptDroid.createRegisteredContext(0, null);
+		this.thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				loop();
+			}
+		}, "JavaScriptExecutor");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Evaluates queued scripts, one turn at a time, until this executor is shut down. The
+	 * evaluations queued after the shutdown are cancelled, including the rest of the turn which
+	 * was running.
+	 */
+	private void loop() {
+		ArrayList<FutureTask<Object>> turn = new ArrayList<>();
+		try {
+			while(!this.shutdown) {
+				turn.add(this.queue.take());
+				this.queue.drainTo(turn);
+				if(!this.shutdown) {
+					this.turnCount++;
+				}
+
+				for(FutureTask<Object> evaluation : turn) {
+					if(this.shutdown) {
+						cancel(evaluation);
+						continue;
+					}
+					try {
+						evaluation.run();
+					} catch (RuntimeException ex) {
+						// A failing callback must not stop the thread
+						Utils.log(ex);
+					}
+				}
+				turn.clear();
+			}
+		} catch (InterruptedException ignored) {
+			// Shut down
+		} finally {
+			this.queue.drainTo(turn);
+			for(FutureTask<Object> evaluation : turn) {
+				cancel(evaluation);
+			}
+			JavaScriptDroid.releaseRegisteredContext(this.jsContextPointer);
+		}
+	}
+
+	/**
+	 * Cancels a queued evaluation, skipping the task which wakes the thread up on shutdown.
+	 *
+	 * @param evaluation The evaluation to be cancelled.
+	 */
+	private static void cancel(FutureTask<Object> evaluation) {
+		if(evaluation != SHUTDOWN) {
+			evaluation.cancel(false);
+		}
+	}
+
+	/**
+	 * Evaluates a JavaScript in the thread of this executor.
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 *
+	 * @return The future result of the evaluation. Exceptions thrown by the script are wrapped by
+	 * an {@link ExecutionException}.
+	 * @throws RejectedExecutionException If the queue is full or the executor has been shut down.
+	 */
+	public Future<Object> evaluateScriptAsync(String script, String fileName) {
+		return submit(new Evaluation(script, fileName, null));
+	}
+
+	/**
+	 * Evaluates a JavaScript in the thread of this executor.
+	 *
+	 * @param script The script to be evaluated.
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param callback The callback notified on the thread of this executor when the evaluation
+	 * finishes.
+	 *
+	 * @return The future result of the evaluation.
+	 * @throws RejectedExecutionException If the queue is full or the executor has been shut down.
+	 */
+	public Future<Object> evaluateScriptAsync(String script, String fileName,
+			EvaluationCallback callback) {
+		return submit(new Evaluation(script, fileName, callback));
+	}
+
+	/**
+	 * Queues an evaluation.
+	 *
+	 * @param evaluation The evaluation to be queued.
+	 *
+	 * @return The queued evaluation.
+	 */
+	private Future<Object> submit(FutureTask<Object> evaluation) {
+		if(this.shutdown) {
+			throw new RejectedExecutionException("The executor has been shut down");
+		}
+		if(!this.queue.offer(evaluation)) {
+			throw new RejectedExecutionException("The queue of evaluations is full");
+		}
+
+		// The executor may have been shut down after the evaluation was checked
+		if(this.shutdown && this.queue.remove(evaluation)) {
+			evaluation.cancel(false);
+		}
+		return evaluation;
+	}
+
+	/**
+	 * @return The pointer to the JavaScript context which the scripts are evaluated.
+	 */
+	public int getContextPointer() {
+		return this.jsContextPointer;
+	}
+
+	/**
+	 * @return The number of evaluations waiting to be executed.
+	 */
+	public int getQueueSize() {
+		return this.queue.size();
+	}
+
+	/**
+	 * @return The number of evaluations which can be queued before new ones are rejected.
+	 */
+	public int getRemainingCapacity() {
+		return this.queue.remainingCapacity();
+	}
+
+	/**
+	 * @return The number of turns executed by the thread of this executor.
+	 */
+	public int getTurnCount() {
+		return this.turnCount;
+	}
+
+	/**
+	 * @return Whether this executor has been shut down.
+	 */
+	public boolean isShutdown() {
+		return this.shutdown;
+	}
+
+	/**
+	 * Shuts this executor down. The running evaluation finishes, the queued ones are cancelled,
+	 * and the context is released. The thread is not interrupted, so that the running evaluation
+	 * (and the Java methods it calls) is not disturbed: it is woken up by a task queued after the
+	 * evaluations, or finds the executor shut down after its turn if the queue is full.
+	 */
+	public void shutdown() {
+		this.shutdown = true;
+		this.queue.offer(SHUTDOWN);
+	}
+
+	/**
+	 * An evaluation of a script in the context of the executor.
+	 */
+	private final class Evaluation extends FutureTask<Object> {
+
+		/**
+		 * The callback notified when the evaluation finishes, or null.
+		 */
+		private final EvaluationCallback callback;
+
+		/**
+		 * Creates an evaluation.
+		 *
+		 * @param script The script to be evaluated.
+		 * @param fileName The name of the file which this script was retrieved.
+		 * @param callback The callback notified when the evaluation finishes, or null.
+		 */
+		Evaluation(final String script, final String fileName, EvaluationCallback callback) {
+			super(new Callable<Object>() {
+				@Override
+				public Object call() throws JavaScriptException {
+					return JavaScriptDroid.evaluateScript(script, fileName, jsContextPointer);
+				}
+			});
+			this.callback = callback;
+		}
+
+		@Override
+		protected void done() {
+			if(this.callback == null || isCancelled()) {
+				return;
+			}
+
+			try {
+				this.callback.onResult(get());
+			} catch (ExecutionException ex) {
+				this.callback.onError(ex.getCause());
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
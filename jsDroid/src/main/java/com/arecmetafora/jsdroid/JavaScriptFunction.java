@@ -0,0 +1,212 @@
+package com.arecmetafora.jsdroid;
+
+import java.io.Closeable;
+
+/**
+ * An anonymous JavaScript function compiled once to be called many times with different arguments,
+ * skipping the creation of the function made by
+ * {@link JavaScriptDroid#evaluateScriptWithParameters(String, String[], Object...)} on every call.
+ *
+ * Functions are created in the global JavaScript context by
+ * {@link JavaScriptDroid#compileFunction(String, String...)}, which returns the same instance to
+ * every caller compiling the same function while it is cached. Functions are protected from the
+ * JavaScript garbage collector until each call has been matched by a call to {@link #release()}
+ * (or {@link #close()}), the cache evicted them and no call of them is running.
+ */
+public final class JavaScriptFunction implements CachedScript, Closeable {
+
+	/**
+	 * Number of bytes held by the native function.
+	 */
+	private final int size;
+
+	/**
+	 * Number of arguments of the function.
+	 */
+	private final int parameterCount;
+
+	/**
+	 * Pointer to the JavaScript context which the function was created.
+	 */
+	private final int jsContextPointer;
+
+	/**
+	 * Number of callers of {@link JavaScriptDroid#compileFunction(String, String...)} which have
+	 * not released this function yet.
+	 */
+	private int references = 1;
+
+	/**
+	 * Number of calls of this function currently running.
+	 */
+	private int calls;
+
+	/**
+	 * Whether this function is kept by the {@link ScriptCache}.
+	 */
+	private boolean cached;
+
+	/**
+	 * Pointer to the native function, or 0 if it has been released.
+	 */
+	private int functionPointer;
+
+	/**
+	 * Creates a compiled function.
+	 *
+	 * @param script The body of the function.
+	 * @param paramsNames The name of function arguments.
+	 * @param functionPointer Pointer to the native function.
+	 * @param jsContextPointer Pointer to the JavaScript context which the function was created.
+	 */
+	JavaScriptFunction(String script, String[] paramsNames, int functionPointer,
+			int jsContextPointer) {
+		int size = script.length();
+		for(String paramName : paramsNames) {
+			size += paramName.length();
+		}
+		this.size = 2 * size;
+		this.parameterCount = paramsNames.length;
+		this.functionPointer = functionPointer;
+		this.jsContextPointer = jsContextPointer;
+	}
+
+	/**
+	 * Calls this function, limited by the execution time limit of its context (see
+	 * {@link JavaScriptDroid#setExecutionTimeLimit(int, long)}).
+	 *
+	 * @param paramsValues The argument values.
+	 *
+	 * @return The result of the call.
+	 * @throws IllegalStateException If the function has been released.
+	 */
+	public Object call(Object... paramsValues) throws JavaScriptException {
+		for(Object param : paramsValues) {
+			JavaScriptDroid.validateParameters(param);
+		}
+
+		int functionPointer = startCall();
+		try {
+			TimedEvaluation evaluation = TimedEvaluation.start(this.jsContextPointer,
+					JavaScriptDroid.getExecutionTimeLimit(this.jsContextPointer));
+			try {
+				return JavaScriptDroid.callFunction(functionPointer, paramsValues,
+						this.jsContextPointer, TimedEvaluation.getTimeLimit(evaluation));
+			} finally {
+				TimedEvaluation.finish(evaluation);
+			}
+		} finally {
+			finishCall();
+		}
+	}
+
+	/**
+	 * Holds the native function while it is called, so that it is not released meanwhile.
+	 *
+	 * @return The pointer to the native function.
+	 * @throws IllegalStateException If the function has been released.
+	 */
+	private synchronized int startCall() {
+		if(this.functionPointer == 0) {
+			throw new IllegalStateException("The function has been released");
+		}
+		this.calls++;
+		return this.functionPointer;
+	}
+
+	/**
+	 * Ends a call, releasing the native function if it is no longer used.
+	 */
+	private synchronized void finishCall() {
+		this.calls--;
+		releaseIfUnused();
+	}
+
+	/**
+	 * @return The number of arguments of this function.
+	 */
+	public int getParameterCount() {
+		return this.parameterCount;
+	}
+
+	/**
+	 * Gets the number of bytes held by this function. The body and the argument names of the
+	 * function are held as UTF-16 strings by the JavaScript engine.
+	 *
+	 * @return The size of this function, in bytes.
+	 */
+	@Override
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Adds a reference to this function, for another caller which compiled it.
+	 */
+	@Override
+	public synchronized void retain() {
+		this.references++;
+	}
+
+	/**
+	 * Sets whether this function is kept by the cache, releasing the native function if it has
+	 * been evicted and is no longer used.
+	 *
+	 * @param cached Whether this function is cached.
+	 */
+	@Override
+	public synchronized void setCached(boolean cached) {
+		this.cached = cached;
+		releaseIfUnused();
+	}
+
+	/**
+	 * Releases this function. Every compilation which returned it must release it once, after
+	 * which it must no longer be called by the caller.
+	 *
+	 * @throws IllegalStateException If the function has been released by every caller already.
+	 */
+	public synchronized void release() {
+		if(this.references == 0) {
+			throw new IllegalStateException("The function has already been released");
+		}
+		this.references--;
+		releaseIfUnused();
+	}
+
+	/**
+	 * Releases this function (see {@link #release()}).
+	 */
+	@Override
+	public void close() {
+		release();
+	}
+
+	/**
+	 * Unprotects the native function if no caller, call nor the cache holds it.
+	 */
+	private void releaseIfUnused() {
+		if(this.references == 0 && this.calls == 0 && !this.cached && this.functionPointer != 0) {
+			JavaScriptDroid.releaseFunction(this.functionPointer, this.jsContextPointer);
+			this.functionPointer = 0;
+		}
+	}
+
+	/**
+	 * Unprotects the native function of a function which was not released by its callers, so
+	 * that it is not leaked. Callers must not rely on it: the leak is logged.
+	 */
+	@Override
+	protected void finalize() throws Throwable {
+		try {
+			if(this.functionPointer != 0) {
+				Utils.log("A compiled function with " + this.parameterCount
+						+ " arguments was not released");
+				JavaScriptDroid.releaseFunction(this.functionPointer, this.jsContextPointer);
+				this.functionPointer = 0;
+			}
+		} finally {
+			super.finalize();
+		}
+	}
+}
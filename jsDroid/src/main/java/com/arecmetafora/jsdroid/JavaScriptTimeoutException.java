@@ -0,0 +1,30 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Exception thrown when a script is terminated for exceeding its execution time limit.
+ */
+public final class JavaScriptTimeoutException extends JavaScriptException {
+
+	/**
+	 * The execution time limit exceeded by the script, in milliseconds.
+	 */
+	private final long timeLimit;
+
+	/**
+	 * Creates a new exception.
+	 *
+	 * @param timeLimit The execution time limit exceeded by the script, in milliseconds.
+	 */
+	JavaScriptTimeoutException(long timeLimit) {
+		super(String.format("Script terminated after exceeding its execution time limit of %d ms",
+				timeLimit), null);
+		this.timeLimit = timeLimit;
+	}
+
+	/**
+	 * @return The execution time limit exceeded by the script, in milliseconds.
+	 */
+	public long getTimeLimit() {
+		return this.timeLimit;
+	}
+}
@@ -0,0 +1,16 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Calls a mapped method of a Java object.
+ */
+interface MethodInvoker {
+
+	/**
+	 * Calls the method.
+	 *
+	 * @param obj The object which its method is being called.
+	 * @param args The resolved arguments of the method.
+	 * @return The result of the method.
+	 */
+	Object invoke(Object obj, Object[] args) throws Exception;
+}
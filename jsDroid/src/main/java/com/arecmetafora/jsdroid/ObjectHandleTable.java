@@ -0,0 +1,204 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Table of native Java objects referenced by JavaScript instances.
+ *
+ * Each allocated object receives a handle composed by a slot index and a generation counter. Slot
+ * indexes are allocated monotonically and reused after being released, while the generation is
+ * increased every time a slot is released, so that stale handles are never resolved to a newer
+ * object. Objects are tracked by identity, so distinct objects never share a slot, even when their
+ * hash codes collide.
+ *
+ * Lookups are lock-free. Only allocations and releases are synchronized.
+ */
+final class ObjectHandleTable {
+
+	/**
+	 * Number of bits of the handle used to store the slot index.
+	 */
+	private static final int INDEX_BITS = 20;
+
+	/**
+	 * Mask to extract the slot index of a handle.
+	 */
+	private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+	/**
+	 * Mask to wrap the generation counter of a slot.
+	 */
+	private static final int GENERATION_MASK = (1 << (Integer.SIZE - INDEX_BITS)) - 1;
+
+	/**
+	 * Maximum number of slots this table can hold.
+	 */
+	private static final int MAX_CAPACITY = 1 << INDEX_BITS;
+
+	/**
+	 * Allocated objects by their slot index. The array is replaced (never shrunk) when the table grows.
+	 */
+	private volatile AtomicReferenceArray<AllocationInfo> slots;
+
+	/**
+	 * Current generation of each slot.
+	 */
+	private int[] generations;
+
+	/**
+	 * Stack of released slots, ready to be reused.
+	 */
+	private int[] freeSlots;
+
+	/**
+	 * Number of released slots in the stack.
+	 */
+	private int freeSlotCount;
+
+	/**
+	 * The next slot which has never been allocated.
+	 */
+	private int nextSlot;
+
+	/**
+	 * Allocated objects by their identity.
+	 */
+	private final IdentityHashMap<Object, AllocationInfo> allocationsByObject = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new handle table.
+	 *
+	 * @param initialCapacity The initial number of slots.
+	 */
+	ObjectHandleTable(int initialCapacity) {
+		this.slots = new AtomicReferenceArray<>(initialCapacity);
+		this.generations = new int[initialCapacity];
+		this.freeSlots = new int[initialCapacity];
+		Arrays.fill(this.generations, 1);
+	}
+
+	/**
+	 * Holds a reference to an object. If the object is already allocated, its number of references
+	 * is increased and the same handle is returned.
+	 *
+	 * @param object The object to be allocated.
+	 * @return The handle of the object.
+	 */
+	synchronized int alloc(Object object) {
+		AllocationInfo allocInfo = allocationsByObject.get(object);
+		if (allocInfo != null) {
+			allocInfo.allocReference();
+			return allocInfo.getHandle();
+		}
+
+		int slot;
+		if (freeSlotCount > 0) {
+			slot = freeSlots[--freeSlotCount];
+		} else {
+			if (nextSlot == slots.length()) {
+				grow();
+			}
+			slot = nextSlot++;
+		}
+
+		int handle = (generations[slot] << INDEX_BITS) | slot;
+		allocInfo = new AllocationInfo(object, handle);
+		allocationsByObject.put(object, allocInfo);
+		slots.set(slot, allocInfo);
+
+		return handle;
+	}
+
+	/**
+	 * Releases one reference of an object.
+	 *
+	 * @param handle The handle of the object.
+	 * @return The object, if its last reference was released. Null, otherwise.
+	 */
+	synchronized Object release(int handle) {
+		int slot = handle & INDEX_MASK;
+		AllocationInfo allocInfo = lookup(slots, handle);
+
+		// The object reference has been already released.
+		if (allocInfo == null) {
+			return null;
+		}
+
+		if (!allocInfo.isUniqueReference()) {
+			allocInfo.deallocReference();
+			return null;
+		}
+
+		slots.set(slot, null);
+		allocationsByObject.remove(allocInfo.getObjectReference());
+
+		// Invalidates all handles pointing to this slot before reusing it
+		generations[slot] = Math.max((generations[slot] + 1) & GENERATION_MASK, 1);
+		freeSlots[freeSlotCount++] = slot;
+
+		return allocInfo.getObjectReference();
+	}
+
+	/**
+	 * Gets an allocated object.
+	 *
+	 * @param handle The handle of the object.
+	 * @return The object, or null if the handle has been already released.
+	 */
+	Object get(int handle) {
+		AllocationInfo allocInfo = lookup(slots, handle);
+		return allocInfo != null ? allocInfo.getObjectReference() : null;
+	}
+
+	/**
+	 * @return The number of objects currently allocated.
+	 */
+	synchronized int size() {
+		return allocationsByObject.size();
+	}
+
+	/**
+	 * Finds the allocation of a handle, checking its generation.
+	 *
+	 * @param slots The slots to search.
+	 * @param handle The handle of the object.
+	 * @return The allocation information, or null if the handle is stale.
+	 */
+	private static AllocationInfo lookup(AtomicReferenceArray<AllocationInfo> slots, int handle) {
+		int slot = handle & INDEX_MASK;
+		if (slot >= slots.length()) {
+			return null;
+		}
+
+		AllocationInfo allocInfo = slots.get(slot);
+		if (allocInfo == null || allocInfo.getHandle() != handle) {
+			return null;
+		}
+		return allocInfo;
+	}
+
+	/**
+	 * Doubles the number of slots of this table.
+	 */
+	private void grow() {
+		int capacity = slots.length();
+		if (capacity >= MAX_CAPACITY) {
+			throw new IllegalStateException("Too many objects referenced by JavaScript");
+		}
+
+		int newCapacity = Math.min(Math.max(capacity * 2, 16), MAX_CAPACITY);
+
+		AtomicReferenceArray<AllocationInfo> newSlots = new AtomicReferenceArray<>(newCapacity);
+		for (int i = 0; i < capacity; i++) {
+			newSlots.set(i, slots.get(i));
+		}
+
+		generations = Arrays.copyOf(generations, newCapacity);
+		Arrays.fill(generations, capacity, newCapacity, 1);
+		freeSlots = Arrays.copyOf(freeSlots, newCapacity);
+
+		slots = newSlots;
+	}
+}
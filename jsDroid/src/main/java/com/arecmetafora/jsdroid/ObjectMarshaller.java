@@ -0,0 +1,146 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exchanges structured data between Java and JavaScript without JSON text in between. Plain
+ * JavaScript objects are converted to maps by the native layer, which converts maps and lists
+ * back to plain objects and arrays; this class fills registered classes from those maps.
+ */
+final class ObjectMarshaller {
+
+	private ObjectMarshaller() {
+	}
+
+	/**
+	 * Reads the entries of a map, so that the native layer converts it with a single call. Keys are
+	 * converted to strings, since they are used as property names.
+	 *
+	 * @param map The map to be converted to a JavaScript object.
+	 * @return The keys and values of the map, alternated.
+	 */
+	static Object[] entries(Map<?, ?> map) {
+		Object[] entries = new Object[2 * map.size()];
+		int i = 0;
+		for(Map.Entry<?, ?> entry : map.entrySet()) {
+			entries[i++] = String.valueOf(entry.getKey());
+			entries[i++] = entry.getValue();
+		}
+		return entries;
+	}
+
+	/**
+	 * Copies an array received from JavaScript to a list, boxing the elements of the arrays of
+	 * numbers and booleans.
+	 *
+	 * @param array The array received from JavaScript.
+	 * @return The list of the elements of the array.
+	 */
+	static List<Object> toList(Object array) {
+		return new ArrayList<>(Arrays.asList((Object[]) ParameterConverter.box(array)));
+	}
+
+	/**
+	 * Creates an instance of a registered class, setting its mapped properties from the entries of
+	 * a map with the same names. Properties missing from the map keep their initial value.
+	 *
+	 * @param map The map received from JavaScript (or built by the application).
+	 * @param type The registered class.
+	 * @return The new instance.
+	 * @throws JavaScriptClassUnregistered If the class (or the class of a nested map) is not
+	 * registered.
+	 * @throws JavaScriptPropertyTypeInvalid If a value can not be converted to the type of its
+	 * property.
+	 */
+	static <T> T toObject(Map<?, ?> map, Class<T> type) throws JavaScriptException {
+		return type.cast(toObject(map, type, new IdentityHashMap<Map<?, ?>, Object>()));
+	}
+
+	/**
+	 * Creates an instance of a registered class from a map. Maps which reference themselves are
+	 * converted to objects which reference themselves.
+	 *
+	 * @param map The map to be converted.
+	 * @param type The registered class.
+	 * @param converting The instances being filled, by their map.
+	 * @return The new instance.
+	 */
+	private static Object toObject(Map<?, ?> map, Class<?> type, IdentityHashMap<Map<?, ?>, Object> converting)
+			throws JavaScriptException {
+		Object instance = converting.get(map);
+		if(instance != null) {
+			return instance;
+		}
+
+		APIClass apiClass = JavaScriptDroid.getAPIClassByClass(type);
+		if(apiClass == null) {
+			throw new JavaScriptClassUnregistered(type);
+		}
+
+		instance = newInstance(apiClass, type);
+		converting.put(map, instance);
+
+		Enumeration<APIProperty> properties = apiClass.getProperties();
+		while(properties.hasMoreElements()) {
+			APIProperty property = properties.nextElement();
+			if(!map.containsKey(property.getJSName())) {
+				continue;
+			}
+
+			Object value = map.get(property.getJSName());
+			if(value == null) {
+				if(!property.isOptional()) {
+					throw new JavaScriptPropertyRequired(apiClass.getJSName(), property.getJSName());
+				}
+			} else {
+				if(value instanceof Map && !property.getType().isInstance(value)) {
+					value = toObject((Map<?, ?>) value, property.getType(), converting);
+				} else if(value.getClass().isArray() && property.getType() != Object.class
+						&& property.getType().isAssignableFrom(List.class)) {
+					value = toList(value);
+				}
+
+				value = property.getConverter().convert(value);
+				if(value == ParameterConverter.INVALID) {
+					throw new JavaScriptPropertyTypeInvalid(apiClass.getJSName(), property);
+				}
+			}
+
+			try {
+				property.getAccessor().set(instance, value);
+			} catch (Exception ex) {
+				throw new JavaScriptException(String.format("Property '%s' of '%s' could not be set: %s",
+						property.getJSName(), apiClass.getJSName(), ex));
+			}
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Creates an instance of a registered class, through its mapped constructor if it takes no
+	 * arguments, or through its public constructor without arguments otherwise.
+	 *
+	 * @param apiClass The mapping of the class.
+	 * @param type The registered class.
+	 * @return The new instance.
+	 */
+	private static Object newInstance(APIClass apiClass, Class<?> type) throws JavaScriptException {
+		try {
+			if(apiClass.getConstructorInvoker() != null
+					&& apiClass.getConstructorParameters().length == 0) {
+				return apiClass.getConstructorInvoker().newInstance(new Object[0]);
+			}
+
+			return type.getConstructor().newInstance();
+		} catch (Exception ex) {
+			throw new JavaScriptException(String.format("Class '%s' could not be instantiated: %s",
+					apiClass.getJSName(), ex));
+		}
+	}
+}
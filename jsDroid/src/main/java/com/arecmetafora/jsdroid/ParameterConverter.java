@@ -0,0 +1,406 @@
+package com.arecmetafora.jsdroid;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Converts the values received from JavaScript to the type of a parameter or property, validating
+ * type casts. The converter of each parameter is chosen once, when its class is registered, so
+ * that calls don't need to check which conversion applies.
+ */
+abstract class ParameterConverter {
+
+	/**
+	 * Value returned when a value can not be converted to the parameter type.
+	 */
+	static final Object INVALID = new Object();
+
+	/**
+	 * Arrays received from unsigned typed arrays (Uint8Array, Uint8ClampedArray, Uint16Array and
+	 * Uint32Array), which are received as the Java array of the same element size. Arrays have
+	 * identity equality, so the map holds each array weakly, until it is collected.
+	 */
+	private static final Map<Object, Boolean> unsignedArrays =
+			Collections.synchronizedMap(new WeakHashMap<Object, Boolean>());
+
+	/**
+	 * Converts a value.
+	 *
+	 * @param value The value received from JavaScript (never null).
+	 * @return The converted value, or {@link #INVALID} if the value is not valid for the parameter.
+	 */
+	abstract Object convert(Object value);
+
+	/**
+	 * Converts a number, or a boolean (as 0 or 1), received unboxed from JavaScript.
+	 *
+	 * @param value The value received from JavaScript.
+	 * @return The converted value.
+	 */
+	Object convertPrimitive(double value) {
+		return convert(value);
+	}
+
+	/**
+	 * Marks an array received from an unsigned typed array, so that its elements are zero-extended
+	 * when they are copied to wider elements. Called by the native layer.
+	 *
+	 * @param array The byte[], short[] or int[] array.
+	 */
+	static void markUnsigned(Object array) {
+		unsignedArrays.put(array, Boolean.TRUE);
+	}
+
+	/**
+	 * Reads an element of an array of primitives as a number, zero-extending the elements of
+	 * arrays received from unsigned typed arrays.
+	 *
+	 * @param array The array of primitives.
+	 * @param unsigned Whether the array was received from an unsigned typed array.
+	 * @param index The index of the element.
+	 * @return The element.
+	 */
+	private static Object getElement(Object array, boolean unsigned, int index) {
+		if (unsigned) {
+			if (array instanceof byte[]) {
+				return ((byte[]) array)[index] & 0xFF;
+			} else if (array instanceof short[]) {
+				return ((short[]) array)[index] & 0xFFFF;
+			} else if (array instanceof int[]) {
+				return ((int[]) array)[index] & 0xFFFFFFFFL;
+			}
+		}
+		return Array.get(array, index);
+	}
+
+	/**
+	 * Boxes the elements of the arrays of numbers and booleans, which are received from JavaScript
+	 * as double[] and boolean[]. Other values are returned as they are.
+	 *
+	 * @param value The value received from JavaScript.
+	 * @return The array of boxed elements, or the value itself.
+	 */
+	static Object box(Object value) {
+		return box(value, Object.class);
+	}
+
+	/**
+	 * Boxes the elements of the arrays of numbers and booleans, which are received from JavaScript
+	 * as double[] and boolean[], into an array of a given component type when it can hold them
+	 * (or into an Object[] otherwise). Other values are returned as they are.
+	 *
+	 * @param value The value received from JavaScript.
+	 * @param componentType The component type of the array the elements are boxed into.
+	 * @return The array of boxed elements, or the value itself.
+	 */
+	static Object box(Object value, Class<?> componentType) {
+		Class<?> elementType;
+		if (value instanceof double[]) {
+			elementType = Double.class;
+		} else if (value instanceof boolean[]) {
+			elementType = Boolean.class;
+		} else {
+			return value;
+		}
+
+		int length = Array.getLength(value);
+		Object[] boxedArray = (Object[]) Array.newInstance(
+				componentType.isAssignableFrom(elementType) ? componentType : Object.class, length);
+		for (int i = 0; i < length; i++) {
+			boxedArray[i] = Array.get(value, i);
+		}
+		return boxedArray;
+	}
+
+	/**
+	 * Creates the converter of a method or constructor parameter. Elements of array parameters are
+	 * validated against the component type of the array.
+	 *
+	 * @param type The parameter type.
+	 * @return The converter.
+	 */
+	static ParameterConverter forParameter(Class<?> type) {
+		if (type.isArray() && !type.getComponentType().isPrimitive()) {
+			return new ArrayConverter(type);
+		}
+		return forProperty(type);
+	}
+
+	/**
+	 * Creates the converter of a property.
+	 *
+	 * @param type The property type.
+	 * @return The converter.
+	 */
+	static ParameterConverter forProperty(Class<?> type) {
+		// Numbers must be converted, since the JavaScript returns always Double
+		if (type.isAssignableFrom(Double.class)) {
+			return type == Double.class ? NumberConverter.DOUBLE : new ObjectConverter(type);
+		} else if (type == double.class) {
+			return NumberConverter.DOUBLE;
+		} else if (type == int.class || type == Integer.class) {
+			return NumberConverter.INT;
+		} else if (type == float.class || type == Float.class) {
+			return NumberConverter.FLOAT;
+		} else if (type == byte.class || type == Byte.class) {
+			return NumberConverter.BYTE;
+		} else if (type == short.class || type == Short.class) {
+			return NumberConverter.SHORT;
+		} else if (type == long.class || type == Long.class) {
+			return NumberConverter.LONG;
+		} else if (type == boolean.class || type == Boolean.class) {
+			return BooleanConverter.INSTANCE;
+		} else if (type.isArray() && type.getComponentType().isPrimitive()) {
+			return new PrimitiveArrayConverter(type);
+		} else if (type == ByteBuffer.class) {
+			return ByteBufferConverter.INSTANCE;
+		} else if (type.isArray()) {
+			return new BoxedArrayConverter(type);
+		}
+
+		// Strings, dates, mapped objects and other types are only validated
+		return new InstanceConverter(type);
+	}
+
+	/**
+	 * Converts numbers to a primitive numeric type (or its wrapper).
+	 */
+	private static abstract class NumberConverter extends ParameterConverter {
+
+		static final NumberConverter DOUBLE = new NumberConverter() {
+			@Override
+			Object convertPrimitive(double value) {
+				return value;
+			}
+		};
+
+		static final NumberConverter INT = new NumberConverter() {
+			@Override
+			Object convertPrimitive(double value) {
+				return (int) value;
+			}
+		};
+
+		static final NumberConverter FLOAT = new NumberConverter() {
+			@Override
+			Object convertPrimitive(double value) {
+				return (float) value;
+			}
+		};
+
+		static final NumberConverter BYTE = new NumberConverter() {
+			@Override
+			Object convertPrimitive(double value) {
+				return (byte) value;
+			}
+		};
+
+		static final NumberConverter SHORT = new NumberConverter() {
+			@Override
+			Object convertPrimitive(double value) {
+				return (short) value;
+			}
+		};
+
+		static final NumberConverter LONG = new NumberConverter() {
+			@Override
+			Object convertPrimitive(double value) {
+				return (long) value;
+			}
+		};
+
+		/**
+		 * Converts a number to the parameter type, with the narrowing conversions of Java casts.
+		 */
+		@Override
+		abstract Object convertPrimitive(double value);
+
+		@Override
+		Object convert(Object value) {
+			return value instanceof Number ? convertPrimitive(((Number) value).doubleValue()) : INVALID;
+		}
+	}
+
+	/**
+	 * Converts booleans (the JavaScript layer returns always Boolean objects).
+	 */
+	private static final class BooleanConverter extends ParameterConverter {
+
+		static final BooleanConverter INSTANCE = new BooleanConverter();
+
+		@Override
+		Object convert(Object value) {
+			return value instanceof Boolean ? ((Boolean) value).booleanValue() : INVALID;
+		}
+
+		@Override
+		Object convertPrimitive(double value) {
+			return value != 0;
+		}
+	}
+
+	/**
+	 * Converts values to general types which also accept numbers (Object, Number, etc.).
+	 * Numbers are always converted to Double.
+	 */
+	private static final class ObjectConverter extends ParameterConverter {
+
+		private final Class<?> type;
+
+		ObjectConverter(Class<?> type) {
+			this.type = type;
+		}
+
+		@Override
+		Object convert(Object value) {
+			if (value instanceof Number) {
+				return ((Number) value).doubleValue();
+			}
+			return type.isInstance(value) ? value : INVALID;
+		}
+	}
+
+	/**
+	 * Validates values which are not converted.
+	 */
+	private static final class InstanceConverter extends ParameterConverter {
+
+		private final Class<?> type;
+
+		InstanceConverter(Class<?> type) {
+			this.type = type;
+		}
+
+		@Override
+		Object convert(Object value) {
+			return type.isInstance(value) ? value : INVALID;
+		}
+	}
+
+	/**
+	 * Validates arrays of objects, boxing the arrays of numbers and booleans received from
+	 * JavaScript into the component type of the property (e.g. a Double[]). The elements of other
+	 * arrays are not checked, only the type of the array.
+	 */
+	private static final class BoxedArrayConverter extends ParameterConverter {
+
+		private final Class<?> type;
+
+		private final Class<?> componentType;
+
+		BoxedArrayConverter(Class<?> type) {
+			this.type = type;
+			this.componentType = type.getComponentType();
+		}
+
+		@Override
+		Object convert(Object value) {
+			value = box(value, componentType);
+			return type.isInstance(value) ? value : INVALID;
+		}
+	}
+
+	/**
+	 * Validates arrays, checking if all elements are instances of the component type of the
+	 * parameter. Arrays of other types are copied to an array of the parameter type, including the
+	 * arrays of numbers and booleans, which are received from JavaScript as double[] and boolean[].
+	 */
+	private static final class ArrayConverter extends ParameterConverter {
+
+		private final Class<?> type;
+
+		private final Class<?> componentType;
+
+		ArrayConverter(Class<?> type) {
+			this.type = type;
+			this.componentType = type.getComponentType();
+		}
+
+		@Override
+		Object convert(Object value) {
+			value = box(value, componentType);
+			if (!(value instanceof Object[])) {
+				return INVALID;
+			}
+
+			Object[] valueArray = (Object[]) value;
+			for (Object element : valueArray) {
+				if (element != null && !componentType.isInstance(element)) {
+					return INVALID;
+				}
+			}
+
+			if (type.isInstance(value)) {
+				return value;
+			}
+
+			Object typedArray = Array.newInstance(componentType, valueArray.length);
+			System.arraycopy(valueArray, 0, typedArray, 0, valueArray.length);
+			return typedArray;
+		}
+	}
+
+	/**
+	 * Converts arrays of primitives. Typed arrays of the same element type are received as they
+	 * are; other arrays of numbers (or booleans) are copied element by element. Elements of
+	 * unsigned typed arrays keep their values when they are copied to wider elements (e.g. a
+	 * Uint8Array holding 255 is copied to an int[] holding 255, not -1).
+	 */
+	private static final class PrimitiveArrayConverter extends ParameterConverter {
+
+		private final Class<?> type;
+
+		private final Class<?> componentType;
+
+		private final ParameterConverter componentConverter;
+
+		PrimitiveArrayConverter(Class<?> type) {
+			this.type = type;
+			this.componentType = type.getComponentType();
+			this.componentConverter = forProperty(componentType);
+		}
+
+		@Override
+		Object convert(Object value) {
+			if (type.isInstance(value)) {
+				return value;
+			} else if (!value.getClass().isArray()) {
+				return INVALID;
+			}
+
+			int length = Array.getLength(value);
+			boolean unsigned = unsignedArrays.containsKey(value);
+			Object typedArray = Array.newInstance(componentType, length);
+			for (int i = 0; i < length; i++) {
+				Object element = getElement(value, unsigned, i);
+				Object converted = element == null ? INVALID : componentConverter.convert(element);
+				if (converted == INVALID) {
+					return INVALID;
+				}
+				Array.set(typedArray, i, converted);
+			}
+			return typedArray;
+		}
+	}
+
+	/**
+	 * Converts byte arrays to byte buffers. Direct buffers passed to JavaScript share their memory
+	 * with a Uint8Array, but typed arrays received from JavaScript are always copied, so they are
+	 * wrapped in a heap buffer.
+	 */
+	private static final class ByteBufferConverter extends ParameterConverter {
+
+		static final ByteBufferConverter INSTANCE = new ByteBufferConverter();
+
+		@Override
+		Object convert(Object value) {
+			if (value instanceof byte[]) {
+				return ByteBuffer.wrap((byte[]) value);
+			}
+			return value instanceof ByteBuffer ? value : INVALID;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package com.arecmetafora.jsdroid;
+
+/**
+ * Gets and sets a mapped property of a Java object.
+ */
+interface PropertyAccessor {
+
+	/**
+	 * Gets the value of the property.
+	 *
+	 * @param obj The object which its property is being gotten.
+	 * @return The value of the property.
+	 */
+	Object get(Object obj) throws Exception;
+
+	/**
+	 * Sets the value of the property.
+	 *
+	 * @param obj The object which its property is being set.
+	 * @param value The resolved value of the property.
+	 */
+	void set(Object obj, Object value) throws Exception;
+
+	/**
+	 * Gets the value of a numeric primitive property, without boxing it.
+	 *
+	 * @param obj The object which its property is being gotten.
+	 * @return The value of the property.
+	 */
+	double getNumber(Object obj) throws Exception;
+
+	/**
+	 * Sets the value of a numeric primitive property, without boxing it.
+	 *
+	 * @param obj The object which its property is being set.
+	 * @param value The value received from JavaScript, converted to the property type.
+	 */
+	void setNumber(Object obj, double value) throws Exception;
+
+	/**
+	 * Gets the value of a boolean primitive property, without boxing it.
+	 *
+	 * @param obj The object which its property is being gotten.
+	 * @return The value of the property.
+	 */
+	boolean getBoolean(Object obj) throws Exception;
+
+	/**
+	 * Sets the value of a boolean primitive property, without boxing it.
+	 *
+	 * @param obj The object which its property is being set.
+	 * @param value The value received from JavaScript.
+	 */
+	void setBoolean(Object obj, boolean value) throws Exception;
+}
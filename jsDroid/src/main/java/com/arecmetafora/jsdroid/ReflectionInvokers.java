@@ -0,0 +1,129 @@
+package com.arecmetafora.jsdroid;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Invokers which call mapped members by reflection. This is the default backend, used for all
+ * members not covered by a {@link JavaScriptDispatcher}.
+ */
+final class ReflectionInvokers {
+
+	/**
+	 * Private constructor.
+	 */
+	private ReflectionInvokers() {
+	}
+
+	/**
+	 * Creates an invoker for a reflected method.
+	 *
+	 * @param method The reflected method.
+	 * @return The method invoker.
+	 */
+	static MethodInvoker forMethod(final Method method) {
+		suppressAccessChecks(method);
+		return new MethodInvoker() {
+			@Override
+			public Object invoke(Object obj, Object[] args) throws Exception {
+				return method.invoke(obj, args);
+			}
+		};
+	}
+
+	/**
+	 * Creates an accessor for a reflected field.
+	 *
+	 * @param field The reflected field.
+	 * @return The property accessor.
+	 */
+	static PropertyAccessor forField(final Field field) {
+		suppressAccessChecks(field);
+		return new PropertyAccessor() {
+			@Override
+			public Object get(Object obj) throws Exception {
+				return field.get(obj);
+			}
+
+			@Override
+			public void set(Object obj, Object value) throws Exception {
+				field.set(obj, value);
+			}
+
+			@Override
+			public double getNumber(Object obj) throws Exception {
+				return field.getDouble(obj);
+			}
+
+			@Override
+			public void setNumber(Object obj, double value) throws Exception {
+				// Same narrowing conversions of the boxed path (see ParameterConverter)
+				Class<?> type = field.getType();
+				if (type == double.class) {
+					field.setDouble(obj, value);
+				} else if (type == int.class) {
+					field.setInt(obj, (int) value);
+				} else if (type == float.class) {
+					field.setFloat(obj, (float) value);
+				} else if (type == byte.class) {
+					field.setByte(obj, (byte) value);
+				} else if (type == short.class) {
+					field.setShort(obj, (short) value);
+				} else {
+					field.setLong(obj, (long) value);
+				}
+			}
+
+			@Override
+			public boolean getBoolean(Object obj) throws Exception {
+				return field.getBoolean(obj);
+			}
+
+			@Override
+			public void setBoolean(Object obj, boolean value) throws Exception {
+				field.setBoolean(obj, value);
+			}
+		};
+	}
+
+	/**
+	 * Creates an invoker for a reflected constructor.
+	 *
+	 * @param constructor The reflected constructor.
+	 * @return The constructor invoker.
+	 */
+	static ConstructorInvoker forConstructor(final Constructor<?> constructor) {
+		suppressAccessChecks(constructor);
+		return new ConstructorInvoker() {
+			@Override
+			public Object newInstance(Object[] args) throws Exception {
+				return constructor.newInstance(args);
+			}
+		};
+	}
+
+	/**
+	 * Disables the access checks of a reflected member, which are otherwise repeated at every call.
+	 * Only public members of public classes are changed, since they pass the checks anyway: other
+	 * members keep being checked, and final fields keep rejecting writes.
+	 *
+	 * @param member The reflected member.
+	 */
+	private static <T extends AccessibleObject & Member> void suppressAccessChecks(T member) {
+		if(!Modifier.isPublic(member.getModifiers())
+				|| !Modifier.isPublic(member.getDeclaringClass().getModifiers())
+				|| member instanceof Field && Modifier.isFinal(member.getModifiers())) {
+			return;
+		}
+
+		try {
+			member.setAccessible(true);
+		} catch (SecurityException ex) {
+			// Calls keep being checked
+		}
+	}
+}
@@ -0,0 +1,249 @@
+package com.arecmetafora.jsdroid;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of compiled scripts and functions, bounded by the number of bytes they
+ * hold. Each script found in the cache is retained for its caller, and evicted scripts are
+ * released once their callers released them.
+ */
+public final class ScriptCache {
+
+	/**
+	 * Default maximum number of bytes held by the cached scripts.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024 * 1024;
+
+	/**
+	 * Compiled scripts by their key, from the least to the most recently used.
+	 */
+	private final LinkedHashMap<Key, CachedScript> scripts = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Number of bytes held by the cached scripts.
+	 */
+	private int size;
+
+	/**
+	 * Maximum number of bytes held by the cached scripts.
+	 */
+	private int maxSize;
+
+	/**
+	 * Number of times a script was found in the cache.
+	 */
+	private int hitCount;
+
+	/**
+	 * Number of times a script was not found in the cache.
+	 */
+	private int missCount;
+
+	/**
+	 * Number of scripts evicted from the cache.
+	 */
+	private int evictionCount;
+
+	/**
+	 * Creates a script cache.
+	 *
+	 * @param maxSize Maximum number of bytes held by the cached scripts.
+	 */
+	ScriptCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Gets a compiled script.
+	 *
+	 * @param script The source of the script.
+	 * @param fileName The name of the file which the script was retrieved.
+	 * @return The compiled script, or null if it is not cached.
+	 */
+	CompiledScript getScript(String script, String fileName) {
+		return (CompiledScript) get(new Key(script, fileName, null));
+	}
+
+	/**
+	 * Caches a compiled script.
+	 *
+	 * @param script The source of the script.
+	 * @param fileName The name of the file which the script was retrieved.
+	 * @param compiledScript The compiled script.
+	 */
+	void putScript(String script, String fileName, CompiledScript compiledScript) {
+		put(new Key(script, fileName, null), compiledScript);
+	}
+
+	/**
+	 * Gets a compiled function.
+	 *
+	 * @param script The body of the function.
+	 * @param paramsNames The name of function arguments.
+	 * @return The compiled function, or null if it is not cached.
+	 */
+	JavaScriptFunction getFunction(String script, String[] paramsNames) {
+		return (JavaScriptFunction) get(new Key(script, null, paramsNames));
+	}
+
+	/**
+	 * Caches a compiled function.
+	 *
+	 * @param script The body of the function.
+	 * @param paramsNames The name of function arguments.
+	 * @param function The compiled function.
+	 */
+	void putFunction(String script, String[] paramsNames, JavaScriptFunction function) {
+		put(new Key(script, null, paramsNames), function);
+	}
+
+	/**
+	 * Gets a cached script, retaining it for the caller. The script is retained while the cache
+	 * is locked, so that it is not evicted and released meanwhile.
+	 *
+	 * @param key The key of the script.
+	 * @return The cached script, or null if it is not cached.
+	 */
+	private synchronized CachedScript get(Key key) {
+		CachedScript cachedScript = this.scripts.get(key);
+		if(cachedScript != null) {
+			cachedScript.retain();
+			this.hitCount++;
+		} else {
+			this.missCount++;
+		}
+		return cachedScript;
+	}
+
+	/**
+	 * Caches a script. Scripts larger than the cache are not cached.
+	 *
+	 * @param key The key of the script.
+	 * @param cachedScript The compiled script.
+	 */
+	private synchronized void put(Key key, CachedScript cachedScript) {
+		if(cachedScript.getSize() > this.maxSize) {
+			return;
+		}
+
+		CachedScript previous = this.scripts.put(key, cachedScript);
+		if(previous != null) {
+			this.size -= previous.getSize();
+			if(previous != cachedScript) {
+				previous.setCached(false);
+			}
+		}
+		this.size += cachedScript.getSize();
+		cachedScript.setCached(true);
+
+		trimToSize(this.maxSize);
+	}
+
+	/**
+	 * Evicts the least recently used scripts until the cache fits in a given size.
+	 *
+	 * @param maxSize The number of bytes the cache must fit.
+	 */
+	private void trimToSize(int maxSize) {
+		Iterator<Map.Entry<Key, CachedScript>> iterator = this.scripts.entrySet().iterator();
+		while(this.size > maxSize && iterator.hasNext()) {
+			CachedScript evicted = iterator.next().getValue();
+			this.size -= evicted.getSize();
+			iterator.remove();
+			evicted.setCached(false);
+			this.evictionCount++;
+		}
+	}
+
+	/**
+	 * Changes the maximum number of bytes held by the cached scripts, evicting scripts if needed.
+	 *
+	 * @param maxSize The new maximum size, in bytes.
+	 */
+	public synchronized void resize(int maxSize) {
+		this.maxSize = maxSize;
+		trimToSize(maxSize);
+	}
+
+	/**
+	 * Evicts all cached scripts.
+	 */
+	public synchronized void evictAll() {
+		trimToSize(-1);
+	}
+
+	/**
+	 * @return The number of bytes held by the cached scripts.
+	 */
+	public synchronized int size() {
+		return this.size;
+	}
+
+	/**
+	 * @return The maximum number of bytes held by the cached scripts.
+	 */
+	public synchronized int maxSize() {
+		return this.maxSize;
+	}
+
+	/**
+	 * @return The number of times a script was found in the cache.
+	 */
+	public synchronized int hitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * @return The number of times a script was not found in the cache.
+	 */
+	public synchronized int missCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * @return The number of scripts evicted from the cache.
+	 */
+	public synchronized int evictionCount() {
+		return this.evictionCount;
+	}
+
+	/**
+	 * Identifies a script by its source and by what is given to the engine along with it: the
+	 * name of its file, for scripts, or the name of the arguments, for functions.
+	 */
+	private static final class Key {
+
+		private final String script;
+
+		private final String fileName;
+
+		private final String[] paramsNames;
+
+		Key(String script, String fileName, String[] paramsNames) {
+			this.script = script;
+			this.fileName = fileName;
+			this.paramsNames = paramsNames;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(!(o instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) o;
+			return this.script.equals(key.script)
+					&& (this.fileName == null ? key.fileName == null : this.fileName.equals(key.fileName))
+					&& Arrays.equals(this.paramsNames, key.paramsNames);
+		}
+
+		@Override
+		public int hashCode() {
+			int hash = this.script.hashCode();
+			hash = 31 * hash + (this.fileName != null ? this.fileName.hashCode() : 0);
+			return 31 * hash + Arrays.hashCode(this.paramsNames);
+		}
+	}
+}
@@ -0,0 +1,437 @@
+package com.arecmetafora.jsdroid;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent cache of library scripts, so that warm starts of the application load them faster.
+ *
+ * The JavaScriptCore API does not expose its bytecode, so the cache keeps the closest form it
+ * allows: the script as the UTF-16 characters handed to the engine, whose syntax has already been
+ * checked. Scripts are identified by their file name and a version of their content, so a cached
+ * script is found without its source: warm starts don't read nor decode the source (e.g. from the
+ * assets), and don't keep it in memory. The version is either given by the application, and must
+ * change whenever the content of the script changes (like the last update time of the installed
+ * package, or a hash of the script computed when it is built), or made of the size and the last
+ * modification time of a script file. Cached scripts are read
+ * through a memory mapped file and evaluated without the syntax check made by
+ * {@link JavaScriptDroid#evaluateScript(String)}, which parses the whole script once more. The
+ * engine still parses the script when it is evaluated.
+ *
+ * A manifest in the cache directory records the version of each cached script. New versions are
+ * appended to it, and it is rewritten once most of its lines are outdated. The directory
+ * must be private to the application (like {@code Context.getCodeCacheDir()}), since cached
+ * scripts are evaluated without being checked.
+ */
+public final class ScriptDiskCache {
+
+	/**
+	 * Name of the manifest file.
+	 */
+	private static final String MANIFEST_FILE = "manifest";
+
+	/**
+	 * Extension of the cached scripts.
+	 */
+	private static final String SCRIPT_EXTENSION = ".utf16";
+
+	/**
+	 * The directory of the cache.
+	 */
+	private final File directory;
+
+	/**
+	 * Versions of the cached scripts, by their file names.
+	 */
+	private final LinkedHashMap<String, String> manifest = new LinkedHashMap<>();
+
+	/**
+	 * Number of lines of the manifest file, including the outdated ones.
+	 */
+	private int manifestLines;
+
+	/**
+	 * Number of times a script was found in the cache.
+	 */
+	private int hitCount;
+
+	/**
+	 * Number of times a script was not found in the cache.
+	 */
+	private int missCount;
+
+	/**
+	 * Opens a script cache, reading its manifest.
+	 *
+	 * @param directory The directory of the cache, private to the application.
+	 * @throws IOException If the directory could not be created.
+	 */
+	public ScriptDiskCache(File directory) throws IOException {
+		if(!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Could not create the cache directory " + directory);
+		}
+		this.directory = directory;
+		readManifest();
+	}
+
+	/**
+	 * Evaluates a script in the global context, reading it from the cache if it was cached.
+	 *
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param version The version of the script.
+	 * @param source The reader of the script, only read if the script is not cached.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public Object evaluateScript(String fileName, String version, Reader source)
+			throws JavaScriptException, IOException {
+		return evaluateScript(fileName, version, source,
+				JavaScriptDroid.getJsGlobalContexPointer());
+	}
+
+	/**
+	 * Evaluates a script file in the global context, reading it from the cache if it was cached.
+	 *
+	 * @param file The script file, in UTF-8.
+	 *
+	 * @return The result of the evaluation.
+	 */
+	public Object evaluateScript(File file) throws JavaScriptException, IOException {
+		return evaluateScript(file, JavaScriptDroid.getJsGlobalContexPointer());
+	}
+
+	/**
+	 * Evaluates a script file, reading it from the cache if this version of it was cached. The
+	 * version of the file is made of its size and its last modification time, so the file is
+	 * only read if it is not cached, or it changed since it was cached.
+	 *
+	 * @param file The script file, in UTF-8.
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The result of the evaluation.
+	 * @throws IOException If the script is not cached and the file could not be read.
+	 */
+	public Object evaluateScript(File file, int jsContextPointer)
+			throws JavaScriptException, IOException {
+		String version = file.length() + "@" + file.lastModified();
+		LazyFileReader source = new LazyFileReader(file);
+		try {
+			return evaluateScript(file.getAbsolutePath(), version, source, jsContextPointer);
+		} finally {
+			source.close();
+		}
+	}
+
+	/**
+	 * Evaluates a script, reading it from the cache if this version of it was cached. Scripts
+	 * which are not cached are read from their source and evaluated as usual, and cached if
+	 * their evaluation succeeds, replacing their previous version. Failing to read or write the
+	 * cache never fails the evaluation. The source is read to its end only if the script is not
+	 * cached, and is never closed.
+	 *
+	 * @param fileName The name of the file which this script was retrieved.
+	 * @param version The version of the script, which must change whenever its content changes.
+	 * @param source The reader of the script, only read if the script is not cached.
+	 * @param jsContextPointer The context which the script will be executed.
+	 *
+	 * @return The result of the evaluation.
+	 * @throws IOException If the script is not cached and its source could not be read.
+	 */
+	public Object evaluateScript(String fileName, String version, Reader source,
+			int jsContextPointer) throws JavaScriptException, IOException {
+		MappedByteBuffer buffer = null;
+		synchronized (this) {
+			if(version.equals(this.manifest.get(fileName))) {
+				buffer = map(fileName);
+			}
+			if(buffer != null) {
+				this.hitCount++;
+			} else {
+				this.missCount++;
+			}
+		}
+
+		if(buffer != null) {
+			TimedEvaluation evaluation = TimedEvaluation.start(jsContextPointer,
+					JavaScriptDroid.getExecutionTimeLimit(jsContextPointer));
+			try {
+				return JavaScriptDroid.evaluateScriptBuffer(buffer, buffer.capacity() / 2,
+						fileName, jsContextPointer, TimedEvaluation.getTimeLimit(evaluation));
+			} finally {
+				TimedEvaluation.finish(evaluation);
+			}
+		}
+
+		StringBuilder script = new StringBuilder();
+		char[] chars = new char[8192];
+		int read;
+		while((read = source.read(chars)) != -1) {
+			script.append(chars, 0, read);
+		}
+
+		Object result = JavaScriptDroid.evaluateScript(script.toString(), fileName,
+				jsContextPointer);
+		put(fileName, version, script);
+		return result;
+	}
+
+	/**
+	 * Maps a cached script to memory.
+	 *
+	 * @param fileName The name of the file which the script was retrieved.
+	 * @return The characters of the script, or null if they could not be read.
+	 */
+	private MappedByteBuffer map(String fileName) {
+		try {
+			RandomAccessFile file = new RandomAccessFile(getScriptFile(fileName), "r");
+			try {
+				if(file.length() % 2 != 0) {
+					throw new IOException("The cached script " + fileName + " is corrupted");
+				}
+				MappedByteBuffer buffer = file.getChannel().map(
+						FileChannel.MapMode.READ_ONLY, 0, file.length());
+				buffer.order(ByteOrder.nativeOrder());
+				return buffer;
+			} finally {
+				file.close();
+			}
+		} catch (IOException ex) {
+			Utils.log(ex);
+			this.manifest.remove(fileName);
+			return null;
+		}
+	}
+
+	/**
+	 * Caches a version of a script, replacing its previous version.
+	 *
+	 * @param fileName The name of the file which the script was retrieved.
+	 * @param version The version of the script.
+	 * @param script The script to be cached.
+	 */
+	private synchronized void put(String fileName, String version, CharSequence script) {
+		if(version.equals(this.manifest.get(fileName))) {
+			return;
+		}
+
+		try {
+			ByteBuffer buffer = ByteBuffer.allocate(2 * script.length())
+					.order(ByteOrder.nativeOrder());
+			buffer.asCharBuffer().put(script.toString());
+
+			// Written to a temporary file first, so that a partial script is never read
+			File scriptFile = getScriptFile(fileName);
+			File temporaryFile = new File(this.directory, scriptFile.getName() + ".tmp");
+			FileOutputStream output = new FileOutputStream(temporaryFile);
+			try {
+				output.getChannel().write(buffer);
+				output.getFD().sync();
+			} finally {
+				output.close();
+			}
+			if(!temporaryFile.renameTo(scriptFile)) {
+				throw new IOException("Could not write the cached script " + fileName);
+			}
+
+			// Later lines of the manifest replace the previous versions
+			this.manifest.put(fileName, version);
+			if(this.manifestLines >= 2 * this.manifest.size()) {
+				writeManifest();
+			} else {
+				Writer writer = new FileWriter(new File(this.directory, MANIFEST_FILE), true);
+				try {
+					writer.write(version + "\t" + fileName + "\n");
+				} finally {
+					writer.close();
+				}
+				this.manifestLines++;
+			}
+		} catch (IOException ex) {
+			Utils.log(ex);
+		}
+	}
+
+	/**
+	 * Rewrites the manifest with the current version of each cached script only.
+	 *
+	 * @throws IOException If the manifest could not be written.
+	 */
+	private void writeManifest() throws IOException {
+		// Written to a temporary file first, so that the manifest is never partially written
+		File manifestFile = new File(this.directory, MANIFEST_FILE);
+		File temporaryFile = new File(this.directory, MANIFEST_FILE + ".tmp");
+		Writer writer = new FileWriter(temporaryFile);
+		try {
+			for(Map.Entry<String, String> entry : this.manifest.entrySet()) {
+				writer.write(entry.getValue() + "\t" + entry.getKey() + "\n");
+			}
+		} finally {
+			writer.close();
+		}
+		if(!temporaryFile.renameTo(manifestFile)) {
+			throw new IOException("Could not write the manifest of the script cache");
+		}
+		this.manifestLines = this.manifest.size();
+	}
+
+	/**
+	 * Reads the manifest, skipping the scripts which are no longer cached. The manifest is
+	 * rewritten if most of its lines are outdated.
+	 */
+	private void readManifest() {
+		File manifestFile = new File(this.directory, MANIFEST_FILE);
+		if(!manifestFile.isFile()) {
+			return;
+		}
+
+		try {
+			BufferedReader reader = new BufferedReader(new FileReader(manifestFile));
+			try {
+				String line;
+				while((line = reader.readLine()) != null) {
+					this.manifestLines++;
+					int separator = line.indexOf('\t');
+					if(separator > 0 && getScriptFile(line.substring(separator + 1)).isFile()) {
+						this.manifest.put(line.substring(separator + 1),
+								line.substring(0, separator));
+					}
+				}
+			} finally {
+				reader.close();
+			}
+			if(this.manifestLines > 2 * this.manifest.size()) {
+				writeManifest();
+			}
+		} catch (IOException ex) {
+			Utils.log(ex);
+		}
+	}
+
+	/**
+	 * Gets the file of a cached script, named after a hash of the name of the script, so that
+	 * any name can be cached.
+	 *
+	 * @param fileName The name of the file which the script was retrieved.
+	 * @return The file of the script.
+	 */
+	private File getScriptFile(String fileName) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			byte[] hash = digest.digest(fileName.getBytes("UTF-8"));
+
+			StringBuilder hex = new StringBuilder(2 * hash.length);
+			for(byte b : hash) {
+				hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+				hex.append(Character.forDigit(b & 0xF, 16));
+			}
+			return new File(this.directory, hex + SCRIPT_EXTENSION);
+		} catch (NoSuchAlgorithmException | IOException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+
+	/**
+	 * Removes all cached scripts.
+	 */
+	public synchronized void clear() {
+		for(String fileName : this.manifest.keySet()) {
+			getScriptFile(fileName).delete();
+		}
+		new File(this.directory, MANIFEST_FILE).delete();
+		this.manifest.clear();
+		this.manifestLines = 0;
+	}
+
+	/**
+	 * @return The names of the files of the cached scripts, in the order they were cached.
+	 */
+	public synchronized List<String> getFileNames() {
+		return new ArrayList<>(this.manifest.keySet());
+	}
+
+	/**
+	 * @return The number of cached scripts.
+	 */
+	public synchronized int size() {
+		return this.manifest.size();
+	}
+
+	/**
+	 * @return The number of times a script was found in the cache.
+	 */
+	public synchronized int hitCount() {
+		return this.hitCount;
+	}
+
+	/**
+	 * @return The number of times a script was not found in the cache.
+	 */
+	public synchronized int missCount() {
+		return this.missCount;
+	}
+
+	/**
+	 * @return The fraction of the evaluations which found their script in the cache.
+	 */
+	public synchronized double hitRate() {
+		int requests = this.hitCount + this.missCount;
+		return requests > 0 ? (double) this.hitCount / requests : 0;
+	}
+
+	/**
+	 * Reader of a script file, which only opens the file when it is first read.
+	 */
+	private static final class LazyFileReader extends Reader {
+
+		/**
+		 * The script file.
+		 */
+		private final File file;
+
+		/**
+		 * The reader of the file, or null if it was not read yet.
+		 */
+		private Reader reader;
+
+		/**
+		 * @param file The script file, in UTF-8.
+		 */
+		LazyFileReader(File file) {
+			this.file = file;
+		}
+
+		@Override
+		public int read(char[] buffer, int offset, int length) throws IOException {
+			if(this.reader == null) {
+				this.reader = new InputStreamReader(new FileInputStream(this.file), "UTF-8");
+			}
+			return this.reader.read(buffer, offset, length);
+		}
+
+		@Override
+		public void close() throws IOException {
+			if(this.reader != null) {
+				this.reader.close();
+			}
+		}
+	}
+}
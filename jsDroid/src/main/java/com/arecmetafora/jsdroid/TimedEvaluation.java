@@ -0,0 +1,117 @@
+package com.arecmetafora.jsdroid;
+
+import android.os.SystemClock;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An evaluation which execution time is limited, measured so that its usage of the limit is
+ * recorded in the {@link ExecutionTimeMetrics}.
+ *
+ * The watchdog of the JavaScript engine keeps one limit per context group, so each evaluation
+ * holds the lock of its group (see {@link JavaScriptDroid#getEvaluationLock(int)}) from the time
+ * its limit is armed until it is cleared: evaluations of other threads in the same group don't
+ * clear or replace it. Evaluations started while another evaluation is running on the same thread
+ * (by a Java method called from JavaScript) are not limited on their own, but share the limit of
+ * the outer evaluation.
+ */
+final class TimedEvaluation {
+
+	/**
+	 * The limited evaluation running on each thread.
+	 */
+	private static final ThreadLocal<TimedEvaluation> currentEvaluation = new ThreadLocal<>();
+
+	/**
+	 * The lock of the group of the context which this evaluation runs in.
+	 */
+	private final ReentrantLock groupLock;
+
+	/**
+	 * The execution time limit of this evaluation, in milliseconds, or 0 if it is not limited on
+	 * its own.
+	 */
+	private final long timeLimit;
+
+	/**
+	 * The CPU time of the thread when this evaluation was started, in milliseconds.
+	 */
+	private final long startTime;
+
+	/**
+	 * Whether this evaluation was terminated by its limit.
+	 */
+	private boolean timedOut;
+
+	/**
+	 * Creates an evaluation.
+	 *
+	 * @param groupLock The lock of the group of the context which the evaluation runs in.
+	 * @param timeLimit The execution time limit of this evaluation, in milliseconds, or 0.
+	 */
+	private TimedEvaluation(ReentrantLock groupLock, long timeLimit) {
+		this.groupLock = groupLock;
+		this.timeLimit = timeLimit;
+		this.startTime = timeLimit > 0 ? SystemClock.currentThreadTimeMillis() : 0;
+	}
+
+	/**
+	 * Starts an evaluation, waiting for the evaluations of other threads in the group of its
+	 * context. It must be finished by {@link #finish(TimedEvaluation)}.
+	 *
+	 * @param jsContextPointer The context which the script will be executed.
+	 * @param timeLimit The execution time limit of the evaluation, in milliseconds, or 0 if it has
+	 * no limit.
+	 * @return The started evaluation.
+	 */
+	static TimedEvaluation start(int jsContextPointer, long timeLimit) {
+		ReentrantLock groupLock = JavaScriptDroid.getEvaluationLock(jsContextPointer);
+		groupLock.lock();
+
+		boolean limited = timeLimit > 0 && currentEvaluation.get() == null;
+		TimedEvaluation evaluation = new TimedEvaluation(groupLock, limited ? timeLimit : 0);
+		if(limited) {
+			currentEvaluation.set(evaluation);
+		}
+		return evaluation;
+	}
+
+	/**
+	 * Gets the time limit to be given to the JavaScript engine.
+	 *
+	 * @param evaluation The started evaluation.
+	 * @return The execution time limit of the evaluation, in milliseconds, or 0 if it is not
+	 * limited on its own.
+	 */
+	static long getTimeLimit(TimedEvaluation evaluation) {
+		return evaluation.timeLimit;
+	}
+
+	/**
+	 * Marks the evaluation running on the current thread as terminated by its limit.
+	 */
+	static void timedOut() {
+		TimedEvaluation evaluation = currentEvaluation.get();
+		if(evaluation != null) {
+			evaluation.timedOut = true;
+		}
+	}
+
+	/**
+	 * Finishes an evaluation, recording its usage of the limit and releasing its group.
+	 *
+	 * @param evaluation The started evaluation.
+	 */
+	static void finish(TimedEvaluation evaluation) {
+		try {
+			if(evaluation.timeLimit > 0) {
+				currentEvaluation.remove();
+				JavaScriptDroid.getExecutionTimeMetrics().record(
+						SystemClock.currentThreadTimeMillis() - evaluation.startTime,
+						evaluation.timeLimit, evaluation.timedOut);
+			}
+		} finally {
+			evaluation.groupLock.unlock();
+		}
+	}
+}
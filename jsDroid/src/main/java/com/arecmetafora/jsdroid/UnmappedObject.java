@@ -1,14 +1,13 @@
 package com.arecmetafora.jsdroid;
 
 /**
- * This class is used to instantiate objects which is not mapped, but need to be passed as
- * argument in a callback.
+ * This class was used to instantiate objects which is not mapped, but need to be converted to a
+ * native Java value.
  *
- * For example, when executing the code <code>new Numeric().value = new MyBllObj()</code>,
- * the {@link JavaScriptCallback#callbackSetProperty(int, Object, String, Object)} method
- * must be called passing a valid instance so the callback can perform
- * the type validations and thrown the invalid type error.
+ * @deprecated Plain JavaScript objects are converted to a {@link java.util.Map} (or received by
+ * callbacks as a {@link JSObjectView}), so instances of this class are no longer created.
  */
+@Deprecated
 public final class UnmappedObject {
 
-}
\ No newline at end of file
+}
@@ -5,7 +5,6 @@ import android.util.SparseArray;
 import com.arecmetafora.jsdroid.JavaScriptException;
 import com.arecmetafora.jsdroid.JavaScriptDroid;
 import com.arecmetafora.jsdroid.annotation.JavaScriptMapped;
-import com.arecmetafora.jsdroid.UnmappedObject;
 import com.arecmetafora.jsdroid.Utils;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -17,6 +16,7 @@ import java.util.Comparator;
 import java.util.GregorianCalendar;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -151,9 +151,7 @@ public final class Debugger implements SocketClient.Listener {
 
 		try {
 
-			Object result = evaluateScript(thread.getId(), expression);
-			String evaluationResult = getVariableDescription(thread,
-					"(" + expression + ")", result);
+			String evaluationResult = getVariableDescription(thread, expression);
 
 			response = new EvaluateResponse(evaluationResult, true);
 
@@ -257,8 +255,7 @@ public final class Debugger implements SocketClient.Listener {
 
 			boolean isArgument = functionParams.contains(propertyName);
 
-			Object value = evaluateScript(thread.getId(), propertyName);
-			String propertyValue = getVariableDescription(thread, propertyName, value);
+			String propertyValue = getVariableDescription(thread, propertyName);
 
 			variables.add(new Variable(propertyName, propertyValue, isArgument));
 		}
@@ -267,28 +264,19 @@ public final class Debugger implements SocketClient.Listener {
 	}
 
 	/**
-	 * Gets a readable description of a evaluated variable.
+	 * Gets a readable description of a variable. Objects are described by the name of their
+	 * constructor, without converting their properties, so that large and cyclic objects can be
+	 * described too.
 	 *
 	 * @param thread The thread which the variable is being requested.
-	 * @param variable The name of the variable to be described.
-	 * @param value The variable value.
+	 * @param variable The name of the variable (or the expression) to be described.
 	 * @return The description of the object variable.
+	 * @throws JavaScriptException If the evaluation of the variable throws an error.
 	 */
-	private String getVariableDescription(ThreadInfo thread, String variable, Object value) {
-		if (value == null) {
-			return "<null>";
-		} else {
-			if(value instanceof UnmappedObject) {
-				try {
-					String script = variable + ".constructor.name";
-					value = evaluateScript(thread.getId(), script);
-					return String.format("[object %s]", value);
-				} catch (JavaScriptException ex) {
-					Utils.log(ex);
-				}
-			}
-			return getToStringDescription(value);
-		}
+	private String getVariableDescription(ThreadInfo thread, String variable)
+			throws JavaScriptException {
+		Object value = describeScript(thread.getId(), variable);
+		return value == null ? "<null>" : getToStringDescription(value);
 	}
 
 	/**
@@ -618,8 +606,7 @@ public final class Debugger implements SocketClient.Listener {
 					script = variableName + "." + propertyName;
 				}
 
-				Object value = evaluateScript(thread.getId(), script);
-				String propertyValue = getVariableDescription(thread, script, value);
+				String propertyValue = getVariableDescription(thread, script);
 
 				variables.add(new Variable(propertyName, propertyValue));
 			}
@@ -779,7 +766,7 @@ public final class Debugger implements SocketClient.Listener {
 	 */
 	private String getToStringDescription(Object object) {
 		String objectDescription;
-		if (object instanceof UnmappedObject) {
+		if (object instanceof Map) {
 			objectDescription = "JavaScript";
 		} else if (object instanceof Object[]) {
 			objectDescription = "Array";
@@ -905,6 +892,20 @@ public final class Debugger implements SocketClient.Listener {
 	@SuppressWarnings("JniMissingFunction")
 	private static native Object evaluateScript(int jsContextPointer, String script) throws JavaScriptException;
 
+	/**
+	 * Evaluates a JavaScript expression under the current debugging context, describing its result
+	 * without converting it: objects are described as "[object Name]", by the name of their
+	 * constructor. Mapped objects, dates and primitive values are returned as they are.
+	 *
+	 * @param jsContextPointer A pointer to the JavaScript context.
+	 * @param script The JavaScript to be evaluated.
+	 *
+	 * @return The description of the evaluation result.
+	 * @throws JavaScriptException If the evaluation throws an error.
+	 */
+	@SuppressWarnings("JniMissingFunction")
+	private static native Object describeScript(int jsContextPointer, String script) throws JavaScriptException;
+
 	/**
 	 * Gets the name of all properties from current context.
 	 *